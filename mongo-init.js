@@ -18,4 +18,8 @@ db.createCollection('franchises');
 db.createCollection('branches');
 db.createCollection('products');
 
+// Índices para el modo de persistencia normalizado
+db.branches.createIndex({ franchise_id: 1 }, { name: 'branches_franchise_id' });
+db.products.createIndex({ franchise_id: 1, branch_id: 1 }, { name: 'products_franchise_id_branch_id' });
+
 print('Base de datos franchise_db inicializada correctamente');
\ No newline at end of file
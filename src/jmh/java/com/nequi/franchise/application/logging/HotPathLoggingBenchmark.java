@@ -0,0 +1,102 @@
+package com.nequi.franchise.application.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo que una traza INFO del camino caliente le cuesta al hilo que la registra (en la aplicación, un hilo
+ * del event loop) con cada configuración de logging:
+ * <ul>
+ *   <li>{@code sync}: consola síncrona, como antes de {@code logback-spring.xml}; el hilo formatea y escribe</li>
+ *   <li>{@code async}: consola detrás de {@code AsyncAppender} como en {@code logback-spring.xml}; el hilo solo encola</li>
+ *   <li>{@code rateLimited}: consola síncrona con {@link RateLimitedLogger}; casi todas las trazas se descartan antes de crear el evento</li>
+ *   <li>{@code disabled}: nivel WARN, la cota inferior</li>
+ * </ul>
+ * La consola escribe en un flujo nulo con el patrón de {@code application.yml}, así que {@code sync} mide el
+ * formateo y la codificación pero no la espera de una terminal real, y subestima lo que cuesta en producción.
+ * Con {@code async} la cola se llena enseguida porque el benchmark registra más rápido de lo que el appender
+ * consume; a partir de ahí se mide el descarte de {@code neverBlock}, que es lo que ve el event loop bajo carga.
+ * La asignación por traza se obtiene con {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HotPathLoggingBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss} - %msg%n";
+
+    @Param({"sync", "async", "rateLimited", "disabled"})
+    public String mode;
+
+    private final String franchiseId = UUID.randomUUID().toString();
+    private LoggerContext context;
+    private Logger logger;
+    private RateLimitedLogger hotPathLogger;
+
+    @Setup
+    public void setUp() {
+        context = new LoggerContext();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(context);
+        console.setName("CONSOLE");
+        console.setEncoder(encoder);
+        console.setOutputStream(OutputStream.nullOutputStream());
+        console.start();
+
+        logger = context.getLogger(HotPathLoggingBenchmark.class);
+        logger.setAdditive(false);
+        logger.setLevel("disabled".equals(mode) ? Level.WARN : Level.INFO);
+        if ("async".equals(mode)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setName("ASYNC_CONSOLE");
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(0);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(console);
+            async.start();
+            logger.addAppender(async);
+        } else {
+            logger.addAppender(console);
+        }
+        hotPathLogger = "rateLimited".equals(mode) ? RateLimitedLogger.of(logger) : null;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void logFranchiseFound() {
+        if (hotPathLogger != null) {
+            hotPathLogger.info("Franquicia encontrada: {}", franchiseId);
+        } else {
+            logger.info("Franquicia encontrada: {}", franchiseId);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.nequi.franchise.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compara los resultados JSON de una ejecución de JMH con una línea base guardada.
+ * Para cada benchmark y combinación de parámetros muestra la variación del tiempo (o del rendimiento) y de los
+ * bytes asignados por operación ({@code gc.alloc.rate.norm}, con {@code -prof gc}), y marca como regresión
+ * cualquier empeoramiento mayor que el umbral. Si la línea base no existe, guarda los resultados como línea base.
+ * Uso: {@code BenchmarkComparison <línea base> <resultados> [umbral en %]}; termina con código 1 si hay regresiones.
+ */
+public final class BenchmarkComparison {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    private static final double DEFAULT_THRESHOLD = 10.0;
+
+    private BenchmarkComparison() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: BenchmarkComparison <línea base> <resultados> [umbral en %]");
+            System.exit(2);
+        }
+        Path baseline = Path.of(args[0]);
+        Path results = Path.of(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+
+        if (!Files.exists(baseline)) {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            Files.copy(results, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Sin línea base previa; se guardaron los resultados en " + baseline);
+            return;
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> before = byKey(objectMapper.readTree(baseline.toFile()));
+        Map<String, JsonNode> after = byKey(objectMapper.readTree(results.toFile()));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s %12s %12s %9s%n",
+                "Benchmark", "Base", "Actual", "Δ %", "Base B/op", "Actual B/op", "Δ %");
+        for (Map.Entry<String, JsonNode> entry : after.entrySet()) {
+            JsonNode previous = before.get(entry.getKey());
+            if (previous == null) {
+                System.out.printf("%-90s %14s%n", entry.getKey(), "(nuevo)");
+                continue;
+            }
+            JsonNode current = entry.getValue();
+            boolean higherIsBetter = "thrpt".equals(current.path("mode").asText());
+            double scoreBefore = previous.path("primaryMetric").path("score").asDouble();
+            double scoreAfter = current.path("primaryMetric").path("score").asDouble();
+            double scoreChange = change(scoreBefore, scoreAfter);
+            double allocationBefore = allocation(previous);
+            double allocationAfter = allocation(current);
+            double allocationChange = change(allocationBefore, allocationAfter);
+
+            boolean slower = higherIsBetter ? scoreChange < -threshold : scoreChange > threshold;
+            boolean allocatesMore = allocationChange > threshold;
+            if (slower || allocatesMore) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %12.0f %12.0f %+8.1f%%%s%n",
+                    entry.getKey(), scoreBefore, scoreAfter, scoreChange, allocationBefore, allocationAfter,
+                    allocationChange, slower || allocatesMore ? "  REGRESIÓN" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d regresiones mayores a %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+        System.out.printf("Sin regresiones mayores a %.1f%%%n", threshold);
+    }
+
+    /**
+     * Resultados indexados por nombre del benchmark y sus parámetros, p. ej. {@code MappingBenchmark.documentToDto shape=20x250}
+     */
+    private static Map<String, JsonNode> byKey(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            byKey.put(key.toString(), result);
+        }
+        return byKey;
+    }
+
+    /**
+     * Bytes asignados por operación; JMH antepone un punto medio al nombre de la métrica en algunas versiones
+     */
+    private static double allocation(JsonNode result) {
+        Iterator<Map.Entry<String, JsonNode>> metrics = result.path("secondaryMetrics").fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            if (metric.getKey().endsWith(ALLOCATION)) {
+                return metric.getValue().path("score").asDouble();
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 || Double.isNaN(before) ? 0 : (after - before) / before * 100;
+    }
+}
@@ -0,0 +1,85 @@
+package com.nequi.franchise.benchmark;
+
+import com.nequi.franchise.domain.model.Branch;
+import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.Product;
+import com.nequi.franchise.infrastructure.persistence.document.BranchDocument;
+import com.nequi.franchise.infrastructure.persistence.document.FranchiseDocument;
+import com.nequi.franchise.infrastructure.persistence.document.ProductDocument;
+import com.nequi.franchise.infrastructure.persistence.mapper.BranchMapper;
+import com.nequi.franchise.infrastructure.persistence.mapper.FranchiseMapper;
+import com.nequi.franchise.infrastructure.persistence.mapper.ProductMapper;
+import com.nequi.franchise.infrastructure.web.mapper.BranchWebMapper;
+import com.nequi.franchise.infrastructure.web.mapper.FranchiseWebMapper;
+import com.nequi.franchise.infrastructure.web.mapper.ProductWebMapper;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Franquicia de prueba compartida por los benchmarks, con la forma indicada por {@code shape}
+ * (sucursales x productos por sucursal). Los IDs tienen el formato UUID que asigna el caso de uso, y tanto
+ * ellos como los stocks salen de una semilla fija, de modo que cada ejecución mide la misma franquicia.
+ */
+@State(Scope.Benchmark)
+public class FranchiseFixture {
+
+    @Param({"5x20", "20x250", "100x1000"})
+    public String shape;
+
+    public FranchiseMapper franchiseMapper;
+    public FranchiseWebMapper franchiseWebMapper;
+
+    /**
+     * Documento tal como lo entrega la base en el modo embebido
+     */
+    public FranchiseDocument document;
+
+    /**
+     * Agregado leído de la base, registrando cambios
+     */
+    public Franchise franchise;
+
+    /**
+     * Sucursal del medio y los IDs de sus productos, para las búsquedas por ID
+     */
+    public Branch branch;
+    public String[] productIds;
+
+    @Setup
+    public void setUp() {
+        franchiseMapper = new FranchiseMapper(new BranchMapper(new ProductMapper()));
+        ProductWebMapper productWebMapper = new ProductWebMapper();
+        franchiseWebMapper = new FranchiseWebMapper(new BranchWebMapper(productWebMapper), productWebMapper);
+
+        String[] dimensions = shape.split("x");
+        document = franchiseDocument(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+        franchise = franchiseMapper.toDomain(document);
+        branch = franchise.getBranches().get(franchise.getBranches().size() / 2);
+        productIds = branch.getProducts().stream().map(Product::getId).toArray(String[]::new);
+    }
+
+    public static FranchiseDocument franchiseDocument(int branchCount, int productsPerBranch) {
+        Random random = new Random(42);
+        String franchiseId = id(random);
+        List<BranchDocument> branches = new ArrayList<>();
+        for (int b = 0; b < branchCount; b++) {
+            List<ProductDocument> products = new ArrayList<>();
+            for (int p = 0; p < productsPerBranch; p++) {
+                products.add(new ProductDocument(id(random), "Producto " + p, random.nextInt(500)));
+            }
+            branches.add(new BranchDocument(id(random), "Sucursal " + b, franchiseId, products));
+        }
+        return new FranchiseDocument(franchiseId, "Franquicia Benchmark", branches, 1L);
+    }
+
+    private static String id(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+}
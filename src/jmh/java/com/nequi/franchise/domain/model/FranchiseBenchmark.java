@@ -0,0 +1,40 @@
+package com.nequi.franchise.domain.model;
+
+import com.nequi.franchise.benchmark.FranchiseFixture;
+import com.nequi.franchise.domain.model.Franchise.ProductWithBranch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo por operación de las consultas del agregado. La asignación por operación se obtiene con {@code -prof gc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FranchiseBenchmark {
+
+    private int next;
+
+    @Benchmark
+    public List<ProductWithBranch> productsWithMaxStockByBranch(FranchiseFixture fixture) {
+        return fixture.franchise.getProductsWithMaxStockByBranch();
+    }
+
+    /**
+     * Recorre los IDs de la sucursal en orden para no medir siempre el mismo producto
+     */
+    @Benchmark
+    public Optional<Product> findProductById(FranchiseFixture fixture) {
+        String[] productIds = fixture.productIds;
+        String productId = productIds[next++ % productIds.length];
+        return fixture.branch.findProductById(productId);
+    }
+}
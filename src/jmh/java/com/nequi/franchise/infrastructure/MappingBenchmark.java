@@ -0,0 +1,41 @@
+package com.nequi.franchise.infrastructure;
+
+import com.nequi.franchise.benchmark.FranchiseFixture;
+import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.infrastructure.persistence.document.FranchiseDocument;
+import com.nequi.franchise.infrastructure.web.dto.FranchiseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo por operación de los mapeos entre documento, dominio y DTO, por separado y en el camino completo
+ * de una lectura (documento → dominio → DTO). La asignación por operación se obtiene con {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappingBenchmark {
+
+    @Benchmark
+    public Franchise documentToDomain(FranchiseFixture fixture) {
+        return fixture.franchiseMapper.toDomain(fixture.document);
+    }
+
+    @Benchmark
+    public FranchiseDocument domainToDocument(FranchiseFixture fixture) {
+        return fixture.franchiseMapper.toDocument(fixture.franchise);
+    }
+
+    @Benchmark
+    public FranchiseDto domainToDto(FranchiseFixture fixture) {
+        return fixture.franchiseWebMapper.toDto(fixture.franchise);
+    }
+
+    @Benchmark
+    public FranchiseDto documentToDto(FranchiseFixture fixture) {
+        return fixture.franchiseWebMapper.toDto(fixture.franchiseMapper.toDomain(fixture.document));
+    }
+}
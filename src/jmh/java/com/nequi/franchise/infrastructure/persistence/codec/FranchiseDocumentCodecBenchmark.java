@@ -0,0 +1,100 @@
+package com.nequi.franchise.infrastructure.persistence.codec;
+
+import com.mongodb.MongoClientSettings;
+import com.nequi.franchise.benchmark.FranchiseFixture;
+import com.nequi.franchise.infrastructure.persistence.document.FranchiseDocument;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendimiento de decodificar y codificar un {@link FranchiseDocument} embebido con {@link FranchiseDocumentCodec}
+ * frente al convertidor reflexivo de Spring Data, que pasa por un {@link Document} intermedio como hace la
+ * plantilla. Ambos caminos parten de (o terminan en) los bytes BSON tal como viajan por el cable.
+ * Ejecutar con {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="FranchiseDocumentCodecBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FranchiseDocumentCodecBenchmark {
+
+    /**
+     * Sucursales x productos por sucursal
+     */
+    @Param({"5x20", "20x250", "100x1000"})
+    public String shape;
+
+    private final DecoderContext decoderContext = DecoderContext.builder().build();
+    private final EncoderContext encoderContext = EncoderContext.builder().build();
+    private final DocumentCodec documentCodec = new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry());
+
+    private Codec<FranchiseDocument> franchiseCodec;
+    private MappingMongoConverter converter;
+    private FranchiseDocument document;
+    private byte[] bson;
+
+    @Setup
+    public void setUp() {
+        franchiseCodec = FranchiseCodecs.codecRegistry().get(FranchiseDocument.class);
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+
+        String[] dimensions = shape.split("x");
+        document = FranchiseFixture.franchiseDocument(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+        Document stored = new Document();
+        converter.write(document, stored);
+        RawBsonDocument raw = new RawBsonDocument(stored, documentCodec);
+        bson = new byte[raw.getByteBuffer().remaining()];
+        raw.getByteBuffer().get(bson);
+    }
+
+    @Benchmark
+    public FranchiseDocument decodeWithCodec() {
+        return franchiseCodec.decode(reader(), decoderContext);
+    }
+
+    @Benchmark
+    public FranchiseDocument decodeWithConverter() {
+        return converter.read(FranchiseDocument.class, documentCodec.decode(reader(), decoderContext));
+    }
+
+    @Benchmark
+    public int encodeWithCodec() {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        franchiseCodec.encode(new BsonBinaryWriter(buffer), document, encoderContext);
+        return buffer.getPosition();
+    }
+
+    @Benchmark
+    public int encodeWithConverter() {
+        Document stored = new Document();
+        converter.write(document, stored);
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        documentCodec.encode(new BsonBinaryWriter(buffer), stored, encoderContext);
+        return buffer.getPosition();
+    }
+
+    private BsonBinaryReader reader() {
+        return new BsonBinaryReader(ByteBuffer.wrap(bson));
+    }
+}
@@ -0,0 +1,65 @@
+package com.nequi.franchise.infrastructure.persistence.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nequi.franchise.benchmark.FranchiseFixture;
+import com.nequi.franchise.infrastructure.persistence.document.FranchiseDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura de una franquicia por ID hasta el JSON de la respuesta: el camino con mapeo (BSON → Document →
+ * FranchiseDocument → Franchise → FranchiseDto → JSON) frente a la escritura directa desde el BSON almacenado.
+ * Los bytes asignados por lectura se obtienen con {@code -prof gc} ({@code gc.alloc.rate.norm}).
+ * Ejecutar con {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="FranchiseJsonReadBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FranchiseJsonReadBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private final DecoderContext decoderContext = DecoderContext.builder().build();
+
+    private MappingMongoConverter converter;
+    private FranchiseJsonWriter franchiseJsonWriter;
+    private RawBsonDocument raw;
+
+    @Setup
+    public void setUp(FranchiseFixture fixture) {
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        franchiseJsonWriter = new FranchiseJsonWriter(objectMapper);
+
+        Document stored = new Document();
+        converter.write(fixture.document, stored);
+        raw = new RawBsonDocument(stored, documentCodec);
+    }
+
+    @Benchmark
+    public byte[] mappedRead(FranchiseFixture fixture) throws IOException {
+        Document decoded = documentCodec.decode(raw.asBsonReader(), decoderContext);
+        FranchiseDocument document = converter.read(FranchiseDocument.class, decoded);
+        return objectMapper.writeValueAsBytes(fixture.franchiseWebMapper.toDto(fixture.franchiseMapper.toDomain(document)));
+    }
+
+    @Benchmark
+    public byte[] directRead() {
+        return franchiseJsonWriter.write(raw);
+    }
+}
@@ -0,0 +1,99 @@
+package com.nequi.franchise.infrastructure.web;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.nequi.franchise.benchmark.FranchiseFixture;
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.PayloadFormat;
+import com.nequi.franchise.infrastructure.persistence.json.FranchiseJsonWriter;
+import com.nequi.franchise.infrastructure.web.dto.FranchiseDto;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de codificar y decodificar un {@link FranchiseDto} en JSON, CBOR y Smile ({@code format}), como lo hacen
+ * los codecs de WebFlux, y de escribir la franquicia directamente desde el BSON almacenado en cada formato, como
+ * lo hace la lectura por ID. El tamaño de la carga útil de cada formato y forma se imprime al preparar la
+ * ejecución. La asignación por operación se obtiene con {@code -prof gc}.
+ * Ejecutar con {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="PayloadFormatBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PayloadFormatBenchmark {
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public PayloadFormat format;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private FranchiseJsonWriter franchiseJsonWriter;
+    private FranchiseDto dto;
+    private RawBsonDocument raw;
+    private byte[] payload;
+
+    @Setup
+    public void setUp(FranchiseFixture fixture) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper(factory(format));
+        writer = objectMapper.writerFor(FranchiseDto.class);
+        reader = objectMapper.readerFor(FranchiseDto.class);
+        franchiseJsonWriter = new FranchiseJsonWriter(new ObjectMapper());
+
+        dto = fixture.franchiseWebMapper.toDto(fixture.franchise);
+        payload = writer.writeValueAsBytes(dto);
+
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        Document stored = new Document();
+        converter.write(fixture.document, stored);
+        raw = new RawBsonDocument(stored, new DocumentCodec());
+
+        System.out.printf("%nFranquicia %s en %s: %d bytes (BSON almacenado: %d bytes)%n",
+                fixture.shape, format, payload.length, raw.getByteBuffer().remaining());
+    }
+
+    @Benchmark
+    public byte[] encodeDto() throws IOException {
+        return writer.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public FranchiseDto decodeDto() throws IOException {
+        return reader.readValue(payload);
+    }
+
+    @Benchmark
+    public byte[] writeFromBson() {
+        return franchiseJsonWriter.write(raw, FranchiseFields.ALL, format);
+    }
+
+    private static JsonFactory factory(PayloadFormat format) {
+        switch (format) {
+            case CBOR:
+                return new CBORFactory();
+            case SMILE:
+                return new SmileFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.nequi.franchise.infrastructure.web.controller;
+
+import com.nequi.franchise.domain.exception.NotFoundException;
+import com.nequi.franchise.infrastructure.web.dto.ErrorDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Costo de responder a una franquicia inexistente, desde que se crea el error hasta la respuesta, con el
+ * {@code RuntimeException} y la respuesta 500 anteriores frente a {@link NotFoundException} y
+ * {@link RestExceptionHandler}. El error se crea a {@code depth} marcos de profundidad porque capturar la pila
+ * cuesta en proporción a ella, y en una cadena reactiva real suele superar el centenar de marcos.
+ * No incluye el registro de la traza en ERROR con su pila que hacía el manejador anterior
+ * (ver {@code HotPathLoggingBenchmark}). La asignación por operación se obtiene con {@code -prof gc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ErrorPathBenchmark {
+
+    @Param({"16", "128"})
+    public int depth;
+
+    private final RestExceptionHandler handler = new RestExceptionHandler();
+    private final ServerHttpRequest request = MockServerHttpRequest.get("/api/v1/franchises/1").build();
+    private final String franchiseId = "1";
+
+    @Benchmark
+    public ResponseEntity<String> runtimeException() {
+        RuntimeException ex = atDepth(depth, () -> new RuntimeException("Franquicia no encontrada con ID: " + franchiseId));
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error interno del servidor: " + ex.getMessage());
+    }
+
+    @Benchmark
+    public Mono<ResponseEntity<ErrorDto>> domainException() {
+        NotFoundException ex = atDepth(depth, () -> NotFoundException.franchise(franchiseId));
+        return handler.handleDomainException(ex, request);
+    }
+
+    private static <T> T atDepth(int remaining, Supplier<T> supplier) {
+        return remaining == 0 ? supplier.get() : atDepth(remaining - 1, supplier);
+    }
+}
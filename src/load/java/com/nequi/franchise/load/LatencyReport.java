@@ -0,0 +1,116 @@
+package com.nequi.franchise.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias y errores por endpoint. Las latencias se registran en microsegundos en histogramas HdrHistogram,
+ * que admiten registros concurrentes desde los hilos de respuesta del cliente.
+ */
+final class LatencyReport {
+
+    private static final long MAX_LATENCY_MICROS = 60_000_000L;
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(MAX_LATENCY_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, boolean failed) {
+        recorders.get(operation).recordValue(Math.min(latencyNanos / 1_000, MAX_LATENCY_MICROS));
+        if (failed) {
+            errors.get(operation).increment();
+        }
+    }
+
+    /**
+     * Descarta lo registrado hasta ahora, al terminar el calentamiento
+     */
+    void reset() {
+        recorders.values().forEach(Recorder::getIntervalHistogram);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Escribe el reporte JSON con la configuración de la ejecución y, por endpoint y en total, la cantidad
+     * de peticiones, los errores, el rendimiento y los percentiles de latencia en milisegundos
+     */
+    void write(Path output, Map<String, String> settings, double elapsedSeconds) throws IOException {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+        long totalErrors = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            long operationErrors = errors.get(operation).sum();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            totalErrors += operationErrors;
+            Map<String, Object> endpoint = summary(histogram, operationErrors, elapsedSeconds);
+            endpoint.put("endpoint", operation.endpoint());
+            endpoints.add(endpoint);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("elapsedSeconds", elapsedSeconds);
+        report.put("endpoints", endpoints);
+        report.put("total", summary(total, totalErrors, elapsedSeconds));
+
+        Path parent = output.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+
+        System.out.printf("%-90s %9s %7s %9s %9s %9s %9s%n", "Endpoint", "Peticiones", "Errores", "req/s", "p50 ms", "p99 ms", "p999 ms");
+        for (Map<String, Object> endpoint : endpoints) {
+            print(String.valueOf(endpoint.get("endpoint")), endpoint);
+        }
+        print("Total", report.get("total"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(String name, Object summary) {
+        Map<String, Object> values = (Map<String, Object>) summary;
+        Map<String, Double> latency = (Map<String, Double>) values.get("latencyMillis");
+        System.out.printf("%-90s %9d %7d %9.1f %9.2f %9.2f %9.2f%n", name, values.get("requests"), values.get("errors"),
+                values.get("throughput"), latency.get("p50"), latency.get("p99"), latency.get("p999"));
+    }
+
+    private static Map<String, Object> summary(Histogram histogram, long errors, double elapsedSeconds) {
+        Map<String, Double> latency = new LinkedHashMap<>();
+        latency.put("p50", millis(histogram.getValueAtPercentile(50)));
+        latency.put("p99", millis(histogram.getValueAtPercentile(99)));
+        latency.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+        latency.put("max", millis(histogram.getMaxValue()));
+        latency.put("mean", histogram.getTotalCount() == 0 ? 0 : histogram.getMean() / 1_000.0);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("errors", errors);
+        summary.put("throughput", histogram.getTotalCount() / elapsedSeconds);
+        summary.put("latencyMillis", latency);
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+}
@@ -0,0 +1,272 @@
+package com.nequi.franchise.load;
+
+import com.nequi.franchise.FranchiseApiApplication;
+import com.nequi.franchise.domain.model.Branch;
+import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.Product;
+import com.nequi.franchise.domain.port.FranchiseRepository;
+import com.nequi.franchise.infrastructure.web.dto.ProductDto;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga de punta a punta: levanta un MongoDB embebido y la aplicación contra él, siembra franquicias
+ * del tamaño indicado y envía una carga mixta (lecturas, actualizaciones de stock, altas de productos y reportes
+ * de máximo stock) a una tasa fija a través de {@code FranchiseController}. Al terminar escribe en un archivo JSON
+ * el rendimiento y los percentiles p50/p99/p999 de latencia por endpoint.
+ * <p>
+ * La carga es de lazo abierto: cada petición tiene un instante programado según la tasa, y su latencia se mide
+ * desde ese instante y no desde que se envió, de modo que si el servicio se atrasa la espera acumulada se refleja
+ * en los percentiles en lugar de frenar al generador. Las elecciones de operación y destino salen de una semilla
+ * fija, así que dos ejecuciones con los mismos parámetros envían la misma secuencia.
+ * <p>
+ * Ejecutar con {@code mvn -Pload test-compile exec:exec -Dload.args="rate=500 duration=2m"}.
+ */
+public final class LoadHarness {
+
+    private static final String BASE_PATH = "/api/v1/franchises";
+    private static final int MAX_CONNECTIONS = 500;
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final LoadSettings settings;
+    private final LatencyReport report = new LatencyReport();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final List<SeededFranchise> seeded = new ArrayList<>();
+    private final Random random;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private WebClient webClient;
+
+    private LoadHarness(LoadSettings settings) {
+        this.settings = settings;
+        this.random = new Random(settings.seed);
+        this.operations = settings.mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += settings.mix.get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadSettings settings = LoadSettings.parse(args);
+        try (TransitionWalker.ReachedState<RunningMongodProcess> mongod = Mongod.instance().start(Version.Main.V6_0)) {
+            ServerAddress address = mongod.current().getServerAddress();
+            String mongoUri = "mongodb://" + address.getHost() + ":" + address.getPort() + "/franchise_load";
+            try (ConfigurableApplicationContext context = startApplication(mongoUri, settings.mode)) {
+                new LoadHarness(settings).run(context);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(String mongoUri, String mode) {
+        // Argumentos de línea de comandos: tienen prioridad sobre application.yml. El log queda en WARN para
+        // medir la aplicación y no la escritura de una línea de consola por petición.
+        return new SpringApplication(FranchiseApiApplication.class).run(
+                "--server.port=0",
+                "--spring.data.mongodb.uri=" + mongoUri,
+                "--franchise.persistence.mode=" + mode,
+                "--logging.level.com.nequi.franchise=WARN",
+                "--logging.level.org.springframework.data.mongodb=WARN");
+    }
+
+    private void run(ConfigurableApplicationContext context) throws Exception {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        // Sin límite de peticiones en espera de conexión: en lazo abierto la espera debe verse en la latencia,
+        // no como errores del cliente
+        ConnectionProvider connections = ConnectionProvider.builder("load")
+                .maxConnections(MAX_CONNECTIONS)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + port + BASE_PATH)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+
+        seed(context.getBean(FranchiseRepository.class));
+        System.out.printf("Sembradas %d franquicias de %d sucursales x %d productos; modo %s%n",
+                settings.franchises, settings.branches, settings.products, settings.mode);
+
+        System.out.printf("Calentamiento: %d s a %d req/s%n", settings.warmup.toSeconds(), settings.rate);
+        drive(settings.warmup.toNanos());
+        awaitInFlight();
+        report.reset();
+
+        System.out.printf("Medición: %d s a %d req/s%n", settings.duration.toSeconds(), settings.rate);
+        long start = System.nanoTime();
+        drive(settings.duration.toNanos());
+        awaitInFlight();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        Path output = Path.of(settings.output);
+        report.write(output, settings.asMap(), elapsedSeconds);
+        System.out.println("Resultados en " + output.toAbsolutePath());
+    }
+
+    /**
+     * Guarda las franquicias directamente con el repositorio, para que la siembra no cuente en la medición
+     */
+    private void seed(FranchiseRepository repository) {
+        Random seedRandom = new Random(settings.seed);
+        Flux.range(0, settings.franchises)
+                .map(f -> franchise(f, seedRandom))
+                .concatMap(repository::save)
+                .doOnNext(saved -> seeded.add(SeededFranchise.of(saved)))
+                .blockLast();
+    }
+
+    private Franchise franchise(int index, Random seedRandom) {
+        List<Branch> branches = new ArrayList<>();
+        for (int b = 0; b < settings.branches; b++) {
+            List<Product> products = new ArrayList<>();
+            for (int p = 0; p < settings.products; p++) {
+                products.add(new Product(id(seedRandom), "Producto " + p, seedRandom.nextInt(1_000)));
+            }
+            branches.add(new Branch(id(seedRandom), "Sucursal " + b, products));
+        }
+        return new Franchise(id(seedRandom), "Franquicia " + index, branches);
+    }
+
+    /**
+     * Envía peticiones a la tasa configurada durante el tiempo indicado. Cada vuelta envía todas las peticiones
+     * cuyo instante programado ya pasó, con ese instante como inicio de su latencia.
+     */
+    private void drive(long durationNanos) {
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        double intervalNanos = 1e9 / settings.rate;
+        long sent = 0;
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            long due = (long) ((now - start) / intervalNanos);
+            for (; sent <= due; sent++) {
+                send(nextOperation(), start + (long) (sent * intervalNanos));
+            }
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    private Operation nextOperation() {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < operations.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void send(Operation operation, long scheduledNanos) {
+        SeededFranchise franchise = seeded.get(random.nextInt(seeded.size()));
+        inFlight.incrementAndGet();
+        request(operation, franchise)
+                .subscribe(
+                        status -> complete(operation, scheduledNanos, status >= 400),
+                        error -> complete(operation, scheduledNanos, true));
+    }
+
+    private void complete(Operation operation, long scheduledNanos, boolean failed) {
+        report.record(operation, System.nanoTime() - scheduledNanos, failed);
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Petición de la operación sobre la franquicia elegida; descarta el cuerpo y entrega el código de estado
+     */
+    private Mono<Integer> request(Operation operation, SeededFranchise franchise) {
+        WebClient.RequestHeadersSpec<?> spec;
+        switch (operation) {
+            case READ:
+                spec = webClient.get().uri("/{id}", franchise.id);
+                break;
+            case STOCK: {
+                int branch = random.nextInt(franchise.branchIds.size());
+                List<String> productIds = franchise.productIds.get(branch);
+                spec = webClient.put()
+                        .uri("/{franchiseId}/branches/{branchId}/products/{productId}/stock",
+                                franchise.id, franchise.branchIds.get(branch), productIds.get(random.nextInt(productIds.size())))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(random.nextInt(1_000));
+                break;
+            }
+            case ADD:
+                spec = webClient.post()
+                        .uri("/{franchiseId}/branches/{branchId}/products",
+                                franchise.id, franchise.branchIds.get(random.nextInt(franchise.branchIds.size())))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new ProductDto(null, "Producto nuevo", random.nextInt(1_000)));
+                break;
+            case REPORT:
+                spec = webClient.get().uri("/{franchiseId}/products/max-stock", franchise.id);
+                break;
+            default:
+                throw new IllegalStateException("Operación sin petición: " + operation);
+        }
+        return spec.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()));
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        if (inFlight.get() > 0) {
+            System.out.printf("Quedaron %d peticiones sin respuesta tras %d s%n",
+                    inFlight.get(), TimeUnit.NANOSECONDS.toSeconds(DRAIN_TIMEOUT_NANOS));
+        }
+    }
+
+    private static String id(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    /**
+     * IDs de una franquicia sembrada, para armar las rutas de las peticiones
+     */
+    private static final class SeededFranchise {
+
+        private final String id;
+        private final List<String> branchIds = new ArrayList<>();
+        private final List<List<String>> productIds = new ArrayList<>();
+
+        private SeededFranchise(String id) {
+            this.id = id;
+        }
+
+        static SeededFranchise of(Franchise franchise) {
+            SeededFranchise seeded = new SeededFranchise(franchise.getId());
+            for (Branch branch : franchise.getBranches()) {
+                seeded.branchIds.add(branch.getId());
+                List<String> products = new ArrayList<>();
+                for (Product product : branch.getProducts()) {
+                    products.add(product.getId());
+                }
+                seeded.productIds.add(products);
+            }
+            return seeded;
+        }
+    }
+}
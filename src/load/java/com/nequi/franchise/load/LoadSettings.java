@@ -0,0 +1,102 @@
+package com.nequi.franchise.load;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parámetros de una ejecución de carga, leídos de argumentos {@code clave=valor}; las claves no indicadas
+ * toman el valor predeterminado. {@code mix} reparte las peticiones entre operaciones con pesos relativos,
+ * p. ej. {@code read:60,stock:25,add:10,report:5}.
+ */
+final class LoadSettings {
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "franchises", "20",
+            "branches", "20",
+            "products", "250",
+            "rate", "200",
+            "warmup", "10s",
+            "duration", "60s",
+            "mix", "read:60,stock:25,add:10,report:5",
+            "mode", "embedded",
+            "seed", "42",
+            "output", "target/load-results.json");
+
+    final int franchises;
+    final int branches;
+    final int products;
+    final int rate;
+    final Duration warmup;
+    final Duration duration;
+    final Map<Operation, Integer> mix;
+    final String mode;
+    final long seed;
+    final String output;
+
+    private final Map<String, String> values;
+
+    private LoadSettings(Map<String, String> values) {
+        this.values = values;
+        this.franchises = Integer.parseInt(values.get("franchises"));
+        this.branches = Integer.parseInt(values.get("branches"));
+        this.products = Integer.parseInt(values.get("products"));
+        this.rate = Integer.parseInt(values.get("rate"));
+        this.warmup = parseDuration(values.get("warmup"));
+        this.duration = parseDuration(values.get("duration"));
+        this.mix = parseMix(values.get("mix"));
+        this.mode = values.get("mode");
+        this.seed = Long.parseLong(values.get("seed"));
+        this.output = values.get("output");
+        if (franchises < 1 || branches < 1 || products < 1 || rate < 1) {
+            throw new IllegalArgumentException("franchises, branches, products y rate deben ser mayores que cero");
+        }
+    }
+
+    static LoadSettings parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0 || !DEFAULTS.containsKey(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("Argumento no reconocido: " + arg + "; claves válidas: " + DEFAULTS.keySet());
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return new LoadSettings(values);
+    }
+
+    /**
+     * Valores efectivos, para dejarlos en el reporte junto a los resultados
+     */
+    Map<String, String> asMap() {
+        return new LinkedHashMap<>(values);
+    }
+
+    /**
+     * Acepta segundos ({@code 30s}), minutos ({@code 2m}) o un número de segundos sin unidad
+     */
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                mix.put(Operation.fromKey(parts[0]), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla debe tener al menos una operación con peso positivo");
+        }
+        return mix;
+    }
+}
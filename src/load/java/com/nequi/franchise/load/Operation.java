@@ -0,0 +1,33 @@
+package com.nequi.franchise.load;
+
+import java.util.Arrays;
+
+/**
+ * Operaciones de la carga mixta y el endpoint de {@code FranchiseController} que ejercita cada una
+ */
+enum Operation {
+
+    READ("read", "GET /api/v1/franchises/{id}"),
+    STOCK("stock", "PUT /api/v1/franchises/{franchiseId}/branches/{branchId}/products/{productId}/stock"),
+    ADD("add", "POST /api/v1/franchises/{franchiseId}/branches/{branchId}/products"),
+    REPORT("report", "GET /api/v1/franchises/{franchiseId}/products/max-stock");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    static Operation fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Operación desconocida: " + key));
+    }
+}
@@ -0,0 +1,23 @@
+package com.nequi.franchise.application.logging;
+
+import com.nequi.franchise.domain.exception.DomainException;
+import org.slf4j.Logger;
+
+/**
+ * Registro de los errores que terminan una operación. Los errores esperados del dominio (recurso inexistente,
+ * conflicto, petición inválida) son respuestas normales a un cliente y van a DEBUG; cualquier otro error
+ * es una falla de la aplicación o de sus dependencias y va a ERROR.
+ */
+public final class ErrorLogging {
+
+    private ErrorLogging() {
+    }
+
+    public static void log(Logger logger, String message, Throwable error) {
+        if (error instanceof DomainException) {
+            logger.debug("{}: {}", message, error.getMessage());
+        } else {
+            logger.error("{}: {}", message, error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.nequi.franchise.application.logging;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Envoltorio de un {@link Logger} para las trazas INFO del camino caliente (lecturas y escrituras de stock y
+ * productos que se repiten en cada petición). Cada traza tiene su propio límite, identificado por su mensaje o
+ * formato: deja pasar como máximo {@code permitsPerSecond} líneas por segundo de esa traza, con ráfagas de hasta
+ * esa misma cantidad, y descarta el resto sin formatear el mensaje ni crear arreglos de argumentos, de modo que
+ * una traza muy frecuente no silencia a las demás de la clase. La siguiente línea emitida de esa traza informa
+ * cuántas se omitieron desde la anterior. El formato debe ser constante: cada formato distinto ocupa un límite.
+ * Los errores y advertencias no pasan por aquí: se registran siempre con el logger de la clase.
+ */
+public final class RateLimitedLogger {
+
+    /**
+     * Límite por omisión de cada traza del camino caliente
+     */
+    public static final int DEFAULT_PERMITS_PER_SECOND = 10;
+
+    private final Logger logger;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private RateLimitedLogger(Logger logger, int permitsPerSecond) {
+        if (permitsPerSecond < 1) {
+            throw new IllegalArgumentException("El límite de trazas por segundo debe ser mayor que cero");
+        }
+        this.logger = logger;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.burstNanos = TimeUnit.SECONDS.toNanos(1) - intervalNanos;
+    }
+
+    public static RateLimitedLogger of(Logger logger) {
+        return of(logger, DEFAULT_PERMITS_PER_SECOND);
+    }
+
+    public static RateLimitedLogger of(Logger logger, int permitsPerSecond) {
+        return new RateLimitedLogger(logger, permitsPerSecond);
+    }
+
+    public void info(String message) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        Bucket bucket = bucket(message);
+        if (bucket.tryAcquire()) {
+            long omitted = bucket.suppressed.sumThenReset();
+            if (omitted == 0) {
+                logger.info(message);
+            } else {
+                logger.info(message + " [{} trazas omitidas]", omitted);
+            }
+        }
+    }
+
+    public void info(String format, Object arg) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        Bucket bucket = bucket(format);
+        if (bucket.tryAcquire()) {
+            long omitted = bucket.suppressed.sumThenReset();
+            if (omitted == 0) {
+                logger.info(format, arg);
+            } else {
+                logger.info(format + " [{} trazas omitidas]", arg, omitted);
+            }
+        }
+    }
+
+    public void info(String format, Object arg1, Object arg2) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        Bucket bucket = bucket(format);
+        if (bucket.tryAcquire()) {
+            long omitted = bucket.suppressed.sumThenReset();
+            if (omitted == 0) {
+                logger.info(format, arg1, arg2);
+            } else {
+                logger.info(format + " [{} trazas omitidas]", arg1, arg2, omitted);
+            }
+        }
+    }
+
+    private Bucket bucket(String format) {
+        Bucket bucket = buckets.get(format);
+        return bucket != null ? bucket : buckets.computeIfAbsent(format, key -> new Bucket());
+    }
+
+    /**
+     * Cubeta de fichas de una traza, expresada como el instante a partir del cual queda libre la siguiente ficha:
+     * una línea pasa si ese instante no está más de una ráfaga en el futuro, y lo corre un intervalo
+     */
+    private final class Bucket {
+        private final AtomicLong nextFreeNanos = new AtomicLong(System.nanoTime() - burstNanos);
+        private final LongAdder suppressed = new LongAdder();
+
+        private boolean tryAcquire() {
+            long now = System.nanoTime();
+            while (true) {
+                long nextFree = nextFreeNanos.get();
+                long start = Math.max(nextFree, now - burstNanos);
+                if (start - now > 0) {
+                    suppressed.increment();
+                    return false;
+                }
+                if (nextFreeNanos.compareAndSet(nextFree, start + intervalNanos)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -1,17 +1,45 @@
 package com.nequi.franchise.application.usecase;
 
+import com.nequi.franchise.application.logging.ErrorLogging;
+import com.nequi.franchise.application.logging.RateLimitedLogger;
+import com.nequi.franchise.domain.exception.ConflictException;
+import com.nequi.franchise.domain.exception.InvalidRequestException;
+import com.nequi.franchise.domain.exception.NotFoundException;
+import com.nequi.franchise.domain.exception.PreconditionFailedException;
 import com.nequi.franchise.domain.model.Branch;
 import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.FranchiseJson;
+import com.nequi.franchise.domain.model.FranchiseSummary;
+import com.nequi.franchise.domain.model.FranchiseSummaryPage;
+import com.nequi.franchise.domain.model.PayloadFormat;
 import com.nequi.franchise.domain.model.Product;
+import com.nequi.franchise.domain.model.StockAdjustment;
+import com.nequi.franchise.domain.model.StockAdjustmentItemResult;
+import com.nequi.franchise.domain.model.StockAdjustmentResult;
+import com.nequi.franchise.domain.model.StockChange;
+import com.nequi.franchise.domain.model.StockUpdate;
+import com.nequi.franchise.domain.model.StockUpdateResult;
 import com.nequi.franchise.domain.model.Franchise.ProductWithBranch;
 import com.nequi.franchise.domain.port.FranchiseRepository;
 import com.nequi.franchise.domain.port.FranchiseService;
+import com.nequi.franchise.domain.port.StockChangeFeed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -21,11 +49,33 @@ import java.util.UUID;
 public class FranchiseUseCase implements FranchiseService {
 
     private static final Logger logger = LoggerFactory.getLogger(FranchiseUseCase.class);
+    private static final RateLimitedLogger hotPathLogger = RateLimitedLogger.of(logger);
+    
+    private static final int MAX_CONFLICT_RETRIES = 5;
+    private static final Duration CONFLICT_MIN_BACKOFF = Duration.ofMillis(10);
+    private static final Duration CONFLICT_MAX_BACKOFF = Duration.ofMillis(200);
+    private static final double CONFLICT_BACKOFF_JITTER = 0.5;
+    
+    static final int MAX_STOCK_UPDATES_PER_BATCH = 1000;
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_TOP_K = 100;
+    
+    // Operaciones que pasan por withConflictRetry; sus contadores se registran al crear el caso de uso
+    private static final List<String> RETRIED_OPERATIONS = List.of("updateFranchiseName", "addBranchToFranchise",
+            "updateBranchName", "addProductToBranch", "removeProductFromBranch", "updateProductName");
     
     private final FranchiseRepository franchiseRepository;
+    private final StockChangeFeed stockChangeFeed;
+    private final Map<String, ConflictCounters> conflictCounters = new HashMap<>();
 
-    public FranchiseUseCase(FranchiseRepository franchiseRepository) {
+    public FranchiseUseCase(FranchiseRepository franchiseRepository, StockChangeFeed stockChangeFeed,
+                            MeterRegistry meterRegistry) {
         this.franchiseRepository = franchiseRepository;
+        this.stockChangeFeed = stockChangeFeed;
+        for (String operation : RETRIED_OPERATIONS) {
+            conflictCounters.put(operation, new ConflictCounters(operation, meterRegistry));
+        }
     }
 
     @Override
@@ -33,10 +83,13 @@ public class FranchiseUseCase implements FranchiseService {
         logger.info("Creando nueva franquicia: {}", franchise.getName());
         
         return Mono.just(franchise)
-                .doOnNext(f -> f.setId(UUID.randomUUID().toString()))
+                .doOnNext(f -> {
+                    f.setId(UUID.randomUUID().toString());
+                    assignMissingIds(f);
+                })
                 .flatMap(franchiseRepository::save)
                 .doOnSuccess(f -> logger.info("Franquicia creada exitosamente con ID: {}", f.getId()))
-                .doOnError(error -> logger.error("Error al crear franquicia: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al crear franquicia", error));
     }
 
     @Override
@@ -44,9 +97,25 @@ public class FranchiseUseCase implements FranchiseService {
         logger.debug("Obteniendo franquicia por ID: {}", id);
         
         return franchiseRepository.findById(id)
-                .switchIfEmpty(Mono.error(new RuntimeException("Franquicia no encontrada con ID: " + id)))
-                .doOnSuccess(f -> logger.info("Franquicia obtenida: {}", f.getName()))
-                .doOnError(error -> logger.error("Error al obtener franquicia: {}", error.getMessage()));
+                .switchIfEmpty(Mono.error(() -> NotFoundException.franchise(id)))
+                .doOnSuccess(f -> hotPathLogger.info("Franquicia obtenida: {}", f.getName()))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al obtener franquicia", error));
+    }
+
+    @Override
+    public Mono<FranchiseJson> getFranchiseJsonById(String id, FranchiseFields fields, PayloadFormat format) {
+        logger.debug("Obteniendo franquicia serializada en {} por ID: {}", format, id);
+        
+        return franchiseRepository.findJsonById(id, fields, format)
+                .doOnError(error -> ErrorLogging.log(logger, "Error al obtener franquicia serializada", error));
+    }
+
+    @Override
+    public Mono<Long> getFranchiseVersionById(String id) {
+        logger.debug("Obteniendo version de franquicia por ID: {}", id);
+        
+        return franchiseRepository.findVersionById(id)
+                .doOnError(error -> ErrorLogging.log(logger, "Error al obtener version de franquicia", error));
     }
 
     @Override
@@ -55,167 +124,462 @@ public class FranchiseUseCase implements FranchiseService {
         
         return franchiseRepository.findAll()
                 .doOnNext(f -> logger.debug("Franquicia obtenida: {}", f.getName()))
-                .doOnError(error -> logger.error("Error al obtener franquicias: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al obtener franquicias", error));
     }
 
     @Override
-    public Mono<Franchise> updateFranchiseName(String id, String newName) {
+    public Mono<FranchiseSummaryPage> getFranchiseSummaries(String afterId, Integer size) {
+        logger.debug("Obteniendo pagina de franquicias despues de ID: {} con tamano: {}", afterId, size);
+        
+        if (size != null && size < 1) {
+            return Mono.error(new InvalidRequestException("El tamano de pagina debe ser mayor que cero"));
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        
+        // Se pide un elemento de más para saber si existe una página siguiente sin contar la colección
+        return franchiseRepository.findSummaries(afterId, pageSize + 1)
+                .collectList()
+                .map(summaries -> summaries.size() > pageSize
+                        ? new FranchiseSummaryPage(summaries.subList(0, pageSize), summaries.get(pageSize - 1).getId())
+                        : new FranchiseSummaryPage(summaries, null))
+                .doOnSuccess(page -> logger.debug("Pagina de franquicias obtenida con {} elementos", page.getItems().size()))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al obtener pagina de franquicias", error));
+    }
+
+    @Override
+    public Flux<FranchiseSummary> streamFranchiseSummaries(String afterId) {
+        logger.debug("Transmitiendo resumenes de franquicias despues de ID: {}", afterId);
+        
+        return franchiseRepository.findSummaries(afterId, 0)
+                .doOnError(error -> ErrorLogging.log(logger, "Error al transmitir franquicias", error));
+    }
+
+    @Override
+    public Mono<Franchise> updateFranchiseName(String id, String newName, Long expectedVersion) {
         logger.info("Actualizando nombre de franquicia ID: {} a: {}", id, newName);
         
-        return getFranchiseById(id)
-                .doOnNext(franchise -> franchise.setName(newName))
-                .flatMap(franchiseRepository::save)
+        return withConflictRetry("updateFranchiseName", expectedVersion, getFranchiseForUpdate(id, expectedVersion)
+                        .doOnNext(franchise -> franchise.setName(newName))
+                        .flatMap(franchiseRepository::save))
                 .doOnSuccess(f -> logger.info("Nombre de franquicia actualizado exitosamente"))
-                .doOnError(error -> logger.error("Error al actualizar nombre de franquicia: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al actualizar nombre de franquicia", error));
     }
 
     @Override
-    public Mono<Void> deleteFranchise(String id) {
+    public Mono<Void> deleteFranchise(String id, Long expectedVersion) {
         logger.info("Eliminando franquicia ID: {}", id);
         
-        return getFranchiseById(id)
-                .then(franchiseRepository.deleteById(id))
+        // La versión se comprueba de nuevo en la eliminación: la lectura pudo venir de la caché o la franquicia
+        // pudo cambiar entre la lectura y la escritura
+        return getFranchiseForUpdate(id, expectedVersion)
+                .flatMap(franchise -> franchiseRepository.deleteById(id, expectedVersion))
+                .flatMap(deleted -> deleted || expectedVersion == null
+                        ? Mono.<Void>empty()
+                        : Mono.<Void>error(PreconditionFailedException.version(id, expectedVersion)))
                 .doOnSuccess(unused -> logger.info("Franquicia eliminada exitosamente"))
-                .doOnError(error -> logger.error("Error al eliminar franquicia: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al eliminar franquicia", error));
     }
 
     @Override
-    public Mono<Franchise> addBranchToFranchise(String franchiseId, Branch branch) {
+    public Mono<Franchise> addBranchToFranchise(String franchiseId, Branch branch, Long expectedVersion) {
         logger.info("Agregando sucursal {} a franquicia ID: {}", branch.getName(), franchiseId);
         
-        return getFranchiseById(franchiseId)
-                .doOnNext(franchise -> {
-                    branch.setId(UUID.randomUUID().toString());
-                    franchise.addBranch(branch);
-                })
-                .flatMap(franchiseRepository::save)
+        return withConflictRetry("addBranchToFranchise", expectedVersion, getFranchiseForUpdate(franchiseId, expectedVersion)
+                        .doOnNext(franchise -> {
+                            branch.setId(UUID.randomUUID().toString());
+                            franchise.addBranch(branch);
+                        })
+                        .flatMap(franchiseRepository::save))
                 .doOnSuccess(f -> logger.info("Sucursal agregada exitosamente"))
-                .doOnError(error -> logger.error("Error al agregar sucursal: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al agregar sucursal", error));
     }
 
     @Override
-    public Mono<Franchise> updateBranchName(String franchiseId, String branchId, String newName) {
+    public Mono<Franchise> updateBranchName(String franchiseId, String branchId, String newName, Long expectedVersion) {
         logger.info("Actualizando nombre de sucursal ID: {} a: {}", branchId, newName);
         
-        return getFranchiseById(franchiseId)
-                .doOnNext(franchise -> {
-                    franchise.findBranchById(branchId)
-                            .ifPresentOrElse(
-                                    branch -> branch.setName(newName),
-                                    () -> {
-                                        throw new RuntimeException("Sucursal no encontrada con ID: " + branchId);
-                                    }
-                            );
-                })
-                .flatMap(franchiseRepository::save)
+        return withConflictRetry("updateBranchName", expectedVersion, getFranchiseForUpdate(franchiseId, expectedVersion)
+                        .doOnNext(franchise -> {
+                            franchise.findBranchById(branchId)
+                                    .ifPresentOrElse(
+                                            branch -> branch.setName(newName),
+                                            () -> {
+                                                throw NotFoundException.branch(branchId);
+                                            }
+                                    );
+                        })
+                        .flatMap(franchiseRepository::save))
                 .doOnSuccess(f -> logger.info("Nombre de sucursal actualizado exitosamente"))
-                .doOnError(error -> logger.error("Error al actualizar nombre de sucursal: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al actualizar nombre de sucursal", error));
     }
 
     @Override
-    public Mono<Franchise> addProductToBranch(String franchiseId, String branchId, Product product) {
-        logger.info("Agregando producto {} a sucursal ID: {}", product.getName(), branchId);
+    public Mono<Franchise> addProductToBranch(String franchiseId, String branchId, Product product, Long expectedVersion) {
+        hotPathLogger.info("Agregando producto {} a sucursal ID: {}", product.getName(), branchId);
         
-        return getFranchiseById(franchiseId)
-                .doOnNext(franchise -> {
-                    franchise.findBranchById(branchId)
-                            .ifPresentOrElse(
-                                    branch -> {
-                                        product.setId(UUID.randomUUID().toString());
-                                        branch.addProduct(product);
-                                    },
-                                    () -> {
-                                        throw new RuntimeException("Sucursal no encontrada con ID: " + branchId);
-                                    }
-                            );
-                })
-                .flatMap(franchiseRepository::save)
-                .doOnSuccess(f -> logger.info("Producto agregado exitosamente"))
-                .doOnError(error -> logger.error("Error al agregar producto: {}", error.getMessage()));
+        return withConflictRetry("addProductToBranch", expectedVersion, getFranchiseForUpdate(franchiseId, expectedVersion)
+                        .doOnNext(franchise -> {
+                            franchise.findBranchById(branchId)
+                                    .ifPresentOrElse(
+                                            branch -> {
+                                                product.setId(UUID.randomUUID().toString());
+                                                branch.addProduct(product);
+                                            },
+                                            () -> {
+                                                throw NotFoundException.branch(branchId);
+                                            }
+                                    );
+                        })
+                        .flatMap(franchiseRepository::save))
+                .doOnSuccess(f -> hotPathLogger.info("Producto agregado exitosamente"))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al agregar producto", error));
     }
 
     @Override
-    public Mono<Franchise> removeProductFromBranch(String franchiseId, String branchId, String productId) {
+    public Mono<Franchise> removeProductFromBranch(String franchiseId, String branchId, String productId, Long expectedVersion) {
         logger.info("Eliminando producto ID: {} de sucursal ID: {}", productId, branchId);
         
-        return getFranchiseById(franchiseId)
-                .doOnNext(franchise -> {
-                    franchise.findBranchById(branchId)
-                            .ifPresentOrElse(
-                                    branch -> branch.removeProduct(productId),
-                                    () -> {
-                                        throw new RuntimeException("Sucursal no encontrada con ID: " + branchId);
-                                    }
-                            );
-                })
-                .flatMap(franchiseRepository::save)
+        return withConflictRetry("removeProductFromBranch", expectedVersion, getFranchiseForUpdate(franchiseId, expectedVersion)
+                        .doOnNext(franchise -> {
+                            franchise.findBranchById(branchId)
+                                    .ifPresentOrElse(
+                                            branch -> branch.removeProduct(productId),
+                                            () -> {
+                                                throw NotFoundException.branch(branchId);
+                                            }
+                                    );
+                        })
+                        .flatMap(franchiseRepository::save))
                 .doOnSuccess(f -> logger.info("Producto eliminado exitosamente"))
-                .doOnError(error -> logger.error("Error al eliminar producto: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al eliminar producto", error));
     }
 
     @Override
-    public Mono<Franchise> updateProductStock(String franchiseId, String branchId, String productId, Integer newStock) {
-        logger.info("Actualizando stock del producto ID: {} a: {}", productId, newStock);
+    public Mono<Franchise> updateProductStock(String franchiseId, String branchId, String productId, Integer newStock,
+                                              Long expectedVersion) {
+        hotPathLogger.info("Actualizando stock del producto ID: {} a: {}", productId, newStock);
         
-        return getFranchiseById(franchiseId)
-                .doOnNext(franchise -> {
-                    franchise.findBranchById(branchId)
-                            .ifPresentOrElse(
-                                    branch -> {
-                                        branch.findProductById(productId)
-                                                .ifPresentOrElse(
-                                                        product -> product.updateStock(newStock),
-                                                        () -> {
-                                                            throw new RuntimeException("Producto no encontrado con ID: " + productId);
-                                                        }
-                                                );
-                                    },
-                                    () -> {
-                                        throw new RuntimeException("Sucursal no encontrada con ID: " + branchId);
-                                    }
-                            );
+        return writeProductStock(franchiseId, branchId, productId, newStock, expectedVersion)
+                .then(Mono.defer(() -> getFranchiseById(franchiseId)))
+                .doOnSuccess(f -> hotPathLogger.info("Stock de producto actualizado exitosamente"))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al actualizar stock de producto", error));
+    }
+
+    @Override
+    public Mono<Long> updateProductStockAndGetVersion(String franchiseId, String branchId, String productId, Integer newStock,
+                                                      Long expectedVersion) {
+        hotPathLogger.info("Actualizando stock del producto ID: {} a: {} sin leer la franquicia", productId, newStock);
+        
+        return writeProductStock(franchiseId, branchId, productId, newStock, expectedVersion)
+                .doOnSuccess(version -> hotPathLogger.info("Stock de producto actualizado a la versión: {}", version))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al actualizar stock de producto", error));
+    }
+
+    /**
+     * Escritura en sitio del stock; emite la nueva versión de la franquicia y publica el cambio
+     */
+    private Mono<Long> writeProductStock(String franchiseId, String branchId, String productId, Integer newStock,
+                                         Long expectedVersion) {
+        return Mono.fromRunnable(() -> Product.validateStock(newStock))
+                .then(Mono.defer(() -> franchiseRepository.updateProductStock(franchiseId, branchId, productId, newStock, expectedVersion)))
+                .doOnNext(version -> stockChangeFeed.publish(new StockChange(franchiseId, branchId, productId, newStock)))
+                .switchIfEmpty(Mono.defer(() -> notApplied(franchiseId, branchId, productId, expectedVersion)
+                        .then(Mono.<Long>error(new NotFoundException("Producto no encontrado con ID: " + productId
+                                + " en sucursal ID: " + branchId + " de franquicia ID: " + franchiseId)))));
+    }
+
+    @Override
+    public Mono<StockAdjustmentResult> adjustProductStock(String franchiseId, String branchId, String productId, Integer delta,
+                                                          Long expectedVersion) {
+        hotPathLogger.info("Ajustando en {} el stock del producto ID: {}", delta, productId);
+        
+        // El ajuste se resuelve con una sola escritura condicional, sin lectura previa ni reintentos
+        return Mono.fromRunnable(() -> validateStockDelta(delta))
+                .then(Mono.defer(() -> franchiseRepository.adjustProductStock(franchiseId, branchId, productId, delta, expectedVersion)))
+                .flatMap(result -> result.getStatus() == StockAdjustmentResult.Status.NOT_FOUND
+                        ? notApplied(franchiseId, branchId, productId, expectedVersion).thenReturn(result)
+                        : Mono.just(result))
+                .doOnNext(result -> {
+                    if (result.isAdjusted()) {
+                        stockChangeFeed.publish(new StockChange(franchiseId, branchId, productId, result.getStock()));
+                    }
                 })
-                .flatMap(franchiseRepository::save)
-                .doOnSuccess(f -> logger.info("Stock de producto actualizado exitosamente"))
-                .doOnError(error -> logger.error("Error al actualizar stock de producto: {}", error.getMessage()));
+                .doOnSuccess(result -> hotPathLogger.info("Ajuste de stock finalizado con estado: {}", result.getStatus()))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al ajustar stock de producto", error));
     }
 
     @Override
-    public Mono<Franchise> updateProductName(String franchiseId, String branchId, String productId, String newName) {
+    public Flux<StockUpdateResult> updateProductStocks(List<StockUpdate> updates) {
+        logger.info("Actualizando stock de {} productos en lote", updates.size());
+        
+        if (updates.size() > MAX_STOCK_UPDATES_PER_BATCH) {
+            return Flux.error(new InvalidRequestException(
+                    "El lote no puede superar " + MAX_STOCK_UPDATES_PER_BATCH + " actualizaciones"));
+        }
+        
+        // Los elementos inválidos se informan sin tocar la base de datos; los válidos se agrupan por
+        // franquicia para aplicar una sola escritura por documento
+        List<StockUpdateResult> invalid = new ArrayList<>();
+        Map<String, List<StockUpdate>> byFranchise = new LinkedHashMap<>();
+        for (StockUpdate update : updates) {
+            if (isValid(update)) {
+                byFranchise.computeIfAbsent(update.getFranchiseId(), id -> new ArrayList<>()).add(update);
+            } else {
+                invalid.add(new StockUpdateResult(update, StockUpdateResult.Status.INVALID));
+            }
+        }
+        
+        return Flux.fromIterable(invalid)
+                .concatWith(Flux.fromIterable(byFranchise.entrySet())
+                        .flatMapSequential(group -> franchiseRepository.updateProductStocks(group.getKey(), group.getValue())
+                                .doOnNext(this::publishIfUpdated)
+                                .onErrorResume(error -> {
+                                    logger.error("Error al actualizar stocks de franquicia ID: {}: {}",
+                                            group.getKey(), error.getMessage());
+                                    return Flux.fromIterable(group.getValue())
+                                            .map(update -> new StockUpdateResult(update, StockUpdateResult.Status.FAILED));
+                                })))
+                .doOnComplete(() -> logger.info("Actualizacion de stock en lote finalizada"))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al actualizar stock en lote", error));
+    }
+
+    @Override
+    public Flux<StockAdjustmentItemResult> adjustProductStocks(List<StockAdjustment> adjustments) {
+        hotPathLogger.info("Ajustando stock de {} productos en lote", adjustments.size());
+        
+        if (adjustments.size() > MAX_STOCK_UPDATES_PER_BATCH) {
+            return Flux.error(new InvalidRequestException(
+                    "El lote no puede superar " + MAX_STOCK_UPDATES_PER_BATCH + " ajustes"));
+        }
+        
+        // Igual que en la actualización en lote: los inválidos se informan sin tocar la base de datos
+        // y los válidos se aplican con una escritura por franquicia
+        List<StockAdjustmentItemResult> invalid = new ArrayList<>();
+        Map<String, List<StockAdjustment>> byFranchise = new LinkedHashMap<>();
+        for (StockAdjustment adjustment : adjustments) {
+            if (isValid(adjustment)) {
+                byFranchise.computeIfAbsent(adjustment.getFranchiseId(), id -> new ArrayList<>()).add(adjustment);
+            } else {
+                invalid.add(new StockAdjustmentItemResult(adjustment, StockAdjustmentItemResult.Status.INVALID));
+            }
+        }
+        
+        return Flux.fromIterable(invalid)
+                .concatWith(Flux.fromIterable(byFranchise.entrySet())
+                        .flatMapSequential(group -> franchiseRepository.adjustProductStocks(group.getKey(), group.getValue())
+                                .doOnNext(this::publishIfAdjusted)
+                                .onErrorResume(error -> {
+                                    logger.error("Error al ajustar stocks de franquicia ID: {}: {}",
+                                            group.getKey(), error.getMessage());
+                                    return Flux.fromIterable(group.getValue())
+                                            .map(adjustment -> new StockAdjustmentItemResult(adjustment,
+                                                    StockAdjustmentItemResult.Status.FAILED));
+                                })))
+                .doOnComplete(() -> hotPathLogger.info("Ajuste de stock en lote finalizado"))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al ajustar stock en lote", error));
+    }
+
+    @Override
+    public Mono<Franchise> updateProductName(String franchiseId, String branchId, String productId, String newName,
+                                             Long expectedVersion) {
         logger.info("Actualizando nombre del producto ID: {} a: {}", productId, newName);
         
-        return getFranchiseById(franchiseId)
-                .doOnNext(franchise -> {
-                    franchise.findBranchById(branchId)
-                            .ifPresentOrElse(
-                                    branch -> {
-                                        branch.findProductById(productId)
-                                                .ifPresentOrElse(
-                                                        product -> product.setName(newName),
-                                                        () -> {
-                                                            throw new RuntimeException("Producto no encontrado con ID: " + productId);
-                                                        }
-                                                );
-                                    },
-                                    () -> {
-                                        throw new RuntimeException("Sucursal no encontrada con ID: " + branchId);
-                                    }
-                            );
-                })
-                .flatMap(franchiseRepository::save)
+        return withConflictRetry("updateProductName", expectedVersion, getFranchiseForUpdate(franchiseId, expectedVersion)
+                        .doOnNext(franchise -> {
+                            franchise.findBranchById(branchId)
+                                    .ifPresentOrElse(
+                                            branch -> {
+                                                branch.findProductById(productId)
+                                                        .ifPresentOrElse(
+                                                                product -> product.setName(newName),
+                                                                () -> {
+                                                                    throw NotFoundException.product(productId);
+                                                                }
+                                                        );
+                                            },
+                                            () -> {
+                                                throw NotFoundException.branch(branchId);
+                                            }
+                                    );
+                        })
+                        .flatMap(franchiseRepository::save))
                 .doOnSuccess(f -> logger.info("Nombre de producto actualizado exitosamente"))
-                .doOnError(error -> logger.error("Error al actualizar nombre de producto: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al actualizar nombre de producto", error));
     }
 
     @Override
     public Flux<ProductWithBranch> getProductsWithMaxStockByFranchise(String franchiseId) {
-        logger.info("Obteniendo productos con mayor stock por sucursal para franquicia ID: {}", franchiseId);
+        hotPathLogger.info("Obteniendo productos con mayor stock por sucursal para franquicia ID: {}", franchiseId);
         
-        return getFranchiseById(franchiseId)
-                .map(Franchise::getProductsWithMaxStockByBranch)
-                .flatMapMany(Flux::fromIterable)
+        return franchiseRepository.findProductsWithMaxStockByBranch(franchiseId)
+                .switchIfEmpty(Flux.defer(() -> franchiseRepository.existsById(franchiseId)
+                        .flatMapMany(exists -> exists
+                                ? Flux.<ProductWithBranch>empty()
+                                : Flux.error(NotFoundException.franchise(franchiseId)))))
                 .doOnNext(pwb -> logger.debug("Producto con mayor stock: {} en sucursal: {}", 
                         pwb.getProduct().getName(), pwb.getBranchName()))
-                .doOnError(error -> logger.error("Error al obtener productos con mayor stock: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al obtener productos con mayor stock", error));
+    }
+
+    private void validateStockDelta(Integer delta) {
+        if (delta == null) {
+            throw new InvalidRequestException("La cantidad a ajustar es obligatoria");
+        }
+        if (delta == 0) {
+            throw new InvalidRequestException("La cantidad a ajustar no puede ser cero");
+        }
+    }
+
+    private boolean isValid(StockUpdate update) {
+        return update.getFranchiseId() != null
+                && update.getBranchId() != null
+                && update.getProductId() != null
+                && update.getStock() != null
+                && update.getStock() >= 0;
+    }
+
+    private boolean isValid(StockAdjustment adjustment) {
+        return adjustment.getFranchiseId() != null
+                && adjustment.getBranchId() != null
+                && adjustment.getProductId() != null
+                && adjustment.getDelta() != null
+                && adjustment.getDelta() != 0;
+    }
+
+    @Override
+    public Flux<ProductWithBranch> getTopProductsByFranchise(String franchiseId, int k) {
+        hotPathLogger.info("Obteniendo los {} productos con mayor stock por sucursal para franquicia ID: {}", k, franchiseId);
+        
+        if (k < 1 || k > MAX_TOP_K) {
+            return Flux.error(new InvalidRequestException("k debe estar entre 1 y " + MAX_TOP_K));
+        }
+        return franchiseRepository.findTopProductsByBranch(franchiseId, k)
+                .switchIfEmpty(Flux.defer(() -> franchiseRepository.existsById(franchiseId)
+                        .flatMapMany(exists -> exists
+                                ? Flux.<ProductWithBranch>empty()
+                                : Flux.error(NotFoundException.franchise(franchiseId)))))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al obtener productos con mayor stock", error));
+    }
+
+    @Override
+    public Flux<StockChange> watchStockChanges(String franchiseId) {
+        logger.debug("Observando cambios de stock de franquicia ID: {}", franchiseId);
+        
+        return franchiseRepository.existsById(franchiseId)
+                .flatMapMany(exists -> exists
+                        ? stockChangeFeed.watch(franchiseId)
+                        : Flux.error(NotFoundException.franchise(franchiseId)))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al observar cambios de stock", error));
+    }
+
+    /**
+     * Asigna identificadores a las sucursales y productos que llegan sin ID al crear la franquicia,
+     * para que puedan direccionarse individualmente al persistirse
+     */
+    private void assignMissingIds(Franchise franchise) {
+        for (Branch branch : franchise.getBranches()) {
+            if (branch.getId() == null) {
+                branch.setId(UUID.randomUUID().toString());
+            }
+            for (Product product : branch.getProducts()) {
+                if (product.getId() == null) {
+                    product.setId(UUID.randomUUID().toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * Lee la franquicia a modificar y, si se indicó una versión esperada, comprueba que sea la leída.
+     * El guardado posterior vuelve a exigir esa versión, así que un escritor intermedio también se detecta.
+     */
+    private Mono<Franchise> getFranchiseForUpdate(String id, Long expectedVersion) {
+        return getFranchiseById(id)
+                .doOnNext(franchise -> {
+                    if (expectedVersion != null && !expectedVersion.equals(franchise.getVersion())) {
+                        throw PreconditionFailedException.version(id, expectedVersion);
+                    }
+                });
+    }
+
+    /**
+     * Una escritura en sitio condicionada a una versión no distingue un producto inexistente de una versión
+     * que ya cambió. Solo cuando falla, y solo si había versión esperada, se lee la franquicia: si el producto
+     * existe, lo que no se cumplió fue la versión. Termina vacío cuando el producto realmente no existe.
+     */
+    private Mono<Void> notApplied(String franchiseId, String branchId, String productId, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.empty();
+        }
+        return franchiseRepository.findById(franchiseId)
+                .filter(franchise -> franchise.findBranchById(branchId)
+                        .flatMap(branch -> branch.findProductById(productId))
+                        .isPresent())
+                .flatMap(franchise -> Mono.<Void>error(PreconditionFailedException.version(franchiseId, expectedVersion)));
+    }
+
+    /**
+     * Reintenta una operación de lectura-modificación-escritura cuando el guardado pierde la carrera
+     * contra otro escritor. Cada intento vuelve a leer la franquicia, por lo que el cambio se aplica
+     * sobre la última versión persistida. Si todos los reintentos pierden, la operación termina con
+     * {@link ConflictException}. Con una versión esperada no se reintenta: aplicar el cambio sobre una
+     * versión más nueva violaría la condición del cliente, y la operación termina con
+     * {@link PreconditionFailedException}.
+     */
+    private <T> Mono<T> withConflictRetry(String operation, Long expectedVersion, Mono<T> mutation) {
+        ConflictCounters counters = conflictCounters.get(operation);
+        Mono<T> counted = mutation
+                .doOnError(OptimisticLockingFailureException.class, error -> {
+                    logger.debug("Conflicto de version en operacion: {}", operation);
+                    counters.conflicts.increment();
+                });
+        if (expectedVersion != null) {
+            return counted.onErrorMap(OptimisticLockingFailureException.class, error -> new PreconditionFailedException(
+                    "La franquicia fue modificada despues de la version " + expectedVersion));
+        }
+        return counted
+                .retryWhen(Retry.backoff(MAX_CONFLICT_RETRIES, CONFLICT_MIN_BACKOFF)
+                        .maxBackoff(CONFLICT_MAX_BACKOFF)
+                        .jitter(CONFLICT_BACKOFF_JITTER)
+                        .filter(OptimisticLockingFailureException.class::isInstance)
+                        .doBeforeRetry(signal -> counters.retries.increment())
+                        .onRetryExhaustedThrow((spec, signal) -> new ConflictException(
+                                "La franquicia fue modificada por otra peticion; intente de nuevo", signal.failure())));
+    }
+
+    private void publishIfAdjusted(StockAdjustmentItemResult result) {
+        if (result.isAdjusted()) {
+            StockAdjustment adjustment = result.getAdjustment();
+            stockChangeFeed.publish(new StockChange(adjustment.getFranchiseId(), adjustment.getBranchId(),
+                    adjustment.getProductId(), result.getStock()));
+        }
+    }
+
+    private void publishIfUpdated(StockUpdateResult result) {
+        if (result.getStatus() == StockUpdateResult.Status.UPDATED) {
+            StockUpdate update = result.getUpdate();
+            stockChangeFeed.publish(new StockChange(update.getFranchiseId(), update.getBranchId(),
+                    update.getProductId(), update.getStock()));
+        }
+    }
+
+    /**
+     * Contadores de conflictos y reintentos de una operación, registrados una sola vez
+     */
+    private static final class ConflictCounters {
+
+        private final Counter conflicts;
+        private final Counter retries;
+
+        private ConflictCounters(String operation, MeterRegistry meterRegistry) {
+            this.conflicts = Counter.builder("franchise.write.conflicts")
+                    .description("Escrituras rechazadas por conflicto de version")
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+            this.retries = Counter.builder("franchise.write.retries")
+                    .description("Reintentos de escritura tras un conflicto de version")
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+        }
     }
 }
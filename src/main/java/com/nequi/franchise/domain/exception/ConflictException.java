@@ -0,0 +1,21 @@
+package com.nequi.franchise.domain.exception;
+
+/**
+ * La operación no pudo aplicarse sobre el estado actual del recurso, por ejemplo porque otros escritores
+ * lo siguieron modificando durante todos los reintentos
+ */
+public class ConflictException extends DomainException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    @Override
+    public String getCode() {
+        return "CONFLICT";
+    }
+}
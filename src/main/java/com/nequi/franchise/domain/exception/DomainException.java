@@ -0,0 +1,23 @@
+package com.nequi.franchise.domain.exception;
+
+/**
+ * Error esperado del dominio: un recurso que no existe, un conflicto con el estado actual o una petición
+ * inválida. Son respuestas normales ante clientes que se equivocan, así que no capturan la pila de llamadas
+ * ni admiten excepciones suprimidas: crearlas cuesta lo mismo que cualquier otro objeto pequeño, sin importar
+ * la profundidad de la cadena reactiva en la que se emiten.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    protected DomainException(String message) {
+        this(message, null);
+    }
+
+    protected DomainException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+
+    /**
+     * Código estable del tipo de error, para que los clientes no dependan del texto del mensaje
+     */
+    public abstract String getCode();
+}
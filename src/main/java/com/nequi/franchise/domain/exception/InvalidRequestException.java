@@ -0,0 +1,17 @@
+package com.nequi.franchise.domain.exception;
+
+/**
+ * La petición está bien formada pero sus valores no son aceptables: tamaños de página o de lote fuera de
+ * rango, cantidades de ajuste vacías o en cero
+ */
+public class InvalidRequestException extends DomainException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    @Override
+    public String getCode() {
+        return "INVALID_REQUEST";
+    }
+}
@@ -0,0 +1,28 @@
+package com.nequi.franchise.domain.exception;
+
+/**
+ * La franquicia, sucursal o producto indicado no existe
+ */
+public class NotFoundException extends DomainException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+
+    public static NotFoundException franchise(String franchiseId) {
+        return new NotFoundException("Franquicia no encontrada con ID: " + franchiseId);
+    }
+
+    public static NotFoundException branch(String branchId) {
+        return new NotFoundException("Sucursal no encontrada con ID: " + branchId);
+    }
+
+    public static NotFoundException product(String productId) {
+        return new NotFoundException("Producto no encontrado con ID: " + productId);
+    }
+
+    @Override
+    public String getCode() {
+        return "NOT_FOUND";
+    }
+}
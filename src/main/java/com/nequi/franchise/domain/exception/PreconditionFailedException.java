@@ -0,0 +1,20 @@
+package com.nequi.franchise.domain.exception;
+
+/**
+ * Escritura condicionada a una versión de la franquicia que ya no es la almacenada
+ */
+public class PreconditionFailedException extends DomainException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    public static PreconditionFailedException version(String franchiseId, Long expectedVersion) {
+        return new PreconditionFailedException("La franquicia " + franchiseId + " ya no está en la versión " + expectedVersion);
+    }
+
+    @Override
+    public String getCode() {
+        return "PRECONDITION_FAILED";
+    }
+}
@@ -1,31 +1,41 @@
 package com.nequi.franchise.domain.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
 
 /**
  * Entidad de dominio que representa una sucursal
  */
 public class Branch {
+
     private String id;
     private String name;
-    private List<Product> products;
+    private IndexedList<Product> products;
+    private Franchise franchise;
+    private boolean tracking;
+    private boolean nameChanged;
+    private boolean productsReplaced;
+    private final List<Product> addedProducts = new ArrayList<>();
+    private final List<String> removedProductIds = new ArrayList<>();
 
     public Branch() {
-        this.products = new ArrayList<>();
+        this.products = index(List.of());
     }
 
     public Branch(String id, String name, List<Product> products) {
         this.id = id;
         this.name = name;
-        this.products = products != null ? products : new ArrayList<>();
+        this.products = index(products);
     }
 
     public Branch(String name, List<Product> products) {
         this.name = name;
-        this.products = products != null ? products : new ArrayList<>();
+        this.products = index(products);
     }
 
     public String getId() {
@@ -34,6 +44,9 @@ public class Branch {
 
     public void setId(String id) {
         this.id = id;
+        if (this.franchise != null) {
+            this.franchise.branchIdChanged();
+        }
     }
 
     public String getName() {
@@ -42,14 +55,21 @@ public class Branch {
 
     public void setName(String name) {
         this.name = name;
+        this.nameChanged |= tracking;
     }
 
+    /**
+     * Productos en orden de inserción. La lista es de solo lectura: los cambios se hacen
+     * con {@link #addProduct(Product)}, {@link #removeProduct(String)} o {@link #setProducts(List)}
+     */
     public List<Product> getProducts() {
-        return products;
+        return products.asList();
     }
 
     public void setProducts(List<Product> products) {
-        this.products = products != null ? products : new ArrayList<>();
+        this.products.asList().forEach(product -> product.setBranch(null));
+        this.products = index(products);
+        this.productsReplaced |= tracking;
     }
 
     public void addProduct(Product product) {
@@ -57,21 +77,154 @@ public class Branch {
             throw new IllegalArgumentException("El producto no puede ser nulo");
         }
         this.products.add(product);
+        product.setBranch(this);
+        if (tracking) {
+            this.addedProducts.add(product);
+        }
     }
 
     public void removeProduct(String productId) {
-        this.products.removeIf(product -> product.getId().equals(productId));
+        Product removed = this.products.remove(productId);
+        if (removed == null) {
+            return;
+        }
+        removed.setBranch(null);
+        if (tracking && !this.addedProducts.remove(removed)) {
+            this.removedProductIds.add(productId);
+        }
     }
 
     public Optional<Product> findProductById(String productId) {
-        return this.products.stream()
-                .filter(product -> product.getId().equals(productId))
-                .findFirst();
+        return Optional.ofNullable(this.products.get(productId));
     }
 
+    /**
+     * Producto con mayor stock; ante empate, el primero que se agregó a la sucursal
+     */
     public Optional<Product> findProductWithMaxStock() {
-        return this.products.stream()
-                .max((p1, p2) -> Integer.compare(p1.getStock(), p2.getStock()));
+        Product best = null;
+        for (Product product : this.products.asList()) {
+            if (best == null || product.getStock() > best.getStock()) {
+                best = product;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Los {@code k} productos con mayor stock, de mayor a menor y, ante empate, en orden de inserción.
+     * Recorre los productos una vez con un montículo de {@code k} posiciones: O(n log k)
+     */
+    public List<Product> findTopProductsByStock(int k) {
+        List<Product> all = this.products.asList();
+        int count = Math.min(Math.max(k, 0), all.size());
+        if (count == 0) {
+            return new ArrayList<>();
+        }
+        // La raíz es la posición que peor se ubica: menor stock y, ante empate, la que llegó después
+        Comparator<Integer> worstFirst = Comparator.<Integer>comparingInt(position -> all.get(position).getStock())
+                .thenComparing(Comparator.reverseOrder());
+        PriorityQueue<Integer> heap = new PriorityQueue<>(count, worstFirst);
+        for (int position = 0; position < all.size(); position++) {
+            if (heap.size() < count) {
+                heap.add(position);
+            } else if (worstFirst.compare(position, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(position);
+            }
+        }
+        Product[] top = new Product[count];
+        for (int i = count - 1; i >= 0; i--) {
+            top[i] = all.get(heap.poll());
+        }
+        return new ArrayList<>(List.of(top));
+    }
+
+    /**
+     * Toma el estado actual de la sucursal y sus productos como persistido
+     * y empieza a registrar los cambios posteriores
+     */
+    public void startTracking() {
+        this.tracking = true;
+        this.nameChanged = false;
+        this.productsReplaced = false;
+        this.addedProducts.clear();
+        this.removedProductIds.clear();
+        this.products.asList().forEach(Product::startTracking);
+    }
+
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    public boolean isNameChanged() {
+        return nameChanged;
+    }
+
+    /**
+     * Indica que la lista de productos se reemplazó completa mediante {@link #setProducts(List)}
+     */
+    public boolean isProductsReplaced() {
+        return productsReplaced;
+    }
+
+    public List<Product> getAddedProducts() {
+        return Collections.unmodifiableList(addedProducts);
+    }
+
+    public List<String> getRemovedProductIds() {
+        return Collections.unmodifiableList(removedProductIds);
+    }
+
+    /**
+     * Productos que ya estaban persistidos y cambiaron de nombre o de stock
+     */
+    public List<Product> getChangedProducts() {
+        List<Product> changed = new ArrayList<>();
+        for (Product product : this.products.asList()) {
+            if (product.hasChanges() && !this.addedProducts.contains(product)) {
+                changed.add(product);
+            }
+        }
+        return changed;
+    }
+
+    public boolean hasChanges() {
+        return nameChanged || productsReplaced || !addedProducts.isEmpty() || !removedProductIds.isEmpty()
+                || this.products.asList().stream().anyMatch(Product::hasChanges);
+    }
+
+    /**
+     * Crea una copia independiente de la sucursal y sus productos. Si el original registra cambios,
+     * la copia empieza a registrarlos desde su estado actual.
+     */
+    public Branch copy() {
+        List<Product> productCopies = new ArrayList<>(this.products.size());
+        for (Product product : this.products.asList()) {
+            productCopies.add(product.copy());
+        }
+        Branch copy = new Branch(this.id, this.name, productCopies);
+        if (this.tracking) {
+            copy.startTracking();
+        }
+        return copy;
+    }
+
+    /**
+     * Franquicia que contiene la sucursal; la asigna la franquicia al agregarla o quitarla
+     */
+    void setFranchise(Franchise franchise) {
+        this.franchise = franchise;
+    }
+
+    void productIdChanged() {
+        this.products.markStale();
+    }
+
+    private IndexedList<Product> index(List<Product> products) {
+        IndexedList<Product> indexed = new IndexedList<>(Product::getId, products != null ? products : List.of());
+        indexed.asList().forEach(product -> product.setBranch(this));
+        return indexed;
     }
 
     @Override
@@ -92,7 +245,7 @@ public class Branch {
         return "Branch{" +
                 "id='" + id + '\'' +
                 ", name='" + name + '\'' +
-                ", products=" + products +
+                ", products=" + products.asList() +
                 '}';
     }
 }
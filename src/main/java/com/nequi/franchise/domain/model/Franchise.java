@@ -1,6 +1,7 @@
 package com.nequi.franchise.domain.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -11,21 +12,27 @@ import java.util.Optional;
 public class Franchise {
     private String id;
     private String name;
-    private List<Branch> branches;
+    private IndexedList<Branch> branches;
+    private Long version;
+    private boolean tracking;
+    private boolean nameChanged;
+    private boolean branchesReplaced;
+    private final List<Branch> addedBranches = new ArrayList<>();
+    private final List<String> removedBranchIds = new ArrayList<>();
 
     public Franchise() {
-        this.branches = new ArrayList<>();
+        this.branches = index(List.of());
     }
 
     public Franchise(String id, String name, List<Branch> branches) {
         this.id = id;
         this.name = name;
-        this.branches = branches != null ? branches : new ArrayList<>();
+        this.branches = index(branches);
     }
 
     public Franchise(String name, List<Branch> branches) {
         this.name = name;
-        this.branches = branches != null ? branches : new ArrayList<>();
+        this.branches = index(branches);
     }
 
     public String getId() {
@@ -42,14 +49,32 @@ public class Franchise {
 
     public void setName(String name) {
         this.name = name;
+        this.nameChanged |= tracking;
     }
 
+    /**
+     * Sucursales en orden de inserción. La lista es de solo lectura: los cambios se hacen
+     * con {@link #addBranch(Branch)}, {@link #removeBranch(String)} o {@link #setBranches(List)}
+     */
     public List<Branch> getBranches() {
-        return branches;
+        return branches.asList();
     }
 
     public void setBranches(List<Branch> branches) {
-        this.branches = branches != null ? branches : new ArrayList<>();
+        this.branches.asList().forEach(branch -> branch.setFranchise(null));
+        this.branches = index(branches);
+        this.branchesReplaced |= tracking;
+    }
+
+    /**
+     * Versión persistida de la franquicia; es nula mientras la franquicia no se haya guardado
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
     }
 
     public void addBranch(Branch branch) {
@@ -57,27 +82,130 @@ public class Franchise {
             throw new IllegalArgumentException("La sucursal no puede ser nula");
         }
         this.branches.add(branch);
+        branch.setFranchise(this);
+        if (tracking) {
+            this.addedBranches.add(branch);
+        }
     }
 
     public void removeBranch(String branchId) {
-        this.branches.removeIf(branch -> branch.getId().equals(branchId));
+        Branch removed = this.branches.remove(branchId);
+        if (removed == null) {
+            return;
+        }
+        removed.setFranchise(null);
+        if (tracking && !this.addedBranches.remove(removed)) {
+            this.removedBranchIds.add(branchId);
+        }
     }
 
     public Optional<Branch> findBranchById(String branchId) {
-        return this.branches.stream()
-                .filter(branch -> branch.getId().equals(branchId))
-                .findFirst();
+        return Optional.ofNullable(this.branches.get(branchId));
     }
 
     public List<ProductWithBranch> getProductsWithMaxStockByBranch() {
         List<ProductWithBranch> result = new ArrayList<>();
-        for (Branch branch : this.branches) {
+        for (Branch branch : this.branches.asList()) {
             branch.findProductWithMaxStock()
                     .ifPresent(product -> result.add(new ProductWithBranch(product, branch.getName())));
         }
         return result;
     }
 
+    /**
+     * Los {@code k} productos con mayor stock de cada sucursal, agrupados por sucursal en su orden
+     */
+    public List<ProductWithBranch> getTopProductsByBranch(int k) {
+        List<ProductWithBranch> result = new ArrayList<>();
+        for (Branch branch : this.branches.asList()) {
+            for (Product product : branch.findTopProductsByStock(k)) {
+                result.add(new ProductWithBranch(product, branch.getName()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Toma el estado actual del agregado como persistido y empieza a registrar los cambios
+     * posteriores, para que la persistencia escriba solo lo que cambió
+     */
+    public void startTracking() {
+        this.tracking = true;
+        this.nameChanged = false;
+        this.branchesReplaced = false;
+        this.addedBranches.clear();
+        this.removedBranchIds.clear();
+        this.branches.asList().forEach(Branch::startTracking);
+    }
+
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    public boolean isNameChanged() {
+        return nameChanged;
+    }
+
+    /**
+     * Indica que la lista de sucursales se reemplazó completa mediante {@link #setBranches(List)}
+     */
+    public boolean isBranchesReplaced() {
+        return branchesReplaced;
+    }
+
+    public List<Branch> getAddedBranches() {
+        return Collections.unmodifiableList(addedBranches);
+    }
+
+    public List<String> getRemovedBranchIds() {
+        return Collections.unmodifiableList(removedBranchIds);
+    }
+
+    /**
+     * Sucursales que ya estaban persistidas y tienen cambios propios o en sus productos
+     */
+    public List<Branch> getChangedBranches() {
+        List<Branch> changed = new ArrayList<>();
+        for (Branch branch : this.branches.asList()) {
+            if (branch.isTracking() && branch.hasChanges() && !this.addedBranches.contains(branch)) {
+                changed.add(branch);
+            }
+        }
+        return changed;
+    }
+
+    public boolean hasChanges() {
+        return nameChanged || branchesReplaced || !addedBranches.isEmpty() || !removedBranchIds.isEmpty()
+                || this.branches.asList().stream().anyMatch(branch -> branch.isTracking() && branch.hasChanges());
+    }
+
+    /**
+     * Crea una copia independiente del agregado completo, incluida la versión. Si el original
+     * registra cambios, la copia empieza a registrarlos desde su estado actual.
+     */
+    public Franchise copy() {
+        List<Branch> branchCopies = new ArrayList<>(this.branches.size());
+        for (Branch branch : this.branches.asList()) {
+            branchCopies.add(branch.copy());
+        }
+        Franchise copy = new Franchise(this.id, this.name, branchCopies);
+        copy.setVersion(this.version);
+        if (this.tracking) {
+            copy.startTracking();
+        }
+        return copy;
+    }
+
+    void branchIdChanged() {
+        this.branches.markStale();
+    }
+
+    private IndexedList<Branch> index(List<Branch> branches) {
+        IndexedList<Branch> indexed = new IndexedList<>(Branch::getId, branches != null ? branches : List.of());
+        indexed.asList().forEach(branch -> branch.setFranchise(this));
+        return indexed;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -96,7 +224,8 @@ public class Franchise {
         return "Franchise{" +
                 "id='" + id + '\'' +
                 ", name='" + name + '\'' +
-                ", branches=" + branches +
+                ", branches=" + branches.asList() +
+                ", version=" + version +
                 '}';
     }
 
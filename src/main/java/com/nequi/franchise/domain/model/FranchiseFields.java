@@ -0,0 +1,143 @@
+package com.nequi.franchise.domain.model;
+
+import com.nequi.franchise.domain.exception.InvalidRequestException;
+
+import java.util.Objects;
+
+/**
+ * Campos de {@code FranchiseDto} que pidió el cliente con {@code ?fields=}, separados por comas:
+ * {@code id}, {@code name}, {@code branches}, {@code branches.id}, {@code branches.name},
+ * {@code branches.products}, {@code branches.products.id}, {@code branches.products.name} y
+ * {@code branches.products.stock}. Pedir un campo compuesto incluye todo lo que contiene, y pedir uno anidado
+ * incluye la estructura que lo rodea con solo ese campo. La selección se traduce a la proyección de MongoDB,
+ * así que lo que no se pidió no se lee ni se serializa. Dos selecciones con los mismos campos son iguales.
+ */
+public final class FranchiseFields {
+
+    public static final FranchiseFields ALL = new FranchiseFields(true, true, true, true, true, true, true);
+
+    private final boolean id;
+    private final boolean name;
+    private final boolean branchId;
+    private final boolean branchName;
+    private final boolean productId;
+    private final boolean productName;
+    private final boolean productStock;
+
+    private FranchiseFields(boolean id, boolean name, boolean branchId, boolean branchName,
+                            boolean productId, boolean productName, boolean productStock) {
+        this.id = id;
+        this.name = name;
+        this.branchId = branchId;
+        this.branchName = branchName;
+        this.productId = productId;
+        this.productName = productName;
+        this.productStock = productStock;
+    }
+
+    /**
+     * Interpreta el parámetro {@code fields}; sin valor se devuelven todos los campos
+     */
+    public static FranchiseFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        boolean id = false;
+        boolean name = false;
+        boolean branchId = false;
+        boolean branchName = false;
+        boolean productId = false;
+        boolean productName = false;
+        boolean productStock = false;
+        for (String field : fields.split(",")) {
+            switch (field.trim()) {
+                case "id":
+                    id = true;
+                    break;
+                case "name":
+                    name = true;
+                    break;
+                case "branches":
+                    branchId = true;
+                    branchName = true;
+                    productId = true;
+                    productName = true;
+                    productStock = true;
+                    break;
+                case "branches.id":
+                    branchId = true;
+                    break;
+                case "branches.name":
+                    branchName = true;
+                    break;
+                case "branches.products":
+                    productId = true;
+                    productName = true;
+                    productStock = true;
+                    break;
+                case "branches.products.id":
+                    productId = true;
+                    break;
+                case "branches.products.name":
+                    productName = true;
+                    break;
+                case "branches.products.stock":
+                    productStock = true;
+                    break;
+                default:
+                    throw new InvalidRequestException("Campo desconocido en fields: " + field.trim());
+            }
+        }
+        return new FranchiseFields(id, name, branchId, branchName, productId, productName, productStock);
+    }
+
+    public boolean id() {
+        return id;
+    }
+
+    public boolean name() {
+        return name;
+    }
+
+    public boolean branches() {
+        return branchId || branchName || products();
+    }
+
+    public boolean branchId() {
+        return branchId;
+    }
+
+    public boolean branchName() {
+        return branchName;
+    }
+
+    public boolean products() {
+        return productId || productName || productStock;
+    }
+
+    public boolean productId() {
+        return productId;
+    }
+
+    public boolean productName() {
+        return productName;
+    }
+
+    public boolean productStock() {
+        return productStock;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FranchiseFields that = (FranchiseFields) o;
+        return id == that.id && name == that.name && branchId == that.branchId && branchName == that.branchName
+                && productId == that.productId && productName == that.productName && productStock == that.productStock;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, branchId, branchName, productId, productName, productStock);
+    }
+}
@@ -0,0 +1,25 @@
+package com.nequi.franchise.domain.model;
+
+/**
+ * JSON de una franquicia junto con la versión del documento del que se escribió, para que la versión
+ * que se informe al cliente corresponda exactamente al contenido entregado. Si se pidió un
+ * {@link PayloadFormat} binario, los bytes están en ese formato.
+ */
+public final class FranchiseJson {
+
+    private final byte[] json;
+    private final long version;
+
+    public FranchiseJson(byte[] json, long version) {
+        this.json = json;
+        this.version = version;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
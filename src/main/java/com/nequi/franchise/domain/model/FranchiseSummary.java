@@ -0,0 +1,37 @@
+package com.nequi.franchise.domain.model;
+
+/**
+ * Vista resumida de una franquicia para listados: no incluye sucursales ni productos
+ */
+public class FranchiseSummary {
+    private final String id;
+    private final String name;
+    private final int branchCount;
+
+    public FranchiseSummary(String id, String name, int branchCount) {
+        this.id = id;
+        this.name = name;
+        this.branchCount = branchCount;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getBranchCount() {
+        return branchCount;
+    }
+
+    @Override
+    public String toString() {
+        return "FranchiseSummary{" +
+                "id='" + id + '\'' +
+                ", name='" + name + '\'' +
+                ", branchCount=" + branchCount +
+                '}';
+    }
+}
@@ -0,0 +1,37 @@
+package com.nequi.franchise.domain.model;
+
+import java.util.List;
+
+/**
+ * Página de resúmenes de franquicias ordenada por ID.
+ * {@code nextAfterId} es el ID a partir del cual continúa la siguiente página, o null si no hay más.
+ */
+public class FranchiseSummaryPage {
+    private final List<FranchiseSummary> items;
+    private final String nextAfterId;
+
+    public FranchiseSummaryPage(List<FranchiseSummary> items, String nextAfterId) {
+        this.items = items;
+        this.nextAfterId = nextAfterId;
+    }
+
+    public List<FranchiseSummary> getItems() {
+        return items;
+    }
+
+    public String getNextAfterId() {
+        return nextAfterId;
+    }
+
+    public boolean hasNext() {
+        return nextAfterId != null;
+    }
+
+    @Override
+    public String toString() {
+        return "FranchiseSummaryPage{" +
+                "items=" + items +
+                ", nextAfterId='" + nextAfterId + '\'' +
+                '}';
+    }
+}
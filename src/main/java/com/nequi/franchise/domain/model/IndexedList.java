@@ -0,0 +1,92 @@
+package com.nequi.franchise.domain.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Colección que conserva el orden de inserción e indexa sus elementos por ID,
+ * de modo que buscar y eliminar por ID cuesta O(1).
+ * Los elementos que todavía no tienen ID, o cuyo ID repite uno existente, se guardan con una clave
+ * provisional; cuando cambia el ID de un elemento el dueño llama a {@link #markStale()} y el índice
+ * se reconstruye una sola vez en la siguiente consulta.
+ */
+final class IndexedList<T> {
+
+    private final Function<T, String> idOf;
+    private LinkedHashMap<Object, T> elements;
+    private boolean stale;
+    private List<T> view;
+
+    IndexedList(Function<T, String> idOf, Collection<T> initial) {
+        this.idOf = idOf;
+        this.elements = new LinkedHashMap<>(capacityFor(initial.size()));
+        for (T element : initial) {
+            add(element);
+        }
+    }
+
+    void add(T element) {
+        elements.put(keyOf(element), element);
+        view = null;
+    }
+
+    T get(String id) {
+        ensureIndexed();
+        return elements.get(id);
+    }
+
+    T remove(String id) {
+        ensureIndexed();
+        T removed = elements.remove(id);
+        if (removed != null) {
+            view = null;
+        }
+        return removed;
+    }
+
+    int size() {
+        return elements.size();
+    }
+
+    /**
+     * Vista inmutable en orden de inserción; se reutiliza mientras la colección no cambie
+     */
+    List<T> asList() {
+        if (view == null) {
+            view = Collections.unmodifiableList(new ArrayList<>(elements.values()));
+        }
+        return view;
+    }
+
+    /**
+     * Indica que el ID de algún elemento cambió y las claves del índice deben recalcularse
+     */
+    void markStale() {
+        stale = true;
+    }
+
+    private void ensureIndexed() {
+        if (!stale) {
+            return;
+        }
+        LinkedHashMap<Object, T> current = elements;
+        elements = new LinkedHashMap<>(capacityFor(current.size()));
+        for (T element : current.values()) {
+            elements.put(keyOf(element), element);
+        }
+        stale = false;
+    }
+
+    private Object keyOf(T element) {
+        String id = idOf.apply(element);
+        return id != null && !elements.containsKey(id) ? id : new Object();
+    }
+
+    private static int capacityFor(int size) {
+        return Math.max(16, (int) (size / 0.75f) + 1);
+    }
+}
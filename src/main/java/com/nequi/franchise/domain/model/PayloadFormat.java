@@ -0,0 +1,11 @@
+package com.nequi.franchise.domain.model;
+
+/**
+ * Formatos en los que se puede escribir una franquicia. Los tres tienen el mismo modelo de datos que JSON;
+ * CBOR y Smile son binarios, más compactos y más baratos de codificar y decodificar.
+ */
+public enum PayloadFormat {
+    JSON,
+    CBOR,
+    SMILE
+}
@@ -1,5 +1,7 @@
 package com.nequi.franchise.domain.model;
 
+import com.nequi.franchise.domain.exception.InvalidRequestException;
+
 import java.util.Objects;
 
 /**
@@ -8,17 +10,21 @@ import java.util.Objects;
 public class Product {
     private String id;
     private String name;
-    private Integer stock;
+    private int stock;
+    private boolean tracking;
+    private boolean nameChanged;
+    private boolean stockChanged;
+    private Branch branch;
 
     public Product() {}
 
-    public Product(String id, String name, Integer stock) {
+    public Product(String id, String name, int stock) {
         this.id = id;
         this.name = name;
         this.stock = stock;
     }
 
-    public Product(String name, Integer stock) {
+    public Product(String name, int stock) {
         this.name = name;
         this.stock = stock;
     }
@@ -29,6 +35,9 @@ public class Product {
 
     public void setId(String id) {
         this.id = id;
+        if (this.branch != null) {
+            this.branch.productIdChanged();
+        }
     }
 
     public String getName() {
@@ -37,21 +46,84 @@ public class Product {
 
     public void setName(String name) {
         this.name = name;
+        this.nameChanged |= tracking;
     }
 
-    public Integer getStock() {
+    public int getStock() {
         return stock;
     }
 
-    public void setStock(Integer stock) {
+    public void setStock(int stock) {
         this.stock = stock;
+        this.stockChanged |= tracking;
+    }
+
+    public void updateStock(int newStock) {
+        validateStock(newStock);
+        setStock(newStock);
+    }
+
+    /**
+     * Valida un valor de stock antes de aplicarlo, ya sea en memoria o directamente en la base de datos
+     */
+    public static void validateStock(int stock) {
+        if (stock < 0) {
+            throw new InvalidRequestException("El stock no puede ser negativo");
+        }
+    }
+
+    /**
+     * Valida un stock recibido desde fuera del dominio, donde {@code null} significa que no se informó
+     */
+    public static void validateStock(Integer stock) {
+        if (stock == null) {
+            throw new InvalidRequestException("El stock es obligatorio");
+        }
+        validateStock(stock.intValue());
+    }
+
+    /**
+     * Sucursal que contiene el producto; la asigna la sucursal al agregarlo o quitarlo
+     */
+    void setBranch(Branch branch) {
+        this.branch = branch;
+    }
+
+    /**
+     * Toma el estado actual como persistido y empieza a registrar los cambios posteriores
+     */
+    public void startTracking() {
+        this.tracking = true;
+        this.nameChanged = false;
+        this.stockChanged = false;
+    }
+
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    public boolean isNameChanged() {
+        return nameChanged;
+    }
+
+    public boolean isStockChanged() {
+        return stockChanged;
+    }
+
+    public boolean hasChanges() {
+        return nameChanged || stockChanged;
     }
 
-    public void updateStock(Integer newStock) {
-        if (newStock < 0) {
-            throw new IllegalArgumentException("El stock no puede ser negativo");
+    /**
+     * Crea una copia independiente del producto. Si el original registra cambios,
+     * la copia empieza a registrarlos desde su estado actual.
+     */
+    public Product copy() {
+        Product copy = new Product(this.id, this.name, this.stock);
+        if (this.tracking) {
+            copy.startTracking();
         }
-        this.stock = newStock;
+        return copy;
     }
 
     @Override
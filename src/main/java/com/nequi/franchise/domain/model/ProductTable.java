@@ -0,0 +1,242 @@
+package com.nequi.franchise.domain.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Contenedor compacto de productos organizado por columnas: el ID, el nombre y el stock de cada producto
+ * viven en arreglos paralelos, de modo que una sucursal con cientos de miles de productos ocupa unos pocos
+ * arreglos en lugar de un objeto por producto. Conserva el orden de inserción y busca por ID en O(1)
+ * con una tabla hash de direccionamiento abierto sobre enteros.
+ * Cada producto se identifica por su fila; si dos productos comparten ID, la búsqueda devuelve el primero.
+ */
+public final class ProductTable {
+
+    private static final int NO_ROW = -1;
+    private static final int MIN_CAPACITY = 8;
+
+    private String[] ids;
+    private String[] names;
+    private int[] stocks;
+    private int size;
+    // Celdas de la tabla hash: cada una guarda la fila de un producto o NO_ROW; siempre queda al menos la mitad libre
+    private int[] slots;
+
+    public ProductTable() {
+        this(MIN_CAPACITY);
+    }
+
+    public ProductTable(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, expectedSize);
+        this.ids = new String[capacity];
+        this.names = new String[capacity];
+        this.stocks = new int[capacity];
+        this.slots = newSlots(capacity);
+    }
+
+    public static ProductTable of(Collection<Product> products) {
+        ProductTable table = new ProductTable(products.size());
+        for (Product product : products) {
+            table.add(product.getId(), product.getName(), product.getStock());
+        }
+        return table;
+    }
+
+    /**
+     * Agrega un producto al final de la tabla y devuelve su fila
+     */
+    public int add(String id, String name, int stock) {
+        if (size == stocks.length) {
+            grow();
+        }
+        int row = size++;
+        ids[row] = id;
+        names[row] = name;
+        stocks[row] = stock;
+        if (id != null) {
+            insertSlot(row);
+        }
+        return row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Fila del producto con el ID indicado, o -1 si no está en la tabla
+     */
+    public int indexOf(String id) {
+        if (id == null) {
+            return NO_ROW;
+        }
+        int mask = slots.length - 1;
+        for (int slot = spread(id.hashCode()) & mask; slots[slot] != NO_ROW; slot = (slot + 1) & mask) {
+            if (id.equals(ids[slots[slot]])) {
+                return slots[slot];
+            }
+        }
+        return NO_ROW;
+    }
+
+    public String getId(int row) {
+        return ids[checkRow(row)];
+    }
+
+    public String getName(int row) {
+        return names[checkRow(row)];
+    }
+
+    public int getStock(int row) {
+        return stocks[checkRow(row)];
+    }
+
+    public void setStock(int row, int stock) {
+        stocks[checkRow(row)] = stock;
+    }
+
+    /**
+     * Fila del producto con mayor stock; ante empate, la primera. Devuelve -1 si la tabla está vacía
+     */
+    public int indexOfMaxStock() {
+        int best = NO_ROW;
+        for (int row = 0; row < size; row++) {
+            if (best == NO_ROW || stocks[row] > stocks[best]) {
+                best = row;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Filas de los {@code k} productos con mayor stock, de mayor a menor y, ante empate, en orden de inserción.
+     * Recorre la tabla una sola vez manteniendo un montículo de {@code k} filas
+     */
+    public int[] topRowsByStock(int k) {
+        int count = Math.min(Math.max(k, 0), size);
+        int[] heap = new int[count];
+        int heapSize = 0;
+        for (int row = 0; row < size && count > 0; row++) {
+            if (heapSize < count) {
+                heap[heapSize] = row;
+                siftUp(heap, heapSize++);
+            } else if (ranksBefore(row, heap[0])) {
+                heap[0] = row;
+                siftDown(heap, 0, heapSize);
+            }
+        }
+        // Vaciar el montículo deja primero al peor; se llena el resultado desde el final
+        int[] top = new int[count];
+        for (int i = count - 1; i >= 0; i--) {
+            top[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, 0, heapSize);
+        }
+        return top;
+    }
+
+    public Product toProduct(int row) {
+        checkRow(row);
+        return new Product(ids[row], names[row], stocks[row]);
+    }
+
+    /**
+     * Materializa los productos en orden de inserción
+     */
+    public List<Product> toProducts() {
+        List<Product> products = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            products.add(new Product(ids[row], names[row], stocks[row]));
+        }
+        return products;
+    }
+
+    /**
+     * Indica si la fila {@code a} va antes que la fila {@code b} en el orden por stock descendente
+     */
+    private boolean ranksBefore(int a, int b) {
+        return stocks[a] != stocks[b] ? stocks[a] > stocks[b] : a < b;
+    }
+
+    // El montículo tiene en la raíz la fila que peor se ubica, para descartarla primero
+    private void siftUp(int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(heap[parent], heap[index])) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int index, int heapSize) {
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && ranksBefore(heap[worst], heap[left])) {
+                worst = left;
+            }
+            if (right < heapSize && ranksBefore(heap[worst], heap[right])) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(heap, worst, index);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private void grow() {
+        int capacity = stocks.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        stocks = Arrays.copyOf(stocks, capacity);
+        slots = newSlots(capacity);
+        for (int row = 0; row < size; row++) {
+            if (ids[row] != null) {
+                insertSlot(row);
+            }
+        }
+    }
+
+    private void insertSlot(int row) {
+        String id = ids[row];
+        int mask = slots.length - 1;
+        int slot = spread(id.hashCode()) & mask;
+        while (slots[slot] != NO_ROW) {
+            if (id.equals(ids[slots[slot]])) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = row;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Fila fuera de rango: " + row);
+        }
+        return row;
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] slots = new int[Integer.highestOneBit(capacity) << 2];
+        Arrays.fill(slots, NO_ROW);
+        return slots;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,45 @@
+package com.nequi.franchise.domain.model;
+
+/**
+ * Ajuste relativo de stock solicitado para un producto dentro de un lote de ajustes.
+ * Refleja la solicitud tal como llegó: un {@code delta} nulo o cero indica que el ítem es inválido
+ */
+public class StockAdjustment {
+    private final String franchiseId;
+    private final String branchId;
+    private final String productId;
+    private final Integer delta;
+
+    public StockAdjustment(String franchiseId, String branchId, String productId, Integer delta) {
+        this.franchiseId = franchiseId;
+        this.branchId = branchId;
+        this.productId = productId;
+        this.delta = delta;
+    }
+
+    public String getFranchiseId() {
+        return franchiseId;
+    }
+
+    public String getBranchId() {
+        return branchId;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    @Override
+    public String toString() {
+        return "StockAdjustment{" +
+                "franchiseId='" + franchiseId + '\'' +
+                ", branchId='" + branchId + '\'' +
+                ", productId='" + productId + '\'' +
+                ", delta=" + delta +
+                '}';
+    }
+}
@@ -0,0 +1,69 @@
+package com.nequi.franchise.domain.model;
+
+/**
+ * Resultado individual de un elemento de un lote de ajustes de stock
+ */
+public class StockAdjustmentItemResult {
+
+    /**
+     * Estado final de un elemento
+     */
+    public enum Status {
+        ADJUSTED,
+        NOT_FOUND,
+        INSUFFICIENT_STOCK,
+        STOCK_OVERFLOW,
+        INVALID,
+        FAILED
+    }
+
+    private final StockAdjustment adjustment;
+    private final Status status;
+    private final int stock;
+
+    public StockAdjustmentItemResult(StockAdjustment adjustment, Status status, int stock) {
+        this.adjustment = adjustment;
+        this.status = status;
+        this.stock = stock;
+    }
+
+    public StockAdjustmentItemResult(StockAdjustment adjustment, Status status) {
+        this(adjustment, status, 0);
+    }
+
+    /**
+     * Resultado de un elemento aplicado por separado
+     */
+    public static StockAdjustmentItemResult of(StockAdjustment adjustment, StockAdjustmentResult result) {
+        return new StockAdjustmentItemResult(adjustment, Status.valueOf(result.getStatus().name()), result.getStock());
+    }
+
+    public StockAdjustment getAdjustment() {
+        return adjustment;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isAdjusted() {
+        return status == Status.ADJUSTED;
+    }
+
+    /**
+     * Stock del producto inmediatamente después de este ajuste; solo tiene sentido cuando el estado es
+     * {@link Status#ADJUSTED}
+     */
+    public int getStock() {
+        return stock;
+    }
+
+    @Override
+    public String toString() {
+        return "StockAdjustmentItemResult{" +
+                "adjustment=" + adjustment +
+                ", status=" + status +
+                ", stock=" + stock +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+package com.nequi.franchise.domain.model;
+
+/**
+ * Resultado de aplicar un ajuste relativo (incremento o decremento) al stock de un producto
+ */
+public class StockAdjustmentResult {
+
+    /**
+     * Estado final del ajuste
+     */
+    public enum Status {
+        ADJUSTED,
+        NOT_FOUND,
+        INSUFFICIENT_STOCK,
+        /**
+         * El incremento dejaría el stock por encima del máximo representable
+         */
+        STOCK_OVERFLOW
+    }
+
+    private final Status status;
+    private final int stock;
+
+    public StockAdjustmentResult(Status status, int stock) {
+        this.status = status;
+        this.stock = stock;
+    }
+
+    public static StockAdjustmentResult adjusted(int stock) {
+        return new StockAdjustmentResult(Status.ADJUSTED, stock);
+    }
+
+    public static StockAdjustmentResult notFound() {
+        return new StockAdjustmentResult(Status.NOT_FOUND, 0);
+    }
+
+    public static StockAdjustmentResult insufficientStock() {
+        return new StockAdjustmentResult(Status.INSUFFICIENT_STOCK, 0);
+    }
+
+    public static StockAdjustmentResult stockOverflow() {
+        return new StockAdjustmentResult(Status.STOCK_OVERFLOW, 0);
+    }
+
+    /**
+     * Resultado de un ajuste que no se aplicó sobre un producto existente: la guarda que falló depende del signo
+     */
+    public static StockAdjustmentResult rejected(int delta) {
+        return delta > 0 ? stockOverflow() : insufficientStock();
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isAdjusted() {
+        return status == Status.ADJUSTED;
+    }
+
+    /**
+     * Stock resultante tras el ajuste; solo tiene sentido cuando el estado es {@link Status#ADJUSTED}
+     */
+    public int getStock() {
+        return stock;
+    }
+
+    @Override
+    public String toString() {
+        return "StockAdjustmentResult{" +
+                "status=" + status +
+                ", stock=" + stock +
+                '}';
+    }
+}
@@ -0,0 +1,45 @@
+package com.nequi.franchise.domain.model;
+
+/**
+ * Stock resultante de un producto después de una escritura aplicada, tal como se notifica a quienes
+ * observan la franquicia
+ */
+public class StockChange {
+    private final String franchiseId;
+    private final String branchId;
+    private final String productId;
+    private final int stock;
+
+    public StockChange(String franchiseId, String branchId, String productId, int stock) {
+        this.franchiseId = franchiseId;
+        this.branchId = branchId;
+        this.productId = productId;
+        this.stock = stock;
+    }
+
+    public String getFranchiseId() {
+        return franchiseId;
+    }
+
+    public String getBranchId() {
+        return branchId;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    @Override
+    public String toString() {
+        return "StockChange{" +
+                "franchiseId='" + franchiseId + '\'' +
+                ", branchId='" + branchId + '\'' +
+                ", productId='" + productId + '\'' +
+                ", stock=" + stock +
+                '}';
+    }
+}
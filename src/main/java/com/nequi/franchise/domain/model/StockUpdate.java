@@ -0,0 +1,45 @@
+package com.nequi.franchise.domain.model;
+
+/**
+ * Cambio de stock solicitado para un producto dentro de una actualización masiva.
+ * Refleja la solicitud tal como llegó: un stock {@code null} indica que no se informó y el ítem se rechaza como inválido
+ */
+public class StockUpdate {
+    private final String franchiseId;
+    private final String branchId;
+    private final String productId;
+    private final Integer stock;
+
+    public StockUpdate(String franchiseId, String branchId, String productId, Integer stock) {
+        this.franchiseId = franchiseId;
+        this.branchId = branchId;
+        this.productId = productId;
+        this.stock = stock;
+    }
+
+    public String getFranchiseId() {
+        return franchiseId;
+    }
+
+    public String getBranchId() {
+        return branchId;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    @Override
+    public String toString() {
+        return "StockUpdate{" +
+                "franchiseId='" + franchiseId + '\'' +
+                ", branchId='" + branchId + '\'' +
+                ", productId='" + productId + '\'' +
+                ", stock=" + stock +
+                '}';
+    }
+}
@@ -0,0 +1,41 @@
+package com.nequi.franchise.domain.model;
+
+/**
+ * Resultado individual de un elemento de una actualización masiva de stock
+ */
+public class StockUpdateResult {
+
+    /**
+     * Estado final de un elemento
+     */
+    public enum Status {
+        UPDATED,
+        NOT_FOUND,
+        INVALID,
+        FAILED
+    }
+
+    private final StockUpdate update;
+    private final Status status;
+
+    public StockUpdateResult(StockUpdate update, Status status) {
+        this.update = update;
+        this.status = status;
+    }
+
+    public StockUpdate getUpdate() {
+        return update;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return "StockUpdateResult{" +
+                "update=" + update +
+                ", status=" + status +
+                '}';
+    }
+}
@@ -1,9 +1,21 @@
 package com.nequi.franchise.domain.port;
 
 import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.FranchiseJson;
+import com.nequi.franchise.domain.model.FranchiseSummary;
+import com.nequi.franchise.domain.model.Franchise.ProductWithBranch;
+import com.nequi.franchise.domain.model.PayloadFormat;
+import com.nequi.franchise.domain.model.StockAdjustment;
+import com.nequi.franchise.domain.model.StockAdjustmentItemResult;
+import com.nequi.franchise.domain.model.StockAdjustmentResult;
+import com.nequi.franchise.domain.model.StockUpdate;
+import com.nequi.franchise.domain.model.StockUpdateResult;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * Puerto para el repositorio de franquicias
  */
@@ -13,9 +25,73 @@ public interface FranchiseRepository {
     
     Mono<Franchise> findById(String id);
     
+    /**
+     * Franquicia con el ID indicado ya serializada en el formato pedido, con la forma de {@code FranchiseDto}
+     * y solo con los campos seleccionados, junto con la versión del documento leído; vacío si no existe.
+     * Se escribe directamente desde el documento almacenado, sin armar el agregado de dominio.
+     */
+    Mono<FranchiseJson> findJsonById(String id, FranchiseFields fields, PayloadFormat format);
+    
+    /**
+     * Versión almacenada de la franquicia, o vacío si no existe. Solo se lee ese campo, para responder a una
+     * petición condicional sin traer ni serializar el documento
+     */
+    Mono<Long> findVersionById(String id);
+    
     Flux<Franchise> findAll();
     
-    Mono<Void> deleteById(String id);
+    /**
+     * Lista resúmenes de franquicias ordenados por ID, empezando después de {@code afterId}
+     * (null para empezar desde el principio). Un {@code limit} de 0 no limita los resultados.
+     */
+    Flux<FranchiseSummary> findSummaries(String afterId, int limit);
+    
+    /**
+     * Elimina la franquicia y emite si se eliminó. Si {@code expectedVersion} no es null, solo se elimina
+     * si la franquicia está en esa versión; si no lo está, emite false y nada se elimina.
+     */
+    Mono<Boolean> deleteById(String id, Long expectedVersion);
     
     Mono<Boolean> existsById(String id);
+    
+    /**
+     * Actualiza en sitio el stock de un producto sin reescribir la franquicia y emite la nueva versión
+     * de la franquicia. No emite nada si la franquicia, la sucursal o el producto no existen, o si
+     * {@code expectedVersion} no es null y la franquicia no está en esa versión.
+     */
+    Mono<Long> updateProductStock(String franchiseId, String branchId, String productId, int newStock, Long expectedVersion);
+    
+    /**
+     * Aplica varios cambios de stock de una misma franquicia en una sola escritura
+     * y emite el resultado de cada elemento.
+     */
+    Flux<StockUpdateResult> updateProductStocks(String franchiseId, List<StockUpdate> updates);
+    
+    /**
+     * Suma {@code delta} al stock de un producto en una única operación atómica de la base de datos.
+     * Un decremento solo se aplica si el stock actual alcanza para cubrirlo, por lo que el stock
+     * nunca queda negativo aunque haya ventas concurrentes. Si {@code expectedVersion} no es null y la
+     * franquicia no está en esa versión, el resultado es {@code NOT_FOUND} y nada se escribe.
+     */
+    Mono<StockAdjustmentResult> adjustProductStock(String franchiseId, String branchId, String productId, int delta,
+                                                   Long expectedVersion);
+    
+    /**
+     * Aplica varios ajustes relativos de stock de una misma franquicia y emite el resultado de cada elemento
+     * en el orden recibido. Los ajustes de un mismo producto se aplican en ese orden: un decremento solo se
+     * aplica si el stock que dejan los anteriores alcanza para cubrirlo.
+     */
+    Flux<StockAdjustmentItemResult> adjustProductStocks(String franchiseId, List<StockAdjustment> adjustments);
+    
+    /**
+     * Calcula en la base de datos el producto con mayor stock de cada sucursal.
+     * Las sucursales sin productos se omiten; una franquicia inexistente produce un flujo vacío.
+     */
+    Flux<ProductWithBranch> findProductsWithMaxStockByBranch(String franchiseId);
+    
+    /**
+     * Los {@code k} productos con mayor stock de cada sucursal, agrupados por sucursal en su orden.
+     * Las sucursales sin productos se omiten; una franquicia inexistente produce un flujo vacío.
+     */
+    Flux<ProductWithBranch> findTopProductsByBranch(String franchiseId, int k);
 }
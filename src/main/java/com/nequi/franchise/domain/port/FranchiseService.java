@@ -2,13 +2,29 @@ package com.nequi.franchise.domain.port;
 
 import com.nequi.franchise.domain.model.Branch;
 import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.FranchiseJson;
+import com.nequi.franchise.domain.model.FranchiseSummary;
+import com.nequi.franchise.domain.model.FranchiseSummaryPage;
+import com.nequi.franchise.domain.model.PayloadFormat;
 import com.nequi.franchise.domain.model.Product;
+import com.nequi.franchise.domain.model.StockAdjustment;
+import com.nequi.franchise.domain.model.StockAdjustmentItemResult;
+import com.nequi.franchise.domain.model.StockAdjustmentResult;
+import com.nequi.franchise.domain.model.StockChange;
+import com.nequi.franchise.domain.model.StockUpdate;
+import com.nequi.franchise.domain.model.StockUpdateResult;
 import com.nequi.franchise.domain.model.Franchise.ProductWithBranch;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
- * Puerto para el servicio de franquicias
+ * Puerto para el servicio de franquicias.
+ * Las operaciones que modifican una franquicia reciben {@code expectedVersion}: si no es null, el cambio solo
+ * se aplica cuando la franquicia almacenada está en esa versión y, si no, terminan con
+ * {@code PreconditionFailedException} sin reintentar.
  */
 public interface FranchiseService {
     
@@ -17,26 +33,66 @@ public interface FranchiseService {
     
     Mono<Franchise> getFranchiseById(String id);
     
+    /**
+     * Lectura pura de la franquicia ya serializada, sin armar el agregado; vacío si no existe
+     */
+    Mono<FranchiseJson> getFranchiseJsonById(String id, FranchiseFields fields, PayloadFormat format);
+    
+    /**
+     * Versión vigente de la franquicia, o vacío si no existe
+     */
+    Mono<Long> getFranchiseVersionById(String id);
+    
     Flux<Franchise> getAllFranchises();
     
-    Mono<Franchise> updateFranchiseName(String id, String newName);
+    Mono<FranchiseSummaryPage> getFranchiseSummaries(String afterId, Integer size);
     
-    Mono<Void> deleteFranchise(String id);
+    Flux<FranchiseSummary> streamFranchiseSummaries(String afterId);
+    
+    Mono<Franchise> updateFranchiseName(String id, String newName, Long expectedVersion);
+    
+    Mono<Void> deleteFranchise(String id, Long expectedVersion);
     
     // Operaciones de sucursal
-    Mono<Franchise> addBranchToFranchise(String franchiseId, Branch branch);
+    Mono<Franchise> addBranchToFranchise(String franchiseId, Branch branch, Long expectedVersion);
     
-    Mono<Franchise> updateBranchName(String franchiseId, String branchId, String newName);
+    Mono<Franchise> updateBranchName(String franchiseId, String branchId, String newName, Long expectedVersion);
     
     // Operaciones de producto
-    Mono<Franchise> addProductToBranch(String franchiseId, String branchId, Product product);
+    Mono<Franchise> addProductToBranch(String franchiseId, String branchId, Product product, Long expectedVersion);
+    
+    Mono<Franchise> removeProductFromBranch(String franchiseId, String branchId, String productId, Long expectedVersion);
     
-    Mono<Franchise> removeProductFromBranch(String franchiseId, String branchId, String productId);
+    Mono<Franchise> updateProductStock(String franchiseId, String branchId, String productId, Integer newStock,
+                                       Long expectedVersion);
     
-    Mono<Franchise> updateProductStock(String franchiseId, String branchId, String productId, Integer newStock);
+    /**
+     * Igual que {@link #updateProductStock} pero sin volver a leer la franquicia: emite solo su nueva versión
+     */
+    Mono<Long> updateProductStockAndGetVersion(String franchiseId, String branchId, String productId, Integer newStock,
+                                               Long expectedVersion);
     
-    Mono<Franchise> updateProductName(String franchiseId, String branchId, String productId, String newName);
+    Mono<StockAdjustmentResult> adjustProductStock(String franchiseId, String branchId, String productId, Integer delta,
+                                                   Long expectedVersion);
+    
+    Flux<StockUpdateResult> updateProductStocks(List<StockUpdate> updates);
+    
+    /**
+     * Aplica un lote de ajustes relativos, de una o varias franquicias, con una escritura por franquicia.
+     * Emite el resultado de cada elemento; los de una misma franquicia conservan el orden recibido.
+     */
+    Flux<StockAdjustmentItemResult> adjustProductStocks(List<StockAdjustment> adjustments);
+    
+    Mono<Franchise> updateProductName(String franchiseId, String branchId, String productId, String newName,
+                                      Long expectedVersion);
     
     // Consultas especiales
     Flux<ProductWithBranch> getProductsWithMaxStockByFranchise(String franchiseId);
+    
+    Flux<ProductWithBranch> getTopProductsByFranchise(String franchiseId, int k);
+    
+    /**
+     * Cambios de stock aplicados a la franquicia desde la suscripción; falla si la franquicia no existe
+     */
+    Flux<StockChange> watchStockChanges(String franchiseId);
 }
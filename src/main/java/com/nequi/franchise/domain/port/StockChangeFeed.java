@@ -0,0 +1,19 @@
+package com.nequi.franchise.domain.port;
+
+import com.nequi.franchise.domain.model.StockChange;
+import reactor.core.publisher.Flux;
+
+/**
+ * Puerto para difundir los cambios de stock a quienes observan una franquicia.
+ * Publicar nunca bloquea ni falla la escritura que originó el cambio: un observador lento pierde los cambios
+ * más viejos en lugar de frenar a los demás.
+ */
+public interface StockChangeFeed {
+
+    void publish(StockChange change);
+
+    /**
+     * Cambios de stock de la franquicia publicados desde la suscripción; no termina mientras haya suscriptor
+     */
+    Flux<StockChange> watch(String franchiseId);
+}
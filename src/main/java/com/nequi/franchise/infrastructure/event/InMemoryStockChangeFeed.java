@@ -0,0 +1,91 @@
+package com.nequi.franchise.infrastructure.event;
+
+import com.nequi.franchise.domain.model.StockChange;
+import com.nequi.franchise.domain.port.StockChangeFeed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Difusión en memoria de los cambios de stock, con un sink multicast por franquicia observada.
+ * El sink existe solo mientras la franquicia tiene suscriptores: publicar un cambio de una franquicia que nadie
+ * observa cuesta una búsqueda en el mapa. Cada suscriptor tiene su propio buffer acotado que, al llenarse,
+ * descarta el cambio más viejo ({@code franchise.stock.stream.dropped}); así una escritura se entrega a todos
+ * los observadores sin copias por suscriptor y un cliente lento solo se atrasa a sí mismo.
+ * Los cambios solo llegan a los observadores de esta instancia.
+ */
+@Component
+public class InMemoryStockChangeFeed implements StockChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryStockChangeFeed.class);
+
+    private final ConcurrentHashMap<String, Feed> feeds = new ConcurrentHashMap<>();
+    private final int bufferSize;
+    private final Counter dropped;
+
+    public InMemoryStockChangeFeed(@Value("${franchise.stock-stream.buffer-size:256}") int bufferSize,
+                                   MeterRegistry meterRegistry) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("El buffer de cada suscriptor debe ser positivo");
+        }
+        this.bufferSize = bufferSize;
+        this.dropped = Counter.builder("franchise.stock.stream.dropped")
+                .description("Cambios de stock descartados por suscriptores lentos")
+                .register(meterRegistry);
+        Gauge.builder("franchise.stock.stream.franchises", feeds, ConcurrentHashMap::size)
+                .description("Franquicias con observadores de stock")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(StockChange change) {
+        Feed feed = feeds.get(change.getFranchiseId());
+        if (feed == null) {
+            return;
+        }
+        // El sink no admite emisiones concurrentes; la sección crítica solo entrega el cambio a los buffers
+        Sinks.EmitResult result;
+        synchronized (feed) {
+            result = feed.sink.tryEmitNext(change);
+        }
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            logger.debug("Cambio de stock no publicado para franquicia ID: {}: {}", change.getFranchiseId(), result);
+        }
+    }
+
+    @Override
+    public Flux<StockChange> watch(String franchiseId) {
+        return Flux.defer(() -> {
+            Feed feed = feeds.compute(franchiseId, (id, current) -> {
+                Feed subscribed = current != null ? current : new Feed();
+                subscribed.subscribers++;
+                return subscribed;
+            });
+            return feed.sink.asFlux()
+                    .onBackpressureBuffer(bufferSize, change -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST)
+                    .doFinally(signal -> feeds.computeIfPresent(franchiseId,
+                            (id, current) -> current == feed && --current.subscribers == 0 ? null : current));
+        });
+    }
+
+    int watchedFranchises() {
+        return feeds.size();
+    }
+
+    /**
+     * Sink de una franquicia; {@code subscribers} solo se modifica dentro de {@code compute} sobre su clave
+     */
+    private static final class Feed {
+        private final Sinks.Many<StockChange> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers;
+    }
+}
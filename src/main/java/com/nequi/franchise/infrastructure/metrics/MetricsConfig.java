@@ -0,0 +1,24 @@
+package com.nequi.franchise.infrastructure.metrics;
+
+import com.nequi.franchise.application.usecase.FranchiseUseCase;
+import com.nequi.franchise.domain.port.FranchiseService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Expone el servicio de franquicias medido como implementación primaria, de modo que los controladores
+ * reciben el decorador y el caso de uso queda detrás.
+ * Las latencias por comando y colección de MongoDB las registra el listener de comandos que Spring Boot
+ * agrega al cliente ({@code mongodb.driver.commands}); su histograma se activa en {@code application.yml}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    @Primary
+    public FranchiseService timedFranchiseService(FranchiseUseCase franchiseUseCase, MeterRegistry meterRegistry) {
+        return new TimedFranchiseService(franchiseUseCase, meterRegistry);
+    }
+}
@@ -0,0 +1,247 @@
+package com.nequi.franchise.infrastructure.metrics;
+
+import com.nequi.franchise.domain.model.Branch;
+import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.Franchise.ProductWithBranch;
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.FranchiseJson;
+import com.nequi.franchise.domain.model.FranchiseSummary;
+import com.nequi.franchise.domain.model.FranchiseSummaryPage;
+import com.nequi.franchise.domain.model.PayloadFormat;
+import com.nequi.franchise.domain.model.Product;
+import com.nequi.franchise.domain.model.StockAdjustment;
+import com.nequi.franchise.domain.model.StockAdjustmentItemResult;
+import com.nequi.franchise.domain.model.StockAdjustmentResult;
+import com.nequi.franchise.domain.model.StockChange;
+import com.nequi.franchise.domain.model.StockUpdate;
+import com.nequi.franchise.domain.model.StockUpdateResult;
+import com.nequi.franchise.domain.port.FranchiseService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decorador del servicio de franquicias que mide cada operación con un timer {@code franchise.service}
+ * (etiquetas {@code operation} y {@code outcome}: {@code success}, {@code error} o {@code cancelled}) con
+ * histograma de percentiles. El tiempo va desde la suscripción hasta la terminación o la cancelación.
+ * Las franquicias que devuelven las operaciones alimentan los resúmenes {@code franchise.branches}
+ * y {@code franchise.products} (productos por franquicia).
+ * Solo se miden las llamadas que llegan desde fuera; las que el caso de uso se hace a sí mismo no se cuentan dos veces.
+ */
+public class TimedFranchiseService implements FranchiseService {
+
+    private final FranchiseService delegate;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, OperationTimers> timers = new ConcurrentHashMap<>();
+    private final DistributionSummary branches;
+    private final DistributionSummary products;
+
+    public TimedFranchiseService(FranchiseService delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.branches = DistributionSummary.builder("franchise.branches")
+                .description("Sucursales por franquicia devuelta por el servicio")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.products = DistributionSummary.builder("franchise.products")
+                .description("Productos por franquicia devuelta por el servicio")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Franchise> createFranchise(Franchise franchise) {
+        return timedFranchise("createFranchise", delegate.createFranchise(franchise));
+    }
+
+    @Override
+    public Mono<Franchise> getFranchiseById(String id) {
+        return timedFranchise("getFranchiseById", delegate.getFranchiseById(id));
+    }
+
+    @Override
+    public Mono<FranchiseJson> getFranchiseJsonById(String id, FranchiseFields fields, PayloadFormat format) {
+        return timed("getFranchiseJsonById", delegate.getFranchiseJsonById(id, fields, format));
+    }
+
+    @Override
+    public Mono<Long> getFranchiseVersionById(String id) {
+        return timed("getFranchiseVersionById", delegate.getFranchiseVersionById(id));
+    }
+
+    @Override
+    public Flux<Franchise> getAllFranchises() {
+        return timed("getAllFranchises", delegate.getAllFranchises());
+    }
+
+    @Override
+    public Mono<FranchiseSummaryPage> getFranchiseSummaries(String afterId, Integer size) {
+        return timed("getFranchiseSummaries", delegate.getFranchiseSummaries(afterId, size));
+    }
+
+    @Override
+    public Flux<FranchiseSummary> streamFranchiseSummaries(String afterId) {
+        return timed("streamFranchiseSummaries", delegate.streamFranchiseSummaries(afterId));
+    }
+
+    @Override
+    public Mono<Franchise> updateFranchiseName(String id, String newName, Long expectedVersion) {
+        return timedFranchise("updateFranchiseName", delegate.updateFranchiseName(id, newName, expectedVersion));
+    }
+
+    @Override
+    public Mono<Void> deleteFranchise(String id, Long expectedVersion) {
+        return timed("deleteFranchise", delegate.deleteFranchise(id, expectedVersion));
+    }
+
+    @Override
+    public Mono<Franchise> addBranchToFranchise(String franchiseId, Branch branch, Long expectedVersion) {
+        return timedFranchise("addBranchToFranchise", delegate.addBranchToFranchise(franchiseId, branch, expectedVersion));
+    }
+
+    @Override
+    public Mono<Franchise> updateBranchName(String franchiseId, String branchId, String newName, Long expectedVersion) {
+        return timedFranchise("updateBranchName", delegate.updateBranchName(franchiseId, branchId, newName, expectedVersion));
+    }
+
+    @Override
+    public Mono<Franchise> addProductToBranch(String franchiseId, String branchId, Product product, Long expectedVersion) {
+        return timedFranchise("addProductToBranch", delegate.addProductToBranch(franchiseId, branchId, product, expectedVersion));
+    }
+
+    @Override
+    public Mono<Franchise> removeProductFromBranch(String franchiseId, String branchId, String productId, Long expectedVersion) {
+        return timedFranchise("removeProductFromBranch",
+                delegate.removeProductFromBranch(franchiseId, branchId, productId, expectedVersion));
+    }
+
+    @Override
+    public Mono<Franchise> updateProductStock(String franchiseId, String branchId, String productId, Integer newStock,
+                                              Long expectedVersion) {
+        return timedFranchise("updateProductStock",
+                delegate.updateProductStock(franchiseId, branchId, productId, newStock, expectedVersion));
+    }
+
+    @Override
+    public Mono<Long> updateProductStockAndGetVersion(String franchiseId, String branchId, String productId, Integer newStock,
+                                                      Long expectedVersion) {
+        return timed("updateProductStockAndGetVersion",
+                delegate.updateProductStockAndGetVersion(franchiseId, branchId, productId, newStock, expectedVersion));
+    }
+
+    @Override
+    public Mono<StockAdjustmentResult> adjustProductStock(String franchiseId, String branchId, String productId, Integer delta,
+                                                          Long expectedVersion) {
+        return timed("adjustProductStock", delegate.adjustProductStock(franchiseId, branchId, productId, delta, expectedVersion));
+    }
+
+    @Override
+    public Flux<StockUpdateResult> updateProductStocks(List<StockUpdate> updates) {
+        return timed("updateProductStocks", delegate.updateProductStocks(updates));
+    }
+
+    @Override
+    public Flux<StockAdjustmentItemResult> adjustProductStocks(List<StockAdjustment> adjustments) {
+        return timed("adjustProductStocks", delegate.adjustProductStocks(adjustments));
+    }
+
+    @Override
+    public Mono<Franchise> updateProductName(String franchiseId, String branchId, String productId, String newName,
+                                             Long expectedVersion) {
+        return timedFranchise("updateProductName",
+                delegate.updateProductName(franchiseId, branchId, productId, newName, expectedVersion));
+    }
+
+    @Override
+    public Flux<ProductWithBranch> getProductsWithMaxStockByFranchise(String franchiseId) {
+        return timed("getProductsWithMaxStockByFranchise", delegate.getProductsWithMaxStockByFranchise(franchiseId));
+    }
+
+    @Override
+    public Flux<ProductWithBranch> getTopProductsByFranchise(String franchiseId, int k) {
+        return timed("getTopProductsByFranchise", delegate.getTopProductsByFranchise(franchiseId, k));
+    }
+
+    /**
+     * No se mide: la suscripción dura lo que el cliente mantenga abierta la conexión
+     */
+    @Override
+    public Flux<StockChange> watchStockChanges(String franchiseId) {
+        return delegate.watchStockChanges(franchiseId);
+    }
+
+    private Mono<Franchise> timedFranchise(String operation, Mono<Franchise> franchise) {
+        return timed(operation, franchise.doOnNext(this::recordShape));
+    }
+
+    private <T> Mono<T> timed(String operation, Mono<T> mono) {
+        OperationTimers operationTimers = timers(operation);
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return mono.doFinally(signal -> sample.stop(operationTimers.forSignal(signal)));
+        });
+    }
+
+    private <T> Flux<T> timed(String operation, Flux<T> flux) {
+        OperationTimers operationTimers = timers(operation);
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return flux.doFinally(signal -> sample.stop(operationTimers.forSignal(signal)));
+        });
+    }
+
+    private OperationTimers timers(String operation) {
+        return timers.computeIfAbsent(operation, name -> new OperationTimers(name, meterRegistry));
+    }
+
+    private void recordShape(Franchise franchise) {
+        int productCount = 0;
+        for (Branch branch : franchise.getBranches()) {
+            productCount += branch.getProducts().size();
+        }
+        branches.record(franchise.getBranches().size());
+        products.record(productCount);
+    }
+
+    /**
+     * Timers de una operación, uno por resultado, registrados una sola vez
+     */
+    private static final class OperationTimers {
+
+        private final Timer success;
+        private final Timer error;
+        private final Timer cancelled;
+
+        private OperationTimers(String operation, MeterRegistry meterRegistry) {
+            this.success = timer(operation, "success", meterRegistry);
+            this.error = timer(operation, "error", meterRegistry);
+            this.cancelled = timer(operation, "cancelled", meterRegistry);
+        }
+
+        private Timer forSignal(SignalType signal) {
+            switch (signal) {
+                case ON_ERROR:
+                    return error;
+                case CANCEL:
+                    return cancelled;
+                default:
+                    return success;
+            }
+        }
+
+        private static Timer timer(String operation, String outcome, MeterRegistry meterRegistry) {
+            return Timer.builder("franchise.service")
+                    .description("Duración de las operaciones del servicio de franquicias")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+}
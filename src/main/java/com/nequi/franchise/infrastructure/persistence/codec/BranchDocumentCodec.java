@@ -0,0 +1,88 @@
+package com.nequi.franchise.infrastructure.persistence.codec;
+
+import com.nequi.franchise.infrastructure.persistence.document.BranchDocument;
+import com.nequi.franchise.infrastructure.persistence.document.ProductDocument;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Códec de {@link BranchDocument}: {@code _id}, {@code name}, {@code franchise_id} y los productos embebidos
+ */
+public class BranchDocumentCodec implements Codec<BranchDocument> {
+
+    private final Codec<ProductDocument> productCodec;
+
+    public BranchDocumentCodec(Codec<ProductDocument> productCodec) {
+        this.productCodec = productCodec;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, BranchDocument branch, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        CodecSupport.writeId(writer, branch.getId());
+        CodecSupport.writeString(writer, "name", branch.getName());
+        CodecSupport.writeString(writer, "franchise_id", branch.getFranchiseId());
+        if (branch.getProducts() != null) {
+            writer.writeStartArray("products");
+            for (ProductDocument product : branch.getProducts()) {
+                encoderContext.encodeWithChildContext(productCodec, writer, product);
+            }
+            writer.writeEndArray();
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public BranchDocument decode(BsonReader reader, DecoderContext decoderContext) {
+        BranchDocument branch = new BranchDocument();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case CodecSupport.ID:
+                    branch.setId(CodecSupport.readString(reader));
+                    break;
+                case "name":
+                    branch.setName(CodecSupport.readString(reader));
+                    break;
+                case "franchise_id":
+                    branch.setFranchiseId(CodecSupport.readString(reader));
+                    break;
+                case "products":
+                    if (CodecSupport.isArray(reader)) {
+                        branch.setProducts(readProducts(reader, decoderContext));
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return branch;
+    }
+
+    @Override
+    public Class<BranchDocument> getEncoderClass() {
+        return BranchDocument.class;
+    }
+
+    private List<ProductDocument> readProducts(BsonReader reader, DecoderContext decoderContext) {
+        List<ProductDocument> products = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+                products.add(decoderContext.decodeWithChildContext(productCodec, reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndArray();
+        return products;
+    }
+}
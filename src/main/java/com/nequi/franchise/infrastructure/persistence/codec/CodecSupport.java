@@ -0,0 +1,107 @@
+package com.nequi.franchise.infrastructure.persistence.codec;
+
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+
+/**
+ * Lectura y escritura de valores con las mismas reglas que aplica el convertidor de Spring Data,
+ * de modo que los documentos escritos por los códecs y por la plantilla sean intercambiables
+ */
+final class CodecSupport {
+
+    static final String ID = "_id";
+
+    private CodecSupport() {}
+
+    /**
+     * Spring Data guarda como ObjectId los IDs de texto que tienen ese formato
+     */
+    static void writeId(BsonWriter writer, String id) {
+        if (id == null) {
+            return;
+        }
+        writer.writeName(ID);
+        if (ObjectId.isValid(id)) {
+            writer.writeObjectId(new ObjectId(id));
+        } else {
+            writer.writeString(id);
+        }
+    }
+
+    /**
+     * Los campos nulos no se escriben, igual que en Spring Data
+     */
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    static String readString(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case STRING:
+                return reader.readString();
+            case OBJECT_ID:
+                return reader.readObjectId().toHexString();
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    /**
+     * Como el convertidor, los decimales se descartan y un valor fuera del rango de int es un error
+     * en lugar de truncarse
+     */
+    static int readInt(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return toInt(reader.readInt64());
+            case DOUBLE:
+                return toInt((long) reader.readDouble());
+            default:
+                reader.skipValue();
+                return 0;
+        }
+    }
+
+    /**
+     * Lee el valor completo, sin pasar por int: la versión de una franquicia es un long
+     */
+    static Long readLong(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return (long) reader.readInt32();
+            case INT64:
+                return reader.readInt64();
+            case DOUBLE:
+                return (long) reader.readDouble();
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    private static int toInt(long value) {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new BsonInvalidOperationException("El valor " + value + " no cabe en un int");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Indica si el valor actual es un arreglo; si no lo es, lo descarta
+     */
+    static boolean isArray(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.ARRAY) {
+            return true;
+        }
+        reader.skipValue();
+        return false;
+    }
+}
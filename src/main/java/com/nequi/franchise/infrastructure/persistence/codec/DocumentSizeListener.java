@@ -0,0 +1,20 @@
+package com.nequi.franchise.infrastructure.persistence.codec;
+
+/**
+ * Recibe el tamaño en bytes de cada documento de franquicia que {@link FranchiseDocumentCodec} decodifica
+ * o codifica en formato binario
+ */
+public interface DocumentSizeListener {
+
+    DocumentSizeListener NONE = new DocumentSizeListener() {
+        @Override
+        public void decoded(int bytes) {}
+
+        @Override
+        public void encoded(int bytes) {}
+    };
+
+    void decoded(int bytes);
+
+    void encoded(int bytes);
+}
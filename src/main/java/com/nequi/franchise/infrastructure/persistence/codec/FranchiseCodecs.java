@@ -0,0 +1,22 @@
+package com.nequi.franchise.infrastructure.persistence.codec;
+
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Registro con los códecs de los documentos de franquicias, sucursales y productos
+ */
+public final class FranchiseCodecs {
+
+    private FranchiseCodecs() {}
+
+    public static CodecRegistry codecRegistry() {
+        return codecRegistry(DocumentSizeListener.NONE);
+    }
+
+    public static CodecRegistry codecRegistry(DocumentSizeListener sizeListener) {
+        ProductDocumentCodec productCodec = new ProductDocumentCodec();
+        BranchDocumentCodec branchCodec = new BranchDocumentCodec(productCodec);
+        return CodecRegistries.fromCodecs(productCodec, branchCodec, new FranchiseDocumentCodec(branchCodec, sizeListener));
+    }
+}
@@ -0,0 +1,119 @@
+package com.nequi.franchise.infrastructure.persistence.codec;
+
+import com.nequi.franchise.infrastructure.persistence.document.BranchDocument;
+import com.nequi.franchise.infrastructure.persistence.document.FranchiseDocument;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Códec de {@link FranchiseDocument}: {@code _id}, {@code name}, las sucursales embebidas y {@code version}.
+ * En el modo normalizado la raíz no tiene sucursales y se lee con la lista vacía.
+ * Cuando lee o escribe BSON binario, como hace el driver, informa el tamaño del documento a un {@link DocumentSizeListener}
+ */
+public class FranchiseDocumentCodec implements Codec<FranchiseDocument> {
+
+    private final Codec<BranchDocument> branchCodec;
+    private final DocumentSizeListener sizeListener;
+
+    public FranchiseDocumentCodec(Codec<BranchDocument> branchCodec) {
+        this(branchCodec, DocumentSizeListener.NONE);
+    }
+
+    public FranchiseDocumentCodec(Codec<BranchDocument> branchCodec, DocumentSizeListener sizeListener) {
+        this.branchCodec = branchCodec;
+        this.sizeListener = sizeListener;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, FranchiseDocument franchise, EncoderContext encoderContext) {
+        int start = position(writer);
+        writer.writeStartDocument();
+        CodecSupport.writeId(writer, franchise.getId());
+        CodecSupport.writeString(writer, "name", franchise.getName());
+        if (franchise.getBranches() != null) {
+            writer.writeStartArray("branches");
+            for (BranchDocument branch : franchise.getBranches()) {
+                encoderContext.encodeWithChildContext(branchCodec, writer, branch);
+            }
+            writer.writeEndArray();
+        }
+        if (franchise.getVersion() != null) {
+            writer.writeInt64("version", franchise.getVersion());
+        }
+        writer.writeEndDocument();
+        if (start >= 0) {
+            sizeListener.encoded(position(writer) - start);
+        }
+    }
+
+    @Override
+    public FranchiseDocument decode(BsonReader reader, DecoderContext decoderContext) {
+        int start = position(reader);
+        FranchiseDocument franchise = new FranchiseDocument();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case CodecSupport.ID:
+                    franchise.setId(CodecSupport.readString(reader));
+                    break;
+                case "name":
+                    franchise.setName(CodecSupport.readString(reader));
+                    break;
+                case "branches":
+                    if (CodecSupport.isArray(reader)) {
+                        franchise.setBranches(readBranches(reader, decoderContext));
+                    }
+                    break;
+                case "version":
+                    franchise.setVersion(CodecSupport.readLong(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        if (start >= 0) {
+            sizeListener.decoded(position(reader) - start);
+        }
+        return franchise;
+    }
+
+    @Override
+    public Class<FranchiseDocument> getEncoderClass() {
+        return FranchiseDocument.class;
+    }
+
+    /**
+     * Posición en el buffer binario, o -1 si el lector no es binario (p. ej. un {@code BsonDocumentReader})
+     */
+    private static int position(BsonReader reader) {
+        return reader instanceof BsonBinaryReader ? ((BsonBinaryReader) reader).getBsonInput().getPosition() : -1;
+    }
+
+    private static int position(BsonWriter writer) {
+        return writer instanceof BsonBinaryWriter ? ((BsonBinaryWriter) writer).getBsonOutput().getPosition() : -1;
+    }
+
+    private List<BranchDocument> readBranches(BsonReader reader, DecoderContext decoderContext) {
+        List<BranchDocument> branches = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+                branches.add(decoderContext.decodeWithChildContext(branchCodec, reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndArray();
+        return branches;
+    }
+}
@@ -0,0 +1,61 @@
+package com.nequi.franchise.infrastructure.persistence.codec;
+
+import com.nequi.franchise.infrastructure.persistence.document.ProductDocument;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Códec de {@link ProductDocument}: {@code _id}, {@code name}, {@code stock} y, en el modo normalizado,
+ * {@code branch_id} y {@code franchise_id}
+ */
+public class ProductDocumentCodec implements Codec<ProductDocument> {
+
+    @Override
+    public void encode(BsonWriter writer, ProductDocument product, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        CodecSupport.writeId(writer, product.getId());
+        CodecSupport.writeString(writer, "name", product.getName());
+        writer.writeInt32("stock", product.getStock());
+        CodecSupport.writeString(writer, "branch_id", product.getBranchId());
+        CodecSupport.writeString(writer, "franchise_id", product.getFranchiseId());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public ProductDocument decode(BsonReader reader, DecoderContext decoderContext) {
+        ProductDocument product = new ProductDocument();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case CodecSupport.ID:
+                    product.setId(CodecSupport.readString(reader));
+                    break;
+                case "name":
+                    product.setName(CodecSupport.readString(reader));
+                    break;
+                case "stock":
+                    product.setStock(CodecSupport.readInt(reader));
+                    break;
+                case "branch_id":
+                    product.setBranchId(CodecSupport.readString(reader));
+                    break;
+                case "franchise_id":
+                    product.setFranchiseId(CodecSupport.readString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return product;
+    }
+
+    @Override
+    public Class<ProductDocument> getEncoderClass() {
+        return ProductDocument.class;
+    }
+}
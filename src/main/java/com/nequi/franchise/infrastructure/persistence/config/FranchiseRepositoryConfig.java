@@ -0,0 +1,44 @@
+package com.nequi.franchise.infrastructure.persistence.config;
+
+import com.nequi.franchise.domain.port.FranchiseRepository;
+import com.nequi.franchise.infrastructure.persistence.repository.CachingFranchiseRepository;
+import com.nequi.franchise.infrastructure.persistence.repository.SingleFlightFranchiseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+/**
+ * Arma la cadena de decoradores sobre el adaptador de persistencia activo:
+ * caché → lecturas agrupadas (single-flight) → adaptador.
+ * El adaptador se registra con el nombre {@link #STORE} y los casos de uso reciben el decorador primario.
+ */
+@Configuration
+public class FranchiseRepositoryConfig {
+
+    public static final String STORE = "franchiseStore";
+
+    @Bean
+    @Primary
+    public FranchiseRepository franchiseRepository(
+            @Qualifier(STORE) FranchiseRepository store,
+            @Value("${franchise.single-flight.enabled:true}") boolean singleFlightEnabled,
+            @Value("${franchise.cache.enabled:true}") boolean cacheEnabled,
+            @Value("${franchise.cache.max-entries:10000}") int maxEntries,
+            @Value("${franchise.cache.max-weight:500000}") long maxWeight,
+            @Value("${franchise.cache.ttl:5m}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        FranchiseRepository repository = store;
+        if (singleFlightEnabled) {
+            repository = new SingleFlightFranchiseRepository(repository, meterRegistry);
+        }
+        if (cacheEnabled) {
+            repository = new CachingFranchiseRepository(repository, maxEntries, maxWeight, ttl, meterRegistry);
+        }
+        return repository;
+    }
+}
@@ -0,0 +1,50 @@
+package com.nequi.franchise.infrastructure.persistence.config;
+
+import com.mongodb.MongoClientSettings;
+import com.nequi.franchise.infrastructure.persistence.codec.DocumentSizeListener;
+import com.nequi.franchise.infrastructure.persistence.codec.FranchiseCodecs;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra en el cliente de MongoDB los códecs de los documentos de franquicias, sucursales y productos.
+ * Las colecciones obtenidas de la plantilla con {@code withDocumentClass} decodifican y codifican esos
+ * documentos con los códecs, sin pasar por el mapeo reflexivo de Spring Data.
+ * El tamaño de cada documento de franquicia leído o escrito se publica en {@code franchise.document.size}.
+ */
+@Configuration
+public class MongoCodecConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer franchiseCodecsCustomizer(MeterRegistry meterRegistry) {
+        DistributionSummary decoded = documentSize(meterRegistry, "read");
+        DistributionSummary encoded = documentSize(meterRegistry, "write");
+        DocumentSizeListener sizeListener = new DocumentSizeListener() {
+            @Override
+            public void decoded(int bytes) {
+                decoded.record(bytes);
+            }
+
+            @Override
+            public void encoded(int bytes) {
+                encoded.record(bytes);
+            }
+        };
+        return builder -> builder.codecRegistry(CodecRegistries.fromRegistries(
+                FranchiseCodecs.codecRegistry(sizeListener),
+                MongoClientSettings.getDefaultCodecRegistry()));
+    }
+
+    private static DistributionSummary documentSize(MeterRegistry meterRegistry, String operation) {
+        return DistributionSummary.builder("franchise.document.size")
+                .description("Tamaño en BSON de los documentos de franquicia leídos y escritos")
+                .baseUnit("bytes")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
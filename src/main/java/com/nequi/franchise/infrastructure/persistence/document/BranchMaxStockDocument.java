@@ -0,0 +1,55 @@
+package com.nequi.franchise.infrastructure.persistence.document;
+
+/**
+ * Resultado de la agregación que obtiene el producto con mayor stock de una sucursal
+ */
+public class BranchMaxStockDocument {
+    private String id;
+    private String branchName;
+    private ProductDocument product;
+    private Long branchIndex;
+
+    public BranchMaxStockDocument() {}
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getBranchName() {
+        return branchName;
+    }
+
+    public void setBranchName(String branchName) {
+        this.branchName = branchName;
+    }
+
+    public ProductDocument getProduct() {
+        return product;
+    }
+
+    public void setProduct(ProductDocument product) {
+        this.product = product;
+    }
+
+    public Long getBranchIndex() {
+        return branchIndex;
+    }
+
+    public void setBranchIndex(Long branchIndex) {
+        this.branchIndex = branchIndex;
+    }
+
+    @Override
+    public String toString() {
+        return "BranchMaxStockDocument{" +
+                "id='" + id + '\'' +
+                ", branchName='" + branchName + '\'' +
+                ", product=" + product +
+                ", branchIndex=" + branchIndex +
+                '}';
+    }
+}
@@ -1,6 +1,7 @@
 package com.nequi.franchise.infrastructure.persistence.document;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -17,6 +18,8 @@ public class FranchiseDocument {
     private String id;
     private String name;
     private List<BranchDocument> branches;
+    @Version
+    private Long version;
 
     public FranchiseDocument() {
         this.branches = new ArrayList<>();
@@ -28,6 +31,11 @@ public class FranchiseDocument {
         this.branches = branches != null ? branches : new ArrayList<>();
     }
 
+    public FranchiseDocument(String id, String name, List<BranchDocument> branches, Long version) {
+        this(id, name, branches);
+        this.version = version;
+    }
+
     public String getId() {
         return id;
     }
@@ -52,6 +60,14 @@ public class FranchiseDocument {
         this.branches = branches != null ? branches : new ArrayList<>();
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -71,6 +87,7 @@ public class FranchiseDocument {
                 "id='" + id + '\'' +
                 ", name='" + name + '\'' +
                 ", branches=" + branches +
+                ", version=" + version +
                 '}';
     }
 }
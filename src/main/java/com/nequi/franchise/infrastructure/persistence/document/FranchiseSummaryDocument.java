@@ -0,0 +1,45 @@
+package com.nequi.franchise.infrastructure.persistence.document;
+
+/**
+ * Resultado de la agregación que proyecta el resumen de una franquicia
+ */
+public class FranchiseSummaryDocument {
+    private String id;
+    private String name;
+    private Integer branchCount;
+
+    public FranchiseSummaryDocument() {}
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getBranchCount() {
+        return branchCount;
+    }
+
+    public void setBranchCount(Integer branchCount) {
+        this.branchCount = branchCount;
+    }
+
+    @Override
+    public String toString() {
+        return "FranchiseSummaryDocument{" +
+                "id='" + id + '\'' +
+                ", name='" + name + '\'' +
+                ", branchCount=" + branchCount +
+                '}';
+    }
+}
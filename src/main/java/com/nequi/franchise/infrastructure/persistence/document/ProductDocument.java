@@ -2,6 +2,7 @@ package com.nequi.franchise.infrastructure.persistence.document;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.util.Objects;
 
@@ -13,16 +14,27 @@ public class ProductDocument {
     @Id
     private String id;
     private String name;
-    private Integer stock;
+    // Un documento sin el campo se lee con stock 0
+    private int stock;
+    @Field("branch_id")
+    private String branchId;
+    @Field("franchise_id")
+    private String franchiseId;
 
     public ProductDocument() {}
 
-    public ProductDocument(String id, String name, Integer stock) {
+    public ProductDocument(String id, String name, int stock) {
         this.id = id;
         this.name = name;
         this.stock = stock;
     }
 
+    public ProductDocument(String id, String name, int stock, String branchId, String franchiseId) {
+        this(id, name, stock);
+        this.branchId = branchId;
+        this.franchiseId = franchiseId;
+    }
+
     public String getId() {
         return id;
     }
@@ -39,14 +51,30 @@ public class ProductDocument {
         this.name = name;
     }
 
-    public Integer getStock() {
+    public int getStock() {
         return stock;
     }
 
-    public void setStock(Integer stock) {
+    public void setStock(int stock) {
         this.stock = stock;
     }
 
+    public String getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(String branchId) {
+        this.branchId = branchId;
+    }
+
+    public String getFranchiseId() {
+        return franchiseId;
+    }
+
+    public void setFranchiseId(String franchiseId) {
+        this.franchiseId = franchiseId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -66,6 +94,8 @@ public class ProductDocument {
                 "id='" + id + '\'' +
                 ", name='" + name + '\'' +
                 ", stock=" + stock +
+                ", branchId='" + branchId + '\'' +
+                ", franchiseId='" + franchiseId + '\'' +
                 '}';
     }
 }
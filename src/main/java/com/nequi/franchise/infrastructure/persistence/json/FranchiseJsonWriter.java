@@ -0,0 +1,351 @@
+package com.nequi.franchise.infrastructure.persistence.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.PayloadFormat;
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escribe el JSON de una franquicia directamente desde los bytes BSON almacenados, con la misma forma que
+ * {@code FranchiseDto}: {@code id}, {@code name} y {@code branches}, cada sucursal con {@code id}, {@code name}
+ * y {@code products}, y cada producto con {@code id}, {@code name} y {@code stock}.
+ * Recorre el BSON con un lector secuencial y emite cada campo al generador de Jackson a medida que lo lee;
+ * los campos internos ({@code _class}, {@code version}, claves foráneas) se omiten. Igual que en la lectura
+ * a través del dominio, un campo de texto ausente se escribe como {@code null}, una lista ausente como
+ * {@code []} y un stock ausente como {@code 0}.
+ * Con una selección de {@link FranchiseFields} solo se escriben los campos pedidos, que son también los únicos
+ * que trae la proyección. Con un {@link PayloadFormat} binario se usa el generador de CBOR o Smile en lugar del
+ * de JSON, con la misma forma.
+ */
+@Component
+public class FranchiseJsonWriter {
+
+    private static final String ID = "_id";
+    private static final String NAME = "name";
+    private static final String BRANCHES = "branches";
+    private static final String PRODUCTS = "products";
+    private static final String STOCK = "stock";
+    private static final String VERSION = "version";
+
+    private final EnumMap<PayloadFormat, JsonFactory> factories = new EnumMap<>(PayloadFormat.class);
+
+    public FranchiseJsonWriter(ObjectMapper objectMapper) {
+        factories.put(PayloadFormat.JSON, objectMapper.getFactory());
+        factories.put(PayloadFormat.CBOR, new CBORFactory());
+        factories.put(PayloadFormat.SMILE, new SmileFactory());
+    }
+
+    /**
+     * Franquicia del modo embebido: las sucursales y sus productos vienen dentro del documento
+     */
+    public byte[] write(RawBsonDocument franchise) {
+        return write(franchise, FranchiseFields.ALL);
+    }
+
+    public byte[] write(RawBsonDocument franchise, FranchiseFields fields) {
+        return write(franchise, fields, PayloadFormat.JSON);
+    }
+
+    public byte[] write(RawBsonDocument franchise, FranchiseFields fields, PayloadFormat format) {
+        return write(franchise, null, null, fields, format);
+    }
+
+    /**
+     * Franquicia del modo normalizado: las sucursales y los productos vienen de sus propias colecciones,
+     * los productos agrupados por el ID de su sucursal
+     */
+    public byte[] write(RawBsonDocument franchise, List<RawBsonDocument> branches,
+                        Map<String, List<RawBsonDocument>> productsByBranch) {
+        return write(franchise, branches, productsByBranch, FranchiseFields.ALL);
+    }
+
+    /**
+     * Franquicia del modo normalizado con solo los campos seleccionados; sin sucursales seleccionadas,
+     * {@code branches} y {@code productsByBranch} no se usan
+     */
+    public byte[] write(RawBsonDocument franchise, List<RawBsonDocument> branches,
+                        Map<String, List<RawBsonDocument>> productsByBranch, FranchiseFields fields) {
+        return write(franchise, branches, productsByBranch, fields, PayloadFormat.JSON);
+    }
+
+    public byte[] write(RawBsonDocument franchise, List<RawBsonDocument> branches,
+                        Map<String, List<RawBsonDocument>> productsByBranch, FranchiseFields fields,
+                        PayloadFormat format) {
+        ByteArrayBuilder output = new ByteArrayBuilder();
+        try (JsonGenerator generator = factories.get(format).createGenerator(output)) {
+            writeFranchise(franchise.asBsonReader(), generator, branches, productsByBranch, fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al escribir la franquicia en " + format, e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Rutas a incluir en la proyección del documento embebido, además de la versión. El {@code _id} de la raíz
+     * siempre lo entrega MongoDB.
+     */
+    public static List<String> embeddedProjection(FranchiseFields fields) {
+        List<String> paths = new ArrayList<>();
+        paths.add(VERSION);
+        if (fields.name()) {
+            paths.add(NAME);
+        }
+        if (fields.branchId()) {
+            paths.add("branches._id");
+        }
+        if (fields.branchName()) {
+            paths.add("branches.name");
+        }
+        if (fields.productId() && fields.productName() && fields.productStock()) {
+            paths.add("branches.products");
+        } else {
+            if (fields.productId()) {
+                paths.add("branches.products._id");
+            }
+            if (fields.productName()) {
+                paths.add("branches.products.name");
+            }
+            if (fields.productStock()) {
+                paths.add("branches.products.stock");
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Versión de un documento de franquicia; 0 si no la tiene
+     */
+    public static long versionOf(RawBsonDocument franchise) {
+        BsonValue value = franchise.get(VERSION);
+        return value != null && value.isNumber() ? value.asNumber().longValue() : 0L;
+    }
+
+    /**
+     * Valor de un campo de ID como texto, tal como lo expone el dominio
+     */
+    public static String idOf(RawBsonDocument document, String field) {
+        BsonValue value = document.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        return value.isObjectId() ? value.asObjectId().getValue().toHexString() : value.asString().getValue();
+    }
+
+    private void writeFranchise(BsonReader reader, JsonGenerator generator, List<RawBsonDocument> branches,
+                                Map<String, List<RawBsonDocument>> productsByBranch, FranchiseFields fields) throws IOException {
+        boolean embedded = branches == null;
+        boolean idWritten = false;
+        boolean nameWritten = false;
+        boolean branchesWritten = false;
+        generator.writeStartObject();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String field = reader.readName();
+            if (fields.id() && ID.equals(field)) {
+                generator.writeFieldName("id");
+                writeString(reader, generator);
+                idWritten = true;
+            } else if (fields.name() && NAME.equals(field)) {
+                generator.writeFieldName(NAME);
+                writeString(reader, generator);
+                nameWritten = true;
+            } else if (embedded && fields.branches() && BRANCHES.equals(field)) {
+                generator.writeFieldName(BRANCHES);
+                writeEmbeddedArray(reader, generator, true, fields);
+                branchesWritten = true;
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        writeMissing(generator, fields.id() && !idWritten, fields.name() && !nameWritten);
+        if (!fields.branches()) {
+            generator.writeEndObject();
+            return;
+        }
+        if (!embedded) {
+            generator.writeArrayFieldStart(BRANCHES);
+            for (RawBsonDocument branch : branches) {
+                List<RawBsonDocument> products = fields.products() ? productsByBranch.get(idOf(branch, ID)) : null;
+                writeBranch(branch.asBsonReader(), generator, products != null ? products : List.of(), fields);
+            }
+            generator.writeEndArray();
+        } else if (!branchesWritten) {
+            generator.writeArrayFieldStart(BRANCHES);
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Sucursal; {@code products} es {@code null} cuando los productos vienen embebidos en el documento
+     */
+    private void writeBranch(BsonReader reader, JsonGenerator generator, List<RawBsonDocument> products,
+                             FranchiseFields fields) throws IOException {
+        boolean embedded = products == null;
+        boolean idWritten = false;
+        boolean nameWritten = false;
+        boolean productsWritten = false;
+        generator.writeStartObject();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String field = reader.readName();
+            if (fields.branchId() && ID.equals(field)) {
+                generator.writeFieldName("id");
+                writeString(reader, generator);
+                idWritten = true;
+            } else if (fields.branchName() && NAME.equals(field)) {
+                generator.writeFieldName(NAME);
+                writeString(reader, generator);
+                nameWritten = true;
+            } else if (embedded && fields.products() && PRODUCTS.equals(field)) {
+                generator.writeFieldName(PRODUCTS);
+                writeEmbeddedArray(reader, generator, false, fields);
+                productsWritten = true;
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        writeMissing(generator, fields.branchId() && !idWritten, fields.branchName() && !nameWritten);
+        if (!fields.products()) {
+            generator.writeEndObject();
+            return;
+        }
+        if (!embedded) {
+            generator.writeArrayFieldStart(PRODUCTS);
+            for (RawBsonDocument product : products) {
+                writeProduct(product.asBsonReader(), generator, fields);
+            }
+            generator.writeEndArray();
+        } else if (!productsWritten) {
+            generator.writeArrayFieldStart(PRODUCTS);
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeProduct(BsonReader reader, JsonGenerator generator, FranchiseFields fields) throws IOException {
+        boolean idWritten = false;
+        boolean nameWritten = false;
+        boolean stockWritten = false;
+        generator.writeStartObject();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String field = reader.readName();
+            if (fields.productId() && ID.equals(field)) {
+                generator.writeFieldName("id");
+                writeString(reader, generator);
+                idWritten = true;
+            } else if (fields.productName() && NAME.equals(field)) {
+                generator.writeFieldName(NAME);
+                writeString(reader, generator);
+                nameWritten = true;
+            } else if (fields.productStock() && STOCK.equals(field)) {
+                generator.writeFieldName(STOCK);
+                writeStock(reader, generator);
+                stockWritten = true;
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        writeMissing(generator, fields.productId() && !idWritten, fields.productName() && !nameWritten);
+        if (fields.productStock() && !stockWritten) {
+            generator.writeNumberField(STOCK, 0);
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Arreglo embebido de sucursales o de productos; un valor nulo se escribe como lista vacía
+     */
+    private void writeEmbeddedArray(BsonReader reader, JsonGenerator generator, boolean branches,
+                                    FranchiseFields fields) throws IOException {
+        generator.writeStartArray();
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            generator.writeEndArray();
+            return;
+        }
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+                reader.skipValue();
+            } else if (branches) {
+                writeBranch(reader, generator, null, fields);
+            } else {
+                writeProduct(reader, generator, fields);
+            }
+        }
+        reader.readEndArray();
+        generator.writeEndArray();
+    }
+
+    private static void writeMissing(JsonGenerator generator, boolean idMissing, boolean nameMissing) throws IOException {
+        if (idMissing) {
+            generator.writeNullField("id");
+        }
+        if (nameMissing) {
+            generator.writeNullField(NAME);
+        }
+    }
+
+    private static void writeString(BsonReader reader, JsonGenerator generator) throws IOException {
+        switch (reader.getCurrentBsonType()) {
+            case STRING:
+                generator.writeString(reader.readString());
+                break;
+            case OBJECT_ID:
+                generator.writeString(reader.readObjectId().toHexString());
+                break;
+            default:
+                reader.skipValue();
+                generator.writeNull();
+        }
+    }
+
+    private static void writeStock(BsonReader reader, JsonGenerator generator) throws IOException {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                generator.writeNumber(reader.readInt32());
+                break;
+            case INT64:
+                generator.writeNumber(stockOf(reader.readInt64()));
+                break;
+            case DOUBLE:
+                generator.writeNumber(stockOf((long) reader.readDouble()));
+                break;
+            default:
+                reader.skipValue();
+                generator.writeNumber(0);
+        }
+    }
+
+    /**
+     * Igual que en la lectura del documento, un stock fuera del rango de int es un error en lugar de truncarse
+     */
+    private static int stockOf(long value) {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new BsonInvalidOperationException("El stock " + value + " no cabe en un int");
+        }
+        return (int) value;
+    }
+}
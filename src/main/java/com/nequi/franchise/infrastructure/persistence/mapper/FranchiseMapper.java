@@ -2,8 +2,10 @@ package com.nequi.franchise.infrastructure.persistence.mapper;
 
 import com.nequi.franchise.domain.model.Branch;
 import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.FranchiseSummary;
 import com.nequi.franchise.infrastructure.persistence.document.BranchDocument;
 import com.nequi.franchise.infrastructure.persistence.document.FranchiseDocument;
+import com.nequi.franchise.infrastructure.persistence.document.FranchiseSummaryDocument;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -32,10 +34,15 @@ public class FranchiseMapper {
         return new FranchiseDocument(
                 franchise.getId(),
                 franchise.getName(),
-                branchDocuments
+                branchDocuments,
+                franchise.getVersion()
         );
     }
 
+    /**
+     * Convierte el documento a dominio y deja el agregado registrando cambios,
+     * de modo que el repositorio pueda persistir solo las modificaciones posteriores
+     */
     public Franchise toDomain(FranchiseDocument document) {
         if (document == null) {
             return null;
@@ -44,10 +51,25 @@ public class FranchiseMapper {
                 .map(branchMapper::toDomain)
                 .collect(Collectors.toList());
         
-        return new Franchise(
+        Franchise franchise = new Franchise(
                 document.getId(),
                 document.getName(),
                 branches
         );
+        // Los documentos anteriores al versionado no tienen versión: se tratan como versión 0
+        franchise.setVersion(document.getVersion() != null ? document.getVersion() : 0L);
+        franchise.startTracking();
+        return franchise;
+    }
+
+    public FranchiseSummary toSummary(FranchiseSummaryDocument document) {
+        if (document == null) {
+            return null;
+        }
+        return new FranchiseSummary(
+                document.getId(),
+                document.getName(),
+                document.getBranchCount() != null ? document.getBranchCount() : 0
+        );
     }
 }
@@ -0,0 +1,110 @@
+package com.nequi.franchise.infrastructure.persistence.mapper;
+
+import com.nequi.franchise.domain.model.Branch;
+import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.Product;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Traduce los cambios registrados en una franquicia a un único comando de actualización mínimo
+ * sobre el documento embebido.
+ * MongoDB no permite modificar en el mismo comando una ruta y otra que la contenga (por ejemplo
+ * {@code $push} en {@code branches} y {@code $set} en {@code branches.$[b0].name}); en esos casos
+ * se reemplaza solo el arreglo afectado.
+ */
+@Component
+public class FranchiseUpdateMapper {
+
+    private final BranchMapper branchMapper;
+    private final ProductMapper productMapper;
+
+    public FranchiseUpdateMapper(BranchMapper branchMapper, ProductMapper productMapper) {
+        this.branchMapper = branchMapper;
+        this.productMapper = productMapper;
+    }
+
+    public Update toUpdate(Franchise franchise) {
+        Update update = new Update();
+        if (franchise.isNameChanged()) {
+            update.set("name", franchise.getName());
+        }
+
+        List<Branch> changedBranches = franchise.getChangedBranches();
+        boolean addsBranches = !franchise.getAddedBranches().isEmpty();
+        boolean removesBranches = !franchise.getRemovedBranchIds().isEmpty();
+        if (franchise.isBranchesReplaced() || (addsBranches && removesBranches)
+                || ((addsBranches || removesBranches) && !changedBranches.isEmpty())) {
+            update.set("branches", toBranchDocuments(franchise.getBranches(), franchise.getId()));
+            return update;
+        }
+
+        if (addsBranches) {
+            update.push("branches").each(toBranchDocuments(franchise.getAddedBranches(), franchise.getId()).toArray());
+        }
+        if (removesBranches) {
+            update.pull("branches", idIn(franchise.getRemovedBranchIds()));
+        }
+        for (int i = 0; i < changedBranches.size(); i++) {
+            addBranchChanges(update, changedBranches.get(i), "b" + i);
+        }
+        return update;
+    }
+
+    private void addBranchChanges(Update update, Branch branch, String identifier) {
+        String branchPath = "branches.$[" + identifier + "]";
+        update.filterArray(Criteria.where(identifier + "._id").is(branch.getId()));
+        if (branch.isNameChanged()) {
+            update.set(branchPath + ".name", branch.getName());
+        }
+
+        List<Product> changedProducts = branch.getChangedProducts();
+        boolean addsProducts = !branch.getAddedProducts().isEmpty();
+        boolean removesProducts = !branch.getRemovedProductIds().isEmpty();
+        if (branch.isProductsReplaced() || (addsProducts && removesProducts)
+                || ((addsProducts || removesProducts) && !changedProducts.isEmpty())) {
+            update.set(branchPath + ".products", toProductDocuments(branch.getProducts()));
+            return;
+        }
+
+        if (addsProducts) {
+            update.push(branchPath + ".products").each(toProductDocuments(branch.getAddedProducts()).toArray());
+        }
+        if (removesProducts) {
+            update.pull(branchPath + ".products", idIn(branch.getRemovedProductIds()));
+        }
+        for (int j = 0; j < changedProducts.size(); j++) {
+            Product product = changedProducts.get(j);
+            String productIdentifier = identifier + "p" + j;
+            String productPath = branchPath + ".products.$[" + productIdentifier + "]";
+            update.filterArray(Criteria.where(productIdentifier + "._id").is(product.getId()));
+            if (product.isNameChanged()) {
+                update.set(productPath + ".name", product.getName());
+            }
+            if (product.isStockChanged()) {
+                update.set(productPath + ".stock", product.getStock());
+            }
+        }
+    }
+
+    private List<Object> toBranchDocuments(List<Branch> branches, String franchiseId) {
+        return branches.stream()
+                .map(branch -> (Object) branchMapper.toDocument(branch, franchiseId))
+                .collect(Collectors.toList());
+    }
+
+    private List<Object> toProductDocuments(List<Product> products) {
+        return products.stream()
+                .map(product -> (Object) productMapper.toDocument(product))
+                .collect(Collectors.toList());
+    }
+
+    private Document idIn(List<String> ids) {
+        return new Document("_id", new Document("$in", ids));
+    }
+}
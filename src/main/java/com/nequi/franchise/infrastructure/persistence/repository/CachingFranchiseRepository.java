@@ -0,0 +1,535 @@
+package com.nequi.franchise.infrastructure.persistence.repository;
+
+import com.nequi.franchise.domain.model.Branch;
+import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.Franchise.ProductWithBranch;
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.FranchiseJson;
+import com.nequi.franchise.domain.model.FranchiseSummary;
+import com.nequi.franchise.domain.model.PayloadFormat;
+import com.nequi.franchise.domain.model.ProductTable;
+import com.nequi.franchise.domain.model.StockAdjustment;
+import com.nequi.franchise.domain.model.StockAdjustmentItemResult;
+import com.nequi.franchise.domain.model.StockAdjustmentResult;
+import com.nequi.franchise.domain.model.StockUpdate;
+import com.nequi.franchise.domain.model.StockUpdateResult;
+import com.nequi.franchise.domain.port.FranchiseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Decorador del repositorio de franquicias que mantiene en memoria los agregados leídos.
+ * Las entradas se limitan por cantidad y por peso (sucursales y productos), expiran tras un TTL
+ * y se desalojan por antigüedad de uso. Un guardado reemplaza la entrada con el agregado guardado, salvo que
+ * otra escritura más reciente haya terminado antes; las escrituras puntuales de stock y los borrados la invalidan.
+ * Cada lectura entrega una copia, de modo que modificar un agregado no altera la caché. Los agregados se guardan
+ * en forma compacta: los productos de cada sucursal ocupan una {@link ProductTable} en lugar de un objeto por producto.
+ * Junto al agregado, la entrada guarda la franquicia completa ya serializada en cada formato que se haya leído,
+ * mientras sea de la misma versión; las lecturas con selección de campos siempre se delegan.
+ * Entre instancias la caché puede servir datos con hasta un TTL de antigüedad; las escrituras siguen
+ * protegidas por la versión del documento, y un conflicto invalida la entrada para que el reintento
+ * lea la versión vigente.
+ */
+public class CachingFranchiseRepository implements FranchiseRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingFranchiseRepository.class);
+
+    private static final String CACHE_NAME = "franchises";
+    private static final int INVALIDATION_STRIPES = 64;
+    // Un producto serializado ocupa del orden de 64 bytes: así el peso de los bytes es comparable al del agregado
+    private static final int SERIALIZED_BYTES_PER_UNIT = 64;
+    private static final PayloadFormat[] FORMATS = PayloadFormat.values();
+
+    private final FranchiseRepository delegate;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Cada invalidación avanza el contador de su franja; una lectura iniciada antes no puede
+    // volver a poblar la caché con un valor que la escritura ya dejó obsoleto
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+    private long weight;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+
+    public CachingFranchiseRepository(FranchiseRepository delegate, int maxEntries, long maxWeight, Duration ttl,
+                                      MeterRegistry meterRegistry) {
+        this(delegate, maxEntries, maxWeight, ttl, meterRegistry, System::nanoTime);
+    }
+
+    CachingFranchiseRepository(FranchiseRepository delegate, int maxEntries, long maxWeight, Duration ttl,
+                               MeterRegistry meterRegistry, LongSupplier ticker) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+        this.hits = Counter.builder("cache.gets")
+                .description("Lecturas de franquicias resueltas desde la cache")
+                .tag("cache", CACHE_NAME)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets")
+                .description("Lecturas de franquicias que tuvieron que consultar la base de datos")
+                .tag("cache", CACHE_NAME)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.sizeEvictions = Counter.builder("cache.evictions")
+                .description("Entradas desalojadas de la cache")
+                .tag("cache", CACHE_NAME)
+                .tag("cause", "size")
+                .register(meterRegistry);
+        this.expiredEvictions = Counter.builder("cache.evictions")
+                .description("Entradas desalojadas de la cache")
+                .tag("cache", CACHE_NAME)
+                .tag("cause", "expired")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, CachingFranchiseRepository::size)
+                .description("Franquicias en cache")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.weight", this, CachingFranchiseRepository::weight)
+                .description("Peso estimado de las franquicias en cache (raiz, sucursales y productos)")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Si otra escritura de la franquicia terminó mientras este guardado estaba en curso, su resultado puede ser
+     * más nuevo que el de este: en ese caso la entrada se descarta en lugar de reemplazarla
+     */
+    @Override
+    public Mono<Franchise> save(Franchise franchise) {
+        return Mono.defer(() -> {
+            String id = franchise.getId();
+            long stamp = id != null ? invalidations.get(stripe(id)) : 0L;
+            return delegate.save(franchise)
+                    .doOnNext(saved -> replace(saved, id != null, stamp))
+                    .doOnError(OptimisticLockingFailureException.class, error -> invalidate(franchise.getId()));
+        });
+    }
+
+    @Override
+    public Mono<Franchise> findById(String id) {
+        return Mono.defer(() -> {
+            Franchise cached = get(id);
+            if (cached != null) {
+                hits.increment();
+                return Mono.just(cached);
+            }
+            misses.increment();
+            return load(id);
+        });
+    }
+
+    @Override
+    public Mono<FranchiseJson> findJsonById(String id, FranchiseFields fields, PayloadFormat format) {
+        if (!FranchiseFields.ALL.equals(fields)) {
+            return delegate.findJsonById(id, fields, format);
+        }
+        return Mono.defer(() -> {
+            Entry entry = lookup(id);
+            FranchiseJson cached = entry != null ? entry.serialized[format.ordinal()] : null;
+            if (cached != null) {
+                hits.increment();
+                return Mono.just(cached);
+            }
+            misses.increment();
+            long stamp = invalidations.get(stripe(id));
+            return delegate.findJsonById(id, fields, format)
+                    .doOnNext(json -> putSerializedIfNotInvalidated(id, format, json, stamp));
+        });
+    }
+
+    /**
+     * Con una entrada vigente responde su versión; si no, consulta solo ese campo, sin poblar la caché
+     */
+    @Override
+    public Mono<Long> findVersionById(String id) {
+        return Mono.defer(() -> {
+            Entry entry = lookup(id);
+            if (entry != null && entry.version != null) {
+                hits.increment();
+                return Mono.just(entry.version);
+            }
+            misses.increment();
+            return delegate.findVersionById(id);
+        });
+    }
+
+    @Override
+    public Flux<Franchise> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Flux<FranchiseSummary> findSummaries(String afterId, int limit) {
+        return delegate.findSummaries(afterId, limit);
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(String id, Long expectedVersion) {
+        return invalidating(id, delegate.deleteById(id, expectedVersion));
+    }
+
+    /**
+     * Siempre consulta la base de datos: otra instancia pudo haber borrado la franquicia, y la caché
+     * seguiría respondiendo que existe hasta que expire la entrada
+     */
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public Mono<Long> updateProductStock(String franchiseId, String branchId, String productId, int newStock,
+                                         Long expectedVersion) {
+        return invalidating(franchiseId, delegate.updateProductStock(franchiseId, branchId, productId, newStock, expectedVersion));
+    }
+
+    @Override
+    public Flux<StockUpdateResult> updateProductStocks(String franchiseId, List<StockUpdate> updates) {
+        return delegate.updateProductStocks(franchiseId, updates)
+                .doOnTerminate(() -> invalidate(franchiseId))
+                .doOnCancel(() -> invalidate(franchiseId));
+    }
+
+    @Override
+    public Mono<StockAdjustmentResult> adjustProductStock(String franchiseId, String branchId, String productId, int delta,
+                                                          Long expectedVersion) {
+        return invalidating(franchiseId, delegate.adjustProductStock(franchiseId, branchId, productId, delta, expectedVersion));
+    }
+
+    @Override
+    public Flux<StockAdjustmentItemResult> adjustProductStocks(String franchiseId, List<StockAdjustment> adjustments) {
+        return delegate.adjustProductStocks(franchiseId, adjustments)
+                .doOnTerminate(() -> invalidate(franchiseId))
+                .doOnCancel(() -> invalidate(franchiseId));
+    }
+
+    /**
+     * Con un agregado vigente responde desde sus tablas de productos, sin armarlo; si no, lo calcula la base de
+     * datos, sin poblar la caché
+     */
+    @Override
+    public Flux<ProductWithBranch> findProductsWithMaxStockByBranch(String franchiseId) {
+        return Flux.defer(() -> {
+            Snapshot snapshot = snapshot(franchiseId);
+            if (snapshot != null) {
+                hits.increment();
+                return Flux.fromIterable(snapshot.productsWithMaxStock());
+            }
+            misses.increment();
+            return delegate.findProductsWithMaxStockByBranch(franchiseId);
+        });
+    }
+
+    /**
+     * Con un agregado vigente responde desde sus tablas de productos, sin armarlo; si no, lee la franquicia
+     * como {@link #findById} y la guarda en la caché
+     */
+    @Override
+    public Flux<ProductWithBranch> findTopProductsByBranch(String franchiseId, int k) {
+        return Flux.defer(() -> {
+            Snapshot snapshot = snapshot(franchiseId);
+            if (snapshot != null) {
+                hits.increment();
+                return Flux.fromIterable(snapshot.topProducts(k));
+            }
+            misses.increment();
+            return load(franchiseId).flatMapIterable(franchise -> franchise.getTopProductsByBranch(k));
+        });
+    }
+
+    private Mono<Franchise> load(String id) {
+        long stamp = invalidations.get(stripe(id));
+        return delegate.findById(id)
+                .doOnNext(franchise -> putIfNotInvalidated(id, franchise, stamp));
+    }
+
+    /**
+     * Invalida la entrada cuando termina la escritura, haya tenido éxito o no: una escritura
+     * fallida o cancelada pudo haberse aplicado igualmente en la base de datos
+     */
+    private <T> Mono<T> invalidating(String id, Mono<T> write) {
+        return write
+                .doOnTerminate(() -> invalidate(id))
+                .doOnCancel(() -> invalidate(id));
+    }
+
+    /**
+     * Las instantáneas son inmutables: el monitor solo protege el mapa, y el agregado se arma fuera de él
+     */
+    private Franchise get(String id) {
+        Snapshot snapshot = snapshot(id);
+        return snapshot != null ? snapshot.restore() : null;
+    }
+
+    private Snapshot snapshot(String id) {
+        Entry entry = lookup(id);
+        return entry != null ? entry.snapshot : null;
+    }
+
+    private synchronized Entry lookup(String id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (ticker.getAsLong() - entry.expiresAt > 0) {
+            remove(id);
+            expiredEvictions.increment();
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Conserva las formas serializadas de la entrada si son de la misma versión que el agregado leído
+     */
+    private void putIfNotInvalidated(String id, Franchise franchise, long stamp) {
+        Snapshot snapshot = Snapshot.of(franchise);
+        long entryWeight = weigh(franchise);
+        synchronized (this) {
+            if (invalidations.get(stripe(id)) == stamp) {
+                Entry cached = entries.get(id);
+                FranchiseJson[] serialized = cached != null && Objects.equals(cached.version, franchise.getVersion())
+                        ? cached.serialized : new FranchiseJson[FORMATS.length];
+                store(id, new Entry(snapshot, serialized, franchise.getVersion(), entryWeight + weigh(serialized)));
+            }
+        }
+    }
+
+    /**
+     * Agrega la forma serializada a la entrada si es de la misma versión; si no, la reemplaza por una entrada
+     * que solo tiene esa forma
+     */
+    private synchronized void putSerializedIfNotInvalidated(String id, PayloadFormat format, FranchiseJson json, long stamp) {
+        if (invalidations.get(stripe(id)) != stamp) {
+            return;
+        }
+        Entry cached = entries.get(id);
+        boolean sameVersion = cached != null && cached.version != null && cached.version == json.getVersion();
+        FranchiseJson[] serialized = sameVersion ? cached.serialized.clone() : new FranchiseJson[FORMATS.length];
+        serialized[format.ordinal()] = json;
+        Snapshot snapshot = sameVersion ? cached.snapshot : null;
+        long entryWeight = weigh(serialized) + (sameVersion ? cached.weight - weigh(cached.serialized) : 0);
+        store(id, new Entry(snapshot, serialized, json.getVersion(), entryWeight));
+    }
+
+    /**
+     * Reemplaza la entrada con el agregado guardado, salvo que la franja se haya invalidado desde que empezó el
+     * guardado o que la entrada tenga una versión más nueva. En ambos casos avanza la franja, para que las
+     * lecturas en curso tampoco vuelvan a poblar la caché con un valor anterior a este guardado.
+     */
+    private void replace(Franchise saved, boolean checkStamp, long stamp) {
+        String id = saved.getId();
+        Snapshot snapshot = Snapshot.of(saved);
+        long entryWeight = weigh(saved);
+        synchronized (this) {
+            boolean current = !checkStamp || invalidations.get(stripe(id)) == stamp;
+            invalidations.incrementAndGet(stripe(id));
+            Entry cached = entries.get(id);
+            if (cached != null && isNewer(cached.version, saved.getVersion())) {
+                return;
+            }
+            if (current) {
+                store(id, new Entry(snapshot, new FranchiseJson[FORMATS.length], saved.getVersion(), entryWeight));
+            } else {
+                remove(id);
+            }
+        }
+    }
+
+    private static boolean isNewer(Long cached, Long saved) {
+        return cached != null && saved != null && cached > saved;
+    }
+
+    private void store(String id, Entry entry) {
+        remove(id);
+        if (entry.weight > maxWeight) {
+            logger.debug("Franquicia ID: {} demasiado grande para la cache (peso {})", id, entry.weight);
+            return;
+        }
+        entry.expiresAt = ticker.getAsLong() + ttlNanos;
+        entries.put(id, entry);
+        weight += entry.weight;
+        evictIfNeeded();
+    }
+
+    private synchronized void invalidate(String id) {
+        if (id == null) {
+            return;
+        }
+        invalidations.incrementAndGet(stripe(id));
+        remove(id);
+    }
+
+    private void remove(String id) {
+        Entry removed = entries.remove(id);
+        if (removed != null) {
+            weight -= removed.weight;
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+            weight -= eldest.next().getValue().weight;
+            eldest.remove();
+            sizeEvictions.increment();
+        }
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized long weight() {
+        return weight;
+    }
+
+    private static int stripe(String id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % INVALIDATION_STRIPES;
+    }
+
+    /**
+     * Peso estimado de un agregado: la raíz más una unidad por sucursal y por producto
+     */
+    private static long weigh(Franchise franchise) {
+        long total = 1;
+        for (Branch branch : franchise.getBranches()) {
+            total += 1 + branch.getProducts().size();
+        }
+        return total;
+    }
+
+    /**
+     * Peso de las formas serializadas: una unidad por cada {@link #SERIALIZED_BYTES_PER_UNIT} bytes
+     */
+    private static long weigh(FranchiseJson[] serialized) {
+        long total = 0;
+        for (FranchiseJson json : serialized) {
+            if (json != null) {
+                total += 1 + json.getJson().length / SERIALIZED_BYTES_PER_UNIT;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * El agregado o alguna de sus formas serializadas, de la misma versión; el agregado es null si solo se
+     * leyó la franquicia serializada. La expiración la fija {@link #store} bajo el monitor.
+     */
+    private static final class Entry {
+        private final Snapshot snapshot;
+        private final FranchiseJson[] serialized;
+        private final Long version;
+        private final long weight;
+        private long expiresAt;
+
+        private Entry(Snapshot snapshot, FranchiseJson[] serialized, Long version, long weight) {
+            this.snapshot = snapshot;
+            this.serialized = serialized;
+            this.version = version;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Estado inmutable de un agregado en cache; {@link #restore()} arma un agregado nuevo en cada lectura
+     */
+    private static final class Snapshot {
+        private final String id;
+        private final String name;
+        private final Long version;
+        private final boolean tracking;
+        private final String[] branchIds;
+        private final String[] branchNames;
+        private final ProductTable[] products;
+
+        private Snapshot(Franchise franchise) {
+            List<Branch> branches = franchise.getBranches();
+            this.id = franchise.getId();
+            this.name = franchise.getName();
+            this.version = franchise.getVersion();
+            this.tracking = franchise.isTracking();
+            this.branchIds = new String[branches.size()];
+            this.branchNames = new String[branches.size()];
+            this.products = new ProductTable[branches.size()];
+            for (int i = 0; i < branches.size(); i++) {
+                Branch branch = branches.get(i);
+                branchIds[i] = branch.getId();
+                branchNames[i] = branch.getName();
+                products[i] = ProductTable.of(branch.getProducts());
+            }
+        }
+
+        private static Snapshot of(Franchise franchise) {
+            return new Snapshot(franchise);
+        }
+
+        /**
+         * Igual que {@link Franchise#copy()}: si el agregado registraba cambios, el restaurado
+         * empieza a registrarlos desde el estado guardado
+         */
+        private Franchise restore() {
+            List<Branch> branches = new ArrayList<>(branchIds.length);
+            for (int i = 0; i < branchIds.length; i++) {
+                branches.add(new Branch(branchIds[i], branchNames[i], products[i].toProducts()));
+            }
+            Franchise franchise = new Franchise(id, name, branches);
+            franchise.setVersion(version);
+            if (tracking) {
+                franchise.startTracking();
+            }
+            return franchise;
+        }
+
+        /**
+         * Igual que {@link Franchise#getProductsWithMaxStockByBranch()}, materializando solo el producto elegido
+         */
+        private List<ProductWithBranch> productsWithMaxStock() {
+            List<ProductWithBranch> result = new ArrayList<>();
+            for (int i = 0; i < branchIds.length; i++) {
+                int row = products[i].indexOfMaxStock();
+                if (row >= 0) {
+                    result.add(new ProductWithBranch(products[i].toProduct(row), branchNames[i]));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Igual que {@link Franchise#getTopProductsByBranch(int)}, materializando solo los productos elegidos
+         */
+        private List<ProductWithBranch> topProducts(int k) {
+            List<ProductWithBranch> result = new ArrayList<>();
+            for (int i = 0; i < branchIds.length; i++) {
+                for (int row : products[i].topRowsByStock(k)) {
+                    result.add(new ProductWithBranch(products[i].toProduct(row), branchNames[i]));
+                }
+            }
+            return result;
+        }
+    }
+}
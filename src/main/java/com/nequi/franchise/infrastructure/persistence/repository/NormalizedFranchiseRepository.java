@@ -0,0 +1,638 @@
+package com.nequi.franchise.infrastructure.persistence.repository;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.nequi.franchise.application.logging.RateLimitedLogger;
+import com.nequi.franchise.domain.model.Branch;
+import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.FranchiseJson;
+import com.nequi.franchise.domain.model.FranchiseSummary;
+import com.nequi.franchise.domain.model.Franchise.ProductWithBranch;
+import com.nequi.franchise.domain.model.PayloadFormat;
+import com.nequi.franchise.domain.model.Product;
+import com.nequi.franchise.domain.model.StockAdjustment;
+import com.nequi.franchise.domain.model.StockAdjustmentItemResult;
+import com.nequi.franchise.domain.model.StockAdjustmentResult;
+import com.nequi.franchise.domain.model.StockUpdate;
+import com.nequi.franchise.domain.model.StockUpdateResult;
+import com.nequi.franchise.domain.port.FranchiseRepository;
+import com.nequi.franchise.infrastructure.persistence.config.FranchiseRepositoryConfig;
+import com.nequi.franchise.infrastructure.persistence.document.BranchDocument;
+import com.nequi.franchise.infrastructure.persistence.document.FranchiseDocument;
+import com.nequi.franchise.infrastructure.persistence.document.FranchiseSummaryDocument;
+import com.nequi.franchise.infrastructure.persistence.document.ProductDocument;
+import com.nequi.franchise.infrastructure.persistence.json.FranchiseJsonWriter;
+import com.nequi.franchise.infrastructure.persistence.mapper.FranchiseMapper;
+import com.nequi.franchise.infrastructure.persistence.mapper.ProductMapper;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Implementación normalizada del repositorio de franquicias (modo {@code normalized}).
+ * La raíz de la franquicia vive en {@code franchises}, cada sucursal en {@code branches} y cada
+ * producto en {@code products}, relacionados por {@code franchise_id} y {@code branch_id}.
+ * El agregado se arma bajo demanda al leer, y la escritura de un producto solo toca su documento
+ * y la versión de la raíz. Al guardar un agregado leído de la base solo se escriben las sucursales
+ * y productos que cambiaron.
+ * Las lecturas de documentos usan sus códecs propios (ver {@code MongoCodecConfig}) en lugar del mapeo de la plantilla.
+ * Para leer una franquicia ya serializada en JSON entrega los documentos almacenados, sin decodificar,
+ * a {@link FranchiseJsonWriter}.
+ */
+@Repository(FranchiseRepositoryConfig.STORE)
+@ConditionalOnProperty(name = "franchise.persistence.mode", havingValue = "normalized")
+public class NormalizedFranchiseRepository implements FranchiseRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(NormalizedFranchiseRepository.class);
+    private static final RateLimitedLogger hotPathLogger = RateLimitedLogger.of(logger);
+
+    private static final String FRANCHISES_COLLECTION = "franchises";
+    private static final int SUMMARY_BATCH_SIZE = 100;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final FranchiseMapper franchiseMapper;
+    private final ProductMapper productMapper;
+    private final FranchiseJsonWriter franchiseJsonWriter;
+
+    public NormalizedFranchiseRepository(ReactiveMongoTemplate mongoTemplate, FranchiseMapper franchiseMapper,
+                                         ProductMapper productMapper, FranchiseJsonWriter franchiseJsonWriter) {
+        this.mongoTemplate = mongoTemplate;
+        this.franchiseMapper = franchiseMapper;
+        this.productMapper = productMapper;
+        this.franchiseJsonWriter = franchiseJsonWriter;
+    }
+
+    /**
+     * Crea los índices que usan las lecturas por franquicia y las escrituras por sucursal
+     */
+    @PostConstruct
+    public void ensureIndexes() {
+        Flux.merge(
+                        mongoTemplate.indexOps(BranchDocument.class).ensureIndex(new Index()
+                                .on("franchise_id", Sort.Direction.ASC)
+                                .named("branches_franchise_id")),
+                        mongoTemplate.indexOps(ProductDocument.class).ensureIndex(new Index()
+                                .on("franchise_id", Sort.Direction.ASC)
+                                .on("branch_id", Sort.Direction.ASC)
+                                .named("products_franchise_id_branch_id")))
+                .subscribe(
+                        index -> logger.info("Indice verificado: {}", index),
+                        error -> logger.error("Error al crear indices: {}", error.getMessage()));
+    }
+
+    @Override
+    public Mono<Franchise> save(Franchise franchise) {
+        logger.debug("Guardando franquicia normalizada: {}", franchise.getName());
+        
+        if (franchise.getVersion() != null && franchise.isTracking() && !franchise.hasChanges()) {
+            return Mono.just(franchise);
+        }
+        boolean onlyChanges = franchise.getVersion() != null && franchise.isTracking() && !franchise.isBranchesReplaced();
+        
+        Mono<Void> children = Mono.defer(() -> onlyChanges
+                ? saveChanges(franchise)
+                : saveBranches(franchise).then(saveProducts(franchise)));
+        
+        // Sin transacciones, la versión de la raíz se incrementa al final: si una escritura de sucursales o
+        // productos falla, la versión no cambia y el agregado no queda publicado como una versión nueva.
+        // Una franquicia nueva inserta primero su raíz, que es la que rechaza un ID repetido.
+        Mono<Long> write = franchise.getVersion() == null
+                ? insertRoot(franchise).then(children).thenReturn(0L)
+                : checkVersion(franchise).then(children).then(Mono.defer(() -> updateRoot(franchise)));
+        
+        return write
+                .map(version -> {
+                    franchise.setVersion(version);
+                    franchise.startTracking();
+                    return franchise;
+                })
+                .doOnSuccess(saved -> hotPathLogger.info("Franquicia guardada exitosamente: {} (version {})", saved.getId(), saved.getVersion()))
+                .doOnError(OptimisticLockingFailureException.class,
+                        error -> logger.warn("Conflicto de version al guardar franquicia: {}", franchise.getId()))
+                .doOnError(error -> !(error instanceof OptimisticLockingFailureException),
+                        error -> logger.error("Error al guardar franquicia: {}", error.getMessage()));
+    }
+
+    @Override
+    public Mono<Franchise> findById(String id) {
+        logger.debug("Buscando franquicia normalizada por ID: {}", id);
+        
+        return findDocuments(FranchiseDocument.class, RawDocuments.byId(id))
+                .next()
+                .flatMap(this::assemble)
+                .doOnSuccess(franchise -> {
+                    if (franchise != null) {
+                        hotPathLogger.info("Franquicia encontrada: {}", franchise.getName());
+                    } else {
+                        logger.warn("Franquicia no encontrada con ID: {}", id);
+                    }
+                })
+                .doOnError(error -> logger.error("Error al buscar franquicia: {}", error.getMessage()));
+    }
+
+    @Override
+    public Mono<FranchiseJson> findJsonById(String id, FranchiseFields fields, PayloadFormat format) {
+        logger.debug("Leyendo JSON de franquicia normalizada por ID: {}", id);
+        
+        // Las colecciones se leen como bytes sin decodificar y solo si se pidió algo de ellas;
+        // los productos se agrupan por sucursal
+        Mono<List<RawBsonDocument>> branches = !fields.branches() ? Mono.just(List.of())
+                : findRaw(mongoTemplate.getCollectionName(BranchDocument.class), Filters.eq("franchise_id", id),
+                        Projections.include(fields.branchName() ? "name" : "_id"))
+                        .collectList();
+        Mono<Map<String, List<RawBsonDocument>>> productsByBranch = !fields.products() ? Mono.just(Map.of())
+                : findRaw(mongoTemplate.getCollectionName(ProductDocument.class), Filters.eq("franchise_id", id),
+                        Projections.include(productProjection(fields)))
+                        .collect(Collectors.groupingBy(product -> FranchiseJsonWriter.idOf(product, "branch_id"),
+                                LinkedHashMap::new, Collectors.toList()));
+        return findRaw(FRANCHISES_COLLECTION, RawDocuments.byId(id),
+                        fields.name() ? Projections.include("name", "version") : Projections.include("version"))
+                .next()
+                .flatMap(root -> Mono.zip(branches, productsByBranch)
+                        .map(tuple -> new FranchiseJson(franchiseJsonWriter.write(root, tuple.getT1(), tuple.getT2(), fields, format),
+                                FranchiseJsonWriter.versionOf(root))))
+                .doOnError(error -> logger.error("Error al leer JSON de franquicia: {}", error.getMessage()));
+    }
+
+    @Override
+    public Mono<Long> findVersionById(String id) {
+        logger.debug("Leyendo version de franquicia normalizada por ID: {}", id);
+        
+        return findRaw(FRANCHISES_COLLECTION, RawDocuments.byId(id), Projections.include("version"))
+                .next()
+                .map(FranchiseJsonWriter::versionOf)
+                .doOnError(error -> logger.error("Error al leer version de franquicia: {}", error.getMessage()));
+    }
+
+    @Override
+    public Flux<Franchise> findAll() {
+        logger.debug("Buscando todas las franquicias normalizadas");
+        
+        return findDocuments(FranchiseDocument.class, new Document())
+                .concatMap(this::assemble)
+                .doOnNext(franchise -> logger.debug("Franquicia encontrada: {}", franchise.getName()))
+                .doOnError(error -> logger.error("Error al buscar franquicias: {}", error.getMessage()));
+    }
+
+    @Override
+    public Flux<FranchiseSummary> findSummaries(String afterId, int limit) {
+        logger.debug("Buscando resumenes de franquicias normalizadas despues de ID: {} con limite: {}", afterId, limit);
+        
+        // Paginación por clave sobre _id; las sucursales de la página se cuentan con un $lookup
+        // que usa el índice branches_franchise_id
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (afterId != null) {
+            stages.add(Aggregation.match(Criteria.where("_id").gt(afterId)));
+        }
+        stages.add(Aggregation.sort(Sort.by(Sort.Direction.ASC, "_id")));
+        if (limit > 0) {
+            stages.add(Aggregation.limit(limit));
+        }
+        stages.add(Aggregation.lookup(mongoTemplate.getCollectionName(BranchDocument.class), "_id", "franchise_id", "branches"));
+        stages.add(Aggregation.project("name")
+                .and(ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("branches").then(Collections.emptyList())))
+                .as("branchCount"));
+        Aggregation aggregation = Aggregation.newAggregation(stages)
+                .withOptions(AggregationOptions.builder().cursorBatchSize(SUMMARY_BATCH_SIZE).build());
+        
+        return mongoTemplate.aggregate(aggregation, FRANCHISES_COLLECTION, FranchiseSummaryDocument.class)
+                .map(franchiseMapper::toSummary)
+                .doOnError(error -> logger.error("Error al buscar resumenes de franquicias: {}", error.getMessage()));
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(String id, Long expectedVersion) {
+        logger.debug("Eliminando franquicia normalizada por ID: {}", id);
+        
+        // Sin transacciones, la raíz se elimina primero, condicionada a la versión esperada, y los hijos después,
+        // en orden y solo si la raíz se eliminó: si falla una eliminación de sucursales o productos, la franquicia
+        // ya no se puede leer y no queda publicado un agregado a medias
+        Criteria root = Criteria.where("id").is(id);
+        Query query = new Query(expectedVersion == null ? root : StoredVersion.matching(root, expectedVersion));
+        return mongoTemplate.remove(query, FranchiseDocument.class)
+                .map(result -> result.getDeletedCount() > 0)
+                .flatMap(deleted -> !deleted ? Mono.just(false) : mongoTemplate.remove(byFranchise(id), BranchDocument.class)
+                        .then(mongoTemplate.remove(byFranchise(id), ProductDocument.class))
+                        .thenReturn(true))
+                .doOnSuccess(deleted -> logger.info("Franquicia eliminada: {} ({})", id, deleted))
+                .doOnError(error -> logger.error("Error al eliminar franquicia: {}", error.getMessage()));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        logger.debug("Verificando existencia de franquicia por ID: {}", id);
+        
+        Query query = new Query(Criteria.where("id").is(id));
+        return mongoTemplate.exists(query, FranchiseDocument.class)
+                .doOnNext(exists -> logger.debug("Franquicia existe: {}", exists))
+                .doOnError(error -> logger.error("Error al verificar existencia de franquicia: {}", error.getMessage()));
+    }
+
+    @Override
+    public Mono<Long> updateProductStock(String franchiseId, String branchId, String productId, int newStock,
+                                         Long expectedVersion) {
+        logger.debug("Actualizando stock del producto ID: {} en sucursal ID: {}", productId, branchId);
+        
+        Query query = productQuery(franchiseId, branchId, productId);
+        Mono<Boolean> write = mongoTemplate.updateFirst(query, new Update().set("stock", newStock), ProductDocument.class)
+                .map(result -> result.getMatchedCount() > 0);
+        Mono<Long> versioned = expectedVersion == null
+                ? write.flatMap(updated -> updated ? incrementVersion(franchiseId) : Mono.empty())
+                : mongoTemplate.exists(query, ProductDocument.class)
+                        .flatMap(exists -> exists ? claimVersion(franchiseId, expectedVersion) : Mono.just(false))
+                        .flatMap(claimed -> claimed ? write : Mono.just(false))
+                        .flatMap(updated -> updated ? Mono.just(expectedVersion + 1) : Mono.empty());
+        
+        return versioned
+                .doOnNext(version -> hotPathLogger.info("Stock actualizado para producto: {}", productId))
+                .switchIfEmpty(Mono.fromRunnable(() -> logger.warn("Producto no encontrado para actualizar stock: {}", productId)))
+                .doOnError(error -> logger.error("Error al actualizar stock: {}", error.getMessage()));
+    }
+
+    @Override
+    public Flux<StockUpdateResult> updateProductStocks(String franchiseId, List<StockUpdate> updates) {
+        logger.debug("Actualizando en lote {} stocks de la franquicia ID: {}", updates.size(), franchiseId);
+        
+        if (updates.isEmpty()) {
+            return Flux.empty();
+        }
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, ProductDocument.class);
+        for (StockUpdate stockUpdate : updates) {
+            bulk.updateOne(productQuery(franchiseId, stockUpdate.getBranchId(), stockUpdate.getProductId()),
+                    new Update().set("stock", stockUpdate.getStock()));
+        }
+        
+        // El resultado del bulk solo informa totales: si no coinciden todos los elementos se aplica
+        // cada uno por separado (asignar un stock es idempotente) para conocer su resultado
+        return bulk.execute()
+                .flatMapMany(result -> result.getMatchedCount() == updates.size()
+                        ? incrementVersion(franchiseId).thenMany(Flux.fromIterable(updates)
+                                .map(stockUpdate -> new StockUpdateResult(stockUpdate, StockUpdateResult.Status.UPDATED)))
+                        : Flux.fromIterable(updates).concatMap(stockUpdate -> updateProductStock(franchiseId,
+                                stockUpdate.getBranchId(), stockUpdate.getProductId(), stockUpdate.getStock(), null)
+                                .hasElement()
+                                .map(updated -> new StockUpdateResult(stockUpdate,
+                                        updated ? StockUpdateResult.Status.UPDATED : StockUpdateResult.Status.NOT_FOUND))))
+                .doOnError(error -> logger.error("Error al actualizar stocks en lote: {}", error.getMessage()));
+    }
+
+    @Override
+    public Mono<StockAdjustmentResult> adjustProductStock(String franchiseId, String branchId, String productId, int delta,
+                                                          Long expectedVersion) {
+        logger.debug("Ajustando en {} el stock del producto ID: {} en sucursal ID: {}", delta, productId, branchId);
+        
+        // La guarda de stock forma parte del filtro, también para que un incremento no saque el stock del rango de int
+        Query query = productQuery(franchiseId, branchId, productId);
+        if (delta < 0) {
+            query.addCriteria(Criteria.where("stock").gte(-delta));
+        } else if (delta > 0) {
+            query.addCriteria(Criteria.where("stock").lte(Integer.MAX_VALUE - delta));
+        }
+        
+        Mono<Void> versionIncrement = expectedVersion == null ? incrementVersion(franchiseId).then() : Mono.empty();
+        Mono<StockAdjustmentResult> rejection = Mono.defer(() -> mongoTemplate.exists(productQuery(franchiseId, branchId, productId), ProductDocument.class)
+                .flatMap(exists -> exists && expectedVersion != null ? versionMatches(franchiseId, expectedVersion) : Mono.just(exists))
+                .map(exists -> exists ? StockAdjustmentResult.rejected(delta) : StockAdjustmentResult.notFound()));
+        Mono<StockAdjustmentResult> adjustment = mongoTemplate.findAndModify(query, new Update().inc("stock", delta),
+                        FindAndModifyOptions.options().returnNew(true), ProductDocument.class)
+                .flatMap(product -> versionIncrement.thenReturn(StockAdjustmentResult.adjusted(product.getStock())))
+                .switchIfEmpty(rejection);
+        
+        return (expectedVersion == null
+                        ? adjustment
+                        : mongoTemplate.exists(query, ProductDocument.class)
+                                .flatMap(applicable -> !applicable ? rejection : claimVersion(franchiseId, expectedVersion)
+                                        .flatMap(claimed -> claimed ? adjustment : Mono.just(StockAdjustmentResult.notFound()))))
+                .doOnNext(result -> hotPathLogger.info("Ajuste de stock para producto: {} resultado: {}", productId, result.getStatus()))
+                .doOnError(error -> logger.error("Error al ajustar stock: {}", error.getMessage()));
+    }
+
+    /**
+     * Cada producto es su propio documento y el resultado de un bulk solo informa totales, sin el stock
+     * resultante ni qué guarda falló; los ajustes se aplican uno por uno, en orden, cada uno atómico
+     */
+    @Override
+    public Flux<StockAdjustmentItemResult> adjustProductStocks(String franchiseId, List<StockAdjustment> adjustments) {
+        logger.debug("Ajustando en lote {} stocks de la franquicia ID: {}", adjustments.size(), franchiseId);
+        
+        return Flux.fromIterable(adjustments)
+                .concatMap(adjustment -> adjustProductStock(franchiseId, adjustment.getBranchId(), adjustment.getProductId(),
+                        adjustment.getDelta(), null)
+                        .map(result -> StockAdjustmentItemResult.of(adjustment, result)))
+                .doOnError(error -> logger.error("Error al ajustar stocks en lote: {}", error.getMessage()));
+    }
+
+    @Override
+    public Flux<ProductWithBranch> findProductsWithMaxStockByBranch(String franchiseId) {
+        logger.debug("Agregando productos con mayor stock por sucursal para franquicia ID: {}", franchiseId);
+        
+        // Ante empates de stock gana el primer producto de la sucursal, igual que Branch.findProductWithMaxStock:
+        // sin ordenar, los productos llegan al grupo en el mismo orden en que los lee assemble (mismo filtro e
+        // índice) y $push lo conserva, así que se elige el primero de la lista que tiene el stock máximo
+        AggregationOperation firstWithMaxStock = context -> new Document("$project", new Document("product",
+                new Document("$arrayElemAt", List.of(
+                        new Document("$filter", new Document("input", "$products")
+                                .append("as", "product")
+                                .append("cond", new Document("$eq", List.of("$$product.stock", "$maxStock")))),
+                        0))));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("franchise_id").is(franchiseId)),
+                Aggregation.group("branch_id")
+                        .max("stock").as("maxStock")
+                        .push(new Document("_id", "$_id").append("name", "$name").append("stock", "$stock")).as("products"),
+                firstWithMaxStock);
+        
+        Mono<Map<String, ProductDocument>> maxStockByBranch = mongoTemplate
+                .aggregate(aggregation, mongoTemplate.getCollectionName(ProductDocument.class), Document.class)
+                .collectMap(result -> result.getString("_id"), result -> {
+                    Document product = result.get("product", Document.class);
+                    return new ProductDocument(product.getString("_id"), product.getString("name"), product.getInteger("stock", 0));
+                });
+        
+        // Solo se leen las sucursales (una por resultado) para conservar su orden y obtener su nombre
+        return maxStockByBranch
+                .flatMapMany(products -> mongoTemplate.find(byFranchise(franchiseId), BranchDocument.class)
+                        .filter(branch -> products.containsKey(branch.getId()))
+                        .map(branch -> new ProductWithBranch(
+                                productMapper.toDomain(products.get(branch.getId())), branch.getName())))
+                .doOnError(error -> logger.error("Error al agregar productos con mayor stock: {}", error.getMessage()));
+    }
+
+    /**
+     * Los productos viven en el agregado: se lee la franquicia y se ordenan en memoria
+     */
+    @Override
+    public Flux<ProductWithBranch> findTopProductsByBranch(String franchiseId, int k) {
+        logger.debug("Buscando los {} productos con mayor stock por sucursal para franquicia ID: {}", k, franchiseId);
+        
+        return findById(franchiseId)
+                .flatMapIterable(franchise -> franchise.getTopProductsByBranch(k));
+    }
+
+    private Mono<Void> insertRoot(Franchise franchise) {
+        Document root = new Document("_id", franchise.getId())
+                .append("name", franchise.getName())
+                .append("version", 0L);
+        return mongoTemplate.insert(root, FRANCHISES_COLLECTION).then();
+    }
+
+    /**
+     * Rechaza antes de tocar sucursales y productos el guardado de un agregado cuya versión ya no es la almacenada
+     */
+    private Mono<Void> checkVersion(Franchise franchise) {
+        return versionMatches(franchise.getId(), franchise.getVersion())
+                .flatMap(matches -> matches ? Mono.<Void>empty() : Mono.error(versionConflict(franchise)));
+    }
+
+    /**
+     * Actualiza la raíz comparando su versión y emite la nueva. Es el último paso del guardado: si otra escritura
+     * se adelantó entre la comprobación de la versión y este paso, el guardado falla con conflicto, aunque sus
+     * sucursales y productos ya estén escritos.
+     */
+    private Mono<Long> updateRoot(Franchise franchise) {
+        long nextVersion = franchise.getVersion() + 1;
+        Query query = new Query(StoredVersion.matching(Criteria.where("id").is(franchise.getId()), franchise.getVersion()));
+        Update update = new Update()
+                .set("name", franchise.getName())
+                .set("version", nextVersion);
+        return mongoTemplate.updateFirst(query, update, FranchiseDocument.class)
+                .flatMap(result -> result.getMatchedCount() > 0
+                        ? Mono.just(nextVersion)
+                        : Mono.error(versionConflict(franchise)));
+    }
+
+    private OptimisticLockingFailureException versionConflict(Franchise franchise) {
+        return new OptimisticLockingFailureException(
+                "La franquicia " + franchise.getId() + " fue modificada por otra escritura");
+    }
+
+    private Mono<Void> saveBranches(Franchise franchise) {
+        List<String> branchIds = franchise.getBranches().stream()
+                .map(Branch::getId)
+                .collect(Collectors.toList());
+        Mono<Void> removeOrphans = mongoTemplate.remove(
+                byFranchise(franchise.getId()).addCriteria(Criteria.where("id").nin(branchIds)),
+                BranchDocument.class).then();
+        if (branchIds.isEmpty()) {
+            return removeOrphans;
+        }
+
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, BranchDocument.class);
+        for (Branch branch : franchise.getBranches()) {
+            bulk.upsert(byId(branch.getId()), branchUpdate(franchise, branch));
+        }
+        return bulk.execute().then(removeOrphans);
+    }
+
+    private Mono<Void> saveProducts(Franchise franchise) {
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, ProductDocument.class);
+        List<String> productIds = new ArrayList<>();
+        for (Branch branch : franchise.getBranches()) {
+            for (Product product : branch.getProducts()) {
+                productIds.add(product.getId());
+                bulk.upsert(byId(product.getId()), productUpdate(franchise, branch, product));
+            }
+        }
+        Mono<Void> removeOrphans = mongoTemplate.remove(
+                byFranchise(franchise.getId()).addCriteria(Criteria.where("id").nin(productIds)),
+                ProductDocument.class).then();
+        if (productIds.isEmpty()) {
+            return removeOrphans;
+        }
+        return bulk.execute().then(removeOrphans);
+    }
+
+    /**
+     * Escribe solo las sucursales y productos que cambiaron desde la lectura.
+     * Las operaciones son ordenadas para que una eliminación preceda a las reinserciones de la misma sucursal.
+     */
+    private Mono<Void> saveChanges(Franchise franchise) {
+        ReactiveBulkOperations branchOperations = mongoTemplate.bulkOps(BulkMode.ORDERED, BranchDocument.class);
+        ReactiveBulkOperations productOperations = mongoTemplate.bulkOps(BulkMode.ORDERED, ProductDocument.class);
+        int branchWrites = 0;
+        int productWrites = 0;
+
+        for (Branch branch : franchise.getAddedBranches()) {
+            branchOperations.upsert(byId(branch.getId()), branchUpdate(franchise, branch));
+            branchWrites++;
+            for (Product product : branch.getProducts()) {
+                productOperations.upsert(byId(product.getId()), productUpdate(franchise, branch, product));
+                productWrites++;
+            }
+        }
+        if (!franchise.getRemovedBranchIds().isEmpty()) {
+            branchOperations.remove(new Query(Criteria.where("id").in(franchise.getRemovedBranchIds())));
+            productOperations.remove(new Query(Criteria.where("branchId").in(franchise.getRemovedBranchIds())));
+            branchWrites++;
+            productWrites++;
+        }
+
+        for (Branch branch : franchise.getChangedBranches()) {
+            if (branch.isNameChanged()) {
+                branchOperations.updateOne(byId(branch.getId()), new Update().set("name", branch.getName()));
+                branchWrites++;
+            }
+            List<Product> upserts = branch.isProductsReplaced() ? branch.getProducts() : branch.getAddedProducts();
+            if (branch.isProductsReplaced()) {
+                productOperations.remove(new Query(Criteria.where("branchId").is(branch.getId())));
+                productWrites++;
+            } else if (!branch.getRemovedProductIds().isEmpty()) {
+                productOperations.remove(new Query(Criteria.where("id").in(branch.getRemovedProductIds())));
+                productWrites++;
+            }
+            for (Product product : upserts) {
+                productOperations.upsert(byId(product.getId()), productUpdate(franchise, branch, product));
+                productWrites++;
+            }
+            if (!branch.isProductsReplaced()) {
+                for (Product product : branch.getChangedProducts()) {
+                    Update update = new Update();
+                    if (product.isNameChanged()) {
+                        update.set("name", product.getName());
+                    }
+                    if (product.isStockChanged()) {
+                        update.set("stock", product.getStock());
+                    }
+                    productOperations.updateOne(byId(product.getId()), update);
+                    productWrites++;
+                }
+            }
+        }
+
+        return Mono.when(
+                branchWrites > 0 ? branchOperations.execute().then() : Mono.<Void>empty(),
+                productWrites > 0 ? productOperations.execute().then() : Mono.<Void>empty());
+    }
+
+    private Update branchUpdate(Franchise franchise, Branch branch) {
+        return new Update()
+                .set("name", branch.getName())
+                .set("franchiseId", franchise.getId());
+    }
+
+    private Update productUpdate(Franchise franchise, Branch branch, Product product) {
+        return new Update()
+                .set("name", product.getName())
+                .set("stock", product.getStock())
+                .set("branchId", branch.getId())
+                .set("franchiseId", franchise.getId());
+    }
+
+    private Query productQuery(String franchiseId, String branchId, String productId) {
+        return new Query(Criteria.where("id").is(productId)
+                .and("branchId").is(branchId)
+                .and("franchiseId").is(franchiseId));
+    }
+
+    private Query byId(String id) {
+        return new Query(Criteria.where("id").is(id));
+    }
+
+    /**
+     * Incrementa la versión de la raíz y emite la nueva; vacío si la franquicia ya no existe
+     */
+    private Mono<Long> incrementVersion(String franchiseId) {
+        Query query = new Query(Criteria.where("id").is(franchiseId));
+        query.fields().include("version");
+        return mongoTemplate.findAndModify(query, new Update().inc("version", 1),
+                        FindAndModifyOptions.options().returnNew(true), FranchiseDocument.class)
+                .map(FranchiseDocument::getVersion);
+    }
+
+    /**
+     * Escritura condicionada a una versión: el producto vive fuera de la raíz, así que la versión se reclama
+     * antes de escribirlo con un incremento condicionado a la esperada. Emite false si la franquicia ya no
+     * estaba en esa versión. Quien la llama comprueba antes que el producto exista y que el ajuste aplique, de
+     * modo que un producto inexistente o sin stock suficiente no consume una versión; solo si el producto se
+     * elimina entre la comprobación y la escritura la versión queda incrementada sin cambios.
+     */
+    private Mono<Boolean> claimVersion(String franchiseId, long expectedVersion) {
+        return mongoTemplate.updateFirst(new Query(StoredVersion.matching(Criteria.where("id").is(franchiseId), expectedVersion)),
+                        new Update().inc("version", 1), FranchiseDocument.class)
+                .map(result -> result.getMatchedCount() > 0);
+    }
+
+    private Mono<Boolean> versionMatches(String franchiseId, long expectedVersion) {
+        return mongoTemplate.exists(new Query(StoredVersion.matching(Criteria.where("id").is(franchiseId), expectedVersion)),
+                FranchiseDocument.class);
+    }
+
+    /**
+     * Arma el agregado a partir de la raíz: sucursales y productos se consultan en paralelo
+     * por {@code franchise_id} y los productos se agrupan por {@code branch_id}.
+     */
+    private Mono<Franchise> assemble(FranchiseDocument root) {
+        return Mono.zip(
+                        findDocuments(BranchDocument.class, Filters.eq("franchise_id", root.getId())).collectList(),
+                        findDocuments(ProductDocument.class, Filters.eq("franchise_id", root.getId())).collectList())
+                .map(tuple -> {
+                    Map<String, List<ProductDocument>> productsByBranch = tuple.getT2().stream()
+                            .collect(Collectors.groupingBy(ProductDocument::getBranchId, LinkedHashMap::new, Collectors.toList()));
+                    tuple.getT1().forEach(branch -> branch.setProducts(productsByBranch.get(branch.getId())));
+                    root.setBranches(tuple.getT1());
+                    return franchiseMapper.toDomain(root);
+                });
+    }
+
+    /**
+     * Lee documentos decodificados por su códec propio, sin pasar por el convertidor de la plantilla
+     */
+    private <T> Flux<T> findDocuments(Class<T> documentClass, Bson filter) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(documentClass))
+                .flatMapMany(collection -> collection.withDocumentClass(documentClass).find(filter))
+                .onErrorMap(RuntimeException.class, RawDocuments::translate);
+    }
+
+    private Flux<RawBsonDocument> findRaw(String collectionName, Bson filter, Bson projection) {
+        return mongoTemplate.getCollection(collectionName)
+                .flatMapMany(collection -> collection.withDocumentClass(RawBsonDocument.class)
+                        .find(filter)
+                        .projection(projection));
+    }
+
+    private static List<String> productProjection(FranchiseFields fields) {
+        List<String> paths = new ArrayList<>();
+        paths.add("branch_id");
+        if (fields.productName()) {
+            paths.add("name");
+        }
+        if (fields.productStock()) {
+            paths.add("stock");
+        }
+        return paths;
+    }
+
+    private Query byFranchise(String franchiseId) {
+        return new Query(Criteria.where("franchiseId").is(franchiseId));
+    }
+}
@@ -0,0 +1,32 @@
+package com.nequi.franchise.infrastructure.persistence.repository;
+
+import com.mongodb.client.model.Filters;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+
+/**
+ * Utilidades para consultar colecciones directamente con el driver, sin pasar por el convertidor de Spring Data
+ */
+final class RawDocuments {
+
+    private static final MongoExceptionTranslator EXCEPTION_TRANSLATOR = new MongoExceptionTranslator();
+
+    private RawDocuments() {}
+
+    /**
+     * Filtro por {@code _id} equivalente al de Spring Data, que guarda como ObjectId los IDs de texto con ese formato
+     */
+    static Bson byId(String id) {
+        return ObjectId.isValid(id) ? Filters.in("_id", new ObjectId(id), id) : Filters.eq("_id", id);
+    }
+
+    /**
+     * Traduce los errores del driver a la jerarquía de Spring, como hace la plantilla
+     */
+    static Throwable translate(RuntimeException error) {
+        DataAccessException translated = EXCEPTION_TRANSLATOR.translateExceptionIfPossible(error);
+        return translated != null ? translated : error;
+    }
+}
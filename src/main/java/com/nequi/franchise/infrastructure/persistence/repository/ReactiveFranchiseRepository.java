@@ -1,56 +1,176 @@
 package com.nequi.franchise.infrastructure.persistence.repository;
 
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.nequi.franchise.application.logging.RateLimitedLogger;
 import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.FranchiseJson;
+import com.nequi.franchise.domain.model.FranchiseSummary;
+import com.nequi.franchise.domain.model.Franchise.ProductWithBranch;
+import com.nequi.franchise.domain.model.PayloadFormat;
+import com.nequi.franchise.domain.model.StockAdjustment;
+import com.nequi.franchise.domain.model.StockAdjustmentItemResult;
+import com.nequi.franchise.domain.model.StockAdjustmentResult;
+import com.nequi.franchise.domain.model.StockUpdate;
+import com.nequi.franchise.domain.model.StockUpdateResult;
 import com.nequi.franchise.domain.port.FranchiseRepository;
+import com.nequi.franchise.infrastructure.persistence.config.FranchiseRepositoryConfig;
+import com.nequi.franchise.infrastructure.persistence.document.BranchMaxStockDocument;
 import com.nequi.franchise.infrastructure.persistence.document.FranchiseDocument;
+import com.nequi.franchise.infrastructure.persistence.document.FranchiseSummaryDocument;
+import com.nequi.franchise.infrastructure.persistence.document.ProductDocument;
+import com.nequi.franchise.infrastructure.persistence.json.FranchiseJsonWriter;
 import com.nequi.franchise.infrastructure.persistence.mapper.FranchiseMapper;
+import com.nequi.franchise.infrastructure.persistence.mapper.FranchiseUpdateMapper;
+import com.nequi.franchise.infrastructure.persistence.mapper.ProductMapper;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
- * Implementación reactiva del repositorio de franquicias
+ * Implementación reactiva del repositorio de franquicias.
+ * Las escrituras completas usan el campo de versión del documento como compare-and-set:
+ * si otro escritor guardó antes, se emite {@link OptimisticLockingFailureException}.
+ * Almacena cada franquicia como un único documento con sucursales y productos embebidos
+ * (modo {@code embedded}, el predeterminado). Los agregados leídos de la base registran sus
+ * cambios, y al guardarlos solo se envían los campos y elementos modificados.
+ * Las lecturas y los guardados completos usan los códecs propios del documento (ver {@code MongoCodecConfig});
+ * las actualizaciones parciales y las agregaciones siguen pasando por la plantilla.
+ * Para leer una franquicia ya serializada en JSON entrega el documento almacenado tal cual a {@link FranchiseJsonWriter}.
  */
-@Repository
+@Repository(FranchiseRepositoryConfig.STORE)
+@ConditionalOnProperty(name = "franchise.persistence.mode", havingValue = "embedded", matchIfMissing = true)
 public class ReactiveFranchiseRepository implements FranchiseRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(ReactiveFranchiseRepository.class);
+    private static final RateLimitedLogger hotPathLogger = RateLimitedLogger.of(logger);
+    
+    private static final int SUMMARY_BATCH_SIZE = 100;
     
     private final ReactiveMongoTemplate mongoTemplate;
     private final FranchiseMapper franchiseMapper;
+    private final FranchiseUpdateMapper franchiseUpdateMapper;
+    private final ProductMapper productMapper;
+    private final FranchiseJsonWriter franchiseJsonWriter;
 
-    public ReactiveFranchiseRepository(ReactiveMongoTemplate mongoTemplate, FranchiseMapper franchiseMapper) {
+    public ReactiveFranchiseRepository(ReactiveMongoTemplate mongoTemplate, FranchiseMapper franchiseMapper,
+                                       FranchiseUpdateMapper franchiseUpdateMapper, ProductMapper productMapper,
+                                       FranchiseJsonWriter franchiseJsonWriter) {
         this.mongoTemplate = mongoTemplate;
         this.franchiseMapper = franchiseMapper;
+        this.franchiseUpdateMapper = franchiseUpdateMapper;
+        this.productMapper = productMapper;
+        this.franchiseJsonWriter = franchiseJsonWriter;
     }
 
     @Override
     public Mono<Franchise> save(Franchise franchise) {
         logger.debug("Guardando franquicia: {}", franchise.getName());
         
-        return Mono.just(franchise)
-                .map(franchiseMapper::toDocument)
-                .flatMap(mongoTemplate::save)
-                .map(franchiseMapper::toDomain)
-                .doOnSuccess(saved -> logger.info("Franquicia guardada exitosamente: {}", saved.getId()))
-                .doOnError(error -> logger.error("Error al guardar franquicia: {}", error.getMessage()));
+        Mono<Franchise> write;
+        if (franchise.getVersion() == null || !franchise.isTracking()) {
+            write = Mono.just(franchise)
+                    .map(franchiseMapper::toDocument)
+                    .flatMap(this::saveDocument)
+                    .map(franchiseMapper::toDomain);
+        } else if (!franchise.hasChanges()) {
+            return Mono.just(franchise);
+        } else {
+            write = saveChanges(franchise);
+        }
+        
+        return write
+                .doOnSuccess(saved -> hotPathLogger.info("Franquicia guardada exitosamente: {} (version {})", saved.getId(), saved.getVersion()))
+                .doOnError(OptimisticLockingFailureException.class,
+                        error -> logger.warn("Conflicto de version al guardar franquicia: {}", franchise.getId()))
+                .doOnError(error -> !(error instanceof OptimisticLockingFailureException),
+                        error -> logger.error("Error al guardar franquicia: {}", error.getMessage()));
+    }
+
+    /**
+     * Aplica solo los cambios registrados en el agregado con un único update condicionado a la versión leída
+     */
+    private Mono<Franchise> saveChanges(Franchise franchise) {
+        long currentVersion = franchise.getVersion();
+        Query query = new Query(StoredVersion.matching(Criteria.where("id").is(franchise.getId()), currentVersion));
+        Update update = franchiseUpdateMapper.toUpdate(franchise).inc("version", 1);
+        
+        return mongoTemplate.updateFirst(query, update, FranchiseDocument.class)
+                .flatMap(result -> result.getMatchedCount() > 0
+                        ? Mono.just(franchise)
+                        : Mono.error(new OptimisticLockingFailureException(
+                                "La franquicia " + franchise.getId() + " fue modificada por otra escritura")))
+                .doOnNext(saved -> {
+                    saved.setVersion(currentVersion + 1);
+                    saved.startTracking();
+                });
+    }
+
+    /**
+     * Guarda el documento completo con su códec, usando la versión como compare-and-set igual que
+     * {@code ReactiveMongoTemplate#save} con un campo {@code @Version}: sin versión inserta con la versión 0;
+     * con versión reemplaza solo si la almacenada coincide y la incrementa. Un documento sin versión se leyó
+     * como versión 0, así que lo reemplaza igual que a uno en la versión 0
+     */
+    private Mono<FranchiseDocument> saveDocument(FranchiseDocument document) {
+        if (document.getId() == null) {
+            document.setId(new ObjectId().toHexString());
+        }
+        Long version = document.getVersion();
+        return franchises()
+                .flatMap(collection -> {
+                    if (version == null) {
+                        document.setVersion(0L);
+                        return Mono.from(collection.insertOne(document)).thenReturn(document);
+                    }
+                    document.setVersion(version + 1);
+                    return Mono.from(collection.replaceOne(
+                                    Filters.and(RawDocuments.byId(document.getId()), StoredVersion.filter(version)), document))
+                            .flatMap(result -> result.getMatchedCount() > 0
+                                    ? Mono.just(document)
+                                    : Mono.error(new OptimisticLockingFailureException(
+                                            "La franquicia " + document.getId() + " fue modificada por otra escritura")));
+                })
+                .onErrorMap(RuntimeException.class, RawDocuments::translate);
     }
 
     @Override
     public Mono<Franchise> findById(String id) {
         logger.debug("Buscando franquicia por ID: {}", id);
         
-        Query query = new Query(Criteria.where("id").is(id));
-        return mongoTemplate.findOne(query, FranchiseDocument.class)
+        return franchises()
+                .flatMap(collection -> Mono.from(collection.find(RawDocuments.byId(id)).first()))
+                .onErrorMap(RuntimeException.class, RawDocuments::translate)
                 .map(franchiseMapper::toDomain)
                 .doOnSuccess(franchise -> {
                     if (franchise != null) {
-                        logger.info("Franquicia encontrada: {}", franchise.getName());
+                        hotPathLogger.info("Franquicia encontrada: {}", franchise.getName());
                     } else {
                         logger.warn("Franquicia no encontrada con ID: {}", id);
                     }
@@ -58,24 +178,77 @@ public class ReactiveFranchiseRepository implements FranchiseRepository {
                 .doOnError(error -> logger.error("Error al buscar franquicia: {}", error.getMessage()));
     }
 
+    @Override
+    public Mono<FranchiseJson> findJsonById(String id, FranchiseFields fields, PayloadFormat format) {
+        logger.debug("Leyendo JSON de franquicia por ID: {}", id);
+        
+        // El driver entrega los bytes del documento sin decodificarlo; solo se piden los campos seleccionados y la versión
+        return findRaw(id, Projections.include(FranchiseJsonWriter.embeddedProjection(fields)))
+                .map(document -> new FranchiseJson(franchiseJsonWriter.write(document, fields, format), FranchiseJsonWriter.versionOf(document)))
+                .doOnError(error -> logger.error("Error al leer JSON de franquicia: {}", error.getMessage()));
+    }
+
+    @Override
+    public Mono<Long> findVersionById(String id) {
+        logger.debug("Leyendo version de franquicia por ID: {}", id);
+        
+        return findRaw(id, Projections.include("version"))
+                .map(FranchiseJsonWriter::versionOf)
+                .doOnError(error -> logger.error("Error al leer version de franquicia: {}", error.getMessage()));
+    }
+
+    private Mono<RawBsonDocument> findRaw(String id, Bson projection) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(FranchiseDocument.class))
+                .flatMap(collection -> Mono.from(collection.withDocumentClass(RawBsonDocument.class)
+                        .find(RawDocuments.byId(id))
+                        .projection(projection)
+                        .first()));
+    }
+
     @Override
     public Flux<Franchise> findAll() {
         logger.debug("Buscando todas las franquicias");
         
-        return mongoTemplate.findAll(FranchiseDocument.class)
+        return franchises()
+                .flatMapMany(collection -> collection.find())
+                .onErrorMap(RuntimeException.class, RawDocuments::translate)
                 .map(franchiseMapper::toDomain)
                 .doOnNext(franchise -> logger.debug("Franquicia encontrada: {}", franchise.getName()))
                 .doOnError(error -> logger.error("Error al buscar franquicias: {}", error.getMessage()));
     }
 
     @Override
-    public Mono<Void> deleteById(String id) {
+    public Flux<FranchiseSummary> findSummaries(String afterId, int limit) {
+        logger.debug("Buscando resumenes de franquicias despues de ID: {} con limite: {}", afterId, limit);
+        
+        // Paginación por clave sobre _id: usa el índice del identificador sin saltar documentos,
+        // y la proyección solo devuelve el nombre y la cantidad de sucursales
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (afterId != null) {
+            stages.add(Aggregation.match(Criteria.where("_id").gt(afterId)));
+        }
+        stages.add(Aggregation.sort(Sort.by(Sort.Direction.ASC, "_id")));
+        if (limit > 0) {
+            stages.add(Aggregation.limit(limit));
+        }
+        stages.add(Aggregation.project("name")
+                .and(ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("branches").then(Collections.emptyList())))
+                .as("branchCount"));
+        Aggregation aggregation = Aggregation.newAggregation(stages)
+                .withOptions(AggregationOptions.builder().cursorBatchSize(SUMMARY_BATCH_SIZE).build());
+        
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(FranchiseDocument.class), FranchiseSummaryDocument.class)
+                .map(franchiseMapper::toSummary)
+                .doOnError(error -> logger.error("Error al buscar resumenes de franquicias: {}", error.getMessage()));
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(String id, Long expectedVersion) {
         logger.debug("Eliminando franquicia por ID: {}", id);
         
-        Query query = new Query(Criteria.where("id").is(id));
-        return mongoTemplate.remove(query, FranchiseDocument.class)
-                .then()
-                .doOnSuccess(unused -> logger.info("Franquicia eliminada exitosamente: {}", id))
+        return mongoTemplate.remove(new Query(franchise(id, expectedVersion)), FranchiseDocument.class)
+                .map(result -> result.getDeletedCount() > 0)
+                .doOnSuccess(deleted -> logger.info("Franquicia eliminada: {} ({})", id, deleted))
                 .doOnError(error -> logger.error("Error al eliminar franquicia: {}", error.getMessage()));
     }
 
@@ -88,4 +261,302 @@ public class ReactiveFranchiseRepository implements FranchiseRepository {
                 .doOnNext(exists -> logger.debug("Franquicia existe: {}", exists))
                 .doOnError(error -> logger.error("Error al verificar existencia de franquicia: {}", error.getMessage()));
     }
+
+    @Override
+    public Mono<Long> updateProductStock(String franchiseId, String branchId, String productId, int newStock,
+                                         Long expectedVersion) {
+        logger.debug("Actualizando en sitio stock del producto ID: {} en sucursal ID: {}", productId, branchId);
+        
+        Query query = new Query(franchise(franchiseId, expectedVersion)
+                .and("branches").elemMatch(Criteria.where("_id").is(branchId).and("products._id").is(productId)));
+        query.fields().include("version");
+        Update update = new Update()
+                .set("branches.$[b].products.$[p].stock", newStock)
+                .inc("version", 1)
+                .filterArray(Criteria.where("b._id").is(branchId))
+                .filterArray(Criteria.where("p._id").is(productId));
+        
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), FranchiseDocument.class)
+                .map(FranchiseDocument::getVersion)
+                .doOnNext(version -> hotPathLogger.info("Stock actualizado en sitio para producto: {}", productId))
+                .switchIfEmpty(Mono.fromRunnable(() -> logger.warn("Producto no encontrado para actualizar stock: {}", productId)))
+                .doOnError(error -> logger.error("Error al actualizar stock en sitio: {}", error.getMessage()));
+    }
+
+    @Override
+    public Flux<StockUpdateResult> updateProductStocks(String franchiseId, List<StockUpdate> updates) {
+        logger.debug("Actualizando en lote {} stocks de la franquicia ID: {}", updates.size(), franchiseId);
+        
+        if (updates.isEmpty()) {
+            return Flux.empty();
+        }
+        // Un único update con un filtro de arreglo por sucursal y por producto. La consulta exige que
+        // todos los productos existan, así el documento se modifica completo o no se modifica.
+        Map<String, String> branchIdentifiers = new LinkedHashMap<>();
+        Map<String, String> productIdentifiers = new LinkedHashMap<>();
+        List<Criteria> existence = new ArrayList<>();
+        Update update = new Update();
+        for (StockUpdate stockUpdate : updates) {
+            String branchIdentifier = branchIdentifiers.computeIfAbsent(stockUpdate.getBranchId(), branchId -> {
+                String identifier = "b" + branchIdentifiers.size();
+                update.filterArray(Criteria.where(identifier + "._id").is(branchId));
+                return identifier;
+            });
+            String productIdentifier = productIdentifiers.computeIfAbsent(
+                    stockUpdate.getBranchId() + "/" + stockUpdate.getProductId(), key -> {
+                        String identifier = branchIdentifier + "p" + productIdentifiers.size();
+                        update.filterArray(Criteria.where(identifier + "._id").is(stockUpdate.getProductId()));
+                        existence.add(Criteria.where("branches").elemMatch(Criteria.where("_id").is(stockUpdate.getBranchId())
+                                .and("products._id").is(stockUpdate.getProductId())));
+                        return identifier;
+                    });
+            update.set("branches.$[" + branchIdentifier + "].products.$[" + productIdentifier + "].stock", stockUpdate.getStock());
+        }
+        update.inc("version", 1);
+        Query query = new Query(Criteria.where("id").is(franchiseId).andOperator(existence.toArray(new Criteria[0])));
+        
+        return mongoTemplate.updateFirst(query, update, FranchiseDocument.class)
+                .flatMapMany(result -> result.getMatchedCount() > 0
+                        ? Flux.fromIterable(updates).map(stockUpdate -> new StockUpdateResult(stockUpdate, StockUpdateResult.Status.UPDATED))
+                        : updateProductStocksOneByOne(updates))
+                .doOnError(error -> logger.error("Error al actualizar stocks en lote: {}", error.getMessage()));
+    }
+
+    /**
+     * Si algún producto del lote no existe se aplica cada elemento por separado para conocer su resultado.
+     * Es seguro repetirlo porque asignar un stock es idempotente.
+     */
+    private Flux<StockUpdateResult> updateProductStocksOneByOne(List<StockUpdate> updates) {
+        logger.warn("Lote de stock con productos inexistentes, se aplica elemento por elemento");
+        
+        return Flux.fromIterable(updates)
+                .concatMap(stockUpdate -> updateProductStock(stockUpdate.getFranchiseId(), stockUpdate.getBranchId(),
+                        stockUpdate.getProductId(), stockUpdate.getStock(), null)
+                        .hasElement()
+                        .map(updated -> new StockUpdateResult(stockUpdate,
+                                updated ? StockUpdateResult.Status.UPDATED : StockUpdateResult.Status.NOT_FOUND)));
+    }
+
+    @Override
+    public Mono<StockAdjustmentResult> adjustProductStock(String franchiseId, String branchId, String productId, int delta,
+                                                          Long expectedVersion) {
+        logger.debug("Ajustando en {} el stock del producto ID: {} en sucursal ID: {}", delta, productId, branchId);
+        
+        // La guarda de stock forma parte del filtro: si no alcanza, o si un incremento lo sacaría del rango de
+        // int, el documento no coincide y nada se escribe
+        Criteria product = Criteria.where("_id").is(productId);
+        if (delta < 0) {
+            product = product.and("stock").gte(-delta);
+        } else if (delta > 0) {
+            product = product.and("stock").lte(Integer.MAX_VALUE - delta);
+        }
+        Query query = new Query(franchise(franchiseId, expectedVersion)
+                .and("branches").elemMatch(Criteria.where("_id").is(branchId).and("products").elemMatch(product)));
+        query.fields().include("branches._id").include("branches.products._id").include("branches.products.stock");
+        Update update = new Update()
+                .inc("branches.$[b].products.$[p].stock", delta)
+                .inc("version", 1)
+                .filterArray(Criteria.where("b._id").is(branchId))
+                .filterArray(Criteria.where("p._id").is(productId));
+        
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), FranchiseDocument.class)
+                .map(document -> StockAdjustmentResult.adjusted(findStock(document, branchId, productId)))
+                .switchIfEmpty(Mono.defer(() -> productExists(franchiseId, branchId, productId, expectedVersion)
+                        .map(exists -> exists ? StockAdjustmentResult.rejected(delta) : StockAdjustmentResult.notFound())))
+                .doOnNext(result -> hotPathLogger.info("Ajuste de stock para producto: {} resultado: {}", productId, result.getStatus()))
+                .doOnError(error -> logger.error("Error al ajustar stock: {}", error.getMessage()));
+    }
+
+    @Override
+    public Flux<StockAdjustmentItemResult> adjustProductStocks(String franchiseId, List<StockAdjustment> adjustments) {
+        logger.debug("Ajustando en lote {} stocks de la franquicia ID: {}", adjustments.size(), franchiseId);
+        
+        if (adjustments.isEmpty()) {
+            return Flux.empty();
+        }
+        // Los ajustes de un mismo producto se suman en un solo $inc. Su guarda exige el stock que necesita el
+        // peor prefijo de la secuencia y el margen que necesita el mayor, así el lote se aplica completo solo si
+        // cada ajuste, aplicado en orden, también se habría aplicado; si algún producto no existe, no alcanza o
+        // se desbordaría, no se modifica nada
+        Map<String, ProductDelta> deltas = new LinkedHashMap<>();
+        for (StockAdjustment adjustment : adjustments) {
+            deltas.computeIfAbsent(adjustment.getBranchId() + "/" + adjustment.getProductId(),
+                    key -> new ProductDelta(adjustment.getBranchId(), adjustment.getProductId()))
+                    .add(adjustment.getDelta());
+        }
+        if (!deltas.values().stream().allMatch(ProductDelta::fitsInt)) {
+            return adjustProductStocksOneByOne(franchiseId, adjustments);
+        }
+        Map<String, String> branchIdentifiers = new LinkedHashMap<>();
+        List<Criteria> guards = new ArrayList<>();
+        Update update = new Update();
+        int productIndex = 0;
+        for (ProductDelta delta : deltas.values()) {
+            String branchIdentifier = branchIdentifiers.computeIfAbsent(delta.branchId, branchId -> {
+                String identifier = "b" + branchIdentifiers.size();
+                update.filterArray(Criteria.where(identifier + "._id").is(branchId));
+                return identifier;
+            });
+            String productIdentifier = branchIdentifier + "p" + productIndex++;
+            update.filterArray(Criteria.where(productIdentifier + "._id").is(delta.productId));
+            update.inc("branches.$[" + branchIdentifier + "].products.$[" + productIdentifier + "].stock", (int) delta.net);
+            Criteria product = Criteria.where("_id").is(delta.productId);
+            if (delta.required() > 0) {
+                product = product.and("stock").gte(delta.required());
+            }
+            if (delta.highest > 0) {
+                product = product.and("stock").lte(delta.headroom());
+            }
+            guards.add(Criteria.where("branches").elemMatch(Criteria.where("_id").is(delta.branchId)
+                    .and("products").elemMatch(product)));
+        }
+        update.inc("version", 1);
+        Query query = new Query(Criteria.where("id").is(franchiseId).andOperator(guards.toArray(new Criteria[0])));
+        query.fields().include("branches._id").include("branches.products._id").include("branches.products.stock");
+        
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), FranchiseDocument.class)
+                .flatMapMany(document -> Flux.fromIterable(adjustedResults(document, adjustments, deltas)))
+                .switchIfEmpty(Flux.defer(() -> adjustProductStocksOneByOne(franchiseId, adjustments)))
+                .doOnError(error -> logger.error("Error al ajustar stocks en lote: {}", error.getMessage()));
+    }
+
+    /**
+     * Stock después de cada ajuste del lote aplicado: se parte del stock previo de cada producto
+     * (el final menos la suma de sus ajustes) y se recorre la secuencia en orden
+     */
+    private List<StockAdjustmentItemResult> adjustedResults(FranchiseDocument document, List<StockAdjustment> adjustments,
+                                                            Map<String, ProductDelta> deltas) {
+        Map<String, Integer> running = new LinkedHashMap<>();
+        deltas.forEach((key, delta) -> running.put(key,
+                findStock(document, delta.branchId, delta.productId) - (int) delta.net));
+        List<StockAdjustmentItemResult> results = new ArrayList<>(adjustments.size());
+        for (StockAdjustment adjustment : adjustments) {
+            int stock = running.merge(adjustment.getBranchId() + "/" + adjustment.getProductId(),
+                    adjustment.getDelta(), Integer::sum);
+            results.add(new StockAdjustmentItemResult(adjustment, StockAdjustmentItemResult.Status.ADJUSTED, stock));
+        }
+        return results;
+    }
+
+    /**
+     * Si el lote no se aplicó porque algún producto no existe, no alcanza o se desbordaría, se aplica cada elemento por separado
+     * y en orden para conocer su resultado. Es seguro porque el lote no modificó nada.
+     */
+    private Flux<StockAdjustmentItemResult> adjustProductStocksOneByOne(String franchiseId, List<StockAdjustment> adjustments) {
+        logger.debug("Lote de ajustes con productos inexistentes, sin stock o desbordados, se aplica elemento por elemento");
+        
+        return Flux.fromIterable(adjustments)
+                .concatMap(adjustment -> adjustProductStock(franchiseId, adjustment.getBranchId(), adjustment.getProductId(),
+                        adjustment.getDelta(), null)
+                        .map(result -> StockAdjustmentItemResult.of(adjustment, result)));
+    }
+
+    @Override
+    public Flux<ProductWithBranch> findProductsWithMaxStockByBranch(String franchiseId) {
+        logger.debug("Agregando productos con mayor stock por sucursal para franquicia ID: {}", franchiseId);
+        
+        // Los índices de arreglo conservan el orden de las sucursales y, ante empates de stock,
+        // eligen el primer producto de la sucursal, igual que Branch.findProductWithMaxStock
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").is(franchiseId)),
+                Aggregation.unwind("branches", "branchIndex"),
+                Aggregation.unwind("branches.products", "productIndex"),
+                Aggregation.sort(Sort.by(Sort.Order.desc("branches.products.stock"), Sort.Order.asc("productIndex"))),
+                Aggregation.group("branches._id")
+                        .first("branches.name").as("branchName")
+                        .first("branches.products").as("product")
+                        .first("branchIndex").as("branchIndex"),
+                Aggregation.sort(Sort.by(Sort.Direction.ASC, "branchIndex")));
+        
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(FranchiseDocument.class), BranchMaxStockDocument.class)
+                .map(result -> new ProductWithBranch(productMapper.toDomain(result.getProduct()), result.getBranchName()))
+                .doOnError(error -> logger.error("Error al agregar productos con mayor stock: {}", error.getMessage()));
+    }
+
+    /**
+     * Los productos viven en el agregado: se lee la franquicia y se ordenan en memoria
+     */
+    @Override
+    public Flux<ProductWithBranch> findTopProductsByBranch(String franchiseId, int k) {
+        logger.debug("Buscando los {} productos con mayor stock por sucursal para franquicia ID: {}", k, franchiseId);
+        
+        return findById(franchiseId)
+                .flatMapIterable(franchise -> franchise.getTopProductsByBranch(k));
+    }
+
+    private Mono<Boolean> productExists(String franchiseId, String branchId, String productId, Long expectedVersion) {
+        return mongoTemplate.exists(new Query(franchise(franchiseId, expectedVersion)
+                .and("branches").elemMatch(Criteria.where("_id").is(branchId).and("products._id").is(productId))),
+                FranchiseDocument.class);
+    }
+
+    /**
+     * Filtro por ID de la franquicia y, si se indica, por su versión: una escritura condicionada a una versión
+     * que ya no es la almacenada no encuentra el documento
+     */
+    private Criteria franchise(String franchiseId, Long expectedVersion) {
+        Criteria criteria = Criteria.where("id").is(franchiseId);
+        return expectedVersion == null ? criteria : StoredVersion.matching(criteria, expectedVersion);
+    }
+
+    /**
+     * Colección de franquicias tipada: el driver decodifica y codifica con {@code FranchiseDocumentCodec}
+     */
+    private Mono<MongoCollection<FranchiseDocument>> franchises() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(FranchiseDocument.class))
+                .map(collection -> collection.withDocumentClass(FranchiseDocument.class));
+    }
+
+    private int findStock(FranchiseDocument document, String branchId, String productId) {
+        return document.getBranches().stream()
+                .filter(branch -> branchId.equals(branch.getId()))
+                .flatMap(branch -> branch.getProducts().stream())
+                .filter(product -> productId.equals(product.getId()))
+                .mapToInt(ProductDocument::getStock)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("El producto ajustado no está en el documento devuelto"));
+    }
+
+    /**
+     * Suma de los ajustes de un producto dentro de un lote y el menor valor que alcanzan sus sumas parciales
+     */
+    private static final class ProductDelta {
+        private final String branchId;
+        private final String productId;
+        private long net;
+        private long lowest;
+        private long highest;
+
+        private ProductDelta(String branchId, String productId) {
+            this.branchId = branchId;
+            this.productId = productId;
+        }
+
+        private void add(int delta) {
+            net += delta;
+            lowest = Math.min(lowest, net);
+            highest = Math.max(highest, net);
+        }
+
+        /**
+         * Stock previo necesario para que ningún ajuste de la secuencia lo deje negativo
+         */
+        private int required() {
+            return (int) -lowest;
+        }
+
+        /**
+         * Stock previo máximo para que ningún ajuste de la secuencia lo saque del rango de int
+         */
+        private int headroom() {
+            return (int) (Integer.MAX_VALUE - highest);
+        }
+
+        /**
+         * Un lote cuyos prefijos se salen del rango de int no puede aplicarse completo con una sola guarda
+         */
+        private boolean fitsInt() {
+            return lowest >= -Integer.MAX_VALUE && highest <= Integer.MAX_VALUE;
+        }
+    }
 }
@@ -0,0 +1,162 @@
+package com.nequi.franchise.infrastructure.persistence.repository;
+
+import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.Franchise.ProductWithBranch;
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.FranchiseJson;
+import com.nequi.franchise.domain.model.FranchiseSummary;
+import com.nequi.franchise.domain.model.PayloadFormat;
+import com.nequi.franchise.domain.model.StockAdjustment;
+import com.nequi.franchise.domain.model.StockAdjustmentItemResult;
+import com.nequi.franchise.domain.model.StockAdjustmentResult;
+import com.nequi.franchise.domain.model.StockUpdate;
+import com.nequi.franchise.domain.model.StockUpdateResult;
+import com.nequi.franchise.domain.port.FranchiseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Decorador del repositorio de franquicias que agrupa las lecturas concurrentes de una misma franquicia:
+ * mientras una consulta por ID está en curso, las demás se suscriben a ella en lugar de lanzar otra.
+ * Cada suscriptor recibe su propia copia del agregado, por lo que puede modificarla sin afectar a los demás.
+ * Las lecturas ya serializadas se agrupan igual por ID, campos y formato; sus bytes se comparten, porque nadie los
+ * modifica. Las escrituras se delegan sin cambios.
+ */
+public class SingleFlightFranchiseRepository implements FranchiseRepository {
+
+    private final FranchiseRepository delegate;
+    private final ConcurrentHashMap<String, Mono<Franchise>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<List<Object>, Mono<FranchiseJson>> inFlightJson = new ConcurrentHashMap<>();
+
+    private final Counter executed;
+    private final Counter deduplicated;
+
+    public SingleFlightFranchiseRepository(FranchiseRepository delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executed = Counter.builder("franchise.reads.single-flight")
+                .description("Lecturas por ID que consultaron la base de datos")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.deduplicated = Counter.builder("franchise.reads.single-flight")
+                .description("Lecturas por ID resueltas con una consulta ya en curso")
+                .tag("result", "deduplicated")
+                .register(meterRegistry);
+        Gauge.builder("franchise.reads.in-flight", this, SingleFlightFranchiseRepository::inFlightCount)
+                .description("Lecturas por ID en curso contra la base de datos")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Franchise> findById(String id) {
+        return single(inFlight, id, () -> delegate.findById(id), Franchise::copy);
+    }
+
+    @Override
+    public Mono<FranchiseJson> findJsonById(String id, FranchiseFields fields, PayloadFormat format) {
+        return single(inFlightJson, List.of(id, fields, format), () -> delegate.findJsonById(id, fields, format),
+                Function.identity());
+    }
+
+    @Override
+    public Mono<Long> findVersionById(String id) {
+        return delegate.findVersionById(id);
+    }
+
+    @Override
+    public Mono<Franchise> save(Franchise franchise) {
+        return delegate.save(franchise);
+    }
+
+    @Override
+    public Flux<Franchise> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Flux<FranchiseSummary> findSummaries(String afterId, int limit) {
+        return delegate.findSummaries(afterId, limit);
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(String id, Long expectedVersion) {
+        return delegate.deleteById(id, expectedVersion);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public Mono<Long> updateProductStock(String franchiseId, String branchId, String productId, int newStock,
+                                         Long expectedVersion) {
+        return delegate.updateProductStock(franchiseId, branchId, productId, newStock, expectedVersion);
+    }
+
+    @Override
+    public Flux<StockUpdateResult> updateProductStocks(String franchiseId, List<StockUpdate> updates) {
+        return delegate.updateProductStocks(franchiseId, updates);
+    }
+
+    @Override
+    public Mono<StockAdjustmentResult> adjustProductStock(String franchiseId, String branchId, String productId, int delta,
+                                                          Long expectedVersion) {
+        return delegate.adjustProductStock(franchiseId, branchId, productId, delta, expectedVersion);
+    }
+
+    @Override
+    public Flux<StockAdjustmentItemResult> adjustProductStocks(String franchiseId, List<StockAdjustment> adjustments) {
+        return delegate.adjustProductStocks(franchiseId, adjustments);
+    }
+
+    @Override
+    public Flux<ProductWithBranch> findProductsWithMaxStockByBranch(String franchiseId) {
+        return delegate.findProductsWithMaxStockByBranch(franchiseId);
+    }
+
+    @Override
+    public Flux<ProductWithBranch> findTopProductsByBranch(String franchiseId, int k) {
+        return delegate.findTopProductsByBranch(franchiseId, k);
+    }
+
+    /**
+     * Se suscribe a la consulta en curso con la misma clave o, si no hay ninguna, lanza {@code query} y la
+     * publica para las lecturas que lleguen mientras dure. Cada suscriptor recibe {@code copy} del resultado.
+     */
+    private <K, T> Mono<T> single(ConcurrentHashMap<K, Mono<T>> queries, K key, Supplier<Mono<T>> query,
+                                  Function<T, T> copy) {
+        return Mono.defer(() -> {
+            Mono<T> shared = queries.get(key);
+            if (shared != null) {
+                deduplicated.increment();
+                return shared.map(copy);
+            }
+            // La consulta se quita del mapa al terminar; quien llegue después lanza una nueva
+            AtomicReference<Mono<T>> self = new AtomicReference<>();
+            Mono<T> load = query.get()
+                    .doFinally(signal -> queries.remove(key, self.get()))
+                    .cache();
+            self.set(load);
+            Mono<T> winner = queries.putIfAbsent(key, load);
+            if (winner != null) {
+                deduplicated.increment();
+                return winner.map(copy);
+            }
+            executed.increment();
+            return load.map(copy);
+        });
+    }
+
+    private int inFlightCount() {
+        return inFlight.size() + inFlightJson.size();
+    }
+}
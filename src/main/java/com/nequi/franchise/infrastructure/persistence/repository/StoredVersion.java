@@ -0,0 +1,32 @@
+package com.nequi.franchise.infrastructure.persistence.repository;
+
+import com.mongodb.client.model.Filters;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Versión almacenada de una franquicia en las escrituras condicionales. Los documentos escritos antes de
+ * versionar las franquicias no tienen el campo: se leen como versión 0, y el filtro de la versión 0 también
+ * los acepta, de modo que su primera escritura los compara y los lleva a la versión 1 como a cualquier otro.
+ */
+final class StoredVersion {
+
+    static final String FIELD = "version";
+
+    private StoredVersion() {}
+
+    /**
+     * Agrega a {@code criteria} la condición de que la franquicia esté en la versión indicada.
+     * Comparar con null en MongoDB también acepta el campo ausente.
+     */
+    static Criteria matching(Criteria criteria, long version) {
+        return version == 0 ? criteria.and(FIELD).in(0L, null) : criteria.and(FIELD).is(version);
+    }
+
+    /**
+     * Igual que {@link #matching(Criteria, long)} para las consultas directas con el driver
+     */
+    static Bson filter(long version) {
+        return version == 0 ? Filters.in(FIELD, 0L, null) : Filters.eq(FIELD, version);
+    }
+}
@@ -0,0 +1,71 @@
+package com.nequi.franchise.infrastructure.web.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codecs binarios de la API. Además de JSON, los cuerpos de petición y respuesta de los controladores
+ * ({@code FranchiseDto}, {@code BranchDto}, {@code ProductDto}, {@code ProductWithBranchDto} y los demás) se pueden
+ * intercambiar como {@code application/cbor} o {@code application/x-jackson-smile}, según {@code Content-Type} y
+ * {@code Accept}. Los mapeadores de CBOR y Smile salen del mismo constructor que el de JSON, con sus módulos y
+ * opciones, de modo que los tres formatos tienen la misma forma.
+ */
+@Configuration
+public class WebCodecConfig implements WebFluxConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders;
+
+    public WebCodecConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders) {
+        this.objectMapperBuilders = objectMapperBuilders;
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        ObjectMapper cborMapper = objectMapperBuilders.getObject().factory(new CBORFactory()).build();
+        ObjectMapper smileMapper = objectMapperBuilders.getObject().factory(new SmileFactory()).build();
+        configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper));
+        configurer.customCodecs().register(new CollectingCborEncoder(cborMapper));
+        configurer.customCodecs().register(new Jackson2SmileDecoder(smileMapper));
+        configurer.customCodecs().register(new Jackson2SmileEncoder(smileMapper));
+    }
+
+    /**
+     * El codificador CBOR de Spring no admite flujos de varios elementos. Las respuestas {@code Flux} se reúnen en
+     * un solo arreglo CBOR, que es lo mismo que hace el codificador JSON con los tipos que no son de streaming.
+     */
+    static final class CollectingCborEncoder extends Jackson2CborEncoder {
+
+        CollectingCborEncoder(ObjectMapper cborMapper) {
+            super(cborMapper);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+            return Flux.from(inputStream)
+                    .collectList()
+                    .map(values -> encodeValue(values, bufferFactory, listType, mimeType, hints))
+                    .flux();
+        }
+    }
+}
@@ -1,30 +1,46 @@
 package com.nequi.franchise.infrastructure.web.controller;
 
-<<<<<<< HEAD
-import com.nequi.franchise.domain.port.FranchiseService;
-=======
-import com.nequi.franchise.application.usecase.FranchiseUseCase;
-import com.nequi.franchise.domain.model.Branch;
+import com.nequi.franchise.application.logging.ErrorLogging;
+import com.nequi.franchise.application.logging.RateLimitedLogger;
+import com.nequi.franchise.domain.exception.NotFoundException;
 import com.nequi.franchise.domain.model.Franchise;
-import com.nequi.franchise.domain.model.Product;
-import com.nequi.franchise.domain.model.Franchise.ProductWithBranch;
->>>>>>> master
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.PayloadFormat;
+import com.nequi.franchise.domain.port.FranchiseService;
 import com.nequi.franchise.infrastructure.web.dto.BranchDto;
 import com.nequi.franchise.infrastructure.web.dto.FranchiseDto;
+import com.nequi.franchise.infrastructure.web.dto.FranchiseSummaryDto;
+import com.nequi.franchise.infrastructure.web.dto.FranchiseSummaryPageDto;
 import com.nequi.franchise.infrastructure.web.dto.ProductDto;
 import com.nequi.franchise.infrastructure.web.dto.ProductWithBranchDto;
+import com.nequi.franchise.infrastructure.web.dto.StockAdjustmentResultDto;
+import com.nequi.franchise.infrastructure.web.dto.StockChangeDto;
+import com.nequi.franchise.infrastructure.web.dto.StockUpdateDto;
+import com.nequi.franchise.infrastructure.web.dto.StockUpdateResultDto;
 import com.nequi.franchise.infrastructure.web.mapper.FranchiseWebMapper;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
 /**
- * Controlador REST para franquicias
+ * Controlador REST para franquicias.
+ * Las respuestas sobre una franquicia llevan su versión como ETag: las lecturas responden 304 a un
+ * {@code If-None-Match} vigente sin leer ni serializar el documento, y las modificaciones aceptan
+ * {@code If-Match} para escribir solo si la franquicia no cambió desde que el cliente la leyó (412 si cambió).
+ * Con {@code Prefer: return=minimal} las modificaciones responden 204 con la ETag, sin la franquicia.
  */
 @RestController
 @RequestMapping("/api/v1/franchises")
@@ -32,21 +48,20 @@ import reactor.core.publisher.Mono;
 public class FranchiseController {
 
     private static final Logger logger = LoggerFactory.getLogger(FranchiseController.class);
+    private static final RateLimitedLogger hotPathLogger = RateLimitedLogger.of(logger);
+    
+    static final String STOCK_EVENT = "stock";
+    static final String HEARTBEAT_COMMENT = "heartbeat";
     
-<<<<<<< HEAD
     private final FranchiseService franchiseService;
     private final FranchiseWebMapper franchiseWebMapper;
+    private final Duration stockStreamHeartbeat;
 
-    public FranchiseController(FranchiseService franchiseService, FranchiseWebMapper franchiseWebMapper) {
+    public FranchiseController(FranchiseService franchiseService, FranchiseWebMapper franchiseWebMapper,
+                               @Value("${franchise.stock-stream.heartbeat:15s}") Duration stockStreamHeartbeat) {
         this.franchiseService = franchiseService;
-=======
-    private final FranchiseUseCase franchiseUseCase;
-    private final FranchiseWebMapper franchiseWebMapper;
-
-    public FranchiseController(FranchiseUseCase franchiseUseCase, FranchiseWebMapper franchiseWebMapper) {
-        this.franchiseUseCase = franchiseUseCase;
->>>>>>> master
         this.franchiseWebMapper = franchiseWebMapper;
+        this.stockStreamHeartbeat = stockStreamHeartbeat;
     }
 
     /**
@@ -58,51 +73,78 @@ public class FranchiseController {
         
         return Mono.just(franchiseDto)
                 .map(franchiseWebMapper::toDomain)
-<<<<<<< HEAD
                 .flatMap(franchiseService::createFranchise)
-=======
-                .flatMap(franchiseUseCase::createFranchise)
->>>>>>> master
                 .map(franchiseWebMapper::toDto)
                 .map(ResponseEntity::ok)
                 .doOnSuccess(response -> logger.info("Franquicia creada exitosamente"))
-                .doOnError(error -> logger.error("Error al crear franquicia: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al crear franquicia", error));
     }
 
     /**
-     * Obtener todas las franquicias
+     * Obtener una página de franquicias (resumen sin sucursales ni productos).
+     * La siguiente página se pide enviando el {@code nextCursor} recibido.
      */
     @GetMapping
-    public Flux<FranchiseDto> getAllFranchises() {
-        logger.debug("Obteniendo todas las franquicias");
+    public Mono<FranchiseSummaryPageDto> getFranchises(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        logger.debug("Obteniendo pagina de franquicias con cursor: {}", cursor);
+        
+        return Mono.defer(() -> franchiseService.getFranchiseSummaries(franchiseWebMapper.decodeCursor(cursor), size))
+                .map(franchiseWebMapper::toDto)
+                .doOnSuccess(page -> logger.debug("Pagina de franquicias obtenida"))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al obtener franquicias", error));
+    }
+
+    /**
+     * Transmitir todas las franquicias como NDJSON, un resumen por línea.
+     * La lectura desde MongoDB avanza al ritmo en que el cliente consume la respuesta.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<FranchiseSummaryDto> streamFranchises(@RequestParam(required = false) String cursor) {
+        logger.debug("Transmitiendo franquicias desde cursor: {}", cursor);
         
-<<<<<<< HEAD
-        return franchiseService.getAllFranchises()
-=======
-        return franchiseUseCase.getAllFranchises()
->>>>>>> master
+        return Flux.defer(() -> franchiseService.streamFranchiseSummaries(franchiseWebMapper.decodeCursor(cursor)))
                 .map(franchiseWebMapper::toDto)
-                .doOnNext(franchise -> logger.debug("Franquicia obtenida: {}", franchise.getName()))
-                .doOnError(error -> logger.error("Error al obtener franquicias: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al transmitir franquicias", error));
     }
 
     /**
-     * Obtener franquicia por ID
+     * Obtener franquicia por ID. Es una lectura pura: el JSON, con la forma de {@link FranchiseDto},
+     * se escribe directamente desde el documento almacenado sin armar el agregado ni el DTO.
+     * Con {@code ?fields=} (por ejemplo {@code name,branches.name}) solo se leen y escriben esos campos.
+     * Con {@code If-None-Match} se lee primero solo la versión y, si sigue vigente, se responde 304.
+     * Con {@code Accept: application/cbor} o {@code application/x-jackson-smile} se escribe en ese formato
+     * binario, también directamente desde el documento.
      */
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<FranchiseDto>> getFranchiseById(@PathVariable String id) {
+    public Mono<ResponseEntity<byte[]>> getFranchiseById(
+            @PathVariable String id,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         logger.debug("Obteniendo franquicia por ID: {}", id);
         
-<<<<<<< HEAD
-        return franchiseService.getFranchiseById(id)
-=======
-        return franchiseUseCase.getFranchiseById(id)
->>>>>>> master
-                .map(franchiseWebMapper::toDto)
-                .map(ResponseEntity::ok)
+        return Mono.defer(() -> {
+                    FranchiseFields selection = FranchiseFields.parse(fields);
+                    PayloadFormat format = PayloadFormats.negotiate(accept);
+                    Mono<ResponseEntity<byte[]>> fullRead = Mono.defer(() -> franchiseService.getFranchiseJsonById(id, selection, format))
+                            .map(json -> ResponseEntity.ok()
+                                    .eTag(FranchiseETags.of(json.getVersion(), format))
+                                    .varyBy(HttpHeaders.ACCEPT)
+                                    .contentType(PayloadFormats.mediaType(format))
+                                    .body(json.getJson()));
+                    return ifNoneMatch == null ? fullRead
+                            : franchiseService.getFranchiseVersionById(id)
+                                    .flatMap(version -> FranchiseETags.matchesNoneMatch(ifNoneMatch, version, format)
+                                            ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                                    .eTag(FranchiseETags.of(version, format))
+                                                    .varyBy(HttpHeaders.ACCEPT).<byte[]>build())
+                                            : fullRead);
+                })
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
-                .doOnSuccess(response -> logger.info("Franquicia obtenida exitosamente"))
-                .doOnError(error -> logger.error("Error al obtener franquicia: {}", error.getMessage()));
+                .doOnSuccess(response -> hotPathLogger.info("Franquicia obtenida exitosamente"))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al obtener franquicia", error));
     }
 
     /**
@@ -111,37 +153,32 @@ public class FranchiseController {
     @PutMapping("/{id}/name")
     public Mono<ResponseEntity<FranchiseDto>> updateFranchiseName(
             @PathVariable String id, 
-            @RequestBody String newName) {
+            @RequestBody String newName,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = ReturnPreference.PREFER, required = false) String prefer) {
         logger.info("Actualizando nombre de franquicia ID: {} a: {}", id, newName);
         
-<<<<<<< HEAD
-        return franchiseService.updateFranchiseName(id, newName)
-=======
-        return franchiseUseCase.updateFranchiseName(id, newName)
->>>>>>> master
-                .map(franchiseWebMapper::toDto)
-                .map(ResponseEntity::ok)
+        return Mono.defer(() -> franchiseService.updateFranchiseName(id, newName, FranchiseETags.expectedVersion(ifMatch, id)))
+                .map(franchise -> toResponse(franchise, prefer))
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
                 .doOnSuccess(response -> logger.info("Nombre de franquicia actualizado exitosamente"))
-                .doOnError(error -> logger.error("Error al actualizar nombre de franquicia: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al actualizar nombre de franquicia", error));
     }
 
     /**
      * Eliminar franquicia
      */
     @DeleteMapping("/{id}")
-    public Mono<ResponseEntity<Void>> deleteFranchise(@PathVariable String id) {
+    public Mono<ResponseEntity<Void>> deleteFranchise(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Eliminando franquicia ID: {}", id);
         
-<<<<<<< HEAD
-        return franchiseService.deleteFranchise(id)
-=======
-        return franchiseUseCase.deleteFranchise(id)
->>>>>>> master
+        return Mono.defer(() -> franchiseService.deleteFranchise(id, FranchiseETags.expectedVersion(ifMatch, id)))
                 .then(Mono.just(ResponseEntity.noContent().<Void>build()))
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
                 .doOnSuccess(response -> logger.info("Franquicia eliminada exitosamente"))
-                .doOnError(error -> logger.error("Error al eliminar franquicia: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al eliminar franquicia", error));
     }
 
     /**
@@ -150,21 +187,19 @@ public class FranchiseController {
     @PostMapping("/{franchiseId}/branches")
     public Mono<ResponseEntity<FranchiseDto>> addBranchToFranchise(
             @PathVariable String franchiseId,
-            @Valid @RequestBody BranchDto branchDto) {
+            @Valid @RequestBody BranchDto branchDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = ReturnPreference.PREFER, required = false) String prefer) {
         logger.info("Agregando sucursal {} a franquicia ID: {}", branchDto.getName(), franchiseId);
         
         return Mono.just(branchDto)
                 .map(franchiseWebMapper::toDomain)
-<<<<<<< HEAD
-                .flatMap(branch -> franchiseService.addBranchToFranchise(franchiseId, branch))
-=======
-                .flatMap(branch -> franchiseUseCase.addBranchToFranchise(franchiseId, branch))
->>>>>>> master
-                .map(franchiseWebMapper::toDto)
-                .map(ResponseEntity::ok)
+                .flatMap(branch -> franchiseService.addBranchToFranchise(franchiseId, branch,
+                        FranchiseETags.expectedVersion(ifMatch, franchiseId)))
+                .map(franchise -> toResponse(franchise, prefer))
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
                 .doOnSuccess(response -> logger.info("Sucursal agregada exitosamente"))
-                .doOnError(error -> logger.error("Error al agregar sucursal: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al agregar sucursal", error));
     }
 
     /**
@@ -174,19 +209,17 @@ public class FranchiseController {
     public Mono<ResponseEntity<FranchiseDto>> updateBranchName(
             @PathVariable String franchiseId,
             @PathVariable String branchId,
-            @RequestBody String newName) {
+            @RequestBody String newName,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = ReturnPreference.PREFER, required = false) String prefer) {
         logger.info("Actualizando nombre de sucursal ID: {} a: {}", branchId, newName);
         
-<<<<<<< HEAD
-        return franchiseService.updateBranchName(franchiseId, branchId, newName)
-=======
-        return franchiseUseCase.updateBranchName(franchiseId, branchId, newName)
->>>>>>> master
-                .map(franchiseWebMapper::toDto)
-                .map(ResponseEntity::ok)
+        return Mono.defer(() -> franchiseService.updateBranchName(franchiseId, branchId, newName,
+                        FranchiseETags.expectedVersion(ifMatch, franchiseId)))
+                .map(franchise -> toResponse(franchise, prefer))
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
                 .doOnSuccess(response -> logger.info("Nombre de sucursal actualizado exitosamente"))
-                .doOnError(error -> logger.error("Error al actualizar nombre de sucursal: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al actualizar nombre de sucursal", error));
     }
 
     /**
@@ -196,21 +229,19 @@ public class FranchiseController {
     public Mono<ResponseEntity<FranchiseDto>> addProductToBranch(
             @PathVariable String franchiseId,
             @PathVariable String branchId,
-            @Valid @RequestBody ProductDto productDto) {
-        logger.info("Agregando producto {} a sucursal ID: {}", productDto.getName(), branchId);
+            @Valid @RequestBody ProductDto productDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = ReturnPreference.PREFER, required = false) String prefer) {
+        hotPathLogger.info("Agregando producto {} a sucursal ID: {}", productDto.getName(), branchId);
         
         return Mono.just(productDto)
                 .map(franchiseWebMapper::toDomain)
-<<<<<<< HEAD
-                .flatMap(product -> franchiseService.addProductToBranch(franchiseId, branchId, product))
-=======
-                .flatMap(product -> franchiseUseCase.addProductToBranch(franchiseId, branchId, product))
->>>>>>> master
-                .map(franchiseWebMapper::toDto)
-                .map(ResponseEntity::ok)
+                .flatMap(product -> franchiseService.addProductToBranch(franchiseId, branchId, product,
+                        FranchiseETags.expectedVersion(ifMatch, franchiseId)))
+                .map(franchise -> toResponse(franchise, prefer))
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
-                .doOnSuccess(response -> logger.info("Producto agregado exitosamente"))
-                .doOnError(error -> logger.error("Error al agregar producto: {}", error.getMessage()));
+                .doOnSuccess(response -> hotPathLogger.info("Producto agregado exitosamente"))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al agregar producto", error));
     }
 
     /**
@@ -220,19 +251,17 @@ public class FranchiseController {
     public Mono<ResponseEntity<FranchiseDto>> removeProductFromBranch(
             @PathVariable String franchiseId,
             @PathVariable String branchId,
-            @PathVariable String productId) {
+            @PathVariable String productId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = ReturnPreference.PREFER, required = false) String prefer) {
         logger.info("Eliminando producto ID: {} de sucursal ID: {}", productId, branchId);
         
-<<<<<<< HEAD
-        return franchiseService.removeProductFromBranch(franchiseId, branchId, productId)
-=======
-        return franchiseUseCase.removeProductFromBranch(franchiseId, branchId, productId)
->>>>>>> master
-                .map(franchiseWebMapper::toDto)
-                .map(ResponseEntity::ok)
+        return Mono.defer(() -> franchiseService.removeProductFromBranch(franchiseId, branchId, productId,
+                        FranchiseETags.expectedVersion(ifMatch, franchiseId)))
+                .map(franchise -> toResponse(franchise, prefer))
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
                 .doOnSuccess(response -> logger.info("Producto eliminado exitosamente"))
-                .doOnError(error -> logger.error("Error al eliminar producto: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al eliminar producto", error));
     }
 
     /**
@@ -243,19 +272,94 @@ public class FranchiseController {
             @PathVariable String franchiseId,
             @PathVariable String branchId,
             @PathVariable String productId,
-            @RequestBody Integer newStock) {
-        logger.info("Actualizando stock del producto ID: {} a: {}", productId, newStock);
+            @RequestBody Integer newStock,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = ReturnPreference.PREFER, required = false) String prefer) {
+        hotPathLogger.info("Actualizando stock del producto ID: {} a: {}", productId, newStock);
         
-<<<<<<< HEAD
-        return franchiseService.updateProductStock(franchiseId, branchId, productId, newStock)
-=======
-        return franchiseUseCase.updateProductStock(franchiseId, branchId, productId, newStock)
->>>>>>> master
-                .map(franchiseWebMapper::toDto)
-                .map(ResponseEntity::ok)
+        // Con return=minimal basta la versión que devuelve la escritura; no hace falta leer la franquicia
+        if (ReturnPreference.isMinimal(prefer)) {
+            return Mono.defer(() -> franchiseService.updateProductStockAndGetVersion(franchiseId, branchId, productId, newStock,
+                            FranchiseETags.expectedVersion(ifMatch, franchiseId)))
+                    .map(FranchiseController::minimalResponse)
+                    .doOnSuccess(response -> hotPathLogger.info("Stock de producto actualizado exitosamente"))
+                    .doOnError(error -> ErrorLogging.log(logger, "Error al actualizar stock de producto", error));
+        }
+        return Mono.defer(() -> franchiseService.updateProductStock(franchiseId, branchId, productId, newStock,
+                        FranchiseETags.expectedVersion(ifMatch, franchiseId)))
+                .map(franchise -> toResponse(franchise, prefer))
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
-                .doOnSuccess(response -> logger.info("Stock de producto actualizado exitosamente"))
-                .doOnError(error -> logger.error("Error al actualizar stock de producto: {}", error.getMessage()));
+                .doOnSuccess(response -> hotPathLogger.info("Stock de producto actualizado exitosamente"))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al actualizar stock de producto", error));
+    }
+
+    /**
+     * Ajustar el stock de un producto sumando una cantidad (negativa para ventas o reservas).
+     * Responde 409 si el stock no alcanza para cubrir un decremento o si un incremento lo dejaría por encima
+     * del máximo representable.
+     */
+    @PostMapping("/{franchiseId}/branches/{branchId}/products/{productId}/stock/adjustments")
+    public Mono<ResponseEntity<StockAdjustmentResultDto>> adjustProductStock(
+            @PathVariable String franchiseId,
+            @PathVariable String branchId,
+            @PathVariable String productId,
+            @RequestBody Integer delta,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        hotPathLogger.info("Ajustando en {} el stock del producto ID: {}", delta, productId);
+        
+        return Mono.defer(() -> franchiseService.adjustProductStock(franchiseId, branchId, productId, delta,
+                        FranchiseETags.expectedVersion(ifMatch, franchiseId)))
+                .map(result -> {
+                    StockAdjustmentResultDto dto = franchiseWebMapper.toDto(productId, result);
+                    switch (result.getStatus()) {
+                        case ADJUSTED:
+                            return ResponseEntity.ok(dto);
+                        case INSUFFICIENT_STOCK:
+                        case STOCK_OVERFLOW:
+                            return ResponseEntity.status(HttpStatus.CONFLICT).body(dto);
+                        default:
+                            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(dto);
+                    }
+                })
+                .doOnSuccess(response -> hotPathLogger.info("Ajuste de stock respondido con estado: {}", response.getStatusCode()))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al ajustar stock de producto", error));
+    }
+
+    /**
+     * Actualizar en lote el stock de varios productos, de una o varias franquicias.
+     * Devuelve el resultado de cada elemento en lugar de fallar la petición completa.
+     */
+    @PutMapping("/stock")
+    public Flux<StockUpdateResultDto> updateProductStocks(@RequestBody List<StockUpdateDto> stockUpdateDtos) {
+        logger.info("Actualizando stock de {} productos en lote", stockUpdateDtos.size());
+        
+        return Mono.just(stockUpdateDtos)
+                .map(franchiseWebMapper::toDomain)
+                .flatMapMany(franchiseService::updateProductStocks)
+                .map(franchiseWebMapper::toDto)
+                .doOnComplete(() -> logger.info("Actualizacion de stock en lote finalizada"))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al actualizar stock en lote", error));
+    }
+
+    /**
+     * Transmitir como Server-Sent Events (evento {@code stock}) los cambios de stock de una franquicia a medida
+     * que se aplican. Cada {@code franchise.stock-stream.heartbeat} se envía un comentario para mantener viva la
+     * conexión a través de proxies; si el cliente no lee a tiempo, pierde los cambios más viejos.
+     */
+    @GetMapping(value = "/{franchiseId}/stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<StockChangeDto>> streamStockChanges(@PathVariable String franchiseId) {
+        logger.info("Transmitiendo cambios de stock de franquicia ID: {}", franchiseId);
+        
+        Flux<ServerSentEvent<StockChangeDto>> changes = franchiseService.watchStockChanges(franchiseId)
+                .map(change -> ServerSentEvent.builder(franchiseWebMapper.toDto(change))
+                        .event(STOCK_EVENT)
+                        .build());
+        Flux<ServerSentEvent<StockChangeDto>> heartbeats = Flux.interval(stockStreamHeartbeat)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<StockChangeDto>builder().comment(HEARTBEAT_COMMENT).build());
+        return changes.mergeWith(heartbeats)
+                .doFinally(signal -> logger.info("Transmision de stock de franquicia ID: {} finalizada: {}", franchiseId, signal))
+                .doOnError(error -> ErrorLogging.log(logger, "Error al transmitir cambios de stock", error));
     }
 
     /**
@@ -266,46 +370,95 @@ public class FranchiseController {
             @PathVariable String franchiseId,
             @PathVariable String branchId,
             @PathVariable String productId,
-            @RequestBody String newName) {
+            @RequestBody String newName,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = ReturnPreference.PREFER, required = false) String prefer) {
         logger.info("Actualizando nombre del producto ID: {} a: {}", productId, newName);
         
-<<<<<<< HEAD
-        return franchiseService.updateProductName(franchiseId, branchId, productId, newName)
-=======
-        return franchiseUseCase.updateProductName(franchiseId, branchId, productId, newName)
->>>>>>> master
-                .map(franchiseWebMapper::toDto)
-                .map(ResponseEntity::ok)
+        return Mono.defer(() -> franchiseService.updateProductName(franchiseId, branchId, productId, newName,
+                        FranchiseETags.expectedVersion(ifMatch, franchiseId)))
+                .map(franchise -> toResponse(franchise, prefer))
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
                 .doOnSuccess(response -> logger.info("Nombre de producto actualizado exitosamente"))
-                .doOnError(error -> logger.error("Error al actualizar nombre de producto: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al actualizar nombre de producto", error));
     }
 
     /**
      * Obtener productos con mayor stock por sucursal para una franquicia
      */
     @GetMapping("/{franchiseId}/products/max-stock")
-    public Flux<ProductWithBranchDto> getProductsWithMaxStockByFranchise(@PathVariable String franchiseId) {
-        logger.info("Obteniendo productos con mayor stock por sucursal para franquicia ID: {}", franchiseId);
+    public Mono<ResponseEntity<Flux<ProductWithBranchDto>>> getProductsWithMaxStockByFranchise(
+            @PathVariable String franchiseId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        hotPathLogger.info("Obteniendo productos con mayor stock por sucursal para franquicia ID: {}", franchiseId);
         
-<<<<<<< HEAD
-        return franchiseService.getProductsWithMaxStockByFranchise(franchiseId)
-=======
-        return franchiseUseCase.getProductsWithMaxStockByFranchise(franchiseId)
->>>>>>> master
+        return conditionalRead(franchiseId, ifNoneMatch, accept, () -> franchiseService.getProductsWithMaxStockByFranchise(franchiseId)
                 .map(franchiseWebMapper::toDto)
                 .doOnNext(pwb -> logger.debug("Producto con mayor stock: {} en sucursal: {}", 
                         pwb.getProduct().getName(), pwb.getBranchName()))
-                .doOnError(error -> logger.error("Error al obtener productos con mayor stock: {}", error.getMessage()));
+                .doOnError(error -> ErrorLogging.log(logger, "Error al obtener productos con mayor stock", error)));
     }
 
     /**
-     * Manejador de excepciones global
+     * Obtener los k productos con mayor stock de cada sucursal de una franquicia
      */
-    @ExceptionHandler(Exception.class)
-    public Mono<ResponseEntity<String>> handleException(Exception ex) {
-        logger.error("Error no manejado: {}", ex.getMessage(), ex);
-        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body("Error interno del servidor: " + ex.getMessage()));
+    @GetMapping("/{franchiseId}/products/top")
+    public Mono<ResponseEntity<Flux<ProductWithBranchDto>>> getTopProductsByFranchise(
+            @PathVariable String franchiseId,
+            @RequestParam(defaultValue = "5") int k,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        hotPathLogger.info("Obteniendo los {} productos con mayor stock por sucursal para franquicia ID: {}", k, franchiseId);
+        
+        return conditionalRead(franchiseId, ifNoneMatch, accept, () -> franchiseService.getTopProductsByFranchise(franchiseId, k)
+                .map(franchiseWebMapper::toDto)
+                .doOnError(error -> ErrorLogging.log(logger, "Error al obtener productos con mayor stock", error)));
+    }
+
+    /**
+     * Respuesta de una consulta derivada de la franquicia, con su versión como ETag. La versión se lee primero
+     * (solo ese campo) para responder 304 sin ejecutar la consulta si {@code If-None-Match} sigue vigente.
+     * Si la franquicia cambia entre ambas lecturas, la ETag queda más vieja que el cuerpo y la siguiente
+     * petición condicional simplemente vuelve a leerlo. El cuerpo lo codifica WebFlux según {@code Accept}, así
+     * que la ETag lleva el formato que se negocia con las mismas reglas.
+     */
+    private Mono<ResponseEntity<Flux<ProductWithBranchDto>>> conditionalRead(
+            String franchiseId, String ifNoneMatch, String accept, Supplier<Flux<ProductWithBranchDto>> query) {
+        PayloadFormat format = PayloadFormats.negotiate(accept);
+        return franchiseService.getFranchiseVersionById(franchiseId)
+                .switchIfEmpty(Mono.error(() -> NotFoundException.franchise(franchiseId)))
+                .map(version -> ifNoneMatch != null && FranchiseETags.matchesNoneMatch(ifNoneMatch, version, format)
+                        ? ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(FranchiseETags.of(version, format))
+                                .varyBy(HttpHeaders.ACCEPT).<Flux<ProductWithBranchDto>>build()
+                        : ResponseEntity.ok()
+                                .eTag(FranchiseETags.of(version, format))
+                                .varyBy(HttpHeaders.ACCEPT)
+                                .body(query.get()));
+    }
+
+    /**
+     * Respuesta de una modificación: la franquicia con su ETag o, con {@code Prefer: return=minimal},
+     * solo la ETag en un 204, sin mapear ni serializar el agregado
+     */
+    private ResponseEntity<FranchiseDto> toResponse(Franchise franchise, String prefer) {
+        if (ReturnPreference.isMinimal(prefer)) {
+            return minimalResponse(franchise.getVersion());
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (franchise.getVersion() != null) {
+            builder.eTag(FranchiseETags.of(franchise.getVersion()));
+        }
+        return builder.body(franchiseWebMapper.toDto(franchise));
+    }
+
+    private static ResponseEntity<FranchiseDto> minimalResponse(Long version) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.NO_CONTENT)
+                .header(ReturnPreference.PREFERENCE_APPLIED, ReturnPreference.MINIMAL);
+        if (version != null) {
+            builder.eTag(FranchiseETags.of(version));
+        }
+        return builder.build();
     }
 }
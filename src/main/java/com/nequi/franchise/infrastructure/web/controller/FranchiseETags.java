@@ -0,0 +1,104 @@
+package com.nequi.franchise.infrastructure.web.controller;
+
+import com.nequi.franchise.domain.exception.InvalidRequestException;
+import com.nequi.franchise.domain.exception.PreconditionFailedException;
+import com.nequi.franchise.domain.model.PayloadFormat;
+
+import java.util.Locale;
+
+/**
+ * ETags de las franquicias. Son fuertes y se derivan de la versión del documento, que toda escritura incrementa
+ * (también las actualizaciones de stock en sitio), así que dos respuestas con la misma ETag tienen el mismo contenido.
+ * Las lecturas que se negocian con {@code Accept} llevan además el formato, porque los bytes de cada uno son
+ * distintos: {@code "7"} en JSON, {@code "7-cbor"} y {@code "7-smile"} en los binarios. If-Match acepta
+ * cualquiera de ellas, ya que todas identifican la misma versión.
+ */
+final class FranchiseETags {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+    private static final char FORMAT_SEPARATOR = '-';
+
+    private FranchiseETags() {
+    }
+
+    static String of(long version) {
+        return of(version, PayloadFormat.JSON);
+    }
+
+    static String of(long version, PayloadFormat format) {
+        return format == PayloadFormat.JSON ? "\"" + version + "\"" : "\"" + version + FORMAT_SEPARATOR + suffix(format) + "\"";
+    }
+
+    /**
+     * Indica si alguna de las ETags de {@code If-None-Match} corresponde a la versión en ese formato, con la
+     * comparación débil que exige ese encabezado
+     */
+    static boolean matchesNoneMatch(String ifNoneMatch, long version, PayloadFormat format) {
+        String current = of(version, format);
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (ANY.equals(trimmed)) {
+                return true;
+            }
+            if (trimmed.startsWith(WEAK_PREFIX)) {
+                trimmed = trimmed.substring(WEAK_PREFIX.length());
+            }
+            if (current.equals(trimmed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versión que exige {@code If-Match}, o null si la escritura no es condicional (sin encabezado o {@code *},
+     * que se cumple con que la franquicia exista). If-Match usa comparación fuerte: una ETag débil o que no
+     * salió de este servicio nunca coincide.
+     */
+    static Long expectedVersion(String ifMatch, String franchiseId) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        if (ifMatch.indexOf(',') >= 0) {
+            throw new InvalidRequestException("If-Match debe indicar una sola ETag");
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            Long version = versionOf(tag.substring(1, tag.length() - 1));
+            if (version != null) {
+                return version;
+            }
+        }
+        throw new PreconditionFailedException("La franquicia " + franchiseId + " no tiene la ETag " + tag);
+    }
+
+    /**
+     * Versión de una ETag de este servicio en cualquier formato, o null si no salió de aquí
+     */
+    private static Long versionOf(String opaque) {
+        int separator = opaque.indexOf(FORMAT_SEPARATOR);
+        if (separator >= 0 && !isBinarySuffix(opaque.substring(separator + 1))) {
+            return null;
+        }
+        String version = separator >= 0 ? opaque.substring(0, separator) : opaque;
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isBinarySuffix(String suffix) {
+        for (PayloadFormat format : PayloadFormat.values()) {
+            if (format != PayloadFormat.JSON && suffix(format).equals(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String suffix(PayloadFormat format) {
+        return format.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,65 @@
+package com.nequi.franchise.infrastructure.web.controller;
+
+import com.nequi.franchise.domain.model.PayloadFormat;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Negociación del formato de las respuestas que el controlador escribe por su cuenta, como la franquicia leída
+ * directamente del BSON. Las demás respuestas las negocia WebFlux con los codecs registrados en la configuración.
+ */
+final class PayloadFormats {
+
+    static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private static final PayloadFormat[] FORMATS = PayloadFormat.values();
+
+    private PayloadFormats() {
+    }
+
+    /**
+     * Formato aceptado con mayor calidad según {@code Accept}; ante un empate gana el primero de la lista y,
+     * con comodines, JSON. Sin encabezado, con uno mal formado o sin ningún formato aceptable se responde JSON,
+     * como antes de existir los formatos binarios.
+     */
+    static PayloadFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return PayloadFormat.JSON;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return PayloadFormat.JSON;
+        }
+        PayloadFormat best = PayloadFormat.JSON;
+        double bestQuality = 0;
+        for (MediaType type : acceptable) {
+            double quality = type.getQualityValue();
+            if (quality <= bestQuality) {
+                continue;
+            }
+            for (PayloadFormat format : FORMATS) {
+                if (type.includes(mediaType(format))) {
+                    best = format;
+                    bestQuality = quality;
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    static MediaType mediaType(PayloadFormat format) {
+        switch (format) {
+            case CBOR:
+                return MediaType.APPLICATION_CBOR;
+            case SMILE:
+                return APPLICATION_SMILE;
+            default:
+                return MediaType.APPLICATION_JSON;
+        }
+    }
+}
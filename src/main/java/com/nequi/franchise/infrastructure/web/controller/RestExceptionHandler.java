@@ -0,0 +1,92 @@
+package com.nequi.franchise.infrastructure.web.controller;
+
+import com.nequi.franchise.domain.exception.ConflictException;
+import com.nequi.franchise.domain.exception.DomainException;
+import com.nequi.franchise.domain.exception.NotFoundException;
+import com.nequi.franchise.domain.exception.PreconditionFailedException;
+import com.nequi.franchise.infrastructure.web.dto.ErrorDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Manejador de excepciones global. Los errores esperados (recurso inexistente, conflicto, precondición
+ * {@code If-Match} incumplida, petición inválida o mal formada) responden 404, 409, 412, 400 o 422 con un
+ * {@link ErrorDto} y solo se registran en DEBUG, sin pila: son respuestas normales a clientes equivocados
+ * y no deben costar más que una petición exitosa.
+ * Cualquier otro error responde 500 y se registra en ERROR con su pila, incluidos los
+ * {@code IllegalArgumentException}: los valores inválidos del cliente se rechazan con {@code InvalidRequestException},
+ * así que uno de esos es una precondición incumplida dentro del servicio.
+ */
+@RestControllerAdvice
+public class RestExceptionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RestExceptionHandler.class);
+
+    static final String INTERNAL_ERROR_CODE = "INTERNAL_ERROR";
+
+    @ExceptionHandler(DomainException.class)
+    public Mono<ResponseEntity<ErrorDto>> handleDomainException(DomainException ex, ServerHttpRequest request) {
+        return clientError(statusOf(ex), ex.getCode(), ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public Mono<ResponseEntity<ErrorDto>> handleVersionConflict(OptimisticLockingFailureException ex, ServerHttpRequest request) {
+        return clientError(HttpStatus.CONFLICT, "CONFLICT", "La franquicia fue modificada por otra peticion; intente de nuevo", request);
+    }
+
+    /**
+     * Errores que WebFlux ya asocia a un estado: cuerpo ilegible, validación de {@code @Valid}, tipo de parámetro
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public Mono<ResponseEntity<ErrorDto>> handleResponseStatus(ResponseStatusException ex, ServerHttpRequest request) {
+        HttpStatusCode status = ex.getStatusCode();
+        String message = ex.getReason() != null ? ex.getReason() : ex.getMessage();
+        if (status.is5xxServerError()) {
+            logger.error("Error no manejado: {}", message, ex);
+            return Mono.just(response(status, INTERNAL_ERROR_CODE, message, request));
+        }
+        HttpStatus resolved = HttpStatus.resolve(status.value());
+        return clientError(status, resolved != null ? resolved.name() : "CLIENT_ERROR", message, request);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public Mono<ResponseEntity<ErrorDto>> handleException(Exception ex, ServerHttpRequest request) {
+        logger.error("Error no manejado: {}", ex.getMessage(), ex);
+        return Mono.just(response(HttpStatus.INTERNAL_SERVER_ERROR, INTERNAL_ERROR_CODE,
+                "Error interno del servidor", request));
+    }
+
+    private static HttpStatus statusOf(DomainException ex) {
+        if (ex instanceof NotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (ex instanceof ConflictException) {
+            return HttpStatus.CONFLICT;
+        }
+        if (ex instanceof PreconditionFailedException) {
+            return HttpStatus.PRECONDITION_FAILED;
+        }
+        return HttpStatus.UNPROCESSABLE_ENTITY;
+    }
+
+    private static Mono<ResponseEntity<ErrorDto>> clientError(HttpStatusCode status, String code, String message,
+                                                              ServerHttpRequest request) {
+        logger.debug("Peticion rechazada con estado {}: {}", status.value(), message);
+        return Mono.just(response(status, code, message, request));
+    }
+
+    private static ResponseEntity<ErrorDto> response(HttpStatusCode status, String code, String message,
+                                                     ServerHttpRequest request) {
+        return ResponseEntity.status(status)
+                .body(new ErrorDto(status.value(), code, message, request.getPath().value()));
+    }
+}
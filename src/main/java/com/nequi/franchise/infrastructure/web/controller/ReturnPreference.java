@@ -0,0 +1,32 @@
+package com.nequi.franchise.infrastructure.web.controller;
+
+/**
+ * Preferencia {@code return} del encabezado {@code Prefer} (RFC 7240). Con {@code return=minimal} las
+ * modificaciones responden 204 con la ETag de la nueva versión en lugar de la franquicia completa.
+ */
+final class ReturnPreference {
+
+    static final String PREFER = "Prefer";
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+    static final String MINIMAL = "return=minimal";
+
+    private ReturnPreference() {
+    }
+
+    /**
+     * Indica si el cliente pidió {@code return=minimal}; las demás preferencias y sus parámetros se ignoran
+     */
+    static boolean isMinimal(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            int parameters = preference.indexOf(';');
+            String token = parameters >= 0 ? preference.substring(0, parameters) : preference;
+            if (MINIMAL.equalsIgnoreCase(token.trim().replace(" ", ""))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,63 @@
+package com.nequi.franchise.infrastructure.web.dto;
+
+/**
+ * DTO para el cuerpo de las respuestas de error
+ */
+public class ErrorDto {
+    
+    private int status;
+    private String code;
+    private String message;
+    private String path;
+
+    public ErrorDto() {}
+
+    public ErrorDto(int status, String code, String message, String path) {
+        this.status = status;
+        this.code = code;
+        this.message = message;
+        this.path = path;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    @Override
+    public String toString() {
+        return "ErrorDto{" +
+                "status=" + status +
+                ", code='" + code + '\'' +
+                ", message='" + message + '\'' +
+                ", path='" + path + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package com.nequi.franchise.infrastructure.web.dto;
+
+/**
+ * DTO para FranchiseSummary
+ */
+public class FranchiseSummaryDto {
+    
+    private String id;
+    private String name;
+    private int branchCount;
+
+    public FranchiseSummaryDto() {}
+
+    public FranchiseSummaryDto(String id, String name, int branchCount) {
+        this.id = id;
+        this.name = name;
+        this.branchCount = branchCount;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getBranchCount() {
+        return branchCount;
+    }
+
+    public void setBranchCount(int branchCount) {
+        this.branchCount = branchCount;
+    }
+
+    @Override
+    public String toString() {
+        return "FranchiseSummaryDto{" +
+                "id='" + id + '\'' +
+                ", name='" + name + '\'' +
+                ", branchCount=" + branchCount +
+                '}';
+    }
+}
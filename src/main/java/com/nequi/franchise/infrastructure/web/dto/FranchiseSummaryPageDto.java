@@ -0,0 +1,44 @@
+package com.nequi.franchise.infrastructure.web.dto;
+
+import java.util.List;
+
+/**
+ * DTO para una página de resúmenes de franquicias.
+ * {@code nextCursor} es opaco para el cliente y es null en la última página.
+ */
+public class FranchiseSummaryPageDto {
+    
+    private List<FranchiseSummaryDto> items;
+    private String nextCursor;
+
+    public FranchiseSummaryPageDto() {}
+
+    public FranchiseSummaryPageDto(List<FranchiseSummaryDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<FranchiseSummaryDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<FranchiseSummaryDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "FranchiseSummaryPageDto{" +
+                "items=" + items +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
@@ -14,6 +14,8 @@ public class ProductDto {
     @NotBlank(message = "El nombre del producto es obligatorio")
     private String name;
     
+    // Se recibe como Integer para distinguir un stock no informado (null) de un stock en cero;
+    // en el dominio y en la base de datos es un entero primitivo
     @NotNull(message = "El stock es obligatorio")
     @Min(value = 0, message = "El stock no puede ser negativo")
     private Integer stock;
@@ -0,0 +1,52 @@
+package com.nequi.franchise.infrastructure.web.dto;
+
+/**
+ * DTO para el resultado de un ajuste relativo de stock
+ */
+public class StockAdjustmentResultDto {
+    
+    private String productId;
+    private Integer stock;
+    private String status;
+
+    public StockAdjustmentResultDto() {}
+
+    public StockAdjustmentResultDto(String productId, Integer stock, String status) {
+        this.productId = productId;
+        this.stock = stock;
+        this.status = status;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    @Override
+    public String toString() {
+        return "StockAdjustmentResultDto{" +
+                "productId='" + productId + '\'' +
+                ", stock=" + stock +
+                ", status='" + status + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package com.nequi.franchise.infrastructure.web.dto;
+
+/**
+ * DTO para un cambio de stock transmitido por el flujo de eventos de una franquicia
+ */
+public class StockChangeDto {
+    
+    private String branchId;
+    private String productId;
+    private Integer stock;
+
+    public StockChangeDto() {}
+
+    public StockChangeDto(String branchId, String productId, Integer stock) {
+        this.branchId = branchId;
+        this.productId = productId;
+        this.stock = stock;
+    }
+
+    public String getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(String branchId) {
+        this.branchId = branchId;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    @Override
+    public String toString() {
+        return "StockChangeDto{" +
+                "branchId='" + branchId + '\'' +
+                ", productId='" + productId + '\'' +
+                ", stock=" + stock +
+                '}';
+    }
+}
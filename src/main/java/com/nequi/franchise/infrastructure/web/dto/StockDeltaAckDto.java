@@ -0,0 +1,85 @@
+package com.nequi.franchise.infrastructure.web.dto;
+
+/**
+ * DTO para la confirmación de un ajuste recibido por el canal de ingesta
+ */
+public class StockDeltaAckDto {
+    
+    private String id;
+    private String franchiseId;
+    private String branchId;
+    private String productId;
+    private Integer stock;
+    private String status;
+
+    public StockDeltaAckDto() {}
+
+    public StockDeltaAckDto(String id, String franchiseId, String branchId, String productId, Integer stock, String status) {
+        this.id = id;
+        this.franchiseId = franchiseId;
+        this.branchId = branchId;
+        this.productId = productId;
+        this.stock = stock;
+        this.status = status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFranchiseId() {
+        return franchiseId;
+    }
+
+    public void setFranchiseId(String franchiseId) {
+        this.franchiseId = franchiseId;
+    }
+
+    public String getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(String branchId) {
+        this.branchId = branchId;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    @Override
+    public String toString() {
+        return "StockDeltaAckDto{" +
+                "id='" + id + '\'' +
+                ", franchiseId='" + franchiseId + '\'' +
+                ", branchId='" + branchId + '\'' +
+                ", productId='" + productId + '\'' +
+                ", stock=" + stock +
+                ", status='" + status + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+package com.nequi.franchise.infrastructure.web.dto;
+
+/**
+ * DTO para un ajuste relativo de stock recibido por el canal de ingesta; {@code id} lo asigna el cliente para correlacionar la confirmación
+ */
+public class StockDeltaDto {
+    
+    private String id;
+    private String franchiseId;
+    private String branchId;
+    private String productId;
+    private Integer delta;
+
+    public StockDeltaDto() {}
+
+    public StockDeltaDto(String id, String franchiseId, String branchId, String productId, Integer delta) {
+        this.id = id;
+        this.franchiseId = franchiseId;
+        this.branchId = branchId;
+        this.productId = productId;
+        this.delta = delta;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFranchiseId() {
+        return franchiseId;
+    }
+
+    public void setFranchiseId(String franchiseId) {
+        this.franchiseId = franchiseId;
+    }
+
+    public String getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(String branchId) {
+        this.branchId = branchId;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+
+    @Override
+    public String toString() {
+        return "StockDeltaDto{" +
+                "id='" + id + '\'' +
+                ", franchiseId='" + franchiseId + '\'' +
+                ", branchId='" + branchId + '\'' +
+                ", productId='" + productId + '\'' +
+                ", delta=" + delta +
+                '}';
+    }
+}
@@ -0,0 +1,63 @@
+package com.nequi.franchise.infrastructure.web.dto;
+
+/**
+ * DTO para un elemento de una actualización masiva de stock
+ */
+public class StockUpdateDto {
+    
+    private String franchiseId;
+    private String branchId;
+    private String productId;
+    private Integer stock;
+
+    public StockUpdateDto() {}
+
+    public StockUpdateDto(String franchiseId, String branchId, String productId, Integer stock) {
+        this.franchiseId = franchiseId;
+        this.branchId = branchId;
+        this.productId = productId;
+        this.stock = stock;
+    }
+
+    public String getFranchiseId() {
+        return franchiseId;
+    }
+
+    public void setFranchiseId(String franchiseId) {
+        this.franchiseId = franchiseId;
+    }
+
+    public String getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(String branchId) {
+        this.branchId = branchId;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    @Override
+    public String toString() {
+        return "StockUpdateDto{" +
+                "franchiseId='" + franchiseId + '\'' +
+                ", branchId='" + branchId + '\'' +
+                ", productId='" + productId + '\'' +
+                ", stock=" + stock +
+                '}';
+    }
+}
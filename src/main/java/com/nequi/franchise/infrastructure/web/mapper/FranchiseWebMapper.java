@@ -1,13 +1,34 @@
 package com.nequi.franchise.infrastructure.web.mapper;
 
+import com.nequi.franchise.domain.exception.InvalidRequestException;
 import com.nequi.franchise.domain.model.Branch;
 import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.FranchiseSummary;
+import com.nequi.franchise.domain.model.FranchiseSummaryPage;
+import com.nequi.franchise.domain.model.Product;
+import com.nequi.franchise.domain.model.StockAdjustment;
+import com.nequi.franchise.domain.model.StockAdjustmentItemResult;
+import com.nequi.franchise.domain.model.StockAdjustmentResult;
+import com.nequi.franchise.domain.model.StockChange;
+import com.nequi.franchise.domain.model.StockUpdate;
+import com.nequi.franchise.domain.model.StockUpdateResult;
 import com.nequi.franchise.domain.model.Franchise.ProductWithBranch;
 import com.nequi.franchise.infrastructure.web.dto.BranchDto;
 import com.nequi.franchise.infrastructure.web.dto.FranchiseDto;
+import com.nequi.franchise.infrastructure.web.dto.FranchiseSummaryDto;
+import com.nequi.franchise.infrastructure.web.dto.FranchiseSummaryPageDto;
+import com.nequi.franchise.infrastructure.web.dto.ProductDto;
 import com.nequi.franchise.infrastructure.web.dto.ProductWithBranchDto;
+import com.nequi.franchise.infrastructure.web.dto.StockAdjustmentResultDto;
+import com.nequi.franchise.infrastructure.web.dto.StockChangeDto;
+import com.nequi.franchise.infrastructure.web.dto.StockDeltaAckDto;
+import com.nequi.franchise.infrastructure.web.dto.StockDeltaDto;
+import com.nequi.franchise.infrastructure.web.dto.StockUpdateDto;
+import com.nequi.franchise.infrastructure.web.dto.StockUpdateResultDto;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -55,6 +76,52 @@ public class FranchiseWebMapper {
         );
     }
 
+    public FranchiseSummaryDto toDto(FranchiseSummary summary) {
+        if (summary == null) {
+            return null;
+        }
+        return new FranchiseSummaryDto(
+                summary.getId(),
+                summary.getName(),
+                summary.getBranchCount()
+        );
+    }
+
+    public FranchiseSummaryPageDto toDto(FranchiseSummaryPage page) {
+        if (page == null) {
+            return null;
+        }
+        List<FranchiseSummaryDto> items = page.getItems().stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+        
+        return new FranchiseSummaryPageDto(
+                items,
+                page.hasNext() ? encodeCursor(page.getNextAfterId()) : null
+        );
+    }
+
+    /**
+     * Codifica la posición de la página en un cursor opaco para el cliente
+     */
+    public String encodeCursor(String afterId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(afterId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Recupera la posición codificada en un cursor; un cursor nulo o vacío indica la primera página
+     */
+    public String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Cursor de paginacion invalido: " + cursor);
+        }
+    }
+
     public ProductWithBranchDto toDto(ProductWithBranch productWithBranch) {
         if (productWithBranch == null) {
             return null;
@@ -64,4 +131,83 @@ public class FranchiseWebMapper {
                 productWithBranch.getBranchName()
         );
     }
+
+    public Branch toDomain(BranchDto dto) {
+        return branchWebMapper.toDomain(dto);
+    }
+
+    public Product toDomain(ProductDto dto) {
+        return productWebMapper.toDomain(dto);
+    }
+
+    public List<StockUpdate> toDomain(List<StockUpdateDto> dtos) {
+        return dtos.stream()
+                .map(dto -> new StockUpdate(
+                        dto.getFranchiseId(),
+                        dto.getBranchId(),
+                        dto.getProductId(),
+                        dto.getStock()
+                ))
+                .collect(Collectors.toList());
+    }
+
+    public StockUpdateResultDto toDto(StockUpdateResult result) {
+        if (result == null) {
+            return null;
+        }
+        StockUpdate update = result.getUpdate();
+        return new StockUpdateResultDto(
+                update.getFranchiseId(),
+                update.getBranchId(),
+                update.getProductId(),
+                update.getStock(),
+                result.getStatus().name()
+        );
+    }
+
+    public StockAdjustmentResultDto toDto(String productId, StockAdjustmentResult result) {
+        if (result == null) {
+            return null;
+        }
+        return new StockAdjustmentResultDto(
+                productId,
+                result.isAdjusted() ? result.getStock() : null,
+                result.getStatus().name()
+        );
+    }
+
+    public StockAdjustment toDomain(StockDeltaDto dto) {
+        return new StockAdjustment(
+                dto.getFranchiseId(),
+                dto.getBranchId(),
+                dto.getProductId(),
+                dto.getDelta()
+        );
+    }
+
+    public StockDeltaAckDto toDto(String id, StockAdjustmentItemResult result) {
+        if (result == null) {
+            return null;
+        }
+        StockAdjustment adjustment = result.getAdjustment();
+        return new StockDeltaAckDto(
+                id,
+                adjustment.getFranchiseId(),
+                adjustment.getBranchId(),
+                adjustment.getProductId(),
+                result.isAdjusted() ? result.getStock() : null,
+                result.getStatus().name()
+        );
+    }
+
+    public StockChangeDto toDto(StockChange change) {
+        if (change == null) {
+            return null;
+        }
+        return new StockChangeDto(
+                change.getBranchId(),
+                change.getProductId(),
+                change.getStock()
+        );
+    }
 }
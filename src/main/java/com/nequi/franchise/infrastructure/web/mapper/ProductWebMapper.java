@@ -21,10 +21,15 @@ public class ProductWebMapper {
         );
     }
 
+    /**
+     * El stock ausente en el DTO no tiene equivalente en el dominio, donde es un entero primitivo:
+     * se rechaza en lugar de asumir un valor
+     */
     public Product toDomain(ProductDto dto) {
         if (dto == null) {
             return null;
         }
+        Product.validateStock(dto.getStock());
         return new Product(
                 dto.getId(),
                 dto.getName(),
@@ -0,0 +1,131 @@
+package com.nequi.franchise.infrastructure.web.socket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nequi.franchise.domain.model.StockAdjustment;
+import com.nequi.franchise.domain.model.StockAdjustmentItemResult;
+import com.nequi.franchise.domain.port.FranchiseService;
+import com.nequi.franchise.infrastructure.web.dto.StockDeltaAckDto;
+import com.nequi.franchise.infrastructure.web.dto.StockDeltaDto;
+import com.nequi.franchise.infrastructure.web.mapper.FranchiseWebMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Canal WebSocket para ingerir ajustes de stock a alta frecuencia. Cada mensaje de texto es un
+ * {@link StockDeltaDto} en JSON y por cada uno se responde un {@link StockDeltaAckDto} con el mismo {@code id}.
+ * <p>
+ * Los ajustes se agrupan en micro-lotes de hasta {@code max-batch-size} elementos o {@code max-batch-wait} de
+ * espera, y cada lote se aplica con una escritura por franquicia. Solo hay un lote en curso por conexión y se
+ * leen del socket los mensajes que caben en el siguiente, así que un cliente más rápido que la base de datos
+ * queda frenado por el control de flujo de TCP en lugar de acumular mensajes en memoria. Las confirmaciones de
+ * un lote salen agrupadas por franquicia: el orden solo se conserva entre ajustes de la misma franquicia.
+ */
+@Component
+public class StockIngestionHandler implements WebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockIngestionHandler.class);
+
+    static final String PATH = "/api/v1/franchises/stock/ws";
+
+    private final FranchiseService franchiseService;
+    private final FranchiseWebMapper franchiseWebMapper;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
+    private final Duration maxBatchWait;
+
+    public StockIngestionHandler(FranchiseService franchiseService,
+                                 FranchiseWebMapper franchiseWebMapper,
+                                 ObjectMapper objectMapper,
+                                 @Value("${franchise.stock-ingestion.max-batch-size:200}") int maxBatchSize,
+                                 @Value("${franchise.stock-ingestion.max-batch-wait:10ms}") Duration maxBatchWait) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("franchise.stock-ingestion.max-batch-size debe ser positivo");
+        }
+        this.franchiseService = franchiseService;
+        this.franchiseWebMapper = franchiseWebMapper;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchWait = maxBatchWait;
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        logger.info("Abriendo canal de ingesta de stock: {}", session.getId());
+        
+        Flux<WebSocketMessage> acknowledgements = session.receive()
+                .map(message -> decode(message.getPayloadAsText()))
+                .bufferTimeout(maxBatchSize, maxBatchWait, true)
+                .concatMap(this::apply, 1)
+                .map(ack -> session.textMessage(encode(ack)));
+        return session.send(acknowledgements)
+                .doFinally(signal -> logger.info("Canal de ingesta de stock cerrado: {} ({})", session.getId(), signal));
+    }
+
+    private Flux<StockDeltaAckDto> apply(List<StockDeltaDto> batch) {
+        // El resultado trae el mismo ajuste que se envió, así que se correlaciona por identidad
+        Map<StockAdjustment, String> ids = new IdentityHashMap<>(batch.size());
+        List<StockAdjustment> adjustments = new ArrayList<>(batch.size());
+        for (StockDeltaDto dto : batch) {
+            StockAdjustment adjustment = franchiseWebMapper.toDomain(dto);
+            ids.put(adjustment, dto.getId());
+            adjustments.add(adjustment);
+        }
+        // Un fallo del lote se confirma como FAILED elemento a elemento sin cerrar la conexión
+        return franchiseService.adjustProductStocks(adjustments)
+                .onErrorResume(error -> {
+                    logger.error("Error al aplicar lote de ingesta de stock: {}", error.getMessage());
+                    return Flux.fromIterable(adjustments)
+                            .map(adjustment -> new StockAdjustmentItemResult(adjustment,
+                                    StockAdjustmentItemResult.Status.FAILED));
+                })
+                .map(result -> franchiseWebMapper.toDto(ids.get(result.getAdjustment()), result));
+    }
+
+    /**
+     * Un mensaje ilegible se convierte en un ajuste vacío, que el servicio confirma como INVALID. Conserva el
+     * {@code id} si el mensaje es JSON y lo trae; un mensaje que no es JSON se confirma sin {@code id}.
+     */
+    private StockDeltaDto decode(String payload) {
+        try {
+            return objectMapper.readValue(payload, StockDeltaDto.class);
+        } catch (JsonProcessingException e) {
+            logger.debug("Mensaje de ingesta de stock ilegible: {}", e.getOriginalMessage());
+            StockDeltaDto invalid = new StockDeltaDto();
+            invalid.setId(readId(payload));
+            return invalid;
+        }
+    }
+
+    private String readId(String payload) {
+        try {
+            JsonNode id = objectMapper.readTree(payload).path("id");
+            return id.isValueNode() && !id.isNull() ? id.asText() : null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private String encode(StockDeltaAckDto ack) {
+        try {
+            return objectMapper.writeValueAsString(ack);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.nequi.franchise.infrastructure.web.socket;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Rutas WebSocket. Se registran antes que los controladores para que la petición de actualización no llegue
+ * a las rutas REST de franquicias.
+ */
+@Configuration
+public class WebSocketConfig {
+
+    @Bean
+    public HandlerMapping stockIngestionHandlerMapping(StockIngestionHandler stockIngestionHandler) {
+        return new SimpleUrlHandlerMapping(Map.of(StockIngestionHandler.PATH, stockIngestionHandler), -1);
+    }
+}
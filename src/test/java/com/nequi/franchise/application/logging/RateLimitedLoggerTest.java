@@ -0,0 +1,93 @@
+package com.nequi.franchise.application.logging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas unitarias para RateLimitedLogger
+ */
+@ExtendWith(MockitoExtension.class)
+class RateLimitedLoggerTest {
+
+    @Mock
+    private Logger logger;
+
+    @Test
+    void testBurstIsLoggedAndRestSuppressed() {
+        // Given
+        when(logger.isInfoEnabled()).thenReturn(true);
+        RateLimitedLogger hotPathLogger = RateLimitedLogger.of(logger, 2);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            hotPathLogger.info("Franquicia encontrada: {}", "1");
+        }
+
+        // Then
+        verify(logger, times(2)).info("Franquicia encontrada: {}", "1");
+        verify(logger, never()).info(anyString(), any(), any());
+    }
+
+    @Test
+    void testNextLineReportsSuppressedCount() throws InterruptedException {
+        // Given
+        when(logger.isInfoEnabled()).thenReturn(true);
+        RateLimitedLogger hotPathLogger = RateLimitedLogger.of(logger, 2);
+        for (int i = 0; i < 5; i++) {
+            hotPathLogger.info("Franquicia encontrada: {}", "1");
+        }
+
+        // When
+        Thread.sleep(600);
+        hotPathLogger.info("Franquicia encontrada: {}", "2");
+
+        // Then
+        verify(logger).info("Franquicia encontrada: {} [{} trazas omitidas]", "2", 3L);
+    }
+
+    @Test
+    void testEachCallSiteHasItsOwnLimit() {
+        // Given
+        when(logger.isInfoEnabled()).thenReturn(true);
+        RateLimitedLogger hotPathLogger = RateLimitedLogger.of(logger, 2);
+        for (int i = 0; i < 5; i++) {
+            hotPathLogger.info("Franquicia encontrada: {}", "1");
+        }
+
+        // When
+        hotPathLogger.info("Stock actualizado para producto: {}", "p1");
+
+        // Then
+        verify(logger).info("Stock actualizado para producto: {}", "p1");
+    }
+
+    @Test
+    void testDisabledLevelSkipsLogging() {
+        // Given
+        when(logger.isInfoEnabled()).thenReturn(false);
+        RateLimitedLogger hotPathLogger = RateLimitedLogger.of(logger);
+
+        // When
+        hotPathLogger.info("Producto agregado exitosamente");
+
+        // Then
+        verify(logger, never()).info(anyString());
+    }
+
+    @Test
+    void testNonPositiveLimitIsRejected() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> RateLimitedLogger.of(logger, 0));
+    }
+}
@@ -1,22 +1,44 @@
 package com.nequi.franchise.application.usecase;
 
+import com.nequi.franchise.domain.exception.ConflictException;
+import com.nequi.franchise.domain.exception.InvalidRequestException;
+import com.nequi.franchise.domain.exception.NotFoundException;
+import com.nequi.franchise.domain.exception.PreconditionFailedException;
 import com.nequi.franchise.domain.model.Branch;
 import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.FranchiseSummary;
 import com.nequi.franchise.domain.model.Product;
+import com.nequi.franchise.domain.model.StockAdjustment;
+import com.nequi.franchise.domain.model.StockAdjustmentItemResult;
+import com.nequi.franchise.domain.model.StockAdjustmentResult;
+import com.nequi.franchise.domain.model.StockChange;
+import com.nequi.franchise.domain.model.StockUpdate;
+import com.nequi.franchise.domain.model.StockUpdateResult;
+import com.nequi.franchise.domain.model.Franchise.ProductWithBranch;
 import com.nequi.franchise.domain.port.FranchiseRepository;
+import com.nequi.franchise.domain.port.StockChangeFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.Collections;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -28,11 +50,17 @@ class FranchiseUseCaseTest {
     @Mock
     private FranchiseRepository franchiseRepository;
 
+    @Mock
+    private StockChangeFeed stockChangeFeed;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private FranchiseUseCase franchiseUseCase;
 
     @BeforeEach
     void setUp() {
-        franchiseUseCase = new FranchiseUseCase(franchiseRepository);
+        meterRegistry = new SimpleMeterRegistry();
+        franchiseUseCase = new FranchiseUseCase(franchiseRepository, stockChangeFeed, meterRegistry);
     }
 
     @Test
@@ -72,7 +100,9 @@ class FranchiseUseCaseTest {
 
         // When & Then
         StepVerifier.create(franchiseUseCase.getFranchiseById(franchiseId))
-                .expectError(RuntimeException.class)
+                .expectErrorMatches(error -> error instanceof NotFoundException
+                        && "Franquicia no encontrada con ID: 1".equals(error.getMessage())
+                        && error.getStackTrace().length == 0)
                 .verify();
     }
 
@@ -90,6 +120,54 @@ class FranchiseUseCaseTest {
                 .verifyComplete();
     }
 
+    @Test
+    void testGetFranchiseSummariesWithNextPage() {
+        // Given
+        FranchiseSummary summary1 = new FranchiseSummary("1", "Franquicia 1", 1);
+        FranchiseSummary summary2 = new FranchiseSummary("2", "Franquicia 2", 0);
+        FranchiseSummary summary3 = new FranchiseSummary("3", "Franquicia 3", 4);
+        
+        when(franchiseRepository.findSummaries(null, 3)).thenReturn(Flux.just(summary1, summary2, summary3));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.getFranchiseSummaries(null, 2))
+                .expectNextMatches(page -> page.getItems().equals(List.of(summary1, summary2))
+                        && "2".equals(page.getNextAfterId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetFranchiseSummariesLastPage() {
+        // Given
+        FranchiseSummary summary = new FranchiseSummary("3", "Franquicia 3", 4);
+        
+        when(franchiseRepository.findSummaries("2", FranchiseUseCase.DEFAULT_PAGE_SIZE + 1)).thenReturn(Flux.just(summary));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.getFranchiseSummaries("2", null))
+                .expectNextMatches(page -> page.getItems().equals(List.of(summary)) && !page.hasNext())
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetFranchiseSummariesCapsPageSize() {
+        // Given
+        when(franchiseRepository.findSummaries(null, FranchiseUseCase.MAX_PAGE_SIZE + 1)).thenReturn(Flux.empty());
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.getFranchiseSummaries(null, 10_000))
+                .expectNextMatches(page -> page.getItems().isEmpty() && !page.hasNext())
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetFranchiseSummariesWithInvalidSize() {
+        // When & Then
+        StepVerifier.create(franchiseUseCase.getFranchiseSummaries(null, 0))
+                .expectError(InvalidRequestException.class)
+                .verify();
+    }
+
     @Test
     void testUpdateFranchiseName() {
         // Given
@@ -102,11 +180,121 @@ class FranchiseUseCaseTest {
         when(franchiseRepository.save(any(Franchise.class))).thenReturn(Mono.just(updatedFranchise));
 
         // When & Then
-        StepVerifier.create(franchiseUseCase.updateFranchiseName(franchiseId, newName))
+        StepVerifier.create(franchiseUseCase.updateFranchiseName(franchiseId, newName, null))
                 .expectNext(updatedFranchise)
                 .verifyComplete();
     }
 
+    @Test
+    void testUpdateFranchiseNameRetriesOnVersionConflict() {
+        // Given
+        String franchiseId = "1";
+        String newName = "Nuevo Nombre";
+        Franchise updatedFranchise = new Franchise(franchiseId, newName, List.of());
+        
+        when(franchiseRepository.findById(franchiseId))
+                .thenAnswer(invocation -> Mono.fromSupplier(() -> new Franchise(franchiseId, "Franquicia Test", List.of())));
+        when(franchiseRepository.save(any(Franchise.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflicto")))
+                .thenReturn(Mono.just(updatedFranchise));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.updateFranchiseName(franchiseId, newName, null))
+                .expectNext(updatedFranchise)
+                .verifyComplete();
+        assertEquals(1.0, meterRegistry.counter("franchise.write.conflicts", "operation", "updateFranchiseName").count());
+        assertEquals(1.0, meterRegistry.counter("franchise.write.retries", "operation", "updateFranchiseName").count());
+    }
+
+    @Test
+    void testUpdateFranchiseNameFailsWithConflictWhenRetriesAreExhausted() {
+        // Given
+        String franchiseId = "1";
+        
+        when(franchiseRepository.findById(franchiseId))
+                .thenAnswer(invocation -> Mono.fromSupplier(() -> new Franchise(franchiseId, "Franquicia Test", List.of())));
+        when(franchiseRepository.save(any(Franchise.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflicto")));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.updateFranchiseName(franchiseId, "Nuevo Nombre", null))
+                .expectErrorMatches(error -> error instanceof ConflictException
+                        && error.getCause() instanceof OptimisticLockingFailureException)
+                .verify();
+        assertEquals(5.0, meterRegistry.counter("franchise.write.retries", "operation", "updateFranchiseName").count());
+    }
+
+    @Test
+    void testUpdateFranchiseNameRejectsStaleExpectedVersion() {
+        // Given
+        String franchiseId = "1";
+        Franchise franchise = new Franchise(franchiseId, "Franquicia Test", List.of());
+        franchise.setVersion(4L);
+        
+        when(franchiseRepository.findById(franchiseId)).thenReturn(Mono.just(franchise));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.updateFranchiseName(franchiseId, "Nuevo Nombre", 3L))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+        verify(franchiseRepository, never()).save(any(Franchise.class));
+    }
+
+    @Test
+    void testUpdateFranchiseNameWithExpectedVersionDoesNotRetry() {
+        // Given
+        String franchiseId = "1";
+        Franchise franchise = new Franchise(franchiseId, "Franquicia Test", List.of());
+        franchise.setVersion(3L);
+        
+        when(franchiseRepository.findById(franchiseId)).thenReturn(Mono.just(franchise));
+        when(franchiseRepository.save(any(Franchise.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflicto")));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.updateFranchiseName(franchiseId, "Nuevo Nombre", 3L))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+        assertEquals(0.0, meterRegistry.counter("franchise.write.retries", "operation", "updateFranchiseName").count());
+    }
+
+    @Test
+    void testDeleteFranchisePassesExpectedVersionToRepository() {
+        // Given
+        Franchise franchise = new Franchise("1", "Franquicia Test", List.of());
+        franchise.setVersion(3L);
+        
+        when(franchiseRepository.findById("1")).thenReturn(Mono.just(franchise));
+        when(franchiseRepository.deleteById("1", 3L)).thenReturn(Mono.just(true));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.deleteFranchise("1", 3L))
+                .verifyComplete();
+    }
+
+    @Test
+    void testDeleteFranchiseWithStaleVersionAtWriteTimeFails() {
+        // Given
+        Franchise franchise = new Franchise("1", "Franquicia Test", List.of());
+        franchise.setVersion(3L);
+        
+        when(franchiseRepository.findById("1")).thenReturn(Mono.just(franchise));
+        when(franchiseRepository.deleteById("1", 3L)).thenReturn(Mono.just(false));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.deleteFranchise("1", 3L))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+    }
+
+    @Test
+    void testConflictCountersAreRegisteredOnce() {
+        // When & Then
+        assertEquals(6, meterRegistry.find("franchise.write.conflicts").counters().size());
+        assertEquals(6, meterRegistry.find("franchise.write.retries").counters().size());
+        assertEquals(0.0, meterRegistry.get("franchise.write.conflicts").tag("operation", "updateProductName").counter().count());
+    }
+
     @Test
     void testAddBranchToFranchise() {
         // Given
@@ -119,7 +307,7 @@ class FranchiseUseCaseTest {
         when(franchiseRepository.save(any(Franchise.class))).thenReturn(Mono.just(updatedFranchise));
 
         // When & Then
-        StepVerifier.create(franchiseUseCase.addBranchToFranchise(franchiseId, branch))
+        StepVerifier.create(franchiseUseCase.addBranchToFranchise(franchiseId, branch, null))
                 .expectNext(updatedFranchise)
                 .verifyComplete();
     }
@@ -138,7 +326,7 @@ class FranchiseUseCaseTest {
         when(franchiseRepository.save(any(Franchise.class))).thenReturn(Mono.just(updatedFranchise));
 
         // When & Then
-        StepVerifier.create(franchiseUseCase.addProductToBranch(franchiseId, branchId, product))
+        StepVerifier.create(franchiseUseCase.addProductToBranch(franchiseId, branchId, product, null))
                 .expectNext(updatedFranchise)
                 .verifyComplete();
     }
@@ -154,31 +342,315 @@ class FranchiseUseCaseTest {
         Branch branch = new Branch(branchId, "Sucursal Test", List.of(product));
         Franchise franchise = new Franchise(franchiseId, "Franquicia Test", List.of(branch));
         
+        when(franchiseRepository.updateProductStock(franchiseId, branchId, productId, newStock, null)).thenReturn(Mono.just(2L));
         when(franchiseRepository.findById(franchiseId)).thenReturn(Mono.just(franchise));
-        when(franchiseRepository.save(any(Franchise.class))).thenReturn(Mono.just(franchise));
 
         // When & Then
-        StepVerifier.create(franchiseUseCase.updateProductStock(franchiseId, branchId, productId, newStock))
+        StepVerifier.create(franchiseUseCase.updateProductStock(franchiseId, branchId, productId, newStock, null))
                 .expectNext(franchise)
                 .verifyComplete();
+        verify(franchiseRepository, never()).save(any(Franchise.class));
+        verify(stockChangeFeed).publish(argThat(change -> "1".equals(change.getFranchiseId())
+                && "1".equals(change.getProductId()) && change.getStock() == 50));
+    }
+
+    @Test
+    void testUpdateProductStockAndGetVersionSkipsRead() {
+        // Given
+        when(franchiseRepository.updateProductStock("1", "1", "1", 50, 6L)).thenReturn(Mono.just(7L));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.updateProductStockAndGetVersion("1", "1", "1", 50, 6L))
+                .expectNext(7L)
+                .verifyComplete();
+        verify(franchiseRepository, never()).findById(any());
+        verify(stockChangeFeed).publish(argThat(change -> "1".equals(change.getProductId()) && change.getStock() == 50));
+    }
+
+    @Test
+    void testUpdateProductStockNotFound() {
+        // Given
+        String franchiseId = "1";
+        String branchId = "1";
+        String productId = "99";
+        
+        when(franchiseRepository.updateProductStock(franchiseId, branchId, productId, 50, null)).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.updateProductStock(franchiseId, branchId, productId, 50, null))
+                .expectError(NotFoundException.class)
+                .verify();
+        verify(stockChangeFeed, never()).publish(any(StockChange.class));
+    }
+
+    @Test
+    void testUpdateProductStockRejectsStaleExpectedVersion() {
+        // Given
+        Product product = new Product("1", "Producto Test", 10);
+        Branch branch = new Branch("1", "Sucursal Test", List.of(product));
+        Franchise franchise = new Franchise("1", "Franquicia Test", List.of(branch));
+        franchise.setVersion(4L);
+        
+        when(franchiseRepository.updateProductStock("1", "1", "1", 50, 3L)).thenReturn(Mono.empty());
+        when(franchiseRepository.findById("1")).thenReturn(Mono.just(franchise));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.updateProductStock("1", "1", "1", 50, 3L))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+    }
+
+    @Test
+    void testUpdateProductStockWithNegativeValue() {
+        // When & Then
+        StepVerifier.create(franchiseUseCase.updateProductStock("1", "1", "1", -5, null))
+                .expectError(InvalidRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void testAdjustProductStock() {
+        // Given
+        when(franchiseRepository.adjustProductStock("1", "1", "1", -3, null))
+                .thenReturn(Mono.just(StockAdjustmentResult.adjusted(7)));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.adjustProductStock("1", "1", "1", -3, null))
+                .expectNextMatches(result -> result.getStatus() == StockAdjustmentResult.Status.ADJUSTED
+                        && result.getStock() == 7)
+                .verifyComplete();
+        verify(franchiseRepository, never()).findById(anyString());
+        verify(franchiseRepository, never()).save(any(Franchise.class));
+        verify(stockChangeFeed).publish(argThat(change -> change.getStock() == 7));
+    }
+
+    @Test
+    void testAdjustProductStockInsufficientStock() {
+        // Given
+        when(franchiseRepository.adjustProductStock("1", "1", "1", -30, null))
+                .thenReturn(Mono.just(StockAdjustmentResult.insufficientStock()));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.adjustProductStock("1", "1", "1", -30, null))
+                .expectNextMatches(result -> result.getStatus() == StockAdjustmentResult.Status.INSUFFICIENT_STOCK)
+                .verifyComplete();
+        verify(stockChangeFeed, never()).publish(any(StockChange.class));
+    }
+
+    @Test
+    void testAdjustProductStockWithZeroDelta() {
+        // When & Then
+        StepVerifier.create(franchiseUseCase.adjustProductStock("1", "1", "1", 0, null))
+                .expectError(InvalidRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void testUpdateProductStocksGroupsByFranchise() {
+        // Given
+        StockUpdate first = new StockUpdate("1", "1", "1", 10);
+        StockUpdate second = new StockUpdate("2", "1", "1", 20);
+        StockUpdate third = new StockUpdate("1", "1", "2", 30);
+        
+        when(franchiseRepository.updateProductStocks("1", List.of(first, third))).thenReturn(Flux.just(
+                new StockUpdateResult(first, StockUpdateResult.Status.UPDATED),
+                new StockUpdateResult(third, StockUpdateResult.Status.NOT_FOUND)));
+        when(franchiseRepository.updateProductStocks("2", List.of(second))).thenReturn(Flux.just(
+                new StockUpdateResult(second, StockUpdateResult.Status.UPDATED)));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.updateProductStocks(List.of(first, second, third)))
+                .expectNextMatches(result -> result.getUpdate() == first && result.getStatus() == StockUpdateResult.Status.UPDATED)
+                .expectNextMatches(result -> result.getUpdate() == third && result.getStatus() == StockUpdateResult.Status.NOT_FOUND)
+                .expectNextMatches(result -> result.getUpdate() == second && result.getStatus() == StockUpdateResult.Status.UPDATED)
+                .verifyComplete();
+    }
+
+    @Test
+    void testUpdateProductStocksReportsInvalidAndFailedItems() {
+        // Given
+        StockUpdate negative = new StockUpdate("1", "1", "1", -1);
+        StockUpdate failing = new StockUpdate("2", "1", "1", 5);
+        
+        when(franchiseRepository.updateProductStocks("2", List.of(failing)))
+                .thenReturn(Flux.error(new RuntimeException("Error de conexion")));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.updateProductStocks(List.of(negative, failing)))
+                .expectNextMatches(result -> result.getUpdate() == negative && result.getStatus() == StockUpdateResult.Status.INVALID)
+                .expectNextMatches(result -> result.getUpdate() == failing && result.getStatus() == StockUpdateResult.Status.FAILED)
+                .verifyComplete();
+        verify(franchiseRepository, never()).updateProductStocks("1", List.of(negative));
+    }
+
+    @Test
+    void testUpdateProductStocksRejectsOversizedBatch() {
+        // Given
+        List<StockUpdate> updates = Collections.nCopies(FranchiseUseCase.MAX_STOCK_UPDATES_PER_BATCH + 1,
+                new StockUpdate("1", "1", "1", 1));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.updateProductStocks(updates))
+                .expectError(InvalidRequestException.class)
+                .verify();
+        verify(franchiseRepository, never()).updateProductStocks(anyString(), anyList());
+    }
+
+    @Test
+    void testAdjustProductStocksGroupsByFranchiseAndPublishesAdjusted() {
+        // Given
+        StockAdjustment first = new StockAdjustment("1", "1", "1", -2);
+        StockAdjustment second = new StockAdjustment("2", "1", "1", 5);
+        StockAdjustment third = new StockAdjustment("1", "1", "2", -10);
+        
+        when(franchiseRepository.adjustProductStocks("1", List.of(first, third))).thenReturn(Flux.just(
+                new StockAdjustmentItemResult(first, StockAdjustmentItemResult.Status.ADJUSTED, 8),
+                new StockAdjustmentItemResult(third, StockAdjustmentItemResult.Status.INSUFFICIENT_STOCK)));
+        when(franchiseRepository.adjustProductStocks("2", List.of(second))).thenReturn(Flux.just(
+                new StockAdjustmentItemResult(second, StockAdjustmentItemResult.Status.ADJUSTED, 5)));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.adjustProductStocks(List.of(first, second, third)))
+                .expectNextMatches(result -> result.getAdjustment() == first && result.getStock() == 8)
+                .expectNextMatches(result -> result.getAdjustment() == third
+                        && result.getStatus() == StockAdjustmentItemResult.Status.INSUFFICIENT_STOCK)
+                .expectNextMatches(result -> result.getAdjustment() == second && result.getStock() == 5)
+                .verifyComplete();
+        verify(stockChangeFeed).publish(argThat(change -> "1".equals(change.getFranchiseId())
+                && "1".equals(change.getProductId()) && change.getStock() == 8));
+        verify(stockChangeFeed).publish(argThat(change -> "2".equals(change.getFranchiseId()) && change.getStock() == 5));
+        verify(stockChangeFeed, never()).publish(argThat(change -> "2".equals(change.getProductId())));
+    }
+
+    @Test
+    void testAdjustProductStocksReportsInvalidAndFailedItems() {
+        // Given
+        StockAdjustment zero = new StockAdjustment("1", "1", "1", 0);
+        StockAdjustment missingProduct = new StockAdjustment("1", "1", null, 3);
+        StockAdjustment failing = new StockAdjustment("2", "1", "1", 5);
+        
+        when(franchiseRepository.adjustProductStocks("2", List.of(failing)))
+                .thenReturn(Flux.error(new RuntimeException("Error de conexion")));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.adjustProductStocks(List.of(zero, missingProduct, failing)))
+                .expectNextMatches(result -> result.getAdjustment() == zero
+                        && result.getStatus() == StockAdjustmentItemResult.Status.INVALID)
+                .expectNextMatches(result -> result.getAdjustment() == missingProduct
+                        && result.getStatus() == StockAdjustmentItemResult.Status.INVALID)
+                .expectNextMatches(result -> result.getAdjustment() == failing
+                        && result.getStatus() == StockAdjustmentItemResult.Status.FAILED)
+                .verifyComplete();
+        verify(franchiseRepository, never()).adjustProductStocks(eq("1"), anyList());
+        verify(stockChangeFeed, never()).publish(any(StockChange.class));
+    }
+
+    @Test
+    void testAdjustProductStocksRejectsOversizedBatch() {
+        // Given
+        List<StockAdjustment> adjustments = Collections.nCopies(FranchiseUseCase.MAX_STOCK_UPDATES_PER_BATCH + 1,
+                new StockAdjustment("1", "1", "1", 1));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.adjustProductStocks(adjustments))
+                .expectError(InvalidRequestException.class)
+                .verify();
+        verify(franchiseRepository, never()).adjustProductStocks(anyString(), anyList());
     }
 
     @Test
     void testGetProductsWithMaxStockByFranchise() {
         // Given
         String franchiseId = "1";
-        Product product1 = new Product("1", "Producto 1", 10);
-        Product product2 = new Product("2", "Producto 2", 20);
-        Branch branch1 = new Branch("1", "Sucursal 1", List.of(product1, product2));
-        Branch branch2 = new Branch("2", "Sucursal 2", List.of(new Product("3", "Producto 3", 5)));
-        Franchise franchise = new Franchise(franchiseId, "Franquicia Test", List.of(branch1, branch2));
+        ProductWithBranch maxBranch1 = new ProductWithBranch(new Product("2", "Producto 2", 20), "Sucursal 1");
+        ProductWithBranch maxBranch2 = new ProductWithBranch(new Product("3", "Producto 3", 5), "Sucursal 2");
         
-        when(franchiseRepository.findById(franchiseId)).thenReturn(Mono.just(franchise));
+        when(franchiseRepository.findProductsWithMaxStockByBranch(franchiseId)).thenReturn(Flux.just(maxBranch1, maxBranch2));
 
         // When & Then
         StepVerifier.create(franchiseUseCase.getProductsWithMaxStockByFranchise(franchiseId))
-                .expectNextCount(2)
+                .expectNext(maxBranch1, maxBranch2)
                 .verifyComplete();
+        verify(franchiseRepository, never()).findById(franchiseId);
+    }
+
+    @Test
+    void testGetTopProductsByFranchise() {
+        // Given
+        String franchiseId = "1";
+        Product product2 = new Product("2", "Producto 2", 30);
+        Product product3 = new Product("3", "Producto 3", 20);
+        ProductWithBranch top1 = new ProductWithBranch(product2, "Sucursal 1");
+        ProductWithBranch top2 = new ProductWithBranch(product3, "Sucursal 1");
+        
+        when(franchiseRepository.findTopProductsByBranch(franchiseId, 2)).thenReturn(Flux.just(top1, top2));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.getTopProductsByFranchise(franchiseId, 2))
+                .expectNext(top1, top2)
+                .verifyComplete();
+        verify(franchiseRepository, never()).findById(franchiseId);
     }
-}
 
+    @Test
+    void testGetTopProductsByFranchiseNotFound() {
+        // Given
+        String franchiseId = "1";
+        
+        when(franchiseRepository.findTopProductsByBranch(franchiseId, 2)).thenReturn(Flux.empty());
+        when(franchiseRepository.existsById(franchiseId)).thenReturn(Mono.just(false));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.getTopProductsByFranchise(franchiseId, 2))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void testGetTopProductsByFranchiseWithInvalidK() {
+        // When & Then
+        StepVerifier.create(franchiseUseCase.getTopProductsByFranchise("1", 0))
+                .expectError(InvalidRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void testGetProductsWithMaxStockByFranchiseNotFound() {
+        // Given
+        String franchiseId = "1";
+        
+        when(franchiseRepository.findProductsWithMaxStockByBranch(franchiseId)).thenReturn(Flux.empty());
+        when(franchiseRepository.existsById(franchiseId)).thenReturn(Mono.just(false));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.getProductsWithMaxStockByFranchise(franchiseId))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void testWatchStockChangesOfExistingFranchise() {
+        // Given
+        StockChange change = new StockChange("1", "1", "1", 12);
+        
+        when(franchiseRepository.existsById("1")).thenReturn(Mono.just(true));
+        when(stockChangeFeed.watch("1")).thenReturn(Flux.just(change));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.watchStockChanges("1"))
+                .expectNext(change)
+                .verifyComplete();
+    }
+
+    @Test
+    void testWatchStockChangesOfUnknownFranchise() {
+        // Given
+        when(franchiseRepository.existsById("99")).thenReturn(Mono.just(false));
+
+        // When & Then
+        StepVerifier.create(franchiseUseCase.watchStockChanges("99"))
+                .expectError(NotFoundException.class)
+                .verify();
+        verify(stockChangeFeed, never()).watch(anyString());
+    }
+}
@@ -69,6 +69,33 @@ class BranchTest {
         assertFalse(notFound.isPresent());
     }
 
+    @Test
+    void testProductsKeepInsertionOrderAfterRemoval() {
+        Product product3 = new Product("3", "Producto 3", 30);
+        branch.addProduct(product1);
+        branch.addProduct(product2);
+        branch.addProduct(product3);
+
+        branch.removeProduct("2");
+        branch.addProduct(product2);
+
+        assertEquals(List.of(product1, product3, product2), branch.getProducts());
+        assertThrows(UnsupportedOperationException.class, () -> branch.getProducts().add(product1));
+    }
+
+    @Test
+    void testFindProductByIdAssignedAfterAdding() {
+        Product pending = new Product("Producto sin ID", 5);
+        branch.addProduct(pending);
+        branch.addProduct(new Product("Otro producto sin ID", 7));
+
+        pending.setId("nuevo");
+
+        assertSame(pending, branch.findProductById("nuevo").orElseThrow());
+        branch.removeProduct("nuevo");
+        assertEquals(1, branch.getProducts().size());
+    }
+
     @Test
     void testFindProductWithMaxStock() {
         branch.addProduct(product1);
@@ -79,12 +106,80 @@ class BranchTest {
         assertEquals(product2, maxStock.get());
     }
 
+    @Test
+    void testMaxStockFollowsStockUpdatesAndRemovals() {
+        Product product3 = new Product("3", "Producto 3", 20);
+        branch.addProduct(product1);
+        branch.addProduct(product2);
+        branch.addProduct(product3);
+        assertEquals(product2, branch.findProductWithMaxStock().orElseThrow());
+
+        product1.updateStock(50);
+        assertEquals(product1, branch.findProductWithMaxStock().orElseThrow());
+
+        branch.removeProduct("1");
+        assertEquals(product2, branch.findProductWithMaxStock().orElseThrow());
+    }
+
+    @Test
+    void testFindTopProductsByStock() {
+        Product product3 = new Product("3", "Producto 3", 15);
+        branch.addProduct(product1);
+        branch.addProduct(product2);
+        branch.addProduct(product3);
+
+        assertEquals(List.of(product2, product3), branch.findTopProductsByStock(2));
+        product1.updateStock(30);
+        assertEquals(List.of(product1, product2, product3), branch.findTopProductsByStock(10));
+    }
+
+    @Test
+    void testStockTiesKeepInsertionOrder() {
+        Product first = new Product("a", "Producto a", 7);
+        Product second = new Product("b", "Producto b", 7);
+        Product third = new Product("c", "Producto c", 7);
+        branch.addProduct(first);
+        branch.addProduct(second);
+        branch.addProduct(third);
+
+        assertEquals(first, branch.findProductWithMaxStock().orElseThrow());
+        assertEquals(List.of(first, second), branch.findTopProductsByStock(2));
+    }
+
     @Test
     void testFindProductWithMaxStockEmpty() {
         Optional<Product> maxStock = branch.findProductWithMaxStock();
         assertFalse(maxStock.isPresent());
     }
 
+    @Test
+    void testChangeTracking() {
+        branch.addProduct(product1);
+        branch.startTracking();
+        assertFalse(branch.hasChanges());
+
+        branch.addProduct(product2);
+        branch.removeProduct("2");
+        assertFalse(branch.hasChanges());
+
+        branch.removeProduct("1");
+        assertEquals(List.of("1"), branch.getRemovedProductIds());
+        assertTrue(branch.hasChanges());
+    }
+
+    @Test
+    void testChangedProducts() {
+        branch.addProduct(product1);
+        branch.addProduct(product2);
+        branch.startTracking();
+
+        product2.updateStock(25);
+        branch.addProduct(new Product("3", "Producto 3", 5));
+
+        assertEquals(List.of(product2), branch.getChangedProducts());
+        assertEquals(1, branch.getAddedProducts().size());
+    }
+
     @Test
     void testEquals() {
         Branch branch2 = new Branch("1", "Otra Sucursal", List.of());
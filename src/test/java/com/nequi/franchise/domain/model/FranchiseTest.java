@@ -49,6 +49,18 @@ class FranchiseTest {
         });
     }
 
+    @Test
+    void testFindBranchByIdAssignedAfterAdding() {
+        Branch pending = new Branch("Sucursal sin ID", List.of());
+        franchise.addBranch(branch1);
+        franchise.addBranch(pending);
+
+        pending.setId("nueva");
+
+        assertSame(pending, franchise.findBranchById("nueva").orElseThrow());
+        assertEquals(List.of(branch1, pending), franchise.getBranches());
+    }
+
     @Test
     void testRemoveBranch() {
         franchise.addBranch(branch1);
@@ -89,6 +101,24 @@ class FranchiseTest {
         assertTrue(maxStockProducts.stream().anyMatch(pwb -> pwb.getProduct().equals(product2)));
     }
 
+    @Test
+    void testChangeTracking() {
+        franchise.addBranch(branch1);
+        franchise.startTracking();
+        assertFalse(franchise.hasChanges());
+
+        branch1.setName("Sucursal Renombrada");
+        assertTrue(franchise.hasChanges());
+        assertEquals(List.of(branch1), franchise.getChangedBranches());
+
+        franchise.addBranch(branch2);
+        assertEquals(List.of(branch2), franchise.getAddedBranches());
+        assertEquals(List.of(branch1), franchise.getChangedBranches());
+
+        franchise.startTracking();
+        assertFalse(franchise.hasChanges());
+    }
+
     @Test
     void testEquals() {
         Franchise franchise2 = new Franchise("1", "Otra Franquicia", List.of());
@@ -0,0 +1,96 @@
+package com.nequi.franchise.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para ProductTable
+ */
+class ProductTableTest {
+
+    @Test
+    void testFindsRowsByIdAfterGrowing() {
+        ProductTable table = new ProductTable();
+        for (int i = 0; i < 1000; i++) {
+            table.add("p" + i, "Producto " + i, i);
+        }
+
+        assertEquals(1000, table.size());
+        assertEquals(737, table.indexOf("p737"));
+        assertEquals("Producto 737", table.getName(737));
+        assertEquals(737, table.getStock(737));
+        assertEquals(-1, table.indexOf("inexistente"));
+        assertEquals(-1, table.indexOf(null));
+    }
+
+    @Test
+    void testDuplicateIdResolvesToFirstRow() {
+        ProductTable table = new ProductTable();
+        table.add("1", "Primero", 5);
+        table.add("1", "Segundo", 8);
+        table.add(null, "Sin ID", 3);
+
+        assertEquals(3, table.size());
+        assertEquals(0, table.indexOf("1"));
+    }
+
+    @Test
+    void testSetStock() {
+        ProductTable table = new ProductTable();
+        int row = table.add("1", "Producto", 5);
+
+        table.setStock(row, 42);
+
+        assertEquals(42, table.getStock(row));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.setStock(1, 10));
+    }
+
+    @Test
+    void testIndexOfMaxStockPrefersFirstOnTie() {
+        ProductTable table = new ProductTable();
+        assertEquals(-1, table.indexOfMaxStock());
+
+        table.add("1", "A", 10);
+        table.add("2", "B", 30);
+        table.add("3", "C", 30);
+
+        assertEquals(1, table.indexOfMaxStock());
+    }
+
+    @Test
+    void testTopRowsByStockMatchesBranchRanking() {
+        List<Product> products = new ArrayList<>();
+        int[] stocks = {7, 3, 9, 7, 1, 9, 5};
+        for (int i = 0; i < stocks.length; i++) {
+            products.add(new Product(String.valueOf(i), "Producto " + i, stocks[i]));
+        }
+        Branch branch = new Branch("1", "Sucursal", products);
+        ProductTable table = ProductTable.of(branch.getProducts());
+
+        int[] top = table.topRowsByStock(4);
+
+        assertArrayEquals(new int[]{2, 5, 0, 3}, top);
+        List<Product> expected = branch.findTopProductsByStock(4);
+        for (int i = 0; i < top.length; i++) {
+            assertEquals(expected.get(i).getId(), table.getId(top[i]));
+        }
+        assertEquals(stocks.length, table.topRowsByStock(100).length);
+        assertEquals(0, table.topRowsByStock(0).length);
+    }
+
+    @Test
+    void testToProductsKeepsInsertionOrder() {
+        List<Product> products = List.of(new Product("2", "B", 4), new Product("1", "A", 6));
+
+        List<Product> restored = ProductTable.of(products).toProducts();
+
+        assertEquals(2, restored.size());
+        assertEquals("2", restored.get(0).getId());
+        assertEquals(6, restored.get(1).getStock());
+        assertNotSame(products.get(0), restored.get(0));
+    }
+}
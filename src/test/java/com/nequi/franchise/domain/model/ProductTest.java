@@ -1,5 +1,6 @@
 package com.nequi.franchise.domain.model;
 
+import com.nequi.franchise.domain.exception.InvalidRequestException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,11 +33,25 @@ class ProductTest {
 
     @Test
     void testUpdateStockWithNegativeValue() {
-        assertThrows(IllegalArgumentException.class, () -> {
+        assertThrows(InvalidRequestException.class, () -> {
             product.updateStock(-1);
         });
     }
 
+    @Test
+    void testChangeTracking() {
+        product.setName("Sin registrar");
+        assertFalse(product.hasChanges());
+
+        product.startTracking();
+        product.updateStock(15);
+        assertTrue(product.isStockChanged());
+        assertFalse(product.isNameChanged());
+
+        product.startTracking();
+        assertFalse(product.hasChanges());
+    }
+
     @Test
     void testEquals() {
         Product product2 = new Product("1", "Otro Producto", 5);
@@ -0,0 +1,80 @@
+package com.nequi.franchise.infrastructure.event;
+
+import com.nequi.franchise.domain.model.StockChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Pruebas unitarias para InMemoryStockChangeFeed
+ */
+class InMemoryStockChangeFeedTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private InMemoryStockChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        feed = new InMemoryStockChangeFeed(2, meterRegistry);
+    }
+
+    @Test
+    void testChangeFansOutToEveryWatcherOfTheFranchise() {
+        // Given
+        StepVerifier otherWatcher = StepVerifier.create(feed.watch("1"))
+                .expectNextMatches(change -> change.getStock() == 7)
+                .thenCancel()
+                .verifyLater();
+
+        // When & Then
+        StepVerifier.create(feed.watch("1"))
+                .then(() -> {
+                    feed.publish(new StockChange("2", "1", "1", 99));
+                    feed.publish(new StockChange("1", "1", "1", 7));
+                })
+                .expectNextMatches(change -> change.getStock() == 7)
+                .thenCancel()
+                .verify();
+        otherWatcher.verify();
+    }
+
+    @Test
+    void testSlowWatcherLosesOldestChanges() {
+        // When & Then
+        StepVerifier.create(feed.watch("1"), 0)
+                .then(() -> {
+                    for (int stock = 1; stock <= 5; stock++) {
+                        feed.publish(new StockChange("1", "1", "1", stock));
+                    }
+                })
+                .thenRequest(2)
+                .expectNextMatches(change -> change.getStock() == 4)
+                .expectNextMatches(change -> change.getStock() == 5)
+                .thenCancel()
+                .verify();
+        assertEquals(3.0, meterRegistry.counter("franchise.stock.stream.dropped").count());
+    }
+
+    @Test
+    void testFeedIsReleasedWhenLastWatcherCancels() {
+        // When
+        StepVerifier.create(feed.watch("1"))
+                .then(() -> assertEquals(1, feed.watchedFranchises()))
+                .thenCancel()
+                .verify();
+
+        // Then
+        assertEquals(0, feed.watchedFranchises());
+    }
+
+    @Test
+    void testNonPositiveBufferIsRejected() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryStockChangeFeed(0, meterRegistry));
+    }
+}
@@ -0,0 +1,108 @@
+package com.nequi.franchise.infrastructure.metrics;
+
+import com.nequi.franchise.domain.model.Branch;
+import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.Product;
+import com.nequi.franchise.domain.port.FranchiseService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas unitarias para TimedFranchiseService
+ */
+@ExtendWith(MockitoExtension.class)
+class TimedFranchiseServiceTest {
+
+    @Mock
+    private FranchiseService delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TimedFranchiseService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new TimedFranchiseService(delegate, meterRegistry);
+    }
+
+    @Test
+    void testSuccessfulReadIsTimedAndShapeRecorded() {
+        // Given
+        Franchise franchise = new Franchise("1", "Franquicia Test", List.of(
+                new Branch("b1", "Sucursal 1", List.of(new Product("p1", "Producto 1", 5), new Product("p2", "Producto 2", 3))),
+                new Branch("b2", "Sucursal 2", new ArrayList<>())));
+        when(delegate.getFranchiseById("1")).thenReturn(Mono.just(franchise));
+
+        // When & Then
+        StepVerifier.create(service.getFranchiseById("1"))
+                .expectNext(franchise)
+                .verifyComplete();
+
+        assertEquals(1, timer("getFranchiseById", "success").count());
+        DistributionSummary branches = meterRegistry.get("franchise.branches").summary();
+        DistributionSummary products = meterRegistry.get("franchise.products").summary();
+        assertEquals(2.0, branches.totalAmount());
+        assertEquals(2.0, products.totalAmount());
+    }
+
+    @Test
+    void testFailedOperationIsTimedAsError() {
+        // Given
+        when(delegate.deleteFranchise("1", null)).thenReturn(Mono.error(new RuntimeException("Franquicia no encontrada con ID: 1")));
+
+        // When & Then
+        StepVerifier.create(service.deleteFranchise("1", null))
+                .expectError(RuntimeException.class)
+                .verify();
+
+        assertEquals(1, timer("deleteFranchise", "error").count());
+        assertEquals(0, timer("deleteFranchise", "success").count());
+    }
+
+    @Test
+    void testTimingStartsOnSubscription() {
+        // Given
+        when(delegate.getTopProductsByFranchise("1", 3)).thenReturn(Flux.empty());
+
+        // When
+        Flux<?> result = service.getTopProductsByFranchise("1", 3);
+
+        // Then
+        assertEquals(0, timer("getTopProductsByFranchise", "success").count());
+        StepVerifier.create(result).verifyComplete();
+        StepVerifier.create(result).verifyComplete();
+        assertEquals(2, timer("getTopProductsByFranchise", "success").count());
+    }
+
+    @Test
+    void testCancelledOperationIsTimedAsCancelled() {
+        // Given
+        when(delegate.getAllFranchises()).thenReturn(Flux.never());
+
+        // When & Then
+        StepVerifier.create(service.getAllFranchises())
+                .thenCancel()
+                .verify();
+
+        assertEquals(1, timer("getAllFranchises", "cancelled").count());
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return meterRegistry.get("franchise.service").tag("operation", operation).tag("outcome", outcome).timer();
+    }
+}
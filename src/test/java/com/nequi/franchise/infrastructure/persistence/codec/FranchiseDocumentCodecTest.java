@@ -0,0 +1,185 @@
+package com.nequi.franchise.infrastructure.persistence.codec;
+
+import com.mongodb.MongoClientSettings;
+import com.nequi.franchise.infrastructure.persistence.document.BranchDocument;
+import com.nequi.franchise.infrastructure.persistence.document.FranchiseDocument;
+import com.nequi.franchise.infrastructure.persistence.document.ProductDocument;
+import org.bson.BsonArray;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonInt64;
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para los códecs de documentos: lo que escriben y leen debe ser intercambiable
+ * con lo que escribe y lee el convertidor de Spring Data
+ */
+class FranchiseDocumentCodecTest {
+
+    private MappingMongoConverter converter;
+    private CodecRegistry codecRegistry;
+
+    @BeforeEach
+    void setUp() {
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        codecRegistry = CodecRegistries.fromRegistries(FranchiseCodecs.codecRegistry(),
+                MongoClientSettings.getDefaultCodecRegistry());
+    }
+
+    @Test
+    void testEncodeMatchesConverter() {
+        FranchiseDocument document = franchiseDocument(UUID.randomUUID().toString(), 3, 4);
+
+        assertEquals(converted(document), encode(FranchiseDocument.class, document));
+    }
+
+    @Test
+    void testEncodeNormalizedDocumentsMatchesConverter() {
+        BranchDocument branch = new BranchDocument("b1", "Sucursal", "f1", null);
+        ProductDocument product = new ProductDocument("p1", "Producto", 7);
+        product.setBranchId("b1");
+        product.setFranchiseId("f1");
+
+        assertEquals(converted(branch), encode(BranchDocument.class, branch));
+        assertEquals(converted(product), encode(ProductDocument.class, product));
+    }
+
+    @Test
+    void testObjectIdFormattedIdsAreStoredAsObjectId() {
+        String id = new ObjectId().toHexString();
+        FranchiseDocument document = franchiseDocument(id, 1, 1);
+
+        BsonDocument encoded = encode(FranchiseDocument.class, document);
+
+        assertEquals(new BsonObjectId(new ObjectId(id)), encoded.get("_id"));
+        assertEquals(converted(document), encoded);
+        assertEquals(id, decode(FranchiseDocument.class, encoded).getId());
+    }
+
+    @Test
+    void testDecodeMatchesConverter() {
+        FranchiseDocument document = franchiseDocument(UUID.randomUUID().toString(), 2, 3);
+        Document stored = new Document();
+        converter.write(document, stored);
+
+        FranchiseDocument decoded = decode(FranchiseDocument.class, stored.toBsonDocument(BsonDocument.class, codecRegistry));
+
+        FranchiseDocument expected = converter.read(FranchiseDocument.class, stored);
+        assertEquals(expected.getVersion(), decoded.getVersion());
+        assertEquals(converted(expected), encode(FranchiseDocument.class, decoded));
+    }
+
+    @Test
+    void testDecodeToleratesMissingAndUnknownFields() {
+        BsonDocument product = new BsonDocument("_id", new BsonString("p1"));
+        BsonDocument branch = new BsonDocument("_id", new BsonString("b1"))
+                .append("products", new BsonArray(List.of(product)));
+        BsonDocument stored = new BsonDocument("_id", new BsonString("1"))
+                .append("_class", new BsonString("otra.Clase"))
+                .append("branches", new BsonArray(List.of(branch)));
+
+        FranchiseDocument decoded = decode(FranchiseDocument.class, stored);
+
+        assertEquals("1", decoded.getId());
+        assertNull(decoded.getName());
+        assertNull(decoded.getVersion());
+        assertEquals(1, decoded.getBranches().size());
+        ProductDocument decodedProduct = decoded.getBranches().get(0).getProducts().get(0);
+        assertEquals("p1", decodedProduct.getId());
+        assertEquals(0, decodedProduct.getStock());
+    }
+
+    @Test
+    void testDecodeKeepsLongVersionAndRejectsStockOutOfIntRange() {
+        BsonDocument stored = new BsonDocument("_id", new BsonString("1"))
+                .append("version", new BsonInt64(Integer.MAX_VALUE + 1L));
+        BsonDocument product = new BsonDocument("_id", new BsonString("p1"))
+                .append("stock", new BsonInt64(Integer.MAX_VALUE + 1L));
+
+        assertEquals(Integer.MAX_VALUE + 1L, decode(FranchiseDocument.class, stored).getVersion());
+        assertThrows(BsonInvalidOperationException.class, () -> decode(ProductDocument.class, product));
+    }
+
+    @Test
+    void testBinaryDocumentSizeIsReported() {
+        List<Integer> sizes = new ArrayList<>();
+        DocumentSizeListener sizeListener = new DocumentSizeListener() {
+            @Override
+            public void decoded(int bytes) {
+                sizes.add(bytes);
+            }
+
+            @Override
+            public void encoded(int bytes) {
+                sizes.add(bytes);
+            }
+        };
+        Codec<FranchiseDocument> codec = FranchiseCodecs.codecRegistry(sizeListener).get(FranchiseDocument.class);
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+
+        codec.encode(new BsonBinaryWriter(buffer), franchiseDocument("1", 2, 3), EncoderContext.builder().build());
+        codec.decode(new BsonBinaryReader(ByteBuffer.wrap(buffer.toByteArray())), DecoderContext.builder().build());
+
+        assertEquals(List.of(buffer.getPosition(), buffer.getPosition()), sizes);
+    }
+
+    private <T> BsonDocument encode(Class<T> documentClass, T document) {
+        BsonDocument encoded = new BsonDocument();
+        codecRegistry.get(documentClass).encode(new BsonDocumentWriter(encoded), document, EncoderContext.builder().build());
+        return encoded;
+    }
+
+    private <T> T decode(Class<T> documentClass, BsonDocument bson) {
+        Codec<T> codec = codecRegistry.get(documentClass);
+        return codec.decode(new BsonDocumentReader(bson), DecoderContext.builder().build());
+    }
+
+    /**
+     * Documento escrito por el convertidor, sin la pista de tipo {@code _class} que los códecs no necesitan
+     */
+    private BsonDocument converted(Object document) {
+        Document stored = new Document();
+        converter.write(document, stored);
+        BsonDocument bson = stored.toBsonDocument(BsonDocument.class, codecRegistry);
+        bson.remove("_class");
+        return bson;
+    }
+
+    private static FranchiseDocument franchiseDocument(String id, int branchCount, int productsPerBranch) {
+        List<BranchDocument> branches = new ArrayList<>();
+        for (int b = 0; b < branchCount; b++) {
+            List<ProductDocument> products = new ArrayList<>();
+            for (int p = 0; p < productsPerBranch; p++) {
+                products.add(new ProductDocument(UUID.randomUUID().toString(), "Producto " + p, p * 7 % 50));
+            }
+            branches.add(new BranchDocument(UUID.randomUUID().toString(), "Sucursal " + b, id, products));
+        }
+        return new FranchiseDocument(id, "Franquicia Test", branches, 3L);
+    }
+}
@@ -0,0 +1,171 @@
+package com.nequi.franchise.infrastructure.persistence.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.PayloadFormat;
+import com.nequi.franchise.infrastructure.persistence.document.BranchDocument;
+import com.nequi.franchise.infrastructure.persistence.document.FranchiseDocument;
+import com.nequi.franchise.infrastructure.persistence.document.ProductDocument;
+import com.nequi.franchise.infrastructure.persistence.mapper.BranchMapper;
+import com.nequi.franchise.infrastructure.persistence.mapper.FranchiseMapper;
+import com.nequi.franchise.infrastructure.persistence.mapper.ProductMapper;
+import com.nequi.franchise.infrastructure.web.dto.BranchDto;
+import com.nequi.franchise.infrastructure.web.dto.FranchiseDto;
+import com.nequi.franchise.infrastructure.web.dto.ProductDto;
+import com.nequi.franchise.infrastructure.web.mapper.BranchWebMapper;
+import com.nequi.franchise.infrastructure.web.mapper.FranchiseWebMapper;
+import com.nequi.franchise.infrastructure.web.mapper.ProductWebMapper;
+import org.bson.BsonInvalidOperationException;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para FranchiseJsonWriter: el JSON escrito desde BSON debe coincidir con el que
+ * produce la lectura a través del documento, el dominio y el DTO
+ */
+class FranchiseJsonWriterTest {
+
+    private ObjectMapper objectMapper;
+    private MappingMongoConverter converter;
+    private FranchiseMapper franchiseMapper;
+    private FranchiseWebMapper franchiseWebMapper;
+    private FranchiseJsonWriter franchiseJsonWriter;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        franchiseMapper = new FranchiseMapper(new BranchMapper(new ProductMapper()));
+        ProductWebMapper productWebMapper = new ProductWebMapper();
+        franchiseWebMapper = new FranchiseWebMapper(new BranchWebMapper(productWebMapper), productWebMapper);
+        franchiseJsonWriter = new FranchiseJsonWriter(objectMapper);
+    }
+
+    @Test
+    void testEmbeddedDocumentMatchesMappedDto() throws Exception {
+        FranchiseDocument document = franchiseDocument(3, 4);
+        RawBsonDocument raw = toRaw(document);
+
+        JsonNode direct = objectMapper.readTree(franchiseJsonWriter.write(raw));
+
+        FranchiseDocument decoded = converter.read(FranchiseDocument.class,
+                new DocumentCodec().decode(raw.asBsonReader(), DecoderContext.builder().build()));
+        FranchiseDto dto = franchiseWebMapper.toDto(franchiseMapper.toDomain(decoded));
+        assertEquals(objectMapper.valueToTree(dto), direct);
+    }
+
+    @Test
+    void testMissingFieldsUseDtoDefaults() throws Exception {
+        Document stored = new Document("_id", "1")
+                .append("branches", List.of(new Document("_id", "b1")
+                        .append("products", List.of(new Document("_id", "p1").append("name", "Producto"))),
+                        new Document("_id", "b2").append("name", "Sin productos")));
+        RawBsonDocument raw = new RawBsonDocument(stored, new DocumentCodec());
+
+        JsonNode direct = objectMapper.readTree(franchiseJsonWriter.write(raw));
+
+        FranchiseDto expected = new FranchiseDto("1", null, List.of(
+                new BranchDto("b1", null, List.of(new ProductDto("p1", "Producto", 0))),
+                new BranchDto("b2", "Sin productos", List.of())));
+        assertEquals(objectMapper.valueToTree(expected), direct);
+    }
+
+    @Test
+    void testStockOutOfIntRangeIsRejected() {
+        Document stored = new Document("_id", "1")
+                .append("branches", List.of(new Document("_id", "b1")
+                        .append("products", List.of(new Document("_id", "p1").append("stock", Integer.MAX_VALUE + 1L)))));
+        RawBsonDocument raw = new RawBsonDocument(stored, new DocumentCodec());
+
+        assertThrows(BsonInvalidOperationException.class, () -> franchiseJsonWriter.write(raw));
+    }
+
+    @Test
+    void testNormalizedDocumentsAreAssembled() throws Exception {
+        RawBsonDocument root = new RawBsonDocument(new Document("_id", "1")
+                .append("name", "Franquicia")
+                .append("version", 4L), new DocumentCodec());
+        List<RawBsonDocument> branches = List.of(
+                new RawBsonDocument(new Document("_id", "b1").append("name", "Sucursal 1").append("franchise_id", "1"), new DocumentCodec()),
+                new RawBsonDocument(new Document("_id", "b2").append("name", "Sucursal 2").append("franchise_id", "1"), new DocumentCodec()));
+        Map<String, List<RawBsonDocument>> productsByBranch = Map.of("b1", List.of(
+                new RawBsonDocument(new Document("_id", "p1").append("name", "Producto 1").append("stock", 5)
+                        .append("branch_id", "b1").append("franchise_id", "1"), new DocumentCodec())));
+
+        JsonNode direct = objectMapper.readTree(franchiseJsonWriter.write(root, branches, productsByBranch));
+
+        FranchiseDto expected = new FranchiseDto("1", "Franquicia", List.of(
+                new BranchDto("b1", "Sucursal 1", List.of(new ProductDto("p1", "Producto 1", 5))),
+                new BranchDto("b2", "Sucursal 2", List.of())));
+        assertEquals(objectMapper.valueToTree(expected), direct);
+    }
+
+    @Test
+    void testSparseFieldsWriteOnlySelection() throws Exception {
+        RawBsonDocument raw = toRaw(franchiseDocument(2, 1));
+
+        JsonNode direct = objectMapper.readTree(franchiseJsonWriter.write(raw,
+                FranchiseFields.parse("name,branches.name,branches.products.stock")));
+
+        assertEquals(objectMapper.readTree("{\"name\":\"Franquicia Test\",\"branches\":["
+                + "{\"name\":\"Sucursal 0\",\"products\":[{\"stock\":0}]},"
+                + "{\"name\":\"Sucursal 1\",\"products\":[{\"stock\":0}]}]}"), direct);
+    }
+
+    @Test
+    void testBinaryFormatsMatchJsonAndAreSmaller() throws Exception {
+        RawBsonDocument raw = toRaw(franchiseDocument(3, 4));
+        byte[] json = franchiseJsonWriter.write(raw);
+        byte[] cbor = franchiseJsonWriter.write(raw, FranchiseFields.ALL, PayloadFormat.CBOR);
+        byte[] smile = franchiseJsonWriter.write(raw, FranchiseFields.ALL, PayloadFormat.SMILE);
+
+        assertEquals(objectMapper.readTree(json), new ObjectMapper(new CBORFactory()).readTree(cbor));
+        assertEquals(objectMapper.readTree(json), new ObjectMapper(new SmileFactory()).readTree(smile));
+        assertTrue(cbor.length < json.length);
+        assertTrue(smile.length < json.length);
+    }
+
+    @Test
+    void testSparseFieldsProjectionSkipsUnselectedSubtrees() {
+        assertEquals(List.of("version", "name"), FranchiseJsonWriter.embeddedProjection(FranchiseFields.parse("id,name")));
+        assertEquals(List.of("version", "branches._id", "branches.products.stock"),
+                FranchiseJsonWriter.embeddedProjection(FranchiseFields.parse("branches.id,branches.products.stock")));
+        assertEquals(List.of("version", "name", "branches._id", "branches.name", "branches.products"),
+                FranchiseJsonWriter.embeddedProjection(FranchiseFields.ALL));
+    }
+
+    private RawBsonDocument toRaw(FranchiseDocument document) {
+        Document stored = new Document();
+        converter.write(document, stored);
+        return new RawBsonDocument(stored, new DocumentCodec());
+    }
+
+    static FranchiseDocument franchiseDocument(int branchCount, int productsPerBranch) {
+        List<BranchDocument> branches = new ArrayList<>();
+        for (int b = 0; b < branchCount; b++) {
+            List<ProductDocument> products = new ArrayList<>();
+            for (int p = 0; p < productsPerBranch; p++) {
+                products.add(new ProductDocument("p" + b + "-" + p, "Producto " + p, p * 7 % 50));
+            }
+            branches.add(new BranchDocument("b" + b, "Sucursal " + b, "1", products));
+        }
+        return new FranchiseDocument("1", "Franquicia Test", branches, 3L);
+    }
+}
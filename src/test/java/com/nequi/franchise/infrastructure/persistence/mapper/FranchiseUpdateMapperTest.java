@@ -0,0 +1,106 @@
+package com.nequi.franchise.infrastructure.persistence.mapper;
+
+import com.nequi.franchise.domain.model.Branch;
+import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.Product;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para FranchiseUpdateMapper
+ */
+class FranchiseUpdateMapperTest {
+
+    private FranchiseUpdateMapper franchiseUpdateMapper;
+    private Franchise franchise;
+
+    @BeforeEach
+    void setUp() {
+        ProductMapper productMapper = new ProductMapper();
+        franchiseUpdateMapper = new FranchiseUpdateMapper(new BranchMapper(productMapper), productMapper);
+
+        List<Product> products = new ArrayList<>(List.of(
+                new Product("p1", "Producto 1", 10),
+                new Product("p2", "Producto 2", 20)));
+        List<Branch> branches = new ArrayList<>(List.of(
+                new Branch("b1", "Sucursal 1", products),
+                new Branch("b2", "Sucursal 2", new ArrayList<>())));
+        franchise = new Franchise("1", "Franquicia Test", branches);
+        franchise.setVersion(3L);
+        franchise.startTracking();
+    }
+
+    @Test
+    void testNameChangeSetsOnlyName() {
+        franchise.setName("Nuevo Nombre");
+
+        Document updateObject = franchiseUpdateMapper.toUpdate(franchise).getUpdateObject();
+
+        assertEquals(new Document("name", "Nuevo Nombre"), updateObject.get("$set"));
+        assertFalse(updateObject.containsKey("$push"));
+    }
+
+    @Test
+    void testStockChangeTargetsSingleProduct() {
+        franchise.findBranchById("b1").orElseThrow().findProductById("p2").orElseThrow().updateStock(30);
+
+        Update update = franchiseUpdateMapper.toUpdate(franchise);
+        Document set = (Document) update.getUpdateObject().get("$set");
+
+        assertEquals(1, set.size());
+        assertEquals(30, set.get("branches.$[b0].products.$[b0p0].stock"));
+        assertEquals(2, update.getArrayFilters().size());
+    }
+
+    @Test
+    void testAddedProductIsPushed() {
+        franchise.findBranchById("b2").orElseThrow().addProduct(new Product("p3", "Producto 3", 5));
+
+        Document updateObject = franchiseUpdateMapper.toUpdate(franchise).getUpdateObject();
+
+        assertTrue(((Document) updateObject.get("$push")).containsKey("branches.$[b0].products"));
+        assertFalse(updateObject.containsKey("$set"));
+    }
+
+    @Test
+    void testConflictingProductChangesReplaceOnlyThatBranchProducts() {
+        Branch branch = franchise.findBranchById("b1").orElseThrow();
+        branch.addProduct(new Product("p3", "Producto 3", 5));
+        branch.findProductById("p1").orElseThrow().setName("Renombrado");
+
+        Document updateObject = franchiseUpdateMapper.toUpdate(franchise).getUpdateObject();
+        Document set = (Document) updateObject.get("$set");
+
+        assertTrue(set.containsKey("branches.$[b0].products"));
+        assertFalse(set.containsKey("branches"));
+        assertFalse(updateObject.containsKey("$push"));
+    }
+
+    @Test
+    void testAddedBranchWithNestedChangesReplacesBranches() {
+        franchise.addBranch(new Branch("b3", "Sucursal 3", new ArrayList<>()));
+        franchise.findBranchById("b1").orElseThrow().setName("Renombrada");
+
+        Document set = (Document) franchiseUpdateMapper.toUpdate(franchise).getUpdateObject().get("$set");
+
+        assertTrue(set.containsKey("branches"));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void testRemovedBranchIsPulled() {
+        franchise.removeBranch("b2");
+
+        Document updateObject = franchiseUpdateMapper.toUpdate(franchise).getUpdateObject();
+
+        assertTrue(((Document) updateObject.get("$pull")).containsKey("branches"));
+        assertFalse(updateObject.containsKey("$set"));
+    }
+}
@@ -0,0 +1,353 @@
+package com.nequi.franchise.infrastructure.persistence.repository;
+
+import com.nequi.franchise.domain.model.Branch;
+import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.Franchise.ProductWithBranch;
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.FranchiseJson;
+import com.nequi.franchise.domain.model.PayloadFormat;
+import com.nequi.franchise.domain.model.Product;
+import com.nequi.franchise.domain.port.FranchiseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas unitarias para CachingFranchiseRepository
+ */
+@ExtendWith(MockitoExtension.class)
+class CachingFranchiseRepositoryTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Mock
+    private FranchiseRepository delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong now;
+    private CachingFranchiseRepository repository;
+
+    /**
+     * Cada repositorio registra sus medidores en un registro propio: un gauge queda ligado a la primera
+     * instancia que lo registra, así que reutilizar el registro mediría otra caché
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        now = new AtomicLong();
+        repository = new CachingFranchiseRepository(delegate, 10, 100, TTL, meterRegistry, now::get);
+    }
+
+    @Test
+    void testFindByIdServesCopiesFromCache() {
+        // Given
+        when(delegate.findById("1")).thenReturn(Mono.just(franchise("1", 2)));
+
+        // When
+        Franchise first = repository.findById("1").block();
+        first.setName("Modificada");
+        Franchise second = repository.findById("1").block();
+
+        // Then
+        assertNotSame(first, second);
+        assertEquals("Franquicia 1", second.getName());
+        verify(delegate, times(1)).findById("1");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void testSaveReplacesCachedEntry() {
+        // Given
+        Franchise saved = franchise("1", 1);
+        saved.setName("Guardada");
+        when(delegate.save(any(Franchise.class))).thenReturn(Mono.just(saved));
+
+        // When & Then
+        StepVerifier.create(repository.save(saved).then(repository.findById("1")))
+                .expectNextMatches(franchise -> "Guardada".equals(franchise.getName()))
+                .verifyComplete();
+        verify(delegate, times(0)).findById("1");
+    }
+
+    @Test
+    void testOlderSaveCompletingLastDoesNotReplaceNewerEntry() {
+        // Given
+        Franchise older = franchise("1", 1);
+        older.setName("Version 2");
+        older.setVersion(2L);
+        Franchise newer = franchise("1", 1);
+        newer.setName("Version 3");
+        newer.setVersion(3L);
+        Sinks.One<Franchise> olderWrite = Sinks.one();
+        Sinks.One<Franchise> newerWrite = Sinks.one();
+        when(delegate.save(any(Franchise.class))).thenReturn(olderWrite.asMono(), newerWrite.asMono());
+
+        // When
+        StepVerifier olderSave = StepVerifier.create(repository.save(older)).expectNext(older).expectComplete().verifyLater();
+        StepVerifier newerSave = StepVerifier.create(repository.save(newer)).expectNext(newer).expectComplete().verifyLater();
+        newerWrite.tryEmitValue(newer);
+        olderWrite.tryEmitValue(older);
+        newerSave.verify();
+        olderSave.verify();
+
+        // Then
+        StepVerifier.create(repository.findById("1"))
+                .expectNextMatches(franchise -> "Version 3".equals(franchise.getName()) && franchise.getVersion() == 3L)
+                .verifyComplete();
+        verify(delegate, times(0)).findById("1");
+    }
+
+    @Test
+    void testExistsByIdAlwaysDelegates() {
+        // Given
+        when(delegate.findById("1")).thenReturn(Mono.just(franchise("1", 1)));
+        when(delegate.existsById("1")).thenReturn(Mono.just(false));
+
+        // When
+        repository.findById("1").block();
+
+        // Then
+        StepVerifier.create(repository.existsById("1"))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void testStockUpdateInvalidatesEntry() {
+        // Given
+        when(delegate.findById("1")).thenReturn(Mono.just(franchise("1", 1)));
+        when(delegate.updateProductStock("1", "b0", "p0", 5, null)).thenReturn(Mono.just(2L));
+
+        // When
+        repository.findById("1").block();
+        repository.updateProductStock("1", "b0", "p0", 5, null).block();
+        repository.findById("1").block();
+
+        // Then
+        verify(delegate, times(2)).findById("1");
+    }
+
+    @Test
+    void testVersionConflictInvalidatesEntry() {
+        // Given
+        Franchise franchise = franchise("1", 1);
+        when(delegate.findById("1")).thenReturn(Mono.just(franchise));
+        when(delegate.save(any(Franchise.class))).thenReturn(Mono.error(new OptimisticLockingFailureException("conflicto")));
+
+        // When
+        repository.findById("1").block();
+        StepVerifier.create(repository.save(franchise))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+        repository.findById("1").block();
+
+        // Then
+        verify(delegate, times(2)).findById("1");
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedWhenWeightExceeded() {
+        // Given: cada franquicia pesa 1 + 4 sucursales + 4 productos = 9 y el límite es 20
+        meterRegistry = new SimpleMeterRegistry();
+        repository = new CachingFranchiseRepository(delegate, 10, 20, TTL, meterRegistry, now::get);
+        when(delegate.findById("1")).thenReturn(Mono.just(franchise("1", 4)));
+        when(delegate.findById("2")).thenReturn(Mono.just(franchise("2", 4)));
+        when(delegate.findById("3")).thenReturn(Mono.just(franchise("3", 4)));
+
+        // When
+        repository.findById("1").block();
+        repository.findById("2").block();
+        repository.findById("1").block();
+        repository.findById("3").block();
+        repository.findById("1").block();
+        repository.findById("2").block();
+
+        // Then
+        verify(delegate, times(1)).findById("1");
+        verify(delegate, times(2)).findById("2");
+        assertEquals(2.0, meterRegistry.get("cache.evictions").tag("cause", "size").counter().count());
+    }
+
+    @Test
+    void testEvictsWhenEntryCountExceeded() {
+        // Given
+        meterRegistry = new SimpleMeterRegistry();
+        repository = new CachingFranchiseRepository(delegate, 1, 100, TTL, meterRegistry, now::get);
+        when(delegate.findById("1")).thenReturn(Mono.just(franchise("1", 1)));
+        when(delegate.findById("2")).thenReturn(Mono.just(franchise("2", 1)));
+
+        // When
+        repository.findById("1").block();
+        repository.findById("2").block();
+        repository.findById("1").block();
+
+        // Then
+        verify(delegate, times(2)).findById("1");
+        assertEquals(1.0, meterRegistry.get("cache.size").gauge().value());
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        // Given
+        when(delegate.findById("1")).thenReturn(Mono.just(franchise("1", 1)));
+
+        // When
+        repository.findById("1").block();
+        now.addAndGet(TTL.toNanos() + 1);
+        repository.findById("1").block();
+
+        // Then
+        verify(delegate, times(2)).findById("1");
+        assertEquals(1.0, meterRegistry.get("cache.evictions").tag("cause", "expired").counter().count());
+    }
+
+    @Test
+    void testSerializedReadIsCachedPerFormat() {
+        // Given
+        FranchiseJson json = new FranchiseJson(new byte[]{1}, 1L);
+        FranchiseJson cbor = new FranchiseJson(new byte[]{2}, 1L);
+        when(delegate.findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON)).thenReturn(Mono.just(json));
+        when(delegate.findJsonById("1", FranchiseFields.ALL, PayloadFormat.CBOR)).thenReturn(Mono.just(cbor));
+
+        // When
+        repository.findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON).block();
+        repository.findJsonById("1", FranchiseFields.ALL, PayloadFormat.CBOR).block();
+        FranchiseJson cachedJson = repository.findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON).block();
+        FranchiseJson cachedCbor = repository.findJsonById("1", FranchiseFields.ALL, PayloadFormat.CBOR).block();
+
+        // Then
+        assertSame(json, cachedJson);
+        assertSame(cbor, cachedCbor);
+        verify(delegate, times(1)).findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON);
+        verify(delegate, times(1)).findJsonById("1", FranchiseFields.ALL, PayloadFormat.CBOR);
+        assertEquals(1L, repository.findVersionById("1").block());
+        verify(delegate, never()).findVersionById("1");
+    }
+
+    @Test
+    void testSerializedReadWithFieldSelectionIsNotCached() {
+        // Given
+        FranchiseFields fields = FranchiseFields.parse("name");
+        when(delegate.findJsonById("1", fields, PayloadFormat.JSON)).thenReturn(Mono.just(new FranchiseJson(new byte[]{1}, 1L)));
+
+        // When
+        repository.findJsonById("1", fields, PayloadFormat.JSON).block();
+        repository.findJsonById("1", fields, PayloadFormat.JSON).block();
+
+        // Then
+        verify(delegate, times(2)).findJsonById("1", fields, PayloadFormat.JSON);
+    }
+
+    @Test
+    void testStockUpdateInvalidatesSerializedEntry() {
+        // Given
+        when(delegate.findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON))
+                .thenReturn(Mono.just(new FranchiseJson(new byte[]{1}, 1L)), Mono.just(new FranchiseJson(new byte[]{2}, 2L)));
+        when(delegate.updateProductStock("1", "b0", "p0", 5, null)).thenReturn(Mono.just(2L));
+
+        // When
+        repository.findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON).block();
+        repository.updateProductStock("1", "b0", "p0", 5, null).block();
+        FranchiseJson reread = repository.findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON).block();
+
+        // Then
+        verify(delegate, times(2)).findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON);
+        assertEquals(2L, reread.getVersion());
+        assertEquals(2L, repository.findVersionById("1").block());
+    }
+
+    @Test
+    void testAggregateReadKeepsSerializedFormsOfSameVersion() {
+        // Given
+        when(delegate.findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON))
+                .thenReturn(Mono.just(new FranchiseJson(new byte[]{1}, 1L)));
+        when(delegate.findById("1")).thenReturn(Mono.just(franchise("1", 1)));
+
+        // When
+        repository.findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON).block();
+        repository.findById("1").block();
+        repository.findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON).block();
+        repository.findById("1").block();
+
+        // Then
+        verify(delegate, times(1)).findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON);
+        verify(delegate, times(1)).findById("1");
+    }
+
+    @Test
+    void testMaxStockIsServedFromCachedEntry() {
+        // Given
+        Franchise franchise = franchiseWithTiedStock("1");
+        ProductWithBranch fromStore = new ProductWithBranch(new Product("b", "Producto b", 7), "Sucursal");
+        when(delegate.findProductsWithMaxStockByBranch("1")).thenReturn(Flux.just(fromStore));
+        when(delegate.findById("1")).thenReturn(Mono.just(franchise));
+
+        // When & Then
+        StepVerifier.create(repository.findProductsWithMaxStockByBranch("1"))
+                .expectNext(fromStore)
+                .verifyComplete();
+        repository.findById("1").block();
+        StepVerifier.create(repository.findProductsWithMaxStockByBranch("1"))
+                .expectNextMatches(pwb -> "b".equals(pwb.getProduct().getId()) && "Sucursal".equals(pwb.getBranchName()))
+                .verifyComplete();
+        verify(delegate, times(1)).findProductsWithMaxStockByBranch("1");
+    }
+
+    @Test
+    void testTopProductsLoadsEntryOnMissAndServesFromIt() {
+        // Given
+        when(delegate.findById("1")).thenReturn(Mono.just(franchiseWithTiedStock("1")));
+
+        // When & Then
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(repository.findTopProductsByBranch("1", 2).map(pwb -> pwb.getProduct().getId()))
+                    .expectNext("b", "c")
+                    .verifyComplete();
+        }
+        verify(delegate, times(1)).findById("1");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").counter().count());
+    }
+
+    private Franchise franchiseWithTiedStock(String id) {
+        Branch branch = new Branch("b0", "Sucursal", new ArrayList<>(List.of(
+                new Product("a", "Producto a", 5), new Product("b", "Producto b", 7), new Product("c", "Producto c", 7))));
+        Franchise franchise = new Franchise(id, "Franquicia " + id, new ArrayList<>(List.of(branch)));
+        franchise.setVersion(1L);
+        return franchise;
+    }
+
+    private Franchise franchise(String id, int branchCount) {
+        List<Branch> branches = new ArrayList<>();
+        for (int i = 0; i < branchCount; i++) {
+            branches.add(new Branch("b" + i, "Sucursal " + i,
+                    new ArrayList<>(List.of(new Product("p" + i, "Producto " + i, i)))));
+        }
+        Franchise franchise = new Franchise(id, "Franquicia " + id, branches);
+        franchise.setVersion(1L);
+        franchise.startTracking();
+        return franchise;
+    }
+}
@@ -0,0 +1,96 @@
+package com.nequi.franchise.infrastructure.persistence.repository;
+
+import com.nequi.franchise.domain.model.StockAdjustment;
+import com.nequi.franchise.domain.model.StockAdjustmentItemResult;
+import com.nequi.franchise.domain.model.StockAdjustmentResult;
+import com.nequi.franchise.infrastructure.persistence.document.FranchiseDocument;
+import com.nequi.franchise.infrastructure.persistence.json.FranchiseJsonWriter;
+import com.nequi.franchise.infrastructure.persistence.mapper.FranchiseMapper;
+import com.nequi.franchise.infrastructure.persistence.mapper.FranchiseUpdateMapper;
+import com.nequi.franchise.infrastructure.persistence.mapper.ProductMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas unitarias para las guardas de stock de ReactiveFranchiseRepository
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveFranchiseRepositoryTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private FranchiseMapper franchiseMapper;
+
+    @Mock
+    private FranchiseUpdateMapper franchiseUpdateMapper;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private FranchiseJsonWriter franchiseJsonWriter;
+
+    private ReactiveFranchiseRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ReactiveFranchiseRepository(mongoTemplate, franchiseMapper, franchiseUpdateMapper,
+                productMapper, franchiseJsonWriter);
+    }
+
+    @Test
+    void testIncrementThatWouldOverflowIsRejected() {
+        // Given
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class),
+                eq(FranchiseDocument.class))).thenReturn(Mono.empty());
+        when(mongoTemplate.exists(any(Query.class), eq(FranchiseDocument.class))).thenReturn(Mono.just(true));
+
+        // When & Then
+        StepVerifier.create(repository.adjustProductStock("1", "1", "1", 1, null))
+                .expectNextMatches(result -> result.getStatus() == StockAdjustmentResult.Status.STOCK_OVERFLOW)
+                .verifyComplete();
+        assertTrue(query.getValue().getQueryObject().toJson().contains("\"$lte\": " + (Integer.MAX_VALUE - 1)));
+    }
+
+    @Test
+    void testBatchGuardsTheHighestPrefix() {
+        // Given
+        List<StockAdjustment> adjustments = List.of(
+                new StockAdjustment("1", "1", "1", 5),
+                new StockAdjustment("1", "1", "1", 7),
+                new StockAdjustment("1", "1", "1", -4));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class),
+                eq(FranchiseDocument.class))).thenReturn(Mono.empty());
+        when(mongoTemplate.exists(any(Query.class), eq(FranchiseDocument.class))).thenReturn(Mono.just(true));
+
+        // When & Then
+        StepVerifier.create(repository.adjustProductStocks("1", adjustments))
+                .expectNextMatches(result -> result.getStatus() == StockAdjustmentItemResult.Status.STOCK_OVERFLOW)
+                .expectNextMatches(result -> result.getStatus() == StockAdjustmentItemResult.Status.STOCK_OVERFLOW)
+                .expectNextMatches(result -> result.getStatus() == StockAdjustmentItemResult.Status.INSUFFICIENT_STOCK)
+                .verifyComplete();
+        // El lote exige margen para el mayor prefijo (+12), no solo para el neto (+8)
+        assertTrue(query.getAllValues().get(0).getQueryObject().toJson().contains("\"$lte\": " + (Integer.MAX_VALUE - 12)));
+    }
+}
@@ -0,0 +1,122 @@
+package com.nequi.franchise.infrastructure.persistence.repository;
+
+import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.FranchiseJson;
+import com.nequi.franchise.domain.model.PayloadFormat;
+import com.nequi.franchise.domain.port.FranchiseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas unitarias para SingleFlightFranchiseRepository
+ */
+@ExtendWith(MockitoExtension.class)
+class SingleFlightFranchiseRepositoryTest {
+
+    @Mock
+    private FranchiseRepository delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlightFranchiseRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        repository = new SingleFlightFranchiseRepository(delegate, meterRegistry);
+    }
+
+    @Test
+    void testConcurrentReadsShareOneQuery() {
+        // Given
+        Sinks.One<Franchise> pending = Sinks.one();
+        when(delegate.findById("1")).thenReturn(pending.asMono());
+        List<Franchise> received = new ArrayList<>();
+
+        // When
+        repository.findById("1").subscribe(received::add);
+        repository.findById("1").subscribe(received::add);
+        repository.findById("1").subscribe(received::add);
+        pending.tryEmitValue(new Franchise("1", "Franquicia Test", new ArrayList<>()));
+
+        // Then
+        verify(delegate, times(1)).findById("1");
+        assertEquals(3, received.size());
+        assertNotSame(received.get(0), received.get(1));
+        assertNotSame(received.get(1), received.get(2));
+        assertEquals(1.0, meterRegistry.get("franchise.reads.single-flight").tag("result", "executed").counter().count());
+        assertEquals(2.0, meterRegistry.get("franchise.reads.single-flight").tag("result", "deduplicated").counter().count());
+        assertEquals(0.0, meterRegistry.get("franchise.reads.in-flight").gauge().value());
+    }
+
+    @Test
+    void testConcurrentSerializedReadsShareOneQueryPerFormat() {
+        // Given
+        Sinks.One<FranchiseJson> pendingJson = Sinks.one();
+        Sinks.One<FranchiseJson> pendingCbor = Sinks.one();
+        when(delegate.findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON)).thenReturn(pendingJson.asMono());
+        when(delegate.findJsonById("1", FranchiseFields.ALL, PayloadFormat.CBOR)).thenReturn(pendingCbor.asMono());
+        List<FranchiseJson> received = new ArrayList<>();
+
+        // When
+        repository.findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON).subscribe(received::add);
+        repository.findJsonById("1", FranchiseFields.parse("id,name,branches"), PayloadFormat.JSON).subscribe(received::add);
+        repository.findJsonById("1", FranchiseFields.ALL, PayloadFormat.CBOR).subscribe(received::add);
+        pendingJson.tryEmitValue(new FranchiseJson(new byte[]{1}, 1L));
+        pendingCbor.tryEmitValue(new FranchiseJson(new byte[]{2}, 1L));
+
+        // Then
+        verify(delegate, times(1)).findJsonById("1", FranchiseFields.ALL, PayloadFormat.JSON);
+        verify(delegate, times(1)).findJsonById("1", FranchiseFields.ALL, PayloadFormat.CBOR);
+        assertEquals(3, received.size());
+        assertSame(received.get(0), received.get(1));
+        assertEquals(1.0, meterRegistry.get("franchise.reads.single-flight").tag("result", "deduplicated").counter().count());
+        assertEquals(0.0, meterRegistry.get("franchise.reads.in-flight").gauge().value());
+    }
+
+    @Test
+    void testReadAfterCompletionQueriesAgain() {
+        // Given
+        when(delegate.findById("1")).thenReturn(Mono.just(new Franchise("1", "Franquicia Test", new ArrayList<>())));
+
+        // When
+        repository.findById("1").block();
+        repository.findById("1").block();
+
+        // Then
+        verify(delegate, times(2)).findById("1");
+        assertEquals(0.0, meterRegistry.get("franchise.reads.single-flight").tag("result", "deduplicated").counter().count());
+    }
+
+    @Test
+    void testFailedQueryIsNotReused() {
+        // Given
+        when(delegate.findById("1"))
+                .thenReturn(Mono.error(new RuntimeException("Error de conexion")))
+                .thenReturn(Mono.just(new Franchise("1", "Franquicia Test", new ArrayList<>())));
+
+        // When
+        repository.findById("1").onErrorResume(error -> Mono.empty()).block();
+        Franchise franchise = repository.findById("1").block();
+
+        // Then
+        assertEquals("Franquicia Test", franchise.getName());
+        verify(delegate, times(2)).findById("1");
+    }
+}
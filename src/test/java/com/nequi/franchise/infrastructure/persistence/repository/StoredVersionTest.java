@@ -0,0 +1,33 @@
+package com.nequi.franchise.infrastructure.persistence.repository;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pruebas unitarias para StoredVersion
+ */
+class StoredVersionTest {
+
+    @Test
+    void testVersionZeroAlsoMatchesMissingField() {
+        Document criteria = StoredVersion.matching(Criteria.where("id").is("1"), 0L).getCriteriaObject();
+
+        assertEquals(new Document("$in", Arrays.asList(0L, null)), criteria.get("version"));
+        assertEquals(BsonDocument.parse("{\"version\": {\"$in\": [{\"$numberLong\": \"0\"}, null]}}"),
+                StoredVersion.filter(0L).toBsonDocument());
+    }
+
+    @Test
+    void testOtherVersionsMatchExactly() {
+        Document criteria = StoredVersion.matching(Criteria.where("id").is("1"), 4L).getCriteriaObject();
+
+        assertEquals(4L, criteria.get("version"));
+        assertEquals(BsonDocument.parse("{\"version\": {\"$numberLong\": \"4\"}}"), StoredVersion.filter(4L).toBsonDocument());
+    }
+}
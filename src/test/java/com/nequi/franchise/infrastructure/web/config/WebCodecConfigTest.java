@@ -0,0 +1,54 @@
+package com.nequi.franchise.infrastructure.web.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.nequi.franchise.infrastructure.web.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pruebas unitarias para los codecs binarios de WebCodecConfig
+ */
+class WebCodecConfigTest {
+
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+    @Test
+    void testCborEncoderCollectsFluxIntoArray() {
+        // Given
+        WebCodecConfig.CollectingCborEncoder encoder = new WebCodecConfig.CollectingCborEncoder(cborMapper);
+        Flux<ProductDto> products = Flux.just(new ProductDto("p1", "Producto 1", 5), new ProductDto("p2", "Producto 2", 7));
+
+        // When & Then
+        StepVerifier.create(DataBufferUtils.join(encoder.encode(products, DefaultDataBufferFactory.sharedInstance,
+                        ResolvableType.forClass(ProductDto.class), MediaType.APPLICATION_CBOR, Map.of())))
+                .assertNext(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    JsonNode decoded = read(bytes);
+                    assertEquals(2, decoded.size());
+                    assertEquals("p1", decoded.get(0).get("id").asText());
+                    assertEquals(7, decoded.get(1).get("stock").asInt());
+                })
+                .verifyComplete();
+    }
+
+    private JsonNode read(byte[] bytes) {
+        try {
+            return cborMapper.readTree(bytes);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
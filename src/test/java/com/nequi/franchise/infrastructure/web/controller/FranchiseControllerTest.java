@@ -1,26 +1,53 @@
 package com.nequi.franchise.infrastructure.web.controller;
 
 import com.nequi.franchise.application.usecase.FranchiseUseCase;
+import com.nequi.franchise.domain.exception.InvalidRequestException;
+import com.nequi.franchise.domain.exception.PreconditionFailedException;
 import com.nequi.franchise.domain.model.Branch;
 import com.nequi.franchise.domain.model.Franchise;
+import com.nequi.franchise.domain.model.FranchiseFields;
+import com.nequi.franchise.domain.model.FranchiseJson;
+import com.nequi.franchise.domain.model.FranchiseSummary;
+import com.nequi.franchise.domain.model.FranchiseSummaryPage;
+import com.nequi.franchise.domain.model.PayloadFormat;
 import com.nequi.franchise.domain.model.Product;
+import com.nequi.franchise.domain.model.StockAdjustmentResult;
+import com.nequi.franchise.domain.model.StockChange;
+import com.nequi.franchise.domain.model.StockUpdate;
+import com.nequi.franchise.domain.model.StockUpdateResult;
 import com.nequi.franchise.infrastructure.web.dto.BranchDto;
 import com.nequi.franchise.infrastructure.web.dto.FranchiseDto;
+import com.nequi.franchise.infrastructure.web.dto.FranchiseSummaryDto;
+import com.nequi.franchise.infrastructure.web.dto.FranchiseSummaryPageDto;
 import com.nequi.franchise.infrastructure.web.dto.ProductDto;
+import com.nequi.franchise.infrastructure.web.dto.StockAdjustmentResultDto;
+import com.nequi.franchise.infrastructure.web.dto.StockChangeDto;
+import com.nequi.franchise.infrastructure.web.dto.StockUpdateDto;
+import com.nequi.franchise.infrastructure.web.dto.StockUpdateResultDto;
 import com.nequi.franchise.infrastructure.web.mapper.FranchiseWebMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -39,13 +66,13 @@ class FranchiseControllerTest {
 
     @BeforeEach
     void setUp() {
-        franchiseController = new FranchiseController(franchiseUseCase, franchiseWebMapper);
+        franchiseController = new FranchiseController(franchiseUseCase, franchiseWebMapper, Duration.ofSeconds(15));
     }
 
     @Test
     void testCreateFranchise() {
         // Given
-        FranchiseDto franchiseDto = new FranchiseDto("Franquicia Test", List.of());
+        FranchiseDto franchiseDto = new FranchiseDto(null, "Franquicia Test", List.of());
         Franchise franchise = new Franchise("Franquicia Test", List.of());
         Franchise savedFranchise = new Franchise("1", "Franquicia Test", List.of());
         FranchiseDto savedFranchiseDto = new FranchiseDto("1", "Franquicia Test", List.of());
@@ -61,20 +88,42 @@ class FranchiseControllerTest {
     }
 
     @Test
-    void testGetAllFranchises() {
+    void testGetFranchises() {
         // Given
-        Franchise franchise1 = new Franchise("1", "Franquicia 1", List.of());
-        Franchise franchise2 = new Franchise("2", "Franquicia 2", List.of());
-        FranchiseDto franchiseDto1 = new FranchiseDto("1", "Franquicia 1", List.of());
-        FranchiseDto franchiseDto2 = new FranchiseDto("2", "Franquicia 2", List.of());
+        FranchiseSummaryPage page = new FranchiseSummaryPage(List.of(
+                new FranchiseSummary("1", "Franquicia 1", 2),
+                new FranchiseSummary("2", "Franquicia 2", 0)), "2");
+        FranchiseSummaryPageDto pageDto = new FranchiseSummaryPageDto(List.of(
+                new FranchiseSummaryDto("1", "Franquicia 1", 2),
+                new FranchiseSummaryDto("2", "Franquicia 2", 0)), "Mg");
         
-        when(franchiseUseCase.getAllFranchises()).thenReturn(Flux.just(franchise1, franchise2));
-        when(franchiseWebMapper.toDto(franchise1)).thenReturn(franchiseDto1);
-        when(franchiseWebMapper.toDto(franchise2)).thenReturn(franchiseDto2);
+        when(franchiseWebMapper.decodeCursor("MQ")).thenReturn("1");
+        when(franchiseUseCase.getFranchiseSummaries("1", 2)).thenReturn(Mono.just(page));
+        when(franchiseWebMapper.toDto(page)).thenReturn(pageDto);
 
         // When & Then
-        StepVerifier.create(franchiseController.getAllFranchises())
-                .expectNext(franchiseDto1, franchiseDto2)
+        StepVerifier.create(franchiseController.getFranchises("MQ", 2))
+                .expectNext(pageDto)
+                .verifyComplete();
+    }
+
+    @Test
+    void testStreamFranchises() {
+        // Given
+        FranchiseSummary summary1 = new FranchiseSummary("1", "Franquicia 1", 2);
+        FranchiseSummary summary2 = new FranchiseSummary("2", "Franquicia 2", 0);
+        FranchiseSummaryDto summaryDto1 = new FranchiseSummaryDto("1", "Franquicia 1", 2);
+        FranchiseSummaryDto summaryDto2 = new FranchiseSummaryDto("2", "Franquicia 2", 0);
+        
+        when(franchiseUseCase.streamFranchiseSummaries(null)).thenReturn(Flux.just(summary1, summary2));
+        when(franchiseWebMapper.toDto(summary1)).thenReturn(summaryDto1);
+        when(franchiseWebMapper.toDto(summary2)).thenReturn(summaryDto2);
+
+        // When & Then
+        StepVerifier.create(franchiseController.streamFranchises(null), 1)
+                .expectNext(summaryDto1)
+                .thenRequest(1)
+                .expectNext(summaryDto2)
                 .verifyComplete();
     }
 
@@ -82,27 +131,116 @@ class FranchiseControllerTest {
     void testGetFranchiseById() {
         // Given
         String franchiseId = "1";
-        Franchise franchise = new Franchise(franchiseId, "Franquicia Test", List.of());
-        FranchiseDto franchiseDto = new FranchiseDto(franchiseId, "Franquicia Test", List.of());
+        byte[] json = "{\"id\":\"1\",\"name\":\"Franquicia Test\",\"branches\":[]}".getBytes(StandardCharsets.UTF_8);
         
-        when(franchiseUseCase.getFranchiseById(franchiseId)).thenReturn(Mono.just(franchise));
-        when(franchiseWebMapper.toDto(franchise)).thenReturn(franchiseDto);
+        when(franchiseUseCase.getFranchiseJsonById(franchiseId, FranchiseFields.ALL, PayloadFormat.JSON))
+                .thenReturn(Mono.just(new FranchiseJson(json, 3L)));
 
         // When & Then
-        StepVerifier.create(franchiseController.getFranchiseById(franchiseId))
-                .expectNextMatches(response -> response.getStatusCode().is2xxSuccessful())
+        StepVerifier.create(franchiseController.getFranchiseById(franchiseId, null, null, null))
+                .expectNextMatches(response -> response.getStatusCode().is2xxSuccessful()
+                        && response.getBody() == json
+                        && "\"3\"".equals(response.getHeaders().getETag()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetFranchiseByIdNegotiatesBinaryFormat() {
+        // Given
+        String franchiseId = "1";
+        byte[] cbor = new byte[] {(byte) 0xbf, (byte) 0xff};
+        
+        when(franchiseUseCase.getFranchiseJsonById(franchiseId, FranchiseFields.ALL, PayloadFormat.CBOR))
+                .thenReturn(Mono.just(new FranchiseJson(cbor, 3L)));
+
+        // When & Then
+        StepVerifier.create(franchiseController.getFranchiseById(franchiseId, null, null,
+                        "application/json;q=0.5, application/cbor"))
+                .expectNextMatches(response -> response.getBody() == cbor
+                        && MediaType.APPLICATION_CBOR.equals(response.getHeaders().getContentType())
+                        && response.getHeaders().getVary().contains(HttpHeaders.ACCEPT)
+                        && "\"3-cbor\"".equals(response.getHeaders().getETag()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetFranchiseByIdJsonETagDoesNotMatchCbor() {
+        // Given
+        byte[] cbor = new byte[] {(byte) 0xbf, (byte) 0xff};
+        
+        when(franchiseUseCase.getFranchiseVersionById("1")).thenReturn(Mono.just(3L));
+        when(franchiseUseCase.getFranchiseJsonById("1", FranchiseFields.ALL, PayloadFormat.CBOR))
+                .thenReturn(Mono.just(new FranchiseJson(cbor, 3L)));
+
+        // When & Then
+        StepVerifier.create(franchiseController.getFranchiseById("1", null, "\"3\"", "application/cbor"))
+                .expectNextMatches(response -> response.getStatusCode() == HttpStatus.OK
+                        && response.getBody() == cbor
+                        && "\"3-cbor\"".equals(response.getHeaders().getETag()))
                 .verifyComplete();
     }
 
+    @Test
+    void testPayloadFormatNegotiation() {
+        assertEquals(PayloadFormat.JSON, PayloadFormats.negotiate(null));
+        assertEquals(PayloadFormat.JSON, PayloadFormats.negotiate("*/*"));
+        assertEquals(PayloadFormat.JSON, PayloadFormats.negotiate("text/html"));
+        assertEquals(PayloadFormat.JSON, PayloadFormats.negotiate("no es un tipo;;"));
+        assertEquals(PayloadFormat.SMILE, PayloadFormats.negotiate("application/x-jackson-smile, */*;q=0.1"));
+        assertEquals(PayloadFormat.CBOR, PayloadFormats.negotiate("application/smile;q=0.9, application/cbor"));
+        assertEquals(PayloadFormat.JSON, PayloadFormats.negotiate("application/cbor;q=0.2, application/json"));
+    }
+
+    @Test
+    void testGetFranchiseByIdWithSparseFields() {
+        // Given
+        String franchiseId = "1";
+        byte[] json = "{\"name\":\"Franquicia Test\"}".getBytes(StandardCharsets.UTF_8);
+        
+        when(franchiseUseCase.getFranchiseJsonById(eq(franchiseId), any(FranchiseFields.class), eq(PayloadFormat.JSON)))
+                .thenReturn(Mono.just(new FranchiseJson(json, 3L)));
+
+        // When & Then
+        StepVerifier.create(franchiseController.getFranchiseById(franchiseId, "name", null, null))
+                .expectNextMatches(response -> response.getBody() == json)
+                .verifyComplete();
+        verify(franchiseUseCase).getFranchiseJsonById(eq(franchiseId), argThat(fields -> fields.name()
+                && !fields.id() && !fields.branches()), eq(PayloadFormat.JSON));
+    }
+
+    @Test
+    void testGetFranchiseByIdRejectsUnknownField() {
+        // When & Then
+        StepVerifier.create(franchiseController.getFranchiseById("1", "name,owner", null, null))
+                .expectError(InvalidRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void testGetFranchiseByIdNotModified() {
+        // Given
+        String franchiseId = "1";
+        
+        when(franchiseUseCase.getFranchiseVersionById(franchiseId)).thenReturn(Mono.just(3L));
+
+        // When & Then
+        StepVerifier.create(franchiseController.getFranchiseById(franchiseId, null, "W/\"2\", \"3\"", null))
+                .expectNextMatches(response -> response.getStatusCode() == HttpStatus.NOT_MODIFIED
+                        && response.getBody() == null
+                        && "\"3\"".equals(response.getHeaders().getETag()))
+                .verifyComplete();
+        verify(franchiseUseCase, never()).getFranchiseJsonById(anyString(), any(), any());
+    }
+
     @Test
     void testGetFranchiseByIdNotFound() {
         // Given
         String franchiseId = "1";
         
-        when(franchiseUseCase.getFranchiseById(franchiseId)).thenReturn(Mono.empty());
+        when(franchiseUseCase.getFranchiseJsonById(franchiseId, FranchiseFields.ALL, PayloadFormat.JSON)).thenReturn(Mono.empty());
 
         // When & Then
-        StepVerifier.create(franchiseController.getFranchiseById(franchiseId))
+        StepVerifier.create(franchiseController.getFranchiseById(franchiseId, null, null, null))
                 .expectNextMatches(response -> response.getStatusCode().is4xxClientError())
                 .verifyComplete();
     }
@@ -116,30 +254,75 @@ class FranchiseControllerTest {
         Franchise updatedFranchise = new Franchise(franchiseId, newName, List.of());
         FranchiseDto updatedFranchiseDto = new FranchiseDto(franchiseId, newName, List.of());
         
-        when(franchiseUseCase.updateFranchiseName(franchiseId, newName)).thenReturn(Mono.just(updatedFranchise));
+        when(franchiseUseCase.updateFranchiseName(franchiseId, newName, null)).thenReturn(Mono.just(updatedFranchise));
         when(franchiseWebMapper.toDto(updatedFranchise)).thenReturn(updatedFranchiseDto);
 
         // When & Then
-        StepVerifier.create(franchiseController.updateFranchiseName(franchiseId, newName))
+        StepVerifier.create(franchiseController.updateFranchiseName(franchiseId, newName, null, null))
                 .expectNextMatches(response -> response.getStatusCode().is2xxSuccessful())
                 .verifyComplete();
     }
 
+    @Test
+    void testUpdateFranchiseNameWithIfMatch() {
+        // Given
+        String franchiseId = "1";
+        String newName = "Nuevo Nombre";
+        Franchise updatedFranchise = new Franchise(franchiseId, newName, List.of());
+        updatedFranchise.setVersion(4L);
+        FranchiseDto updatedFranchiseDto = new FranchiseDto(franchiseId, newName, List.of());
+        
+        when(franchiseUseCase.updateFranchiseName(franchiseId, newName, 3L)).thenReturn(Mono.just(updatedFranchise));
+        when(franchiseWebMapper.toDto(updatedFranchise)).thenReturn(updatedFranchiseDto);
+
+        // When & Then
+        StepVerifier.create(franchiseController.updateFranchiseName(franchiseId, newName, "\"3\"", null))
+                .expectNextMatches(response -> response.getStatusCode().is2xxSuccessful()
+                        && "\"4\"".equals(response.getHeaders().getETag()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testUpdateFranchiseNameWithBinaryFormatIfMatch() {
+        // Given
+        Franchise updatedFranchise = new Franchise("1", "Nuevo Nombre", List.of());
+        updatedFranchise.setVersion(4L);
+        
+        when(franchiseUseCase.updateFranchiseName("1", "Nuevo Nombre", 3L)).thenReturn(Mono.just(updatedFranchise));
+
+        // When & Then
+        StepVerifier.create(franchiseController.updateFranchiseName("1", "Nuevo Nombre", "\"3-smile\"", "return=minimal"))
+                .expectNextMatches(response -> response.getStatusCode() == HttpStatus.NO_CONTENT)
+                .verifyComplete();
+        StepVerifier.create(franchiseController.updateFranchiseName("1", "Nuevo Nombre", "\"3-xml\"", null))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+    }
+
+    @Test
+    void testUpdateFranchiseNameWithWeakIfMatchFails() {
+        // When & Then
+        StepVerifier.create(franchiseController.updateFranchiseName("1", "Nuevo Nombre", "W/\"3\"", null))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+        verify(franchiseUseCase, never()).updateFranchiseName(anyString(), anyString(), any());
+    }
+
     @Test
     void testAddBranchToFranchise() {
         // Given
         String franchiseId = "1";
-        BranchDto branchDto = new BranchDto("Sucursal Test", List.of());
+        BranchDto branchDto = new BranchDto(null, "Sucursal Test", List.of());
         Branch branch = new Branch("Sucursal Test", List.of());
         Franchise franchise = new Franchise(franchiseId, "Franquicia Test", List.of());
         FranchiseDto franchiseDto = new FranchiseDto(franchiseId, "Franquicia Test", List.of());
         
         when(franchiseWebMapper.toDomain(branchDto)).thenReturn(branch);
-        when(franchiseUseCase.addBranchToFranchise(franchiseId, branch)).thenReturn(Mono.just(franchise));
+        when(franchiseUseCase.addBranchToFranchise(franchiseId, branch, null)).thenReturn(Mono.just(franchise));
         when(franchiseWebMapper.toDto(franchise)).thenReturn(franchiseDto);
 
         // When & Then
-        StepVerifier.create(franchiseController.addBranchToFranchise(franchiseId, branchDto))
+        StepVerifier.create(franchiseController.addBranchToFranchise(franchiseId, branchDto, null, null))
                 .expectNextMatches(response -> response.getStatusCode().is2xxSuccessful())
                 .verifyComplete();
     }
@@ -149,17 +332,17 @@ class FranchiseControllerTest {
         // Given
         String franchiseId = "1";
         String branchId = "1";
-        ProductDto productDto = new ProductDto("Producto Test", 10);
+        ProductDto productDto = new ProductDto(null, "Producto Test", 10);
         Product product = new Product("Producto Test", 10);
         Franchise franchise = new Franchise(franchiseId, "Franquicia Test", List.of());
         FranchiseDto franchiseDto = new FranchiseDto(franchiseId, "Franquicia Test", List.of());
         
         when(franchiseWebMapper.toDomain(productDto)).thenReturn(product);
-        when(franchiseUseCase.addProductToBranch(franchiseId, branchId, product)).thenReturn(Mono.just(franchise));
+        when(franchiseUseCase.addProductToBranch(franchiseId, branchId, product, null)).thenReturn(Mono.just(franchise));
         when(franchiseWebMapper.toDto(franchise)).thenReturn(franchiseDto);
 
         // When & Then
-        StepVerifier.create(franchiseController.addProductToBranch(franchiseId, branchId, productDto))
+        StepVerifier.create(franchiseController.addProductToBranch(franchiseId, branchId, productDto, null, null))
                 .expectNextMatches(response -> response.getStatusCode().is2xxSuccessful())
                 .verifyComplete();
     }
@@ -174,13 +357,112 @@ class FranchiseControllerTest {
         Franchise franchise = new Franchise(franchiseId, "Franquicia Test", List.of());
         FranchiseDto franchiseDto = new FranchiseDto(franchiseId, "Franquicia Test", List.of());
         
-        when(franchiseUseCase.updateProductStock(franchiseId, branchId, productId, newStock)).thenReturn(Mono.just(franchise));
+        when(franchiseUseCase.updateProductStock(franchiseId, branchId, productId, newStock, null)).thenReturn(Mono.just(franchise));
         when(franchiseWebMapper.toDto(franchise)).thenReturn(franchiseDto);
 
         // When & Then
-        StepVerifier.create(franchiseController.updateProductStock(franchiseId, branchId, productId, newStock))
+        StepVerifier.create(franchiseController.updateProductStock(franchiseId, branchId, productId, newStock, null, null))
                 .expectNextMatches(response -> response.getStatusCode().is2xxSuccessful())
                 .verifyComplete();
     }
-}
 
+    @Test
+    void testUpdateProductStockWithMinimalReturn() {
+        // Given
+        when(franchiseUseCase.updateProductStockAndGetVersion("1", "1", "1", 50, null)).thenReturn(Mono.just(8L));
+
+        // When & Then
+        StepVerifier.create(franchiseController.updateProductStock("1", "1", "1", 50, null, "return=minimal"))
+                .expectNextMatches(response -> response.getStatusCode() == HttpStatus.NO_CONTENT
+                        && response.getBody() == null
+                        && "\"8\"".equals(response.getHeaders().getETag())
+                        && "return=minimal".equals(response.getHeaders().getFirst("Preference-Applied")))
+                .verifyComplete();
+        verify(franchiseUseCase, never()).updateProductStock(any(), any(), any(), any(), any());
+        verify(franchiseWebMapper, never()).toDto(any(Franchise.class));
+    }
+
+    @Test
+    void testAdjustProductStock() {
+        // Given
+        StockAdjustmentResult result = StockAdjustmentResult.adjusted(7);
+        StockAdjustmentResultDto resultDto = new StockAdjustmentResultDto("1", 7, "ADJUSTED");
+        
+        when(franchiseUseCase.adjustProductStock("1", "1", "1", -3, null)).thenReturn(Mono.just(result));
+        when(franchiseWebMapper.toDto("1", result)).thenReturn(resultDto);
+
+        // When & Then
+        StepVerifier.create(franchiseController.adjustProductStock("1", "1", "1", -3, null))
+                .expectNextMatches(response -> response.getStatusCode().is2xxSuccessful()
+                        && response.getBody() == resultDto)
+                .verifyComplete();
+    }
+
+    @Test
+    void testAdjustProductStockInsufficientStock() {
+        // Given
+        StockAdjustmentResult result = StockAdjustmentResult.insufficientStock();
+        StockAdjustmentResultDto resultDto = new StockAdjustmentResultDto("1", null, "INSUFFICIENT_STOCK");
+        
+        when(franchiseUseCase.adjustProductStock("1", "1", "1", -30, null)).thenReturn(Mono.just(result));
+        when(franchiseWebMapper.toDto("1", result)).thenReturn(resultDto);
+
+        // When & Then
+        StepVerifier.create(franchiseController.adjustProductStock("1", "1", "1", -30, null))
+                .expectNextMatches(response -> response.getStatusCode().value() == 409)
+                .verifyComplete();
+    }
+
+    @Test
+    void testAdjustProductStockOverflow() {
+        // Given
+        StockAdjustmentResult result = StockAdjustmentResult.stockOverflow();
+        StockAdjustmentResultDto resultDto = new StockAdjustmentResultDto("1", null, "STOCK_OVERFLOW");
+        
+        when(franchiseUseCase.adjustProductStock("1", "1", "1", Integer.MAX_VALUE, null)).thenReturn(Mono.just(result));
+        when(franchiseWebMapper.toDto("1", result)).thenReturn(resultDto);
+
+        // When & Then
+        StepVerifier.create(franchiseController.adjustProductStock("1", "1", "1", Integer.MAX_VALUE, null))
+                .expectNextMatches(response -> response.getStatusCode().value() == 409)
+                .verifyComplete();
+    }
+
+    @Test
+    void testStreamStockChangesSendsEventsAndHeartbeats() {
+        // Given
+        StockChange change = new StockChange("1", "1", "1", 12);
+        StockChangeDto changeDto = new StockChangeDto("1", "1", 12);
+        
+        when(franchiseUseCase.watchStockChanges("1")).thenReturn(Flux.just(change).concatWith(Flux.never()));
+        when(franchiseWebMapper.toDto(change)).thenReturn(changeDto);
+
+        // When & Then
+        StepVerifier.withVirtualTime(() -> franchiseController.streamStockChanges("1"))
+                .expectNextMatches(event -> FranchiseController.STOCK_EVENT.equals(event.event())
+                        && event.data() == changeDto)
+                .thenAwait(Duration.ofSeconds(15))
+                .expectNextMatches(event -> FranchiseController.HEARTBEAT_COMMENT.equals(event.comment())
+                        && event.data() == null)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void testUpdateProductStocks() {
+        // Given
+        List<StockUpdateDto> stockUpdateDtos = List.of(new StockUpdateDto("1", "1", "1", 50));
+        StockUpdate stockUpdate = new StockUpdate("1", "1", "1", 50);
+        StockUpdateResult result = new StockUpdateResult(stockUpdate, StockUpdateResult.Status.UPDATED);
+        StockUpdateResultDto resultDto = new StockUpdateResultDto("1", "1", "1", 50, "UPDATED");
+        
+        when(franchiseWebMapper.toDomain(stockUpdateDtos)).thenReturn(List.of(stockUpdate));
+        when(franchiseUseCase.updateProductStocks(List.of(stockUpdate))).thenReturn(Flux.just(result));
+        when(franchiseWebMapper.toDto(result)).thenReturn(resultDto);
+
+        // When & Then
+        StepVerifier.create(franchiseController.updateProductStocks(stockUpdateDtos))
+                .expectNext(resultDto)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,73 @@
+package com.nequi.franchise.infrastructure.web.controller;
+
+import com.nequi.franchise.domain.exception.ConflictException;
+import com.nequi.franchise.domain.exception.InvalidRequestException;
+import com.nequi.franchise.domain.exception.NotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.test.StepVerifier;
+
+/**
+ * Pruebas unitarias para RestExceptionHandler
+ */
+class RestExceptionHandlerTest {
+
+    private final RestExceptionHandler handler = new RestExceptionHandler();
+    private final ServerHttpRequest request = MockServerHttpRequest.get("/api/v1/franchises/1").build();
+
+    @Test
+    void testNotFoundMapsTo404() {
+        // When & Then
+        StepVerifier.create(handler.handleDomainException(NotFoundException.franchise("1"), request))
+                .expectNextMatches(response -> response.getStatusCode() == HttpStatus.NOT_FOUND
+                        && response.getBody().getStatus() == 404
+                        && "NOT_FOUND".equals(response.getBody().getCode())
+                        && "Franquicia no encontrada con ID: 1".equals(response.getBody().getMessage())
+                        && "/api/v1/franchises/1".equals(response.getBody().getPath()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testConflictMapsTo409() {
+        // When & Then
+        StepVerifier.create(handler.handleDomainException(new ConflictException("conflicto"), request))
+                .expectNextMatches(response -> response.getStatusCode() == HttpStatus.CONFLICT
+                        && "CONFLICT".equals(response.getBody().getCode()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testInvalidRequestMapsTo422() {
+        // When & Then
+        StepVerifier.create(handler.handleDomainException(new InvalidRequestException("k debe estar entre 1 y 100"), request))
+                .expectNextMatches(response -> response.getStatusCode() == HttpStatus.UNPROCESSABLE_ENTITY
+                        && "INVALID_REQUEST".equals(response.getBody().getCode()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testResponseStatusKeepsItsStatus() {
+        // Given
+        ResponseStatusException ex = new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cuerpo ilegible");
+
+        // When & Then
+        StepVerifier.create(handler.handleResponseStatus(ex, request))
+                .expectNextMatches(response -> response.getStatusCode() == HttpStatus.BAD_REQUEST
+                        && "BAD_REQUEST".equals(response.getBody().getCode())
+                        && "Cuerpo ilegible".equals(response.getBody().getMessage()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testUnexpectedErrorMapsTo500WithoutDetails() {
+        // When & Then
+        StepVerifier.create(handler.handleException(new IllegalStateException("detalle interno"), request))
+                .expectNextMatches(response -> response.getStatusCode() == HttpStatus.INTERNAL_SERVER_ERROR
+                        && RestExceptionHandler.INTERNAL_ERROR_CODE.equals(response.getBody().getCode())
+                        && !response.getBody().getMessage().contains("detalle interno"))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,148 @@
+package com.nequi.franchise.infrastructure.web.socket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nequi.franchise.domain.model.StockAdjustment;
+import com.nequi.franchise.domain.model.StockAdjustmentItemResult;
+import com.nequi.franchise.domain.port.FranchiseService;
+import com.nequi.franchise.infrastructure.web.mapper.BranchWebMapper;
+import com.nequi.franchise.infrastructure.web.mapper.FranchiseWebMapper;
+import com.nequi.franchise.infrastructure.web.mapper.ProductWebMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas unitarias para StockIngestionHandler
+ */
+@ExtendWith(MockitoExtension.class)
+class StockIngestionHandlerTest {
+
+    private static final DefaultDataBufferFactory BUFFERS = DefaultDataBufferFactory.sharedInstance;
+
+    @Mock
+    private FranchiseService franchiseService;
+
+    @Mock
+    private WebSocketSession session;
+
+    private ObjectMapper objectMapper;
+
+    private StockIngestionHandler handler;
+
+    private List<String> sent;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        ProductWebMapper productWebMapper = new ProductWebMapper();
+        FranchiseWebMapper franchiseWebMapper = new FranchiseWebMapper(new BranchWebMapper(productWebMapper), productWebMapper);
+        handler = new StockIngestionHandler(franchiseService, franchiseWebMapper, objectMapper, 2, Duration.ofSeconds(5));
+        sent = new ArrayList<>();
+        when(session.textMessage(anyString())).thenAnswer(invocation -> text(invocation.getArgument(0)));
+        when(session.send(any())).thenAnswer(invocation -> {
+            Publisher<WebSocketMessage> messages = invocation.getArgument(0);
+            return Flux.from(messages)
+                    .doOnNext(message -> sent.add(message.getPayloadAsText()))
+                    .then();
+        });
+    }
+
+    @Test
+    void testHandleAppliesDeltasInBatchesAndAcknowledgesEachOne() throws Exception {
+        // Given
+        when(session.receive()).thenReturn(Flux.just(
+                text("{\"id\":\"a\",\"franchiseId\":\"1\",\"branchId\":\"1\",\"productId\":\"1\",\"delta\":-2}"),
+                text("{\"id\":\"b\",\"franchiseId\":\"1\",\"branchId\":\"1\",\"productId\":\"2\",\"delta\":-50}"),
+                text("{\"id\":\"c\",\"franchiseId\":\"1\",\"branchId\":\"1\",\"productId\":\"1\",\"delta\":4}")));
+        when(franchiseService.adjustProductStocks(anyList())).thenAnswer(invocation -> {
+            List<StockAdjustment> adjustments = invocation.getArgument(0);
+            return Flux.fromIterable(adjustments)
+                    .map(adjustment -> adjustment.getDelta() < -10
+                            ? new StockAdjustmentItemResult(adjustment, StockAdjustmentItemResult.Status.INSUFFICIENT_STOCK)
+                            : new StockAdjustmentItemResult(adjustment, StockAdjustmentItemResult.Status.ADJUSTED,
+                                    10 + adjustment.getDelta()));
+        });
+
+        // When & Then
+        StepVerifier.create(handler.handle(session))
+                .verifyComplete();
+        verify(franchiseService, times(2)).adjustProductStocks(anyList());
+        assertEquals(3, sent.size());
+        JsonNode first = objectMapper.readTree(sent.get(0));
+        assertEquals("a", first.get("id").asText());
+        assertEquals("ADJUSTED", first.get("status").asText());
+        assertEquals(8, first.get("stock").asInt());
+        JsonNode second = objectMapper.readTree(sent.get(1));
+        assertEquals("b", second.get("id").asText());
+        assertEquals("INSUFFICIENT_STOCK", second.get("status").asText());
+        assertTrue(second.get("stock").isNull());
+        assertEquals("c", objectMapper.readTree(sent.get(2)).get("id").asText());
+    }
+
+    @Test
+    void testHandleAcknowledgesUnreadableMessagesAsInvalid() throws Exception {
+        // Given
+        when(session.receive()).thenReturn(Flux.just(
+                text("no es json"),
+                text("{\"id\":\"a\",\"franchiseId\":\"1\",\"delta\":\"muchos\"}")));
+        when(franchiseService.adjustProductStocks(anyList())).thenAnswer(invocation -> {
+            List<StockAdjustment> adjustments = invocation.getArgument(0);
+            return Flux.fromIterable(adjustments)
+                    .map(adjustment -> new StockAdjustmentItemResult(adjustment, StockAdjustmentItemResult.Status.INVALID));
+        });
+
+        // When & Then
+        StepVerifier.create(handler.handle(session))
+                .verifyComplete();
+        assertEquals(2, sent.size());
+        JsonNode notJson = objectMapper.readTree(sent.get(0));
+        assertEquals("INVALID", notJson.get("status").asText());
+        assertTrue(notJson.get("id").isNull());
+        JsonNode wrongType = objectMapper.readTree(sent.get(1));
+        assertEquals("INVALID", wrongType.get("status").asText());
+        assertEquals("a", wrongType.get("id").asText());
+    }
+
+    @Test
+    void testHandleKeepsConnectionOpenWhenBatchFails() throws Exception {
+        // Given
+        when(session.receive()).thenReturn(Flux.just(
+                text("{\"id\":\"a\",\"franchiseId\":\"1\",\"branchId\":\"1\",\"productId\":\"1\",\"delta\":1}")));
+        when(franchiseService.adjustProductStocks(anyList()))
+                .thenReturn(Flux.error(new RuntimeException("Error de conexion")));
+
+        // When & Then
+        StepVerifier.create(handler.handle(session))
+                .verifyComplete();
+        JsonNode ack = objectMapper.readTree(sent.get(0));
+        assertEquals("a", ack.get("id").asText());
+        assertEquals("FAILED", ack.get("status").asText());
+    }
+
+    private static WebSocketMessage text(String payload) {
+        return new WebSocketMessage(WebSocketMessage.Type.TEXT, BUFFERS.wrap(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+}